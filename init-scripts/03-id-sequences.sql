@@ -0,0 +1,36 @@
+-- Sequências de ids para o gerador pooled-lo do Hibernate
+-- Este script será executado após o 02-seed-data.sql e pode ser reaplicado em bancos existentes
+
+-- As colunas BIGSERIAL já possuem sequências (<tabela>_id_seq). Elas passam a avançar em blocos
+-- de 50 (finance.id.allocation-size): cada nextval reserva um bloco de ids para a aplicação.
+-- INSERTs manuais que usam o DEFAULT da coluna continuam funcionando, apenas consomem um bloco.
+ALTER SEQUENCE clients_id_seq INCREMENT BY 50;
+ALTER SEQUENCE merchants_id_seq INCREMENT BY 50;
+ALTER SEQUENCE accounts_id_seq INCREMENT BY 50;
+ALTER SEQUENCE transactions_id_seq INCREMENT BY 50;
+
+-- A tabela users é criada pelo Hibernate (ddl-auto). Em bancos onde ela foi criada com IDENTITY,
+-- o id passa a ser fornecido pela aplicação (DROP IDENTITY remove também a sequência implícita)
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'users' AND column_name = 'id' AND is_identity = 'YES') THEN
+        ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+    END IF;
+END $$;
+
+CREATE SEQUENCE IF NOT EXISTS users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+
+-- Alinha as sequências com os ids já existentes: o próximo bloco começa após o maior id
+SELECT setval('clients_id_seq', COALESCE((SELECT MAX(id) FROM clients), 0) + 1, false);
+SELECT setval('merchants_id_seq', COALESCE((SELECT MAX(id) FROM merchants), 0) + 1, false);
+SELECT setval('accounts_id_seq', COALESCE((SELECT MAX(id) FROM accounts), 0) + 1, false);
+SELECT setval('transactions_id_seq', COALESCE((SELECT MAX(id) FROM transactions), 0) + 1, false);
+
+DO $$
+BEGIN
+    IF to_regclass('users') IS NOT NULL THEN
+        PERFORM setval('users_id_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 1, false);
+    END IF;
+END $$;
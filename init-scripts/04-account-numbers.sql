@@ -0,0 +1,7 @@
+-- Sequência de blocos de números de conta
+-- Este script será executado após o 03-id-sequences.sql
+
+-- Cada nextval reserva um bloco de 1000 números (finance.account-number.block-size); a aplicação
+-- distribui os números do bloco em memória e acrescenta o dígito verificador (Luhn).
+-- Começa em 1000000000 para que todos os números tenham 10 dígitos antes do verificador.
+CREATE SEQUENCE IF NOT EXISTS account_number_seq START WITH 1000000000 INCREMENT BY 1000;
@@ -0,0 +1,7 @@
+-- Identificador de lote das transações
+-- Este script será executado após o 04-account-numbers.sql
+
+-- As transações criadas por um mesmo payout compartilham o batch_id
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS batch_id VARCHAR(255);
+
+CREATE INDEX IF NOT EXISTS idx_transactions_batch_id ON transactions(batch_id);
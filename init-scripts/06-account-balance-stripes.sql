@@ -0,0 +1,19 @@
+-- Saldo particionado (striping) para contas de lojistas com alto volume de créditos
+-- Este script será executado após o 05-transaction-batch-id.sql
+
+-- Número de partições do saldo; NULL indica conta sem striping
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS balance_stripes INTEGER;
+
+-- Cada crédito soma numa partição escolhida ao acaso, sem bloquear a linha da conta.
+-- O saldo da conta é accounts.balance mais a soma das partições; o consolidador periódico
+-- (e os débitos, quando necessário) transferem as partições para accounts.balance
+CREATE SEQUENCE IF NOT EXISTS account_balance_stripes_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS account_balance_stripes (
+    id BIGINT PRIMARY KEY DEFAULT nextval('account_balance_stripes_id_seq'),
+    account_id BIGINT NOT NULL REFERENCES accounts(id),
+    stripe_index INTEGER NOT NULL,
+    balance DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP,
+    CONSTRAINT uk_account_balance_stripes UNIQUE (account_id, stripe_index)
+);
@@ -0,0 +1,22 @@
+-- Chaves de idempotência das operações de depósito, saque e transferência
+-- Este script será executado após o 06-account-balance-stripes.sql
+
+-- Uma linha por (usuário, Idempotency-Key), gravada na mesma transação do lançamento.
+-- A resposta original (TransactionDTO em JSON) é devolvida nas repetições sem acessar as contas
+CREATE SEQUENCE IF NOT EXISTS idempotency_keys_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id BIGINT PRIMARY KEY DEFAULT nextval('idempotency_keys_id_seq'),
+    username VARCHAR(255) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    operation VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    transaction_id VARCHAR(255),
+    response VARCHAR(4000) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_idempotency_keys_username_key UNIQUE (username, idempotency_key)
+);
+
+-- Usado pela limpeza periódica das chaves expiradas
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
@@ -0,0 +1,6 @@
+-- Versão da conta para o modo de lançamento otimista (finance.posting.mode=OPTIMISTIC)
+-- Este script será executado após o 07-idempotency-keys.sql
+
+-- Incrementada a cada alteração de saldo ou de estado. O lançamento otimista lê o saldo sem
+-- bloqueio e só grava se a versão lida ainda for a atual; caso contrário relê e tenta de novo
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- Checkpoint do journal de lançamentos (finance.posting.mode=JOURNAL)
+-- Este script será executado após o 08-account-version.sql
+
+-- Uma linha por nó: última sequência do journal já gravada no banco. Atualizada na mesma
+-- transação que grava os saldos e as transações de cada lote, então após um reinício o journal
+-- reaplica apenas os registros posteriores
+CREATE TABLE IF NOT EXISTS journal_checkpoints (
+    node_id BIGINT PRIMARY KEY,
+    applied_sequence BIGINT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
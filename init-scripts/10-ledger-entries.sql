@@ -0,0 +1,54 @@
+-- Lançamentos contábeis por conta (partidas dobradas)
+-- Este script será executado após o 09-ledger-journal.sql
+
+-- Cada transação concluída gera um débito na conta de origem e um crédito na conta de destino,
+-- na mesma transação que atualiza os saldos. As linhas nunca são alteradas; balance_after é o
+-- saldo da conta logo após o lançamento (NULL para contas com saldo particionado)
+CREATE SEQUENCE IF NOT EXISTS ledger_entries_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS ledger_entries (
+    id BIGINT PRIMARY KEY DEFAULT nextval('ledger_entries_id_seq'),
+    account_id BIGINT NOT NULL REFERENCES accounts(id),
+    transaction_id BIGINT NOT NULL REFERENCES transactions(id),
+    direction VARCHAR(6) NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    balance_after DECIMAL(19, 2),
+    posted_at TIMESTAMP NOT NULL
+);
+
+-- Extratos e histórico leem um intervalo de uma única conta já na ordem do índice
+CREATE INDEX IF NOT EXISTS idx_ledger_entries_account_posted
+    ON ledger_entries(account_id, posted_at, id);
+CREATE INDEX IF NOT EXISTS idx_ledger_entries_transaction_id ON ledger_entries(transaction_id);
+
+-- Carga inicial a partir das transações concluídas, apenas se a tabela ainda estiver vazia.
+-- O saldo após cada lançamento é reconstruído a partir do saldo atual, descontando os
+-- lançamentos posteriores da mesma conta
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM ledger_entries) THEN
+        INSERT INTO ledger_entries (account_id, transaction_id, direction, amount, posted_at)
+        SELECT t.source_account_id, t.id, 'DEBIT', t.amount, COALESCE(t.processed_at, t.created_at)
+        FROM transactions t
+        WHERE t.status = 'COMPLETED' AND t.source_account_id IS NOT NULL
+        UNION ALL
+        SELECT t.destination_account_id, t.id, 'CREDIT', t.amount,
+               COALESCE(t.processed_at, t.created_at)
+        FROM transactions t
+        WHERE t.status = 'COMPLETED' AND t.destination_account_id IS NOT NULL;
+
+        UPDATE ledger_entries e
+        SET balance_after = r.balance_after
+        FROM (
+            SELECT l.id,
+                   a.balance - COALESCE(SUM(CASE l.direction WHEN 'CREDIT' THEN l.amount
+                                                             ELSE -l.amount END)
+                       OVER (PARTITION BY l.account_id ORDER BY l.posted_at DESC, l.id DESC
+                             ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0) AS balance_after
+            FROM ledger_entries l
+            JOIN accounts a ON a.id = l.account_id
+            WHERE a.balance_stripes IS NULL
+        ) r
+        WHERE e.id = r.id;
+    END IF;
+END $$;
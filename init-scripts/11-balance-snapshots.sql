@@ -0,0 +1,24 @@
+-- Saldos diários por conta (extratos com saldo inicial sem ler todo o histórico)
+-- Este script será executado após o 10-ledger-entries.sql
+
+-- Saldo de fechamento de cada conta ao fim do dia, gravado pelo job diário de snapshots.
+-- O saldo em qualquer instante é o último snapshot anterior mais os lançamentos desde então
+CREATE SEQUENCE IF NOT EXISTS account_balance_snapshots_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS account_balance_snapshots (
+    id BIGINT PRIMARY KEY DEFAULT nextval('account_balance_snapshots_id_seq'),
+    account_id BIGINT NOT NULL REFERENCES accounts(id),
+    snapshot_date DATE NOT NULL,
+    closing_balance DECIMAL(19, 2) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_account_balance_snapshots UNIQUE (account_id, snapshot_date)
+);
+
+-- Progresso do job por dia: última conta do último bloco concluído junto com todos os anteriores.
+-- Uma execução interrompida continua a partir dela
+CREATE TABLE IF NOT EXISTS balance_snapshot_runs (
+    snapshot_date DATE PRIMARY KEY,
+    last_account_id BIGINT NOT NULL,
+    completed_at TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
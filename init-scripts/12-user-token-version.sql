@@ -0,0 +1,13 @@
+-- Versão dos tokens de cada usuário (revogação de tokens no modo stateless)
+-- Este script será executado após o 11-balance-snapshots.sql
+
+-- Incrementada a cada logout, desativação ou troca de papéis do usuário. Tokens emitidos com uma
+-- versão anterior deixam de autenticar, inclusive após reiniciar a aplicação.
+-- A tabela users é criada pelo Hibernate (ddl-auto); em bancos onde ela já existe, a coluna é
+-- adicionada aqui com valor padrão para as linhas existentes
+DO $$
+BEGIN
+    IF to_regclass('users') IS NOT NULL THEN
+        ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version BIGINT NOT NULL DEFAULT 0;
+    END IF;
+END $$;
@@ -0,0 +1,19 @@
+-- Registros do journal que não puderam ser gravados (finance.posting.mode=JOURNAL)
+-- Este script será executado após o 12-user-token-version.sql
+
+-- Um lançamento aceito no journal cuja conta deixou de existir antes da gravação é guardado
+-- aqui, na mesma transação que avança o checkpoint, em vez de bloquear os registros seguintes.
+-- As linhas ficam para conciliação manual
+CREATE TABLE IF NOT EXISTS journal_dead_letters (
+    transaction_id VARCHAR(255) PRIMARY KEY,
+    node_id BIGINT NOT NULL,
+    journal_sequence BIGINT NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    source_account_number VARCHAR(255),
+    destination_account_number VARCHAR(255),
+    amount DECIMAL(19, 2) NOT NULL,
+    description VARCHAR(255),
+    processed_at TIMESTAMP NOT NULL,
+    reason VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,8 @@
+-- Execução do job de snapshots por uma única instância de cada vez
+-- Este script será executado após o 13-journal-dead-letters.sql
+
+-- Todas as instâncias executam o job; cada dia é reservado por uma delas (claimed_by) até
+-- claimed_until, prazo renovado a cada bloco gravado. Uma reserva vencida pode ser assumida
+-- por outra instância, que continua a partir de last_account_id
+ALTER TABLE balance_snapshot_runs ADD COLUMN IF NOT EXISTS claimed_by VARCHAR(100);
+ALTER TABLE balance_snapshot_runs ADD COLUMN IF NOT EXISTS claimed_until TIMESTAMP;
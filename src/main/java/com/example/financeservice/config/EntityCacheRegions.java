@@ -0,0 +1,73 @@
+package com.example.financeservice.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.Configuration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.core.env.Environment;
+
+/**
+ * Regiões do cache de segundo nível do Hibernate. Cada região tem o tamanho máximo (entradas) e o
+ * TTL definidos em finance.entity-cache.&lt;nome&gt;.size e .ttl-seconds.
+ */
+public final class EntityCacheRegions {
+
+  public static final String CLIENTS = "clients";
+  public static final String MERCHANTS = "merchants";
+  public static final String USERS = "users";
+  public static final String USER_ROLES = "user-roles";
+
+  // Nome das propriedades da região de resultados do cache de consultas
+  static final String QUERIES = "queries";
+
+  private static final String PREFIX = "finance.entity-cache.";
+
+  private EntityCacheRegions() {
+  }
+
+  /**
+   * Cria o CacheManager JCache com todas as regiões. Cada SessionFactory recebe o seu, com uma
+   * URI própria, porque o Hibernate fecha o CacheManager quando ela é fechada.
+   */
+  static CacheManager cacheManager(Environment environment) {
+    Configuration configuration = ConfigurationBuilder.newConfigurationBuilder()
+        .withCache(CLIENTS, region(environment, CLIENTS, 10_000, 600))
+        .withCache(MERCHANTS, region(environment, MERCHANTS, 10_000, 600))
+        .withCache(USERS, region(environment, USERS, 1_000, 300))
+        .withCache(USER_ROLES, region(environment, USER_ROLES, 1_000, 300))
+        .withCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+            region(environment, QUERIES, 1_000, 300))
+        // Último update de cada tabela: invalida o cache de consultas e nunca pode expirar
+        .withCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                    ResourcePoolsBuilder.heap(1_000))
+                .withExpiry(ExpiryPolicyBuilder.noExpiration())
+                .build())
+        .build();
+
+    EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(
+        EhcacheCachingProvider.class.getName());
+    return provider.getCacheManager(
+        URI.create("urn:finance-service:entity-cache:" + UUID.randomUUID()), configuration);
+  }
+
+  private static CacheConfiguration<Object, Object> region(Environment environment, String name,
+      long defaultSize, long defaultTtlSeconds) {
+    long size = environment.getProperty(PREFIX + name + ".size", Long.class, defaultSize);
+    long ttlSeconds = environment.getProperty(PREFIX + name + ".ttl-seconds", Long.class,
+        defaultTtlSeconds);
+    return CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+            ResourcePoolsBuilder.heap(size))
+        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ttlSeconds)))
+        .build();
+  }
+}
@@ -0,0 +1,55 @@
+package com.example.financeservice.config;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class HibernateConfig {
+
+  /**
+   * Registra o contador de round trips JDBC como StatementInspector do Hibernate.
+   */
+  @Bean
+  public HibernatePropertiesCustomizer statementInspectorCustomizer(
+      JdbcRoundTripCounter roundTripCounter) {
+    return hibernateProperties -> hibernateProperties.put(
+        AvailableSettings.STATEMENT_INSPECTOR, roundTripCounter);
+  }
+
+  /**
+   * Repassa o tamanho do bloco de ids (finance.id.allocation-size) para o PooledSequenceGenerator.
+   */
+  @Bean
+  public HibernatePropertiesCustomizer idAllocationSizeCustomizer(
+      @Value("${finance.id.allocation-size:" + PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE + "}")
+      int allocationSize) {
+    return hibernateProperties -> hibernateProperties.put(
+        PooledSequenceGenerator.ALLOCATION_SIZE_SETTING, allocationSize);
+  }
+
+  /**
+   * Habilita o cache de segundo nível e o cache de consultas (JCache/Ehcache) com as regiões de
+   * EntityCacheRegions. Uma região que falte na configuração impede a aplicação de subir.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "finance.entity-cache.enabled", havingValue = "true",
+      matchIfMissing = true)
+  public HibernatePropertiesCustomizer secondLevelCacheCustomizer(Environment environment) {
+    return hibernateProperties -> {
+      hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+      hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, true);
+      hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+      hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY,
+          MissingCacheStrategy.FAIL.getExternalRepresentation());
+      hibernateProperties.put(ConfigSettings.CACHE_MANAGER,
+          EntityCacheRegions.cacheManager(environment));
+    };
+  }
+}
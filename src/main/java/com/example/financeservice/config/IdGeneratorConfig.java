@@ -0,0 +1,38 @@
+package com.example.financeservice.config;
+
+import com.example.financeservice.id.AccountNumberBlockSource;
+import com.example.financeservice.id.AccountNumberGenerator;
+import com.example.financeservice.id.BlockAccountNumberGenerator;
+import com.example.financeservice.id.SnowflakeIdGenerator;
+import com.example.financeservice.id.TransactionIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Slf4j
+public class IdGeneratorConfig {
+
+  /**
+   * Ids de transação Snowflake. Cada instância da aplicação precisa de um finance.id.node-id
+   * diferente (0 a 1023).
+   */
+  @Bean
+  public TransactionIdGenerator transactionIdGenerator(
+      @Value("${finance.id.node-id:0}") long nodeId) {
+    log.info("Config: Transaction ids generated with Snowflake node id {}", nodeId);
+    return new SnowflakeIdGenerator(nodeId);
+  }
+
+  /**
+   * Números de conta com dígito verificador, alocados em blocos reservados no banco. A aplicação
+   * não sobe se a sequência do banco reservar blocos de outro tamanho.
+   */
+  @Bean
+  public AccountNumberGenerator accountNumberGenerator(AccountNumberBlockSource blockSource,
+      @Value("${finance.account-number.block-size:1000}") int blockSize) {
+    blockSource.checkBlockSize(blockSize);
+    return new BlockAccountNumberGenerator(blockSource, blockSize);
+  }
+}
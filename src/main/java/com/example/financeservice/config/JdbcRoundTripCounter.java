@@ -0,0 +1,28 @@
+package com.example.financeservice.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the JDBC statements Hibernate prepares on the current thread. A JDBC batch is prepared
+ * once, so the count matches the number of statement round trips to the database.
+ */
+@Component
+public class JdbcRoundTripCounter implements StatementInspector {
+
+  private static final ThreadLocal<long[]> STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+
+  @Override
+  public String inspect(String sql) {
+    STATEMENTS.get()[0]++;
+    return sql;
+  }
+
+  /**
+   * Returns the number of statements prepared so far on the current thread. Callers take the
+   * difference between two readings.
+   */
+  public long currentCount() {
+    return STATEMENTS.get()[0];
+  }
+}
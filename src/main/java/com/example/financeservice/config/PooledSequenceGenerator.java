@@ -0,0 +1,33 @@
+package com.example.financeservice.config;
+
+import java.util.Properties;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Sequence generator with a pooled-lo optimizer. Each call to the sequence reserves a block of
+ * {@value #ALLOCATION_SIZE_SETTING} ids, so inserts keep their ids client-side and Hibernate can
+ * batch them. The database sequence must use the same INCREMENT BY as the allocation size.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+  public static final String ALLOCATION_SIZE_SETTING = "finance.id.allocation_size";
+  public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+  @Override
+  public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry)
+      throws MappingException {
+    int allocationSize = ConfigurationHelper.getInt(ALLOCATION_SIZE_SETTING,
+        serviceRegistry.getService(ConfigurationService.class).getSettings(),
+        DEFAULT_ALLOCATION_SIZE);
+
+    parameters.put(INCREMENT_PARAM, String.valueOf(allocationSize));
+    parameters.putIfAbsent(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+    super.configure(type, parameters, serviceRegistry);
+  }
+}
@@ -0,0 +1,12 @@
+package com.example.financeservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita as tarefas agendadas (consolidação dos saldos particionados).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
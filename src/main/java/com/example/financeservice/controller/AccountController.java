@@ -1,17 +1,23 @@
 package com.example.financeservice.controller;
 
+import com.example.financeservice.dto.AccountBalanceDTO;
 import com.example.financeservice.dto.AccountDTO;
+import com.example.financeservice.dto.BalanceAsOfRequestDTO;
 import com.example.financeservice.dto.CreateAccountDTO;
+import com.example.financeservice.dto.CursorPageDTO;
 import com.example.financeservice.model.Account;
 import com.example.financeservice.service.AccountService;
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -31,15 +37,18 @@ public class AccountController {
 
   @GetMapping
   @PreAuthorize("hasRole('ADMIN')")
-  public ResponseEntity<List<AccountDTO>> getAllAccounts() {
-    log.info("API Request: Fetching all accounts");
+  public ResponseEntity<CursorPageDTO<AccountDTO>> getAccounts(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int size) {
+    log.info("API Request: Fetching accounts after cursor: {}, size: {}", cursor, size);
 
     try {
-      List<AccountDTO> accounts = accountService.getAllAccounts();
-      log.info("API Response: Retrieved {} accounts", accounts.size());
-      return ResponseEntity.ok(accounts);
+      CursorPageDTO<AccountDTO> page = accountService.getAccounts(cursor, size);
+      log.info("API Response: Retrieved {} accounts, more: {}", page.getItems().size(),
+          page.isHasMore());
+      return ResponseEntity.ok(page);
     } catch (Exception e) {
-      log.error("API Error: Failed to retrieve all accounts", e);
+      log.error("API Error: Failed to retrieve accounts after cursor: {}", cursor, e);
       throw e;
     }
   }
@@ -76,6 +85,44 @@ public class AccountController {
     }
   }
 
+  @GetMapping("/{accountNumber}/balance")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<AccountBalanceDTO> getBalanceAsOf(
+      @PathVariable String accountNumber,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+
+    log.info("API Request: Fetching balance of account: {} as of {}", accountNumber, asOf);
+
+    try {
+      AccountBalanceDTO balance = accountService.getBalanceAsOf(accountNumber, asOf);
+      log.info("API Response: Retrieved balance of account: {} as of {}", accountNumber, asOf);
+      return ResponseEntity.ok(balance);
+    } catch (Exception e) {
+      log.error("API Error: Failed to retrieve balance of account: {} as of {}", accountNumber,
+          asOf, e);
+      throw e;
+    }
+  }
+
+  @PostMapping("/balances/as-of")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<List<AccountBalanceDTO>> getBalancesAsOf(
+      @Valid @RequestBody BalanceAsOfRequestDTO request) {
+    log.info("API Request: Fetching balances of {} accounts as of {}",
+        request.getAccountNumbers().size(), request.getAsOf());
+
+    try {
+      List<AccountBalanceDTO> balances = accountService.getBalancesAsOf(
+          request.getAccountNumbers(), request.getAsOf());
+      log.info("API Response: Retrieved {} balances as of {}", balances.size(),
+          request.getAsOf());
+      return ResponseEntity.ok(balances);
+    } catch (Exception e) {
+      log.error("API Error: Failed to retrieve balances as of {}", request.getAsOf(), e);
+      throw e;
+    }
+  }
+
   @GetMapping("/client/{clientId}")
   @PreAuthorize("hasRole('ADMIN')")
   public ResponseEntity<List<AccountDTO>> getAccountsByClient(@PathVariable Long clientId) {
@@ -204,4 +251,40 @@ public class AccountController {
       throw e;
     }
   }
+
+  @PutMapping("/{accountNumber}/balance-stripes")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<AccountDTO> enableBalanceStriping(
+      @PathVariable String accountNumber,
+      @RequestParam int stripes) {
+
+    log.info("API Request: Enabling balance striping with {} stripes for account: {}", stripes,
+        accountNumber);
+
+    try {
+      AccountDTO account = accountService.enableBalanceStriping(accountNumber, stripes);
+      log.info("API Response: Balance striping enabled for account: {}", accountNumber);
+      return ResponseEntity.ok(account);
+    } catch (Exception e) {
+      log.error("API Error: Failed to enable balance striping for account: {}", accountNumber, e);
+      throw e;
+    }
+  }
+
+  @DeleteMapping("/{accountNumber}/balance-stripes")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<AccountDTO> disableBalanceStriping(@PathVariable String accountNumber) {
+    log.info("API Request: Disabling balance striping for account: {}", accountNumber);
+
+    try {
+      AccountDTO account = accountService.disableBalanceStriping(accountNumber);
+      log.info("API Response: Balance striping disabled for account: {}, balance: {}",
+          accountNumber, account.getBalance());
+      return ResponseEntity.ok(account);
+    } catch (Exception e) {
+      log.error("API Error: Failed to disable balance striping for account: {}", accountNumber,
+          e);
+      throw e;
+    }
+  }
 }
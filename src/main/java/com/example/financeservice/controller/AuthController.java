@@ -10,6 +10,7 @@ import com.example.financeservice.exception.ResourceNotFoundException;
 import com.example.financeservice.model.User;
 import com.example.financeservice.security.JwtUtils;
 import com.example.financeservice.security.LoginAttemptService;
+import com.example.financeservice.security.TokenAuthenticationCache;
 import com.example.financeservice.service.MetricsService;
 import com.example.financeservice.service.UserService;
 import jakarta.validation.Valid;
@@ -42,6 +43,7 @@ public class AuthController {
   private final LoginAttemptService loginAttemptService;
   private final MetricsService metricsService;
   private final UserService userService;
+  private final TokenAuthenticationCache tokenAuthenticationCache;
 
   @PostMapping("/login")
   public ResponseEntity<Object> login(@RequestBody AuthRequestDTO request) {
@@ -72,7 +74,8 @@ public class AuthController {
 
       // Gerar token JWT
       UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-      String jwt = jwtUtils.generateToken(userDetails);
+      String jwt = jwtUtils.generateToken(userDetails,
+          tokenAuthenticationCache.tokenVersion(userDetails.getUsername()));
 
       // Extrair roles
       String[] roles = userDetails.getAuthorities().stream()
@@ -116,6 +119,21 @@ public class AuthController {
     return ResponseEntity.status(401).body("Não autenticado");
   }
 
+  @PostMapping("/logout")
+  public ResponseEntity<String> logout() {
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+    if (auth == null || !auth.isAuthenticated()) {
+      log.warn("Logout failed: No authenticated user found");
+      return ResponseEntity.status(401).body("Não autenticado");
+    }
+
+    // Revoga todos os tokens já emitidos para o usuário
+    tokenAuthenticationCache.invalidateUserAfterCommit(auth.getName());
+    log.info("User logged out: {}", auth.getName());
+    return ResponseEntity.ok("Logout realizado");
+  }
+
   @PostMapping("/register")
   public ResponseEntity<Map<String, String>> registerUser(
       @Valid @RequestBody RegisterRequestDTO request) {
@@ -1,9 +1,9 @@
 package com.example.financeservice.controller;
 
 import com.example.financeservice.dto.ClientDTO;
+import com.example.financeservice.dto.CursorPageDTO;
 import com.example.financeservice.service.ClientService;
 import jakarta.validation.Valid;
-import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -16,6 +16,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -28,15 +29,18 @@ public class ClientController {
 
   @GetMapping
   @PreAuthorize("hasRole('ADMIN')")
-  public ResponseEntity<List<ClientDTO>> getAllClients() {
-    log.info("API Request: Fetching all clients");
+  public ResponseEntity<CursorPageDTO<ClientDTO>> getClients(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int size) {
+    log.info("API Request: Fetching clients after cursor: {}, size: {}", cursor, size);
 
     try {
-      List<ClientDTO> clients = clientService.getAllClients();
-      log.info("API Response: Retrieved {} clients", clients.size());
-      return ResponseEntity.ok(clients);
+      CursorPageDTO<ClientDTO> page = clientService.getClients(cursor, size);
+      log.info("API Response: Retrieved {} clients, more: {}", page.getItems().size(),
+          page.isHasMore());
+      return ResponseEntity.ok(page);
     } catch (Exception e) {
-      log.error("API Error: Failed to retrieve all clients", e);
+      log.error("API Error: Failed to retrieve clients after cursor: {}", cursor, e);
       throw e;
     }
   }
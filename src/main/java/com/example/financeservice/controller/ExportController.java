@@ -0,0 +1,47 @@
+package com.example.financeservice.controller;
+
+import com.example.financeservice.service.BulkExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/admin/exports")
+@RequiredArgsConstructor
+@Slf4j
+public class ExportController {
+
+  private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+  private final BulkExportService bulkExportService;
+
+  @GetMapping("/{table}")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<StreamingResponseBody> exportTable(
+      @PathVariable BulkExportService.Table table) {
+    log.info("API Request: Exporting table: {}", table);
+
+    try {
+      StreamingResponseBody body = bulkExportService.export(table);
+      return ResponseEntity.ok()
+          .contentType(GZIP)
+          .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+              .filename(table.getFileName())
+              .build()
+              .toString())
+          .body(body);
+    } catch (Exception e) {
+      log.error("API Error: Failed to export table: {}", table, e);
+      throw e;
+    }
+  }
+}
@@ -1,28 +1,42 @@
 package com.example.financeservice.controller;
 
+import com.example.financeservice.dto.BatchTransferRequestDTO;
+import com.example.financeservice.dto.BatchTransferResultDTO;
+import com.example.financeservice.dto.CursorPageDTO;
+import com.example.financeservice.dto.PayoutRequestDTO;
+import com.example.financeservice.dto.PayoutResultDTO;
 import com.example.financeservice.dto.StatementDTO;
 import com.example.financeservice.dto.TransactionDTO;
 import com.example.financeservice.dto.TransferDTO;
+import com.example.financeservice.service.GroupCommitExecutor;
+import com.example.financeservice.service.IdempotencyService;
+import com.example.financeservice.service.StatementExportService;
 import com.example.financeservice.service.TransactionService;
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/transactions")
@@ -31,18 +45,24 @@ import org.springframework.web.bind.annotation.RestController;
 public class TransactionController {
 
   private final TransactionService transactionService;
+  private final IdempotencyService idempotencyService;
+  private final GroupCommitExecutor groupCommitExecutor;
+  private final StatementExportService statementExportService;
 
   @GetMapping
   @PreAuthorize("hasRole('ADMIN')")
-  public ResponseEntity<List<TransactionDTO>> getAllTransactions() {
-    log.info("API Request: Fetching all transactions");
+  public ResponseEntity<CursorPageDTO<TransactionDTO>> getTransactions(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int size) {
+    log.info("API Request: Fetching transactions after cursor: {}, size: {}", cursor, size);
 
     try {
-      List<TransactionDTO> transactions = transactionService.getAllTransactions();
-      log.info("API Response: Retrieved {} transactions", transactions.size());
-      return ResponseEntity.ok(transactions);
+      CursorPageDTO<TransactionDTO> page = transactionService.getTransactions(cursor, size);
+      log.info("API Response: Retrieved {} transactions, more: {}", page.getItems().size(),
+          page.isHasMore());
+      return ResponseEntity.ok(page);
     } catch (Exception e) {
-      log.error("API Error: Failed to retrieve all transactions", e);
+      log.error("API Error: Failed to retrieve transactions after cursor: {}", cursor, e);
       throw e;
     }
   }
@@ -122,6 +142,29 @@ public class TransactionController {
     }
   }
 
+  @GetMapping("/account/{accountNumber}/history")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<CursorPageDTO<TransactionDTO>> getTransactionsByAccountAfterCursor(
+      @PathVariable String accountNumber,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int size) {
+
+    log.info("API Request: Fetching transactions for account: {} after cursor: {}, size: {}",
+        accountNumber, cursor, size);
+
+    try {
+      CursorPageDTO<TransactionDTO> page = transactionService.getTransactionsByAccountAfterCursor(
+          accountNumber, cursor, size);
+      log.info("API Response: Retrieved {} transactions for account: {}, more: {}",
+          page.getItems().size(), accountNumber, page.isHasMore());
+      return ResponseEntity.ok(page);
+    } catch (Exception e) {
+      log.error("API Error: Failed to retrieve transactions for account: {} after cursor: {}",
+          accountNumber, cursor, e);
+      throw e;
+    }
+  }
+
   @GetMapping("/account/{accountNumber}/statement")
   @PreAuthorize("hasRole('ADMIN')")
   public ResponseEntity<StatementDTO> getAccountStatement(
@@ -145,15 +188,50 @@ public class TransactionController {
     }
   }
 
+  @GetMapping("/account/{accountNumber}/statement/export")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<StreamingResponseBody> exportAccountStatement(
+      @PathVariable String accountNumber,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+      @RequestParam(defaultValue = "NDJSON") StatementExportService.Format format) {
+
+    log.info("API Request: Exporting statement for account: {} from {} to {} as {}",
+        accountNumber, startDate, endDate, format);
+
+    try {
+      StreamingResponseBody body = statementExportService.export(accountNumber, startDate,
+          endDate, format);
+      return ResponseEntity.ok()
+          .contentType(MediaType.parseMediaType(format.getContentType()))
+          .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+              .filename("statement-" + accountNumber + "." + format.getExtension())
+              .build()
+              .toString())
+          .body(body);
+    } catch (Exception e) {
+      log.error("API Error: Failed to export statement for account: {} from {} to {}",
+          accountNumber, startDate, endDate, e);
+      throw e;
+    }
+  }
+
   @PostMapping("/transfer")
   @PreAuthorize("hasRole('ADMIN')")
-  public ResponseEntity<TransactionDTO> transfer(@Valid @RequestBody TransferDTO transferDTO) {
+  public ResponseEntity<TransactionDTO> transfer(
+      @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false)
+      String idempotencyKey,
+      @Valid @RequestBody TransferDTO transferDTO) {
     log.info("API Request: Processing transfer of {} from account: {} to account: {}",
         transferDTO.getAmount(), transferDTO.getSourceAccountNumber(),
         transferDTO.getDestinationAccountNumber());
 
     try {
-      TransactionDTO transaction = transactionService.transfer(transferDTO);
+      TransactionDTO transaction = idempotencyService.execute(idempotencyKey, "transfer",
+          transferDTO, () -> groupCommitExecutor.execute(
+              List.of(transferDTO.getSourceAccountNumber(),
+                  transferDTO.getDestinationAccountNumber()),
+              () -> transactionService.transfer(transferDTO)));
       log.info("API Response: Transfer successful, transaction ID: {}, amount: {}, status: {}",
           transaction.getTransactionId(), transaction.getAmount(), transaction.getStatus());
       return new ResponseEntity<>(transaction, HttpStatus.CREATED);
@@ -165,9 +243,58 @@ public class TransactionController {
     }
   }
 
+  @PostMapping("/transfer/batch")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<BatchTransferResultDTO> transferBatch(
+      @Valid @RequestBody BatchTransferRequestDTO request) {
+    log.info("API Request: Processing batch of {} transfers in {} mode",
+        request.getTransfers().size(), request.getMode());
+
+    try {
+      BatchTransferResultDTO result = transactionService.transferBatch(request);
+      log.info("API Response: Transfer batch processed, committed: {}, succeeded: {}, failed: {}",
+          result.isCommitted(), result.getSucceeded(), result.getFailed());
+
+      // 201 when every item was posted, 200 when a best-effort batch posted only part of it and
+      // 422 when an all-or-nothing batch was rejected; the body always carries per-item results
+      HttpStatus status;
+      if (!result.isCommitted()) {
+        status = HttpStatus.UNPROCESSABLE_ENTITY;
+      } else if (result.getFailed() > 0) {
+        status = HttpStatus.OK;
+      } else {
+        status = HttpStatus.CREATED;
+      }
+      return new ResponseEntity<>(result, status);
+    } catch (Exception e) {
+      log.error("API Error: Transfer batch of {} items failed", request.getTransfers().size(), e);
+      throw e;
+    }
+  }
+
+  @PostMapping("/payout")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<PayoutResultDTO> payout(@Valid @RequestBody PayoutRequestDTO request) {
+    log.info("API Request: Processing payout from account: {} to {} destinations",
+        request.getSourceAccountNumber(), request.getPayouts().size());
+
+    try {
+      PayoutResultDTO result = transactionService.payout(request);
+      log.info("API Response: Payout successful, batch ID: {}, total: {}, transactions: {}",
+          result.getBatchId(), result.getTotalAmount(), result.getTransactions().size());
+      return new ResponseEntity<>(result, HttpStatus.CREATED);
+    } catch (Exception e) {
+      log.error("API Error: Payout failed from account: {} to {} destinations",
+          request.getSourceAccountNumber(), request.getPayouts().size(), e);
+      throw e;
+    }
+  }
+
   @PostMapping("/deposit")
   @PreAuthorize("hasRole('ADMIN')")
   public ResponseEntity<TransactionDTO> deposit(
+      @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false)
+      String idempotencyKey,
       @RequestParam String accountNumber,
       @RequestParam BigDecimal amount,
       @RequestParam(required = false) String description) {
@@ -175,7 +302,10 @@ public class TransactionController {
     log.info("API Request: Processing deposit of {} to account: {}", amount, accountNumber);
 
     try {
-      TransactionDTO transaction = transactionService.deposit(accountNumber, amount, description);
+      TransactionDTO transaction = idempotencyService.execute(idempotencyKey, "deposit",
+          Arrays.asList(accountNumber, amount, description),
+          () -> groupCommitExecutor.execute(List.of(accountNumber),
+              () -> transactionService.deposit(accountNumber, amount, description)));
       log.info("API Response: Deposit successful, transaction ID: {}, amount: {}, status: {}",
           transaction.getTransactionId(), transaction.getAmount(), transaction.getStatus());
       return new ResponseEntity<>(transaction, HttpStatus.CREATED);
@@ -188,6 +318,8 @@ public class TransactionController {
   @PostMapping("/withdraw")
   @PreAuthorize("hasRole('ADMIN')")
   public ResponseEntity<TransactionDTO> withdraw(
+      @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false)
+      String idempotencyKey,
       @RequestParam String accountNumber,
       @RequestParam BigDecimal amount,
       @RequestParam(required = false) String description) {
@@ -195,7 +327,10 @@ public class TransactionController {
     log.info("API Request: Processing withdrawal of {} from account: {}", amount, accountNumber);
 
     try {
-      TransactionDTO transaction = transactionService.withdraw(accountNumber, amount, description);
+      TransactionDTO transaction = idempotencyService.execute(idempotencyKey, "withdraw",
+          Arrays.asList(accountNumber, amount, description),
+          () -> groupCommitExecutor.execute(List.of(accountNumber),
+              () -> transactionService.withdraw(accountNumber, amount, description)));
       log.info("API Response: Withdrawal successful, transaction ID: {}, amount: {}, status: {}",
           transaction.getTransactionId(), transaction.getAmount(), transaction.getStatus());
       return new ResponseEntity<>(transaction, HttpStatus.CREATED);
@@ -2,6 +2,8 @@ package com.example.financeservice.controller;
 
 
 import com.example.financeservice.dto.auth.UserProfileUpdateDTO;
+import com.example.financeservice.dto.auth.UserRolesUpdateDTO;
+import com.example.financeservice.dto.auth.UserStatusUpdateDTO;
 import com.example.financeservice.security.SecurityService;
 import com.example.financeservice.service.UserService;
 import jakarta.validation.Valid;
@@ -9,6 +11,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -41,4 +44,37 @@ public class UserController {
       return ResponseEntity.badRequest().body(e.getMessage());
     }
   }
+
+  @PutMapping("/{id}/status")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<Void> updateUserStatus(@PathVariable Long id,
+      @Valid @RequestBody UserStatusUpdateDTO statusDTO) {
+    log.info("API Request: Updating status of user with ID: {} to enabled: {}", id,
+        statusDTO.getEnabled());
+
+    try {
+      userService.updateUserStatus(id, statusDTO.getEnabled());
+      log.info("API Response: Successfully updated status of user with ID: {}", id);
+      return ResponseEntity.noContent().build();
+    } catch (Exception e) {
+      log.error("API Error: Failed to update status of user with ID: {}", id, e);
+      throw e;
+    }
+  }
+
+  @PutMapping("/{id}/roles")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<Void> updateUserRoles(@PathVariable Long id,
+      @Valid @RequestBody UserRolesUpdateDTO rolesDTO) {
+    log.info("API Request: Updating roles of user with ID: {} to {}", id, rolesDTO.getRoles());
+
+    try {
+      userService.updateUserRoles(id, rolesDTO.getRoles());
+      log.info("API Response: Successfully updated roles of user with ID: {}", id);
+      return ResponseEntity.noContent().build();
+    } catch (Exception e) {
+      log.error("API Error: Failed to update roles of user with ID: {}", id, e);
+      throw e;
+    }
+  }
 }
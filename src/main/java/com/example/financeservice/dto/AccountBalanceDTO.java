@@ -0,0 +1,21 @@
+package com.example.financeservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceDTO {
+
+  private String accountNumber;
+  private LocalDateTime asOf;
+  // Balance stripes included
+  private BigDecimal balance;
+}
@@ -10,7 +10,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class AccountDTO {
@@ -21,6 +21,7 @@ public class AccountDTO {
   private BigDecimal balance;
   private BigDecimal availableLimit;
   private Account.AccountStatus status;
+  private Integer balanceStripes; // null when the balance is not striped
   private LocalDateTime createdAt;
 
   // Owner information
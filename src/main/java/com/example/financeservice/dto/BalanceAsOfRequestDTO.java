@@ -0,0 +1,28 @@
+package com.example.financeservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceAsOfRequestDTO {
+
+  public static final int MAX_ACCOUNTS = 1000;
+
+  @NotEmpty(message = "At least one account number is required")
+  @Size(max = MAX_ACCOUNTS, message = "A request accepts at most " + MAX_ACCOUNTS + " accounts")
+  private List<String> accountNumbers;
+
+  @NotNull(message = "asOf is required")
+  private LocalDateTime asOf;
+}
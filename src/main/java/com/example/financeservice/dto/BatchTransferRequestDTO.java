@@ -0,0 +1,33 @@
+package com.example.financeservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferRequestDTO {
+
+  public static final int MAX_TRANSFERS = 1000;
+
+  @Builder.Default
+  private Mode mode = Mode.ALL_OR_NOTHING;
+
+  @NotEmpty(message = "At least one transfer is required")
+  @Size(max = MAX_TRANSFERS, message = "A batch accepts at most " + MAX_TRANSFERS + " transfers")
+  private List<@Valid TransferDTO> transfers;
+
+  // ALL_OR_NOTHING: any failed item rejects the whole batch, nothing is posted
+  // BEST_EFFORT: valid items are posted, failed items are reported and skipped
+  public enum Mode {
+    ALL_OR_NOTHING, BEST_EFFORT
+  }
+}
@@ -0,0 +1,41 @@
+package com.example.financeservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferResultDTO {
+
+  private BatchTransferRequestDTO.Mode mode;
+  private boolean committed;
+  private int total;
+  private int succeeded;
+  private int failed;
+
+  private List<ItemResult> results;
+
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class ItemResult {
+
+    private int index;
+    private ItemStatus status;
+    private TransactionDTO transaction;
+    private String errorCode;
+    private String errorMessage;
+  }
+
+  // NOT_POSTED: the item was valid, but the batch was rejected because of another item
+  public enum ItemStatus {
+    COMPLETED, FAILED, NOT_POSTED
+  }
+}
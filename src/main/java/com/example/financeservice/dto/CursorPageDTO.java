@@ -0,0 +1,23 @@
+package com.example.financeservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. There is no total count; {@code nextCursor} is null on
+ * the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+
+  private List<T> items;
+  private String nextCursor;
+  private boolean hasMore;
+}
@@ -0,0 +1,31 @@
+package com.example.financeservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayoutRequestDTO {
+
+  public static final int MAX_PAYOUTS = 1000;
+
+  @NotBlank(message = "Source account number is required")
+  private String sourceAccountNumber;
+
+  // Used for the items that do not carry their own description
+  private String description;
+
+  @NotEmpty(message = "At least one payout is required")
+  @Size(max = MAX_PAYOUTS, message = "A payout accepts at most " + MAX_PAYOUTS + " destinations")
+  private List<@Valid PayoutItemDTO> payouts;
+}
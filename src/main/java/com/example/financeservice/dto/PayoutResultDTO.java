@@ -0,0 +1,23 @@
+package com.example.financeservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayoutResultDTO {
+
+  private String batchId;
+  private String sourceAccountNumber;
+  private BigDecimal totalAmount;
+  private BigDecimal sourceBalance;
+
+  private List<TransactionDTO> transactions;
+}
@@ -19,6 +19,9 @@ public class StatementDTO {
   private String accountNumber;
   private Account.AccountType accountType;
   private BigDecimal currentBalance;
+  // Balance at statementStartDate, and after the last transaction of the statement
+  private BigDecimal openingBalance;
+  private BigDecimal closingBalance;
   private LocalDateTime statementStartDate;
   private LocalDateTime statementEndDate;
   private LocalDateTime generatedAt;
@@ -0,0 +1,32 @@
+package com.example.financeservice.dto;
+
+import com.example.financeservice.model.LedgerEntry;
+import com.example.financeservice.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One line of an exported statement, seen from the account of the statement.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementLineDTO {
+
+  private LocalDateTime postedAt;
+  private String transactionId;
+  private Transaction.TransactionType type;
+  private LedgerEntry.Direction direction;
+  // Negative for debits
+  private BigDecimal amount;
+  private BigDecimal balanceAfter;
+  // The other side of a transfer; null for deposits and withdrawals
+  private String counterpartyAccountNumber;
+  private String description;
+}
@@ -23,7 +23,11 @@ public class TransactionDTO {
   private Transaction.TransactionStatus status;
   private LocalDateTime createdAt;
   private LocalDateTime processedAt;
+  private String batchId;
 
   private String sourceAccountNumber;
   private String destinationAccountNumber;
+
+  // Balance of the account whose history is being read, right after this transaction
+  private BigDecimal balanceAfter;
 }
@@ -0,0 +1,16 @@
+package com.example.financeservice.dto.auth;
+
+import jakarta.validation.constraints.NotEmpty;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRolesUpdateDTO {
+
+  @NotEmpty(message = "At least one role is required")
+  private Set<String> roles;
+}
@@ -0,0 +1,15 @@
+package com.example.financeservice.dto.auth;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStatusUpdateDTO {
+
+  @NotNull(message = "Enabled is required")
+  private Boolean enabled;
+}
@@ -0,0 +1,35 @@
+package com.example.financeservice.exception;
+
+/**
+ * The posting could not be processed right now and the caller may retry it.
+ *
+ * <p>When the posting was already recorded but could not be confirmed, the exception carries its
+ * transaction id: the posting may still complete, so the caller has to look it up by that id
+ * before retrying instead of posting it again.
+ */
+public class PostingUnavailableException extends RuntimeException {
+
+  private final String transactionId;
+
+  public PostingUnavailableException(String message) {
+    super(message);
+    this.transactionId = null;
+  }
+
+  public PostingUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+    this.transactionId = null;
+  }
+
+  public PostingUnavailableException(String message, String transactionId, Throwable cause) {
+    super(message, cause);
+    this.transactionId = transactionId;
+  }
+
+  /**
+   * Id of the posting whose outcome is not known yet, or {@code null} if nothing was recorded.
+   */
+  public String getTransactionId() {
+    return transactionId;
+  }
+}
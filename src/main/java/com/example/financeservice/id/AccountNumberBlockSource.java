@@ -0,0 +1,21 @@
+package com.example.financeservice.id;
+
+/**
+ * Reserves contiguous blocks of account numbers shared by all nodes.
+ */
+@FunctionalInterface
+public interface AccountNumberBlockSource {
+
+  /**
+   * Reserves {@code blockSize} numbers and returns the first one. The block is owned by the caller
+   * and never handed out again, even if none of its numbers end up being used.
+   */
+  long reserveBlock(int blockSize);
+
+  /**
+   * Fails with an {@link IllegalStateException} if the source cannot reserve blocks of
+   * {@code blockSize} numbers. Called once at startup, before any number is handed out.
+   */
+  default void checkBlockSize(int blockSize) {
+  }
+}
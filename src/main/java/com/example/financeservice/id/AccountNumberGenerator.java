@@ -0,0 +1,9 @@
+package com.example.financeservice.id;
+
+/**
+ * Source of unique account numbers. Implementations must be thread-safe.
+ */
+public interface AccountNumberGenerator {
+
+  String nextAccountNumber();
+}
@@ -0,0 +1,24 @@
+package com.example.financeservice.id;
+
+/**
+ * Fixed-width Crockford base32 encoding of 64-bit values. The 13 characters sort in the same order
+ * as the unsigned values, so encoded Snowflake ids stay time-ordered.
+ */
+final class Base32 {
+
+  static final int ENCODED_LENGTH = 13;
+
+  private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+  private Base32() {
+  }
+
+  static String encode(long value) {
+    char[] chars = new char[ENCODED_LENGTH];
+    for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+      chars[i] = ALPHABET[(int) (value & 31)];
+      value >>>= 5;
+    }
+    return new String(chars);
+  }
+}
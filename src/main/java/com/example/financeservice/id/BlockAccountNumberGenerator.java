@@ -0,0 +1,75 @@
+package com.example.financeservice.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Account numbers made of a 10-digit base number plus a Luhn check digit. Base numbers come from
+ * blocks reserved through an {@link AccountNumberBlockSource}. Inside a block, numbers are handed
+ * out with a single atomic increment, so the source is only contacted once per block.
+ */
+public class BlockAccountNumberGenerator implements AccountNumberGenerator {
+
+  public static final int BASE_DIGITS = 10;
+
+  private static final long MAX_BASE_NUMBER = 9_999_999_999L;
+
+  private final AccountNumberBlockSource blockSource;
+  private final int blockSize;
+  private final AtomicReference<Block> currentBlock = new AtomicReference<>(Block.EXHAUSTED);
+
+  public BlockAccountNumberGenerator(AccountNumberBlockSource blockSource, int blockSize) {
+    if (blockSize < 1) {
+      throw new IllegalArgumentException("Block size must be positive, got " + blockSize);
+    }
+    this.blockSource = blockSource;
+    this.blockSize = blockSize;
+  }
+
+  @Override
+  public String nextAccountNumber() {
+    while (true) {
+      Block block = currentBlock.get();
+      long baseNumber = block.next.getAndIncrement();
+      if (baseNumber < block.end) {
+        return format(baseNumber);
+      }
+      refill(block);
+    }
+  }
+
+  private synchronized void refill(Block exhausted) {
+    // Another thread may have refilled while this one waited for the monitor
+    if (currentBlock.get() != exhausted) {
+      return;
+    }
+    long start = blockSource.reserveBlock(blockSize);
+    if (start < 0 || start + blockSize - 1 > MAX_BASE_NUMBER) {
+      throw new IllegalStateException("Account number block out of range: " + start);
+    }
+    currentBlock.set(new Block(start, start + blockSize));
+  }
+
+  static String format(long baseNumber) {
+    StringBuilder number = new StringBuilder(BASE_DIGITS + 1);
+    String digits = Long.toString(baseNumber);
+    for (int i = digits.length(); i < BASE_DIGITS; i++) {
+      number.append('0');
+    }
+    number.append(digits);
+    return number.append(LuhnCheckDigit.compute(number)).toString();
+  }
+
+  private static final class Block {
+
+    static final Block EXHAUSTED = new Block(0, 0);
+
+    final AtomicLong next;
+    final long end;
+
+    Block(long start, long end) {
+      this.next = new AtomicLong(start);
+      this.end = end;
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.example.financeservice.id;
+
+/**
+ * Luhn (mod 10) check digit, the same scheme used by payment card numbers. It catches every
+ * single-digit typo and most adjacent transpositions.
+ */
+public final class LuhnCheckDigit {
+
+  private LuhnCheckDigit() {
+  }
+
+  public static int compute(CharSequence digits) {
+    int sum = 0;
+    boolean doubleDigit = true;
+    for (int i = digits.length() - 1; i >= 0; i--) {
+      int digit = toDigit(digits.charAt(i));
+      if (doubleDigit) {
+        digit *= 2;
+        if (digit > 9) {
+          digit -= 9;
+        }
+      }
+      sum += digit;
+      doubleDigit = !doubleDigit;
+    }
+    return (10 - sum % 10) % 10;
+  }
+
+  /**
+   * Checks a number whose last digit is its check digit.
+   */
+  public static boolean isValid(CharSequence number) {
+    if (number == null || number.length() < 2) {
+      return false;
+    }
+    for (int i = 0; i < number.length(); i++) {
+      char c = number.charAt(i);
+      if (c < '0' || c > '9') {
+        return false;
+      }
+    }
+    int last = number.length() - 1;
+    return compute(number.subSequence(0, last)) == toDigit(number.charAt(last));
+  }
+
+  private static int toDigit(char c) {
+    if (c < '0' || c > '9') {
+      throw new IllegalArgumentException("Not a decimal digit: " + c);
+    }
+    return c - '0';
+  }
+}
@@ -0,0 +1,64 @@
+package com.example.financeservice.id;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style 64-bit ids: 41 bits of milliseconds since {@link #EPOCH}, 10 bits of node id and
+ * 12 bits of per-millisecond sequence. Ids are unique across nodes with distinct node ids and
+ * increase monotonically on each node.
+ *
+ * <p>The last timestamp and sequence live in a single {@link AtomicLong} updated with CAS, so
+ * generation never blocks. When the 4096 ids of a millisecond run out, or the clock moves
+ * backwards, the generator keeps counting from the last timestamp it issued instead of waiting.
+ */
+public class SnowflakeIdGenerator implements TransactionIdGenerator {
+
+  public static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+  public static final int NODE_ID_BITS = 10;
+  public static final int SEQUENCE_BITS = 12;
+  public static final long MAX_NODE_ID = (1L << NODE_ID_BITS) - 1;
+
+  private static final String TRANSACTION_ID_PREFIX = "TX";
+  private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+  private static final int TIMESTAMP_SHIFT = NODE_ID_BITS + SEQUENCE_BITS;
+
+  private final long nodeBits;
+  private final LongSupplier clock;
+  private final long epochMillis = EPOCH.toEpochMilli();
+
+  // (timestamp << SEQUENCE_BITS) | sequence of the last id issued
+  private final AtomicLong lastState = new AtomicLong();
+
+  public SnowflakeIdGenerator(long nodeId) {
+    this(nodeId, System::currentTimeMillis);
+  }
+
+  SnowflakeIdGenerator(long nodeId, LongSupplier clock) {
+    if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+      throw new IllegalArgumentException(
+          "Node id must be between 0 and " + MAX_NODE_ID + ", got " + nodeId);
+    }
+    this.nodeBits = nodeId << SEQUENCE_BITS;
+    this.clock = clock;
+  }
+
+  public long nextId() {
+    long now = clock.getAsLong() - epochMillis;
+    long last;
+    long next;
+    do {
+      last = lastState.get();
+      next = Math.max(now << SEQUENCE_BITS, last + 1);
+    } while (!lastState.compareAndSet(last, next));
+
+    long timestamp = next >>> SEQUENCE_BITS;
+    return (timestamp << TIMESTAMP_SHIFT) | nodeBits | (next & SEQUENCE_MASK);
+  }
+
+  @Override
+  public String nextTransactionId() {
+    return TRANSACTION_ID_PREFIX + Base32.encode(nextId());
+  }
+}
@@ -0,0 +1,9 @@
+package com.example.financeservice.id;
+
+/**
+ * Source of unique transaction identifiers. Implementations must be thread-safe.
+ */
+public interface TransactionIdGenerator {
+
+  String nextTransactionId();
+}
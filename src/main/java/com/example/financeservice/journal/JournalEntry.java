@@ -0,0 +1,75 @@
+package com.example.financeservice.journal;
+
+import com.example.financeservice.model.Transaction;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * One posting accepted into the {@link LedgerJournal}: a deposit (destination only), a
+ * withdrawal (source only) or a transfer. The sequence is assigned by the journal on append.
+ */
+public record JournalEntry(long sequence, String transactionId, Transaction.TransactionType type,
+    String sourceAccountNumber, String destinationAccountNumber, BigDecimal amount,
+    String description, long processedAtMillis) {
+
+  public JournalEntry withSequence(long sequence) {
+    return new JournalEntry(sequence, transactionId, type, sourceAccountNumber,
+        destinationAccountNumber, amount, description, processedAtMillis);
+  }
+
+  byte[] encode() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeLong(sequence);
+      out.writeLong(processedAtMillis);
+      out.writeByte(type.ordinal());
+      out.writeUTF(transactionId);
+      writeNullable(out, sourceAccountNumber);
+      writeNullable(out, destinationAccountNumber);
+      byte[] unscaled = amount.unscaledValue().toByteArray();
+      out.writeInt(amount.scale());
+      out.writeShort(unscaled.length);
+      out.write(unscaled);
+      writeNullable(out, description);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  static JournalEntry decode(byte[] payload) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+      long sequence = in.readLong();
+      long processedAtMillis = in.readLong();
+      Transaction.TransactionType type = Transaction.TransactionType.values()[in.readByte()];
+      String transactionId = in.readUTF();
+      String source = readNullable(in);
+      String destination = readNullable(in);
+      int scale = in.readInt();
+      byte[] unscaled = new byte[in.readShort()];
+      in.readFully(unscaled);
+      String description = readNullable(in);
+      return new JournalEntry(sequence, transactionId, type, source, destination,
+          new BigDecimal(new BigInteger(unscaled), scale), description, processedAtMillis);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void writeNullable(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readNullable(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+}
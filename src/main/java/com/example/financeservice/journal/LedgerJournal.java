@@ -0,0 +1,453 @@
+package com.example.financeservice.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal of {@link JournalEntry postings} in memory-mapped segment files.
+ *
+ * <p>Each record is framed as {@code [int length][int CRC32C][payload]}; a zero length or a CRC
+ * mismatch marks the end of the written data, so a record torn by a crash is simply dropped on
+ * recovery. Segments are named after the first sequence they hold and have a fixed size; when a
+ * record does not fit, the segment is forced to disk and a new one is started.
+ *
+ * <p>Appends only copy the record into the mapped buffer. A single flusher thread forces the
+ * appended range to disk and then wakes up every appender waiting in {@link #awaitDurable}, so
+ * all records appended while one fsync runs share the next one (group commit).
+ *
+ * <p>Records stay in memory until {@link #release released}, which also deletes the segments
+ * holding only released records. On {@link #open} the records after the given checkpoint are
+ * loaded back, so the caller can apply whatever had not reached the database before a restart.
+ */
+@Slf4j
+public class LedgerJournal implements Closeable {
+
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final int FRAME_HEADER_BYTES = 8;
+
+  private final Path directory;
+  private final int segmentSize;
+  private final IntConsumer groupCommitListener;
+  private final Object lock = new Object();
+  private final Thread flusher;
+
+  // All fields below are guarded by lock
+  private final TreeMap<Long, Path> segments = new TreeMap<>();
+  private final ArrayDeque<JournalEntry> unreleased = new ArrayDeque<>();
+  private MappedByteBuffer current;
+  private int forcedPosition;
+  private long nextSequence;
+  private long durableSequence;
+  private RuntimeException failure;
+  private boolean closed;
+
+  private LedgerJournal(Path directory, int segmentSize, IntConsumer groupCommitListener) {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.groupCommitListener = groupCommitListener;
+    this.flusher = new Thread(this::runFlusher, "ledger-journal-flusher");
+    this.flusher.setDaemon(true);
+  }
+
+  /**
+   * Opens the journal in {@code directory}, recovering the existing segments.
+   *
+   * @param checkpointSequence last sequence already applied to the database; later records are
+   *                           kept as unreleased, earlier ones are dropped
+   * @param groupCommitListener receives the number of records made durable by each fsync
+   */
+  public static LedgerJournal open(Path directory, int segmentSize, long checkpointSequence,
+      IntConsumer groupCommitListener) throws IOException {
+    LedgerJournal journal = new LedgerJournal(directory, segmentSize, groupCommitListener);
+    journal.recover(checkpointSequence);
+    journal.flusher.start();
+    return journal;
+  }
+
+  /**
+   * Appends the entry with the next sequence. The record is not durable until
+   * {@link #awaitDurable} returns for that sequence.
+   */
+  public JournalEntry append(JournalEntry entry) {
+    synchronized (lock) {
+      checkWritable();
+
+      JournalEntry sequenced = entry.withSequence(nextSequence);
+      byte[] payload = sequenced.encode();
+      int frameSize = FRAME_HEADER_BYTES + payload.length;
+      if (frameSize > segmentSize) {
+        throw new IllegalArgumentException("Journal record of " + frameSize
+            + " bytes does not fit in a segment of " + segmentSize + " bytes");
+      }
+
+      if (current.remaining() < frameSize) {
+        roll();
+      }
+
+      CRC32C crc = new CRC32C();
+      crc.update(payload);
+      current.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+
+      nextSequence++;
+      unreleased.add(sequenced);
+      lock.notifyAll();
+      return sequenced;
+    }
+  }
+
+  /**
+   * Waits until the record with the given sequence has been forced to disk.
+   *
+   * @return {@code false} if the timeout elapsed or the thread was interrupted first; the record
+   *         may still be forced later
+   * @throws IllegalStateException if the journal failed or was closed before the record was
+   *                               forced, so it may or may not be on disk
+   */
+  public boolean awaitDurable(long sequence, long timeoutMillis) {
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    synchronized (lock) {
+      while (durableSequence < sequence) {
+        if (failure != null) {
+          throw new IllegalStateException("Ledger journal failed", failure);
+        }
+        if (closed) {
+          throw new IllegalStateException("Journal record " + sequence + " was not made durable");
+        }
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+          return false;
+        }
+        try {
+          lock.wait(remaining);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Durable records not released yet, oldest first, at most {@code max} of them.
+   */
+  public List<JournalEntry> durableEntries(int max) {
+    synchronized (lock) {
+      List<JournalEntry> entries = new ArrayList<>(Math.min(max, unreleased.size()));
+      for (JournalEntry entry : unreleased) {
+        if (entries.size() == max || entry.sequence() > durableSequence) {
+          break;
+        }
+        entries.add(entry);
+      }
+      return entries;
+    }
+  }
+
+  /**
+   * Forgets every record up to {@code sequence}, once it is safely stored elsewhere, and deletes
+   * the segments that hold nothing else.
+   */
+  public void release(long sequence) {
+    List<Path> deletable = new ArrayList<>();
+    synchronized (lock) {
+      while (!unreleased.isEmpty() && unreleased.peekFirst().sequence() <= sequence) {
+        unreleased.pollFirst();
+      }
+
+      // A segment ends right before the next one starts; the current segment is never deleted
+      Map.Entry<Long, Path> segment = segments.firstEntry();
+      while (segment != null) {
+        Long nextFirst = segments.higherKey(segment.getKey());
+        if (nextFirst == null || nextFirst - 1 > sequence) {
+          break;
+        }
+        deletable.add(segment.getValue());
+        segments.remove(segment.getKey());
+        segment = segments.firstEntry();
+      }
+    }
+
+    for (Path path : deletable) {
+      try {
+        Files.deleteIfExists(path);
+        log.debug("Journal: Deleted released segment {}", path.getFileName());
+      } catch (IOException e) {
+        log.warn("Journal: Could not delete released segment {}", path, e);
+      }
+    }
+  }
+
+  /**
+   * Whether a record not released yet, durable or not, was processed before {@code millis}.
+   */
+  public boolean hasUnreleasedBefore(long millis) {
+    synchronized (lock) {
+      for (JournalEntry entry : unreleased) {
+        if (entry.processedAtMillis() < millis) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  public int unreleasedCount() {
+    synchronized (lock) {
+      return unreleased.size();
+    }
+  }
+
+  public long lastSequence() {
+    synchronized (lock) {
+      return nextSequence - 1;
+    }
+  }
+
+  @Override
+  public void close() {
+    synchronized (lock) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      lock.notifyAll();
+    }
+
+    try {
+      flusher.join(10_000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    synchronized (lock) {
+      current.force();
+    }
+  }
+
+  private void runFlusher() {
+    while (true) {
+      MappedByteBuffer buffer;
+      int from;
+      int to;
+      long target;
+      synchronized (lock) {
+        while (!closed && durableSequence == nextSequence - 1) {
+          try {
+            lock.wait();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+        if (durableSequence == nextSequence - 1) {
+          return;
+        }
+        buffer = current;
+        from = forcedPosition;
+        to = current.position();
+        target = nextSequence - 1;
+      }
+
+      // The fsync runs outside the lock, so appends keep going and join the next group
+      try {
+        buffer.force(from, to - from);
+      } catch (RuntimeException e) {
+        log.error("Journal: fsync failed, no further records are accepted", e);
+        synchronized (lock) {
+          failure = e;
+          lock.notifyAll();
+        }
+        return;
+      }
+
+      int entries;
+      synchronized (lock) {
+        entries = (int) Math.max(0, target - durableSequence);
+        // A roll may have replaced the buffer meanwhile; it forced the old one entirely
+        if (buffer == current) {
+          forcedPosition = Math.max(forcedPosition, to);
+        }
+        durableSequence = Math.max(durableSequence, target);
+        lock.notifyAll();
+      }
+      if (entries > 0) {
+        groupCommitListener.accept(entries);
+      }
+    }
+  }
+
+  private void checkWritable() {
+    if (failure != null) {
+      throw new IllegalStateException("Ledger journal failed", failure);
+    }
+    if (closed) {
+      throw new IllegalStateException("Ledger journal is closed");
+    }
+  }
+
+  // Called with the lock held
+  private void roll() {
+    current.force();
+    durableSequence = nextSequence - 1;
+    try {
+      current = createSegment(nextSequence);
+    } catch (IOException e) {
+      failure = new UncheckedIOException(e);
+      lock.notifyAll();
+      throw failure;
+    }
+    forcedPosition = 0;
+    lock.notifyAll();
+  }
+
+  private MappedByteBuffer createSegment(long firstSequence) throws IOException {
+    Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence,
+        SEGMENT_SUFFIX));
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+    forceDirectory();
+    segments.put(firstSequence, path);
+    log.debug("Journal: Started segment {}", path.getFileName());
+    return buffer;
+  }
+
+  // Makes the creation of a segment file itself durable; not supported on every platform
+  private void forceDirectory() {
+    try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException e) {
+      log.debug("Journal: Directory fsync not supported", e);
+    }
+  }
+
+  private void recover(long checkpointSequence) throws IOException {
+    Files.createDirectories(directory);
+
+    List<Path> files;
+    try (Stream<Path> listing = Files.list(directory)) {
+      files = listing
+          .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX)
+              && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+          .sorted()
+          .toList();
+    }
+
+    long lastSequence = checkpointSequence;
+    int recovered = 0;
+    for (int index = 0; index < files.size(); index++) {
+      Path path = files.get(index);
+      boolean last = index == files.size() - 1;
+      MappedByteBuffer buffer;
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ,
+          StandardOpenOption.WRITE)) {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+      }
+
+      long firstSequence = Long.parseLong(segmentSequence(path));
+      segments.put(firstSequence, path);
+
+      long expected = firstSequence;
+      JournalEntry entry;
+      while ((entry = readFrame(buffer)) != null && entry.sequence() == expected) {
+        if (entry.sequence() > checkpointSequence) {
+          unreleased.add(entry);
+          recovered++;
+        }
+        lastSequence = Math.max(lastSequence, entry.sequence());
+        expected++;
+      }
+
+      // Earlier segments were forced before the next one was started, so only the last one
+      // can end in a torn write
+      if (!last && (Long.parseLong(segmentSequence(files.get(index + 1))) != expected
+          || buffer.remaining() >= Integer.BYTES && buffer.getInt(buffer.position()) != 0)) {
+        throw new IllegalStateException("Journal segment " + path.getFileName()
+            + " is corrupted after sequence " + (expected - 1));
+      }
+
+      if (last) {
+        // Clear whatever follows the last valid record before appending after it
+        for (int position = buffer.position(); position < buffer.limit(); position++) {
+          if (buffer.get(position) != 0) {
+            buffer.put(position, (byte) 0);
+          }
+        }
+        current = buffer;
+        forcedPosition = buffer.position();
+      }
+    }
+
+    nextSequence = lastSequence + 1;
+    durableSequence = lastSequence;
+
+    // An empty last segment named before the checkpoint would break the sequence on replay
+    if (current != null && current.position() == 0 && segments.lastKey() != nextSequence) {
+      Files.delete(segments.remove(segments.lastKey()));
+      current = null;
+    }
+    if (current == null) {
+      current = createSegment(nextSequence);
+    }
+
+    if (!unreleased.isEmpty() || !files.isEmpty()) {
+      log.info("Journal: Opened {} segments in {}, {} records after checkpoint {}",
+          segments.size(), directory, recovered, checkpointSequence);
+    }
+    release(checkpointSequence);
+  }
+
+  private static String segmentSequence(Path path) {
+    String name = path.getFileName().toString();
+    return name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+  }
+
+  // Reads the frame at the buffer position and advances past it; null at the end of the data
+  private static JournalEntry readFrame(MappedByteBuffer buffer) {
+    int position = buffer.position();
+    if (buffer.limit() - position < FRAME_HEADER_BYTES) {
+      return null;
+    }
+
+    int length = buffer.getInt(position);
+    if (length <= 0 || length > buffer.limit() - position - FRAME_HEADER_BYTES) {
+      return null;
+    }
+
+    byte[] payload = new byte[length];
+    buffer.get(position + FRAME_HEADER_BYTES, payload);
+    CRC32C crc = new CRC32C();
+    crc.update(payload);
+    if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+      return null;
+    }
+
+    JournalEntry entry;
+    try {
+      entry = JournalEntry.decode(payload);
+    } catch (RuntimeException e) {
+      return null;
+    }
+    buffer.position(position + FRAME_HEADER_BYTES + length);
+    return entry;
+  }
+}
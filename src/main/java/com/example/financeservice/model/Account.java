@@ -1,10 +1,14 @@
 package com.example.financeservice.model;
 
+import com.example.financeservice.config.PooledSequenceGenerator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -19,7 +23,9 @@ import java.util.List;
 public class Account {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(generator = "accounts_id_seq")
+  @GenericGenerator(name = "accounts_id_seq", type = PooledSequenceGenerator.class,
+      parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "accounts_id_seq"))
   private Long id;
 
   @Column(unique = true)
@@ -38,6 +44,15 @@ public class Account {
   @Enumerated(EnumType.STRING)
   private AccountStatus status = AccountStatus.ACTIVE;
 
+  // Number of balance stripes (AccountBalanceStripe); null when the balance is not striped
+  @Column(name = "balance_stripes")
+  private Integer balanceStripes;
+
+  // Incremented by every balance or status change, including the bulk UPDATEs of the
+  // conditional and optimistic posting modes
+  @Version
+  private Long version;
+
   @Column(name = "created_at")
   private LocalDateTime createdAt;
 
@@ -58,15 +73,14 @@ public class Account {
   @OneToMany(mappedBy = "destinationAccount", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
   private List<Transaction> incomingTransactions = new ArrayList<>();
 
+  public boolean isBalanceStriped() {
+    return balanceStripes != null && balanceStripes > 0;
+  }
+
   @PrePersist
   protected void onCreate() {
     createdAt = LocalDateTime.now();
     updatedAt = LocalDateTime.now();
-
-    if (accountNumber == null) {
-      // Generate a random account number
-      accountNumber = generateAccountNumber();
-    }
   }
 
   @PreUpdate
@@ -83,9 +97,4 @@ public class Account {
   public enum AccountStatus {
     ACTIVE, INACTIVE, BLOCKED, CLOSED
   }
-
-  // Helper method to generate account number
-  private String generateAccountNumber() {
-    return String.format("%010d", System.currentTimeMillis() % 10000000000L);
-  }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.example.financeservice.model;
+
+import com.example.financeservice.config.PooledSequenceGenerator;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Balance of an account at the end of a day, written by the daily snapshot job. The balance at
+ * any later instant is the closing balance of the last snapshot before it plus the ledger entries
+ * posted since, so statements never read more than a few days of history.
+ */
+@Entity
+@Table(name = "account_balance_snapshots",
+    uniqueConstraints = @UniqueConstraint(name = "uk_account_balance_snapshots",
+        columnNames = {"account_id", "snapshot_date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceSnapshot {
+
+  @Id
+  @GeneratedValue(generator = "account_balance_snapshots_id_seq")
+  @GenericGenerator(name = "account_balance_snapshots_id_seq", type = PooledSequenceGenerator.class,
+      parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "account_balance_snapshots_id_seq"))
+  private Long id;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "account_id", nullable = false)
+  private Account account;
+
+  @Column(name = "snapshot_date", nullable = false)
+  private LocalDate snapshotDate;
+
+  // Balance at the start of the following day, balance stripes included
+  @NotNull(message = "Closing balance cannot be null")
+  @Column(name = "closing_balance", precision = 19, scale = 2, nullable = false)
+  private BigDecimal closingBalance;
+
+  @Column(name = "created_at")
+  private LocalDateTime createdAt;
+
+  @PrePersist
+  protected void onCreate() {
+    createdAt = LocalDateTime.now();
+  }
+
+  // Instant the closing balance refers to
+  public LocalDateTime closedAt() {
+    return snapshotDate.plusDays(1).atStartOfDay();
+  }
+}
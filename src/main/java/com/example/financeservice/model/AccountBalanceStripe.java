@@ -0,0 +1,60 @@
+package com.example.financeservice.model;
+
+import com.example.financeservice.config.PooledSequenceGenerator;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One partition of a striped account balance. Credits to a striped account are added to a random
+ * stripe instead of the account row; the account balance is {@code accounts.balance} plus the sum
+ * of its stripes until the stripes are consolidated back into the account.
+ */
+@Entity
+@Table(name = "account_balance_stripes",
+    uniqueConstraints = @UniqueConstraint(name = "uk_account_balance_stripes",
+        columnNames = {"account_id", "stripe_index"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceStripe {
+
+  @Id
+  @GeneratedValue(generator = "account_balance_stripes_id_seq")
+  @GenericGenerator(name = "account_balance_stripes_id_seq", type = PooledSequenceGenerator.class,
+      parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "account_balance_stripes_id_seq"))
+  private Long id;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "account_id", nullable = false)
+  private Account account;
+
+  @Column(name = "stripe_index", nullable = false)
+  private int stripeIndex;
+
+  @NotNull(message = "Balance cannot be null")
+  @Column(precision = 19, scale = 2, nullable = false)
+  private BigDecimal balance = BigDecimal.ZERO;
+
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
+
+  public AccountBalanceStripe(Account account, int stripeIndex) {
+    this.account = account;
+    this.stripeIndex = stripeIndex;
+  }
+
+  @PrePersist
+  @PreUpdate
+  protected void onUpdate() {
+    updatedAt = LocalDateTime.now();
+  }
+}
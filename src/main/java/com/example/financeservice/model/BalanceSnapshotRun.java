@@ -0,0 +1,55 @@
+package com.example.financeservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the snapshot job for one day. Accounts are processed in id order in chunks;
+ * {@code lastAccountId} is the last account of the last chunk that completed together with every
+ * chunk before it, so a restarted run continues right after it.
+ *
+ * <p>Every instance runs the job, so a run is claimed before it starts: {@code claimedBy} owns it
+ * until {@code claimedUntil}, and the lease is renewed with every checkpoint. A run whose lease
+ * has expired, because its owner stopped, can be claimed by another instance.
+ */
+@Entity
+@Table(name = "balance_snapshot_runs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceSnapshotRun {
+
+  @Id
+  @Column(name = "snapshot_date")
+  private LocalDate snapshotDate;
+
+  @Column(name = "last_account_id", nullable = false)
+  private long lastAccountId;
+
+  @Column(name = "completed_at")
+  private LocalDateTime completedAt;
+
+  @Column(name = "claimed_by", length = 100)
+  private String claimedBy;
+
+  @Column(name = "claimed_until")
+  private LocalDateTime claimedUntil;
+
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
+
+  @PrePersist
+  @PreUpdate
+  protected void onUpdate() {
+    updatedAt = LocalDateTime.now();
+  }
+
+  public boolean isCompleted() {
+    return completedAt != null;
+  }
+}
@@ -1,11 +1,13 @@
 package com.example.financeservice.model;
 
+import com.example.financeservice.config.EntityCacheRegions;
+import com.example.financeservice.config.PooledSequenceGenerator;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
@@ -20,16 +22,25 @@ import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 @Entity
 @Table(name = "clients")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheRegions.CLIENTS)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Client {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(generator = "clients_id_seq")
+  @GenericGenerator(name = "clients_id_seq", type = PooledSequenceGenerator.class,
+      parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "clients_id_seq"))
   private Long id;
 
   @NotBlank(message = "Name is required")
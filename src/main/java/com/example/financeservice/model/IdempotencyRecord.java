@@ -0,0 +1,63 @@
+package com.example.financeservice.model;
+
+import com.example.financeservice.config.PooledSequenceGenerator;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response of a posting made with an {@code Idempotency-Key} header, stored in the same database
+ * transaction as the posting itself so that a retry with the same key is answered from here.
+ */
+@Entity
+@Table(name = "idempotency_keys",
+    uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_keys_username_key",
+        columnNames = {"username", "idempotency_key"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+  @Id
+  @GeneratedValue(generator = "idempotency_keys_id_seq")
+  @GenericGenerator(name = "idempotency_keys_id_seq", type = PooledSequenceGenerator.class,
+      parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "idempotency_keys_id_seq"))
+  private Long id;
+
+  @Column(nullable = false)
+  private String username;
+
+  @Column(name = "idempotency_key", nullable = false)
+  private String idempotencyKey;
+
+  @Column(nullable = false)
+  private String operation;
+
+  // SHA-256 of the operation and request, to reject a key reused for a different request
+  @Column(name = "request_hash", nullable = false, length = 64)
+  private String requestHash;
+
+  @Column(name = "transaction_id")
+  private String transactionId;
+
+  // TransactionDTO as JSON
+  @Column(nullable = false, length = 4000)
+  private String response;
+
+  @Column(name = "created_at")
+  private LocalDateTime createdAt;
+
+  @Column(name = "expires_at", nullable = false)
+  private LocalDateTime expiresAt;
+
+  @PrePersist
+  protected void onCreate() {
+    createdAt = LocalDateTime.now();
+  }
+}
@@ -0,0 +1,38 @@
+package com.example.financeservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last ledger journal sequence written to the database by a node. It is updated in the same
+ * transaction as the balances and transactions of each write-behind flush, so after a restart the
+ * journal replays exactly the records the database has not seen.
+ */
+@Entity
+@Table(name = "journal_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalCheckpoint {
+
+  // Same value as finance.id.node-id
+  @Id
+  @Column(name = "node_id")
+  private Long nodeId;
+
+  @Column(name = "applied_sequence", nullable = false)
+  private long appliedSequence;
+
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
+
+  @PrePersist
+  @PreUpdate
+  protected void onUpdate() {
+    updatedAt = LocalDateTime.now();
+  }
+}
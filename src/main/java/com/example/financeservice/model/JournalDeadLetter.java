@@ -0,0 +1,62 @@
+package com.example.financeservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Ledger journal record the write-behind could not apply, such as a posting to an account deleted
+ * after it was journaled. It is stored instead of the posting, in the transaction that advances
+ * the checkpoint past it, so the rest of the journal keeps flowing; the record is left for an
+ * operator to reconcile.
+ */
+@Entity
+@Table(name = "journal_dead_letters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalDeadLetter {
+
+  @Id
+  @Column(name = "transaction_id")
+  private String transactionId;
+
+  @Column(name = "node_id", nullable = false)
+  private long nodeId;
+
+  @Column(name = "journal_sequence", nullable = false)
+  private long journalSequence;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private Transaction.TransactionType type;
+
+  @Column(name = "source_account_number")
+  private String sourceAccountNumber;
+
+  @Column(name = "destination_account_number")
+  private String destinationAccountNumber;
+
+  @Column(nullable = false, precision = 19, scale = 2)
+  private BigDecimal amount;
+
+  private String description;
+
+  @Column(name = "processed_at", nullable = false)
+  private LocalDateTime processedAt;
+
+  @Column(nullable = false)
+  private String reason;
+
+  @Column(name = "created_at")
+  private LocalDateTime createdAt;
+
+  @PrePersist
+  protected void onCreate() {
+    createdAt = LocalDateTime.now();
+  }
+}
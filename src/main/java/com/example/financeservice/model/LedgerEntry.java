@@ -0,0 +1,79 @@
+package com.example.financeservice.model;
+
+import com.example.financeservice.config.PooledSequenceGenerator;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One leg of a posting: every completed transaction writes a debit entry for its source account
+ * and a credit entry for its destination account, in the same database transaction as the balance
+ * updates. Entries are never updated; the history of an account is the range of its entries in
+ * {@code (account_id, posted_at, id)} order, which the index of the same name serves directly.
+ */
+@Entity
+@Table(name = "ledger_entries",
+    indexes = @Index(name = "idx_ledger_entries_account_posted",
+        columnList = "account_id, posted_at, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEntry {
+
+  @Id
+  @GeneratedValue(generator = "ledger_entries_id_seq")
+  @GenericGenerator(name = "ledger_entries_id_seq", type = PooledSequenceGenerator.class,
+      parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "ledger_entries_id_seq"))
+  private Long id;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "account_id", nullable = false)
+  private Account account;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "transaction_id", nullable = false)
+  private Transaction transaction;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 6)
+  private Direction direction;
+
+  @NotNull(message = "Amount cannot be null")
+  @Column(precision = 19, scale = 2, nullable = false)
+  private BigDecimal amount;
+
+  // Balance of the account right after this entry. Null for balance-striped accounts, whose
+  // balance is spread over their stripes and has no single running value
+  @Column(name = "balance_after", precision = 19, scale = 2)
+  private BigDecimal balanceAfter;
+
+  @Column(name = "posted_at", nullable = false)
+  private LocalDateTime postedAt;
+
+  public static LedgerEntry debit(Transaction transaction, BigDecimal balanceAfter) {
+    return new LedgerEntry(null, transaction.getSourceAccount(), transaction, Direction.DEBIT,
+        transaction.getAmount(), balanceAfter, transaction.getProcessedAt());
+  }
+
+  public static LedgerEntry credit(Transaction transaction, BigDecimal balanceAfter) {
+    return new LedgerEntry(null, transaction.getDestinationAccount(), transaction,
+        Direction.CREDIT, transaction.getAmount(), balanceAfter, transaction.getProcessedAt());
+  }
+
+  // Amount with the sign it has on the account balance
+  public BigDecimal signedAmount() {
+    return direction == Direction.DEBIT ? amount.negate() : amount;
+  }
+
+  public enum Direction {
+    DEBIT, CREDIT
+  }
+}
@@ -1,5 +1,7 @@
 package com.example.financeservice.model;
 
+import com.example.financeservice.config.EntityCacheRegions;
+import com.example.financeservice.config.PooledSequenceGenerator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -7,6 +9,11 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -14,13 +21,17 @@ import java.util.List;
 
 @Entity
 @Table(name = "merchants")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheRegions.MERCHANTS)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Merchant {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(generator = "merchants_id_seq")
+  @GenericGenerator(name = "merchants_id_seq", type = PooledSequenceGenerator.class,
+      parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "merchants_id_seq"))
   private Long id;
 
   @NotBlank(message = "Business name is required")
@@ -1,10 +1,14 @@
 package com.example.financeservice.model;
 
+import com.example.financeservice.config.PooledSequenceGenerator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -17,7 +21,9 @@ import java.time.LocalDateTime;
 public class Transaction {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(generator = "transactions_id_seq")
+  @GenericGenerator(name = "transactions_id_seq", type = PooledSequenceGenerator.class,
+      parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "transactions_id_seq"))
   private Long id;
 
   @Column(unique = true)
@@ -44,6 +50,10 @@ public class Transaction {
   @Column(name = "processed_at")
   private LocalDateTime processedAt;
 
+  // Shared by the rows created together by one payout
+  @Column(name = "batch_id")
+  private String batchId;
+
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "source_account_id")
   private Account sourceAccount;
@@ -56,11 +66,6 @@ public class Transaction {
   protected void onCreate() {
     createdAt = LocalDateTime.now();
     updatedAt = LocalDateTime.now();
-
-    if (transactionId == null) {
-      // Generate a unique transaction ID
-      transactionId = generateTransactionId();
-    }
   }
 
   @PreUpdate
@@ -81,9 +86,4 @@ public class Transaction {
   public enum TransactionStatus {
     PENDING, PROCESSING, COMPLETED, FAILED, REVERSED
   }
-
-  // Helper method to generate transaction ID
-  private String generateTransactionId() {
-    return "TX" + System.currentTimeMillis();
-  }
 }
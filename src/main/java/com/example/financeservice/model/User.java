@@ -1,12 +1,14 @@
 package com.example.financeservice.model;
 
+import com.example.financeservice.config.EntityCacheRegions;
+import com.example.financeservice.config.PooledSequenceGenerator;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Table;
@@ -15,15 +17,24 @@ import java.util.HashSet;
 import java.util.Set;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheRegions.USERS)
 @Data
 @NoArgsConstructor
 public class User {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(generator = "users_id_seq")
+  @GenericGenerator(name = "users_id_seq", type = PooledSequenceGenerator.class,
+      parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "users_id_seq"))
   private Long id;
 
   @Column(unique = true, nullable = false)
@@ -50,7 +61,13 @@ public class User {
   @ElementCollection(fetch = FetchType.EAGER)
   @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
   @Column(name = "role")
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheRegions.USER_ROLES)
   private Set<String> roles = new HashSet<>();
 
   private boolean enabled = true;
+
+  // Bumped by every revocation of the user's tokens, only through a bulk UPDATE so that saving a
+  // user loaded before a revocation cannot undo it; older stateless tokens stop authenticating
+  @Column(name = "token_version", nullable = false, updatable = false)
+  private long tokenVersion;
 }
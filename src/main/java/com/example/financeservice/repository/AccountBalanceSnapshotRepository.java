@@ -0,0 +1,43 @@
+package com.example.financeservice.repository;
+
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.AccountBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccountBalanceSnapshotRepository
+    extends JpaRepository<AccountBalanceSnapshot, Long> {
+
+  // Latest snapshot that closed at or before the start of the given day
+  Optional<AccountBalanceSnapshot> findFirstByAccountAndSnapshotDateBeforeOrderBySnapshotDateDesc(
+      Account account, LocalDate date);
+
+  // Same as above for many accounts at once; accounts without such a snapshot are absent
+  @Query("SELECT s FROM AccountBalanceSnapshot s WHERE s.account.id IN :accountIds "
+      + "AND s.snapshotDate = (SELECT MAX(p.snapshotDate) FROM AccountBalanceSnapshot p "
+      + "WHERE p.account = s.account AND p.snapshotDate < :date)")
+  List<AccountBalanceSnapshot> findLatestBefore(Collection<Long> accountIds, LocalDate date);
+
+  // Earliest snapshot that closed after the start of the given day
+  Optional<AccountBalanceSnapshot>
+      findFirstByAccountAndSnapshotDateGreaterThanEqualOrderBySnapshotDateAsc(Account account,
+          LocalDate date);
+
+  // Same as above for many accounts at once; accounts without such a snapshot are absent
+  @Query("SELECT s FROM AccountBalanceSnapshot s WHERE s.account.id IN :accountIds "
+      + "AND s.snapshotDate = (SELECT MIN(n.snapshotDate) FROM AccountBalanceSnapshot n "
+      + "WHERE n.account = s.account AND n.snapshotDate >= :date)")
+  List<AccountBalanceSnapshot> findEarliestFrom(Collection<Long> accountIds, LocalDate date);
+
+  // Accounts of a chunk already snapshotted, when a run is restarted
+  @Query("SELECT s.account.id FROM AccountBalanceSnapshot s "
+      + "WHERE s.snapshotDate = :date AND s.account.id IN :accountIds")
+  List<Long> findSnapshottedAccountIds(LocalDate date, Collection<Long> accountIds);
+}
@@ -0,0 +1,48 @@
+package com.example.financeservice.repository;
+
+import com.example.financeservice.model.AccountBalanceStripe;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AccountBalanceStripeRepository extends JpaRepository<AccountBalanceStripe, Long> {
+
+  // Only the stripe row is locked by this update; the account row stays free for other credits
+  @Modifying
+  @Query("UPDATE AccountBalanceStripe s SET s.balance = s.balance + :amount, "
+      + "s.updatedAt = LOCAL DATETIME "
+      + "WHERE s.account.id = :accountId AND s.stripeIndex = :stripeIndex")
+  int creditStripe(Long accountId, int stripeIndex, BigDecimal amount);
+
+  @Query("SELECT COALESCE(SUM(s.balance), 0) FROM AccountBalanceStripe s "
+      + "WHERE s.account.id = :accountId")
+  BigDecimal sumBalanceByAccountId(Long accountId);
+
+  @Query("SELECT COALESCE(SUM(s.balance), 0) FROM AccountBalanceStripe s "
+      + "WHERE s.account.accountNumber = :accountNumber")
+  BigDecimal sumBalanceByAccountNumber(String accountNumber);
+
+  // Ordered by stripe index so concurrent consolidations lock the stripes in the same order
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT s FROM AccountBalanceStripe s WHERE s.account.id = :accountId "
+      + "ORDER BY s.stripeIndex")
+  List<AccountBalanceStripe> findAllByAccountIdWithLock(Long accountId);
+
+  // Ordered by account id, like the account row locks, then by stripe index
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT s FROM AccountBalanceStripe s WHERE s.account.id IN :accountIds "
+      + "ORDER BY s.account.id, s.stripeIndex")
+  List<AccountBalanceStripe> findAllByAccountIdInWithLock(Collection<Long> accountIds);
+
+  @Modifying
+  @Query("DELETE FROM AccountBalanceStripe s WHERE s.account.id = :accountId")
+  int deleteAllByAccountId(Long accountId);
+}
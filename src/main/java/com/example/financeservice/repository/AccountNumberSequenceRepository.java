@@ -0,0 +1,81 @@
+package com.example.financeservice.repository;
+
+import com.example.financeservice.id.AccountNumberBlockSource;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reserves account number blocks from the {@value #SEQUENCE_NAME} database sequence. The sequence
+ * must be created with INCREMENT BY equal to the block size (init-scripts/04-account-numbers.sql),
+ * so every nextval returns the first number of a block no other node will receive. The increment
+ * is read from the database and checked against the block size before any block is reserved, since
+ * a smaller increment would hand overlapping blocks to different nodes.
+ */
+@Repository
+@Slf4j
+public class AccountNumberSequenceRepository implements AccountNumberBlockSource {
+
+  static final String SEQUENCE_NAME = "account_number_seq";
+
+  private static final String INCREMENT_QUERY =
+      "SELECT increment FROM information_schema.sequences WHERE lower(sequence_name) = :name";
+
+  private final EntityManager entityManager;
+  private final String nextValueQuery;
+
+  // Read once; null until the sequence was found
+  private volatile Long increment;
+
+  public AccountNumberSequenceRepository(EntityManager entityManager) {
+    this.entityManager = entityManager;
+    Dialect dialect = entityManager.getEntityManagerFactory()
+        .unwrap(SessionFactoryImplementor.class)
+        .getJdbcServices()
+        .getDialect();
+    this.nextValueQuery = dialect.getSequenceSupport().getSequenceNextValString(SEQUENCE_NAME);
+  }
+
+  @Override
+  public long reserveBlock(int blockSize) {
+    long sequenceIncrement = findIncrement()
+        .orElseThrow(() -> new IllegalStateException("Sequence not found: " + SEQUENCE_NAME));
+    requireIncrement(sequenceIncrement, blockSize);
+    return ((Number) entityManager.createNativeQuery(nextValueQuery).getSingleResult()).longValue();
+  }
+
+  // A database without the sequence cannot create accounts yet, but may still serve the rest
+  @Override
+  public void checkBlockSize(int blockSize) {
+    findIncrement().ifPresentOrElse(
+        sequenceIncrement -> requireIncrement(sequenceIncrement, blockSize),
+        () -> log.warn("Repository: Sequence {} not found, account numbers cannot be reserved",
+            SEQUENCE_NAME));
+  }
+
+  private Optional<Long> findIncrement() {
+    if (increment == null) {
+      List<?> rows = entityManager.createNativeQuery(INCREMENT_QUERY)
+          .setParameter("name", SEQUENCE_NAME.toLowerCase(Locale.ROOT))
+          .getResultList();
+      if (!rows.isEmpty()) {
+        // PostgreSQL reports the increment as text
+        increment = Long.parseLong(rows.get(0).toString());
+      }
+    }
+    return Optional.ofNullable(increment);
+  }
+
+  private static void requireIncrement(long sequenceIncrement, int blockSize) {
+    if (sequenceIncrement != blockSize) {
+      throw new IllegalStateException("Sequence " + SEQUENCE_NAME + " increments by "
+          + sequenceIncrement + " but the account number block size is " + blockSize
+          + "; nodes would receive overlapping blocks");
+    }
+  }
+}
@@ -1,14 +1,21 @@
 package com.example.financeservice.repository;
 
+import com.example.financeservice.dto.AccountDTO;
 import com.example.financeservice.model.Account;
 import com.example.financeservice.model.Client;
 import com.example.financeservice.model.Merchant;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,4 +34,113 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
   @Lock(LockModeType.PESSIMISTIC_WRITE)
   @Query("SELECT a FROM Account a WHERE a.accountNumber = :accountNumber")
   Optional<Account> findByAccountNumberWithLock(String accountNumber);
+
+  // Ordered by id so that every caller acquires the row locks in the same global order
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT a FROM Account a WHERE a.accountNumber IN :accountNumbers ORDER BY a.id")
+  List<Account> findAllByAccountNumberInWithLock(Collection<String> accountNumbers);
+
+  List<Account> findAllByAccountNumberIn(Collection<String> accountNumbers);
+
+  @Query("SELECT a.status FROM Account a WHERE a.accountNumber = :accountNumber")
+  Optional<Account.AccountStatus> findStatusByAccountNumber(String accountNumber);
+
+  @Query("SELECT a.type FROM Account a WHERE a.accountNumber = :accountNumber")
+  Optional<Account.AccountType> findTypeByAccountNumber(String accountNumber);
+
+  @Query("SELECT a.accountNumber FROM Account a WHERE a.balanceStripes > 0")
+  List<String> findStripedAccountNumbers();
+
+  @Query("SELECT a.accountNumber FROM Account a WHERE a.client.id = :clientId")
+  List<String> findAccountNumbersByClientId(Long clientId);
+
+  // Account listings built in the query: the owner is joined and the balance includes the
+  // stripes, so a whole list is a single statement whatever the number of accounts
+  String ACCOUNT_DTO_QUERY = "SELECT new com.example.financeservice.dto.AccountDTO(a.id, "
+      + "a.accountNumber, a.type, a.balance "
+      + "+ (SELECT COALESCE(SUM(s.balance), 0) FROM AccountBalanceStripe s WHERE s.account = a), "
+      + "a.availableLimit, a.status, a.balanceStripes, a.createdAt, COALESCE(c.id, m.id), "
+      + "COALESCE(c.name, m.businessName), "
+      + "CASE WHEN c.id IS NOT NULL THEN 'CLIENT' WHEN m.id IS NOT NULL THEN 'MERCHANT' END) "
+      + "FROM Account a LEFT JOIN a.client c LEFT JOIN a.merchant m ";
+
+  // Keyset over the primary key
+  @Query(ACCOUNT_DTO_QUERY + "WHERE a.id > :afterId ORDER BY a.id")
+  List<AccountDTO> findDtoPageAfter(Long afterId, Limit limit);
+
+  @Query(ACCOUNT_DTO_QUERY + "WHERE c.id = :clientId ORDER BY a.id")
+  List<AccountDTO> findDtosByClientId(Long clientId);
+
+  @Query(ACCOUNT_DTO_QUERY + "WHERE m.id = :merchantId ORDER BY a.id")
+  List<AccountDTO> findDtosByMerchantId(Long merchantId);
+
+  // Keyset over the primary key, for jobs that walk every account in chunks
+  @Query("SELECT a.id FROM Account a WHERE a.id > :afterId ORDER BY a.id")
+  List<Long> findIdsAfter(Long afterId, Pageable pageable);
+
+  // Balance of each account at an instant: the current balance, stripes included, minus what was
+  // posted since. A single statement, so the balance and the entries are read consistently
+  @Query("SELECT a.id AS accountId, a.balance "
+      + "+ (SELECT COALESCE(SUM(s.balance), 0) FROM AccountBalanceStripe s WHERE s.account = a) "
+      + "- (SELECT COALESCE(SUM(CASE WHEN e.direction = "
+      + "com.example.financeservice.model.LedgerEntry$Direction.DEBIT "
+      + "THEN -e.amount ELSE e.amount END), 0) "
+      + "FROM LedgerEntry e WHERE e.account = a AND e.postedAt >= :at) AS balance "
+      + "FROM Account a WHERE a.id IN :accountIds")
+  List<BalanceAtView> findBalancesAt(Collection<Long> accountIds, LocalDateTime at);
+
+  // Read-only projection: the account does not become managed, so a later lock query loads
+  // its current state instead of returning a stale instance from the persistence context
+  Optional<FundsView> findFundsByAccountNumber(String accountNumber);
+
+  // Same as above, for the optimistic posting mode: re-read after a version conflict
+  Optional<VersionedBalanceView> findVersionedBalanceByAccountNumber(String accountNumber);
+
+  // Conditional balance updates: the affected row count tells whether the posting was applied.
+  // They bump the version too, so an optimistic posting that read the old balance fails its check
+  @Modifying
+  @Query("UPDATE Account a SET a.balance = a.balance - :amount, a.version = a.version + 1, "
+      + "a.updatedAt = LOCAL DATETIME "
+      + "WHERE a.accountNumber = :accountNumber AND a.balance >= :amount "
+      + "AND a.status = com.example.financeservice.model.Account$AccountStatus.ACTIVE")
+  int debitIfSufficientFunds(String accountNumber, BigDecimal amount);
+
+  @Modifying
+  @Query("UPDATE Account a SET a.balance = a.balance + :amount, a.version = a.version + 1, "
+      + "a.updatedAt = LOCAL DATETIME "
+      + "WHERE a.accountNumber = :accountNumber "
+      + "AND a.status = com.example.financeservice.model.Account$AccountStatus.ACTIVE")
+  int creditIfActive(String accountNumber, BigDecimal amount);
+
+  // Optimistic posting: writes the balance computed from a read at the given version, and
+  // matches no row if anything changed the account since then
+  @Modifying
+  @Query("UPDATE Account a SET a.balance = :balance, a.version = a.version + 1, "
+      + "a.updatedAt = LOCAL DATETIME WHERE a.id = :id AND a.version = :version")
+  int updateBalanceIfVersion(Long id, Long version, BigDecimal balance);
+
+  interface FundsView {
+
+    BigDecimal getBalance();
+
+    Account.AccountStatus getStatus();
+  }
+
+  interface BalanceAtView {
+
+    Long getAccountId();
+
+    BigDecimal getBalance();
+  }
+
+  interface VersionedBalanceView {
+
+    Long getId();
+
+    BigDecimal getBalance();
+
+    Account.AccountStatus getStatus();
+
+    Long getVersion();
+  }
 }
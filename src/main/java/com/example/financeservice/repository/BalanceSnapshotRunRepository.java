@@ -0,0 +1,37 @@
+package com.example.financeservice.repository;
+
+import com.example.financeservice.model.BalanceSnapshotRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface BalanceSnapshotRunRepository extends JpaRepository<BalanceSnapshotRun, LocalDate> {
+
+  Optional<BalanceSnapshotRun> findFirstByCompletedAtIsNullOrderBySnapshotDateAsc();
+
+  Optional<BalanceSnapshotRun> findFirstByCompletedAtIsNotNullOrderBySnapshotDateDesc();
+
+  // Takes over a run nobody holds, whose lease has expired or that the owner already holds
+  @Transactional
+  @Modifying
+  @Query("UPDATE BalanceSnapshotRun r SET r.claimedBy = :owner, r.claimedUntil = :until, "
+      + "r.updatedAt = :now WHERE r.snapshotDate = :date AND r.completedAt IS NULL "
+      + "AND (r.claimedBy IS NULL OR r.claimedBy = :owner OR r.claimedUntil < :now)")
+  int claim(LocalDate date, String owner, LocalDateTime until, LocalDateTime now);
+
+  // Only the owner moves the checkpoint, renewing its lease; zero rows means the claim was lost
+  @Transactional
+  @Modifying
+  @Query("UPDATE BalanceSnapshotRun r SET r.lastAccountId = :lastAccountId, "
+      + "r.completedAt = :completedAt, r.claimedUntil = :until, r.updatedAt = :now "
+      + "WHERE r.snapshotDate = :date AND r.claimedBy = :owner AND r.completedAt IS NULL")
+  int checkpoint(LocalDate date, String owner, long lastAccountId, LocalDateTime completedAt,
+      LocalDateTime until, LocalDateTime now);
+}
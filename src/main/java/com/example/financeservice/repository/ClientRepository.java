@@ -1,9 +1,11 @@
 package com.example.financeservice.repository;
 
 import com.example.financeservice.model.Client;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +14,7 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
   Optional<Client> findByDocumentNumber(String documentNumber);
   boolean existsByEmail(String email);
   boolean existsByDocumentNumber(String documentNumber);
+
+  // Keyset over the primary key
+  List<Client> findByIdGreaterThanOrderById(Long afterId, Limit limit);
 }
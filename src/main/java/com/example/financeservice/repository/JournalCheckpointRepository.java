@@ -0,0 +1,19 @@
+package com.example.financeservice.repository;
+
+import com.example.financeservice.model.JournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, Long> {
+
+  // Serializes the write-behind flushes of a node, even across two processes sharing its id
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT c FROM JournalCheckpoint c WHERE c.nodeId = :nodeId")
+  Optional<JournalCheckpoint> findByNodeIdWithLock(Long nodeId);
+}
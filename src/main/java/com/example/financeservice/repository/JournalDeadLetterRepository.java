@@ -0,0 +1,9 @@
+package com.example.financeservice.repository;
+
+import com.example.financeservice.model.JournalDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JournalDeadLetterRepository extends JpaRepository<JournalDeadLetter, String> {
+}
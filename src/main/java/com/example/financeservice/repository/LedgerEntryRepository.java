@@ -0,0 +1,111 @@
+package com.example.financeservice.repository;
+
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.LedgerEntry;
+import com.example.financeservice.model.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Account history reads. Each one is a single-account range of idx_ledger_entries_account_posted
+ * (account_id, posted_at, id), with the transaction row joined in the same statement.
+ */
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+  String STREAM_FETCH_SIZE = "500";
+
+  @Query("SELECT e FROM LedgerEntry e JOIN FETCH e.transaction "
+      + "WHERE e.account = :account ORDER BY e.postedAt, e.id")
+  List<LedgerEntry> findByAccount(Account account);
+
+  // History rows built in the query, with the transaction and both of its account numbers
+  // joined: plain records, never managed entities, so nothing is snapshotted or lazily loaded
+  String ENTRY_VIEW_QUERY = "SELECT new "
+      + "com.example.financeservice.repository.LedgerEntryRepository$EntryView(e.id, e.postedAt, "
+      + "CASE WHEN e.direction = com.example.financeservice.model.LedgerEntry$Direction.DEBIT "
+      + "THEN -e.amount ELSE e.amount END, e.balanceAfter, t.id, t.transactionId, t.amount, "
+      + "t.type, t.description, t.status, t.createdAt, t.processedAt, t.batchId, "
+      + "s.accountNumber, d.accountNumber) "
+      + "FROM LedgerEntry e JOIN e.transaction t "
+      + "LEFT JOIN t.sourceAccount s LEFT JOIN t.destinationAccount d ";
+
+  @Query(ENTRY_VIEW_QUERY + "WHERE e.account = :account ORDER BY e.postedAt, e.id")
+  List<EntryView> findViewsByAccount(Account account);
+
+  // Newest first. The fixed ORDER BY is the index order, so the pageable must not carry a sort
+  @Query(value = ENTRY_VIEW_QUERY + "WHERE e.account = :account "
+      + "ORDER BY e.postedAt DESC, e.id DESC",
+      countQuery = "SELECT COUNT(e) FROM LedgerEntry e WHERE e.account = :account")
+  Page<EntryView> findViewsByAccountPaginated(Account account, Pageable pageable);
+
+  // Keyset pages, newest first: a seek into the index instead of skipping an offset
+  @Query(ENTRY_VIEW_QUERY + "WHERE e.account = :account ORDER BY e.postedAt DESC, e.id DESC")
+  List<EntryView> findLatestViewsByAccount(Account account, Limit limit);
+
+  @Query(ENTRY_VIEW_QUERY + "WHERE e.account = :account "
+      + "AND (e.postedAt, e.id) < (:postedAt, :id) ORDER BY e.postedAt DESC, e.id DESC")
+  List<EntryView> findViewsByAccountBefore(Account account, LocalDateTime postedAt, Long id,
+      Limit limit);
+
+  @Query(ENTRY_VIEW_QUERY + "WHERE e.account = :account "
+      + "AND e.postedAt BETWEEN :startDate AND :endDate ORDER BY e.postedAt, e.id")
+  List<EntryView> findViewsByAccountAndPostedAtBetween(Account account, LocalDateTime startDate,
+      LocalDateTime endDate);
+
+  // Statement export: rows are read through a server-side cursor, STREAM_FETCH_SIZE at a time,
+  // and not snapshotted for dirty checking. The stream must be consumed inside a transaction
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+  @Query("SELECT e FROM LedgerEntry e JOIN FETCH e.transaction t "
+      + "LEFT JOIN FETCH t.sourceAccount LEFT JOIN FETCH t.destinationAccount "
+      + "WHERE e.account = :account AND e.postedAt BETWEEN :startDate AND :endDate "
+      + "ORDER BY e.postedAt, e.id")
+  Stream<LedgerEntry> streamByAccountAndPostedAtBetween(Account account, LocalDateTime startDate,
+      LocalDateTime endDate);
+
+  // Net effect on the balance of the entries posted in [from, to)
+  @Query("SELECT COALESCE(SUM(CASE WHEN e.direction = "
+      + "com.example.financeservice.model.LedgerEntry$Direction.DEBIT "
+      + "THEN -e.amount ELSE e.amount END), 0) FROM LedgerEntry e "
+      + "WHERE e.account = :account AND e.postedAt >= :from AND e.postedAt < :to")
+  BigDecimal sumSignedAmount(Account account, LocalDateTime from, LocalDateTime to);
+
+  // Same as above for many accounts at once; accounts without entries in the range are absent
+  @Query("SELECT e.account.id AS accountId, SUM(CASE WHEN e.direction = "
+      + "com.example.financeservice.model.LedgerEntry$Direction.DEBIT "
+      + "THEN -e.amount ELSE e.amount END) AS amount FROM LedgerEntry e "
+      + "WHERE e.account.id IN :accountIds AND e.postedAt >= :from AND e.postedAt < :to "
+      + "GROUP BY e.account.id")
+  List<AccountAmountView> sumSignedAmountByAccount(Collection<Long> accountIds,
+      LocalDateTime from, LocalDateTime to);
+
+  // The entry, with its amount signed for the account, and the transaction it posts
+  record EntryView(Long entryId, LocalDateTime postedAt, BigDecimal signedAmount,
+      BigDecimal balanceAfter, Long id, String transactionId, BigDecimal amount,
+      Transaction.TransactionType type, String description, Transaction.TransactionStatus status,
+      LocalDateTime createdAt, LocalDateTime processedAt, String batchId,
+      String sourceAccountNumber, String destinationAccountNumber) {
+  }
+
+  interface AccountAmountView {
+
+    Long getAccountId();
+
+    BigDecimal getAmount();
+  }
+}
@@ -2,13 +2,12 @@ package com.example.financeservice.repository;
 
 import com.example.financeservice.model.Account;
 import com.example.financeservice.model.Transaction;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -22,15 +21,27 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 
   List<Transaction> findByDestinationAccount(Account account);
 
-  @Query("SELECT t FROM Transaction t WHERE t.sourceAccount = :account OR t.destinationAccount = :account")
-  List<Transaction> findByAccount(@Param("account") Account account);
-
-  @Query("SELECT t FROM Transaction t WHERE t.sourceAccount = :account OR t.destinationAccount = :account")
-  Page<Transaction> findByAccountPaginated(@Param("account") Account account, Pageable pageable);
-
-  @Query("SELECT t FROM Transaction t WHERE (t.sourceAccount = :account OR t.destinationAccount = :account) AND t.createdAt BETWEEN :startDate AND :endDate")
-  List<Transaction> findByAccountAndDateRange(
-      @Param("account") Account account,
-      @Param("startDate") LocalDateTime startDate,
-      @Param("endDate") LocalDateTime endDate);
+  // Transaction reads built in the query: both account numbers are joined and the rows are
+  // plain records, never managed entities, so nothing is snapshotted or lazily loaded
+  String TRANSACTION_VIEW_QUERY = "SELECT new "
+      + "com.example.financeservice.repository.TransactionRepository$TransactionView(t.id, "
+      + "t.transactionId, t.amount, t.type, t.description, t.status, t.createdAt, "
+      + "t.processedAt, t.batchId, s.accountNumber, d.accountNumber) "
+      + "FROM Transaction t LEFT JOIN t.sourceAccount s LEFT JOIN t.destinationAccount d ";
+
+  @Query(TRANSACTION_VIEW_QUERY + "WHERE t.id = :id")
+  Optional<TransactionView> findViewById(Long id);
+
+  @Query(TRANSACTION_VIEW_QUERY + "WHERE t.transactionId = :transactionId")
+  Optional<TransactionView> findViewByTransactionId(String transactionId);
+
+  // Keyset over the primary key
+  @Query(TRANSACTION_VIEW_QUERY + "WHERE t.id > :afterId ORDER BY t.id")
+  List<TransactionView> findViewPageAfter(Long afterId, Limit limit);
+
+  record TransactionView(Long id, String transactionId, BigDecimal amount,
+      Transaction.TransactionType type, String description, Transaction.TransactionStatus status,
+      LocalDateTime createdAt, LocalDateTime processedAt, String batchId,
+      String sourceAccountNumber, String destinationAccountNumber) {
+  }
 }
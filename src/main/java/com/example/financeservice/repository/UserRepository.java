@@ -1,15 +1,22 @@
 package com.example.financeservice.repository;
 
 import com.example.financeservice.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+  // Runs on every authenticated request; the result stays in the query cache until users changes
+  @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
   Optional<User> findByUsername(String username);
 
   Optional<User> findByEmail(String email);
@@ -22,4 +29,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
   long countByRole(String role);
 
   Optional<User> findByPasswordResetToken(String token);
+
+  @Query("SELECT u.tokenVersion FROM User u WHERE u.username = :username")
+  Optional<Long> findTokenVersionByUsername(String username);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.username = :username")
+  int incrementTokenVersion(String username);
 }
@@ -0,0 +1,24 @@
+package com.example.financeservice.security;
+
+import java.util.Collection;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * A user that authenticated, with the id of the user record, so the current user id needs no
+ * lookup. Built from the user record at login and from the claims of a stateless token.
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class AuthenticatedUser extends User {
+
+  private final Long id;
+
+  public AuthenticatedUser(Long id, String username, String password, boolean enabled,
+      Collection<? extends GrantedAuthority> authorities) {
+    super(username, password, enabled, true, true, true, authorities);
+    this.id = id;
+  }
+}
@@ -29,11 +29,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     try {
       String jwt = parseJwt(request);
       if (jwt != null) {
-        String username = jwtUtils.extractUsername(jwt);
+        JwtUtils.ParsedToken token = jwtUtils.parse(jwt);
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        UserDetails userDetails = userDetailsService.loadUserByUsername(token.username());
 
-        boolean tokenIsValid = jwtUtils.validateToken(jwt, userDetails);
+        boolean tokenIsValid = token.isValidFor(userDetails);
 
         if (tokenIsValid) {
           UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
@@ -1,13 +1,17 @@
 package com.example.financeservice.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -22,6 +26,11 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
   private final UserDetailsService userDetailsService;
   private final JwtUtils jwtUtils;
+  private final TokenAuthenticationCache tokenAuthenticationCache;
+
+  // Authenticates the tokens that carry user id, roles and version without loading the user
+  @Value("${jwt.stateless:false}")
+  private boolean stateless = false;
 
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
@@ -36,35 +45,22 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         request.getMethod(), request.getRequestURI(),
         authorizationHeader != null ? "present" : "absent");
 
-    String username = null;
-    String jwt = null;
-
-    if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-      jwt = authorizationHeader.substring(7);
+    if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+        && SecurityContextHolder.getContext().getAuthentication() == null) {
+      String jwt = authorizationHeader.substring(7);
       try {
-        username = jwtUtils.extractUsername(jwt);
-        log.info("Extracted username from token: {}", username);
-      } catch (Exception e) {
-        log.error("Error extracting username from token: {}", e.getMessage());
-      }
-    }
+        // The signature check and the user lookup only run the first time a token is seen
+        UserDetails userDetails = tokenAuthenticationCache.get(jwt, this::verify);
 
-    if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-      try {
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-        log.info("Loaded user details: {}, authorities: {}",
-            userDetails.getUsername(), userDetails.getAuthorities());
-
-        if (jwtUtils.validateToken(jwt, userDetails)) {
+        if (userDetails != null) {
           UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
               userDetails, null, userDetails.getAuthorities());
 
           authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
           SecurityContextHolder.getContext().setAuthentication(authentication);
 
-          log.info("Authentication set in SecurityContext for user: {}", username);
-        } else {
-          log.warn("Token validation failed for user: {}", username);
+          log.info("Authentication set in SecurityContext for user: {}",
+              userDetails.getUsername());
         }
       } catch (Exception e) {
         log.error("Error during authentication: {}", e.getMessage());
@@ -73,4 +69,54 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     chain.doFilter(request, response);
   }
+
+  private TokenAuthenticationCache.VerifiedToken verify(String jwt) {
+    // The signature is checked once; everything below reads the parsed token
+    JwtUtils.ParsedToken token;
+    try {
+      token = jwtUtils.parse(jwt);
+      log.info("Extracted username from token: {}", token.username());
+    } catch (Exception e) {
+      log.error("Error extracting username from token: {}", e.getMessage());
+      return null;
+    }
+
+    if (stateless && token.claims().get(JwtUtils.VERSION_CLAIM) != null) {
+      return verifyClaims(token);
+    }
+    return verifyUser(token);
+  }
+
+  // Stateless mode: the user comes from the claims, and a newer token version revokes the token
+  private TokenAuthenticationCache.VerifiedToken verifyClaims(JwtUtils.ParsedToken token) {
+    Claims claims = token.claims();
+    Long version = claims.get(JwtUtils.VERSION_CLAIM, Long.class);
+    if (version < tokenAuthenticationCache.tokenVersion(token.username()) || token.isExpired()) {
+      log.warn("Token revoked or expired for user: {}", token.username());
+      return null;
+    }
+
+    List<SimpleGrantedAuthority> authorities = ((List<?>) claims.get(JwtUtils.ROLES_CLAIM)).stream()
+        .map(role -> new SimpleGrantedAuthority(role.toString()))
+        .toList();
+    UserDetails userDetails = new AuthenticatedUser(claims.get(JwtUtils.USER_ID_CLAIM, Long.class),
+        token.username(), "", true, authorities);
+    return new TokenAuthenticationCache.VerifiedToken(userDetails, token.expiresAt());
+  }
+
+  private TokenAuthenticationCache.VerifiedToken verifyUser(JwtUtils.ParsedToken token) {
+    UserDetails userDetails = userDetailsService.loadUserByUsername(token.username());
+    log.info("Loaded user details: {}, authorities: {}",
+        userDetails.getUsername(), userDetails.getAuthorities());
+
+    if (!userDetails.isEnabled()) {
+      log.warn("Token rejected for disabled user: {}", userDetails.getUsername());
+      return null;
+    }
+    if (!token.isValidFor(userDetails)) {
+      log.warn("Token validation failed for user: {}", token.username());
+      return null;
+    }
+    return new TokenAuthenticationCache.VerifiedToken(userDetails, token.expiresAt());
+  }
 }
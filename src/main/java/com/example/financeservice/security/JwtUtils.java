@@ -1,54 +1,116 @@
 package com.example.financeservice.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import java.util.Base64;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+/**
+ * Issues and verifies the JWTs. The signing key and the parser are built once from the secret and
+ * shared by all requests; both are immutable and thread-safe. {@link #parse} verifies a token once
+ * and returns everything the callers read from it.
+ */
 @Component
 public class JwtUtils {
 
-  @Value("${jwt.secret:mysecretkey12345mysecretkey12345mysecretkey12345}")
-  private String secretString;
+  // Claims of the tokens that authenticate statelessly: user id, roles and token version
+  public static final String USER_ID_CLAIM = "uid";
+  public static final String ROLES_CLAIM = "roles";
+  public static final String VERSION_CLAIM = "ver";
 
-  @Value("${jwt.expiration:86400000}")
-  private int expiration;  // 24 horas por padrão
+  private final SecretKey signKey;
+  private final JwtParser parser;
+  private final int expiration;
 
-  private String getEncodedSecret() {
-    // Garantir que a chave secreta esteja em Base64
+  public JwtUtils(
+      @Value("${jwt.secret:mysecretkey12345mysecretkey12345mysecretkey12345}") String secret,
+      @Value("${jwt.expiration:86400000}") int expiration) {  // 24 horas por padrão
+    this.signKey = Keys.hmacShaKeyFor(decodeSecret(secret));
+    this.parser = Jwts.parser()
+        .verifyWith(signKey)
+        .build();
+    this.expiration = expiration;
+  }
+
+  /**
+   * A token whose signature and expiry were verified, with its claims.
+   */
+  public record ParsedToken(Claims claims) {
+
+    public String username() {
+      return claims.getSubject();
+    }
+
+    public Instant expiresAt() {
+      return claims.getExpiration().toInstant();
+    }
+
+    public boolean isExpired() {
+      return claims.getExpiration().before(new Date());
+    }
+
+    public boolean isValidFor(UserDetails userDetails) {
+      return username().equals(userDetails.getUsername()) && !isExpired();
+    }
+  }
+
+  private static byte[] decodeSecret(String secret) {
+    // Aceita a chave secreta em Base64 ou em texto puro
     try {
-      // Verificar se já é uma string Base64 válida
-      Decoders.BASE64.decode(secretString);
-      return secretString;
+      return Decoders.BASE64.decode(secret);
     } catch (Exception e) {
-      // Se não for Base64 válido, codificar
-      return Base64.getEncoder().encodeToString(secretString.getBytes());
+      return secret.getBytes();
     }
   }
 
   public String generateToken(UserDetails userDetails) {
+    return generateToken(userDetails, 0);
+  }
+
+  /**
+   * Generates a token for the user. Tokens of an {@link AuthenticatedUser} also carry the user id,
+   * the roles and the given token version, so the request filter can authenticate them without
+   * loading the user.
+   */
+  public String generateToken(UserDetails userDetails, long tokenVersion) {
     Map<String, Object> claims = new HashMap<>();
+    if (userDetails instanceof AuthenticatedUser user) {
+      claims.put(USER_ID_CLAIM, user.getId());
+      claims.put(ROLES_CLAIM, user.getAuthorities().stream()
+          .map(GrantedAuthority::getAuthority)
+          .toList());
+      claims.put(VERSION_CLAIM, tokenVersion);
+    }
     return Jwts.builder()
         .claims(claims)
         .subject(userDetails.getUsername())
         .issuedAt(new Date(System.currentTimeMillis()))
         .expiration(new Date(System.currentTimeMillis() + expiration))
-        .signWith(getSignKey())
+        .signWith(signKey)
         .compact();
   }
 
+  /**
+   * Verifies the token once. Throws a {@link io.jsonwebtoken.JwtException} when the token is
+   * malformed, badly signed or expired.
+   */
+  public ParsedToken parse(String token) {
+    return new ParsedToken(parser.parseSignedClaims(token).getPayload());
+  }
+
   public boolean validateToken(String token, UserDetails userDetails) {
-    final String username = extractUsername(token);
-    return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    return parse(token).isValidFor(userDetails);
   }
 
   public String extractUsername(String token) {
@@ -60,24 +122,10 @@ public class JwtUtils {
   }
 
   public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-    final Claims claims = extractAllClaims(token);
-    return claimsResolver.apply(claims);
-  }
-
-  private Claims extractAllClaims(String token) {
-    return Jwts.parser()
-        .verifyWith(getSignKey())
-        .build()
-        .parseSignedClaims(token)
-        .getPayload();
-  }
-
-  private Boolean isTokenExpired(String token) {
-    return extractExpiration(token).before(new Date());
+    return claimsResolver.apply(extractAllClaims(token));
   }
 
-  private SecretKey getSignKey() {
-    byte[] keyBytes = Decoders.BASE64.decode(getEncodedSecret());
-    return Keys.hmacShaKeyFor(keyBytes);
+  public Claims extractAllClaims(String token) {
+    return parse(token).claims();
   }
 }
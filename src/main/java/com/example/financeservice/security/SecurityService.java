@@ -28,6 +28,11 @@ public class SecurityService {
       throw new ResourceNotFoundException("No authenticated user found");
     }
 
+    // Users authenticated by the filter carry their id
+    if (authentication.getPrincipal() instanceof AuthenticatedUser user && user.getId() != null) {
+      return user.getId();
+    }
+
     String username = authentication.getName();
     User user = userRepository.findByUsername(username)
         .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
@@ -0,0 +1,182 @@
+package com.example.financeservice.security;
+
+import com.example.financeservice.repository.UserRepository;
+import com.example.financeservice.service.MetricsService;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Verified JWTs and the user they authenticate, keyed by the SHA-256 of the token, so a repeated
+ * token needs neither the signature check nor the user lookup. An entry lasts until its token
+ * expires or for {@code finance.auth-cache.max-staleness-ms}, whichever comes first, bounded by
+ * {@code finance.auth-cache.size}.
+ *
+ * <p>Disabling a user, changing their roles or logging them out drops all of their tokens once the
+ * change commits, and the next request verifies its token and loads the user again. A verification
+ * that overlaps such a drop is not kept. The drop only reaches the cache of the instance that made
+ * the change; the other instances keep serving the old user until their entry is older than the
+ * max staleness. The drop also bumps the token version of the user: the
+ * tokens issued before it carry an older version and stop authenticating in the stateless mode.
+ * The version is stored on the users row, in the transaction of the change, so a restart does not
+ * bring revoked tokens back. Each instance keeps the versions it read for the max staleness as
+ * well, so another instance rejects the revoked tokens once its copy expires and is read again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenAuthenticationCache {
+
+  private static final String CACHE_NAME = "authentications";
+  private static final String VERSIONS_CACHE_NAME = "token-versions";
+  private static final String USER_REPOSITORY = "UserRepository";
+
+  private final MetricsService metricsService;
+  private final UserRepository userRepository;
+
+  @Value("${finance.auth-cache.size:10000}")
+  private long size = 10_000;
+
+  // Upper bound of an entry's life, so a change made on another instance is seen within it; each
+  // token also stops at its own expiry
+  @Value("${finance.auth-cache.max-staleness-ms:30000}")
+  private long maxStalenessMs = 30_000;
+
+  // Bumped before every drop; a verification that saw it change may have loaded an old user
+  private final AtomicLong invalidations = new AtomicLong();
+
+  private Cache<String, VerifiedToken> tokens;
+
+  // Stored token versions read recently, by username
+  private Cache<String, Long> tokenVersions;
+
+  /**
+   * A token that was verified, the user it belongs to, and when the token expires.
+   */
+  public record VerifiedToken(UserDetails userDetails, Instant expiresAt) {
+  }
+
+  @PostConstruct
+  public void init() {
+    tokens = CacheBuilder.newBuilder()
+        .maximumSize(size)
+        .expireAfterWrite(maxStalenessMs, TimeUnit.MILLISECONDS)
+        .recordStats()
+        .build();
+    metricsService.registerCache(CACHE_NAME, tokens);
+    tokenVersions = CacheBuilder.newBuilder()
+        .maximumSize(size)
+        .expireAfterWrite(maxStalenessMs, TimeUnit.MILLISECONDS)
+        .recordStats()
+        .build();
+    metricsService.registerCache(VERSIONS_CACHE_NAME, tokenVersions);
+  }
+
+  /**
+   * Returns the user of the token, verifying it with {@code verifier} on a miss. The verifier
+   * returns null for a token that must not authenticate; nothing is cached for it.
+   */
+  public UserDetails get(String token, Function<String, VerifiedToken> verifier) {
+    String key = hash(token);
+    VerifiedToken cached = tokens.getIfPresent(key);
+    if (cached != null) {
+      if (cached.expiresAt().isAfter(Instant.now())) {
+        return cached.userDetails();
+      }
+      tokens.invalidate(key);
+    }
+
+    long seen = invalidations.get();
+    VerifiedToken verified = verifier.apply(token);
+    if (verified == null) {
+      return null;
+    }
+    tokens.put(key, verified);
+
+    // A drop during the verification may have been for this user and run before the put
+    if (invalidations.get() != seen) {
+      tokens.invalidate(key);
+    }
+    return verified.userDetails();
+  }
+
+  /**
+   * The version given to new tokens of the user. Tokens with an older version were revoked.
+   */
+  public long tokenVersion(String username) {
+    Long cached = tokenVersions.getIfPresent(username);
+    if (cached != null) {
+      return cached;
+    }
+
+    long seen = invalidations.get();
+    long version = loadTokenVersion(username);
+    tokenVersions.put(username, version);
+
+    // A drop during the load may have been for this user and run before the put
+    if (invalidations.get() != seen) {
+      tokenVersions.invalidate(username);
+    }
+    return version;
+  }
+
+  /**
+   * Revokes the tokens issued to the user so far, in the current transaction if there is one, and
+   * drops them from the cache once it commits, or right away without one.
+   */
+  public void invalidateUserAfterCommit(String username) {
+    metricsService.recordRepositoryExecutionTime(USER_REPOSITORY, "incrementTokenVersion",
+        () -> userRepository.incrementTokenVersion(username));
+
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      invalidateUser(username);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        invalidateUser(username);
+      }
+    });
+  }
+
+  private long loadTokenVersion(String username) {
+    return metricsService.recordRepositoryExecutionTime(USER_REPOSITORY,
+        "findTokenVersionByUsername", () -> userRepository.findTokenVersionByUsername(username))
+        .orElse(0L);
+  }
+
+  private void invalidateUser(String username) {
+    // Read again on next use, now that the new version is committed
+    tokenVersions.invalidate(username);
+    invalidations.incrementAndGet();
+    tokens.asMap().values()
+        .removeIf(token -> token.userDetails().getUsername().equals(username));
+    log.debug("Dropped cached tokens of user: {}", username);
+  }
+
+  private static String hash(String token) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.dto.AccountDTO;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import jakarta.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Read-through cache of the account reads, keyed by account number, with each account id mapped
+ * to its number. Entries are bounded by {@code finance.account-cache.size} and expire
+ * {@code finance.account-cache.ttl-seconds} after they were loaded.
+ *
+ * <p>Every posting and account update evicts the accounts it touched once its transaction
+ * commits, so the next read loads the committed row. A load that overlaps an eviction is not
+ * kept, and loads inside a read-write transaction bypass the cache, so neither an old nor an
+ * uncommitted balance is ever cached. Writes made by another instance are only seen once the
+ * entry expires.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AccountCache {
+
+  private static final String CACHE_NAME = "accounts";
+
+  private final MetricsService metricsService;
+
+  @Value("${finance.account-cache.size:10000}")
+  private long size = 10_000;
+
+  @Value("${finance.account-cache.ttl-seconds:60}")
+  private long ttlSeconds = 60;
+
+  // Account numbers never change, so the ids need no eviction
+  private final Cache<Long, String> accountNumbers = CacheBuilder.newBuilder()
+      .maximumSize(100_000)
+      .build();
+
+  // Bumped before every eviction; a load that saw it change may have read an old row
+  private final AtomicLong invalidations = new AtomicLong();
+
+  private Cache<String, AccountDTO> accounts;
+
+  @PostConstruct
+  public void init() {
+    accounts = CacheBuilder.newBuilder()
+        .maximumSize(size)
+        .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+    metricsService.registerCache(CACHE_NAME, accounts);
+  }
+
+  /**
+   * Returns a copy of the cached account, loading it on a miss. The loader's exceptions, such as
+   * an unknown account, propagate unchanged and nothing is cached for them.
+   */
+  public AccountDTO getByNumber(String accountNumber, Supplier<AccountDTO> loader) {
+    if (!cacheable()) {
+      return loader.get();
+    }
+    return copy(load(accountNumber, loader, invalidations.get()));
+  }
+
+  /**
+   * Same as {@link #getByNumber}, for an account id.
+   */
+  public AccountDTO getById(Long id, Supplier<AccountDTO> loader) {
+    if (!cacheable()) {
+      return loader.get();
+    }
+
+    long seen = invalidations.get();
+    String accountNumber = accountNumbers.getIfPresent(id);
+    if (accountNumber == null) {
+      // The number is only known once the account is read, so the first read by id loads it
+      AccountDTO account = loader.get();
+      accountNumbers.put(id, account.getAccountNumber());
+      return copy(load(account.getAccountNumber(), () -> account, seen));
+    }
+    return copy(load(accountNumber, loader, seen));
+  }
+
+  /**
+   * Evicts the accounts once the current transaction commits, or right away without one.
+   */
+  public void evictAfterCommit(String... accountNumbers) {
+    evictAfterCommit(Arrays.asList(accountNumbers));
+  }
+
+  public void evictAfterCommit(Collection<String> accountNumbers) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      evict(accountNumbers);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        evict(accountNumbers);
+      }
+    });
+  }
+
+  /**
+   * Drops every cached account, for when the accounts are removed outside the services.
+   */
+  public void clear() {
+    invalidations.incrementAndGet();
+    accounts.invalidateAll();
+    accountNumbers.invalidateAll();
+  }
+
+  private void evict(Collection<String> accountNumbers) {
+    invalidations.incrementAndGet();
+    accountNumbers.stream()
+        .filter(Objects::nonNull)
+        .forEach(accounts::invalidate);
+    log.debug("Service: Evicted accounts from cache: {}", accountNumbers);
+  }
+
+  private AccountDTO load(String accountNumber, Supplier<AccountDTO> loader, long seen) {
+    AccountDTO account;
+    try {
+      account = accounts.get(accountNumber, loader::get);
+    } catch (UncheckedExecutionException e) {
+      throw (RuntimeException) e.getCause();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+
+    // An eviction during the load may have been for this account and run before it was stored
+    if (invalidations.get() != seen) {
+      accounts.invalidate(accountNumber);
+    }
+    return account;
+  }
+
+  // Only reads outside a read-write transaction see committed rows
+  private static boolean cacheable() {
+    return !TransactionSynchronizationManager.isActualTransactionActive()
+        || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+  }
+
+  private static AccountDTO copy(AccountDTO account) {
+    return account.toBuilder().build();
+  }
+}
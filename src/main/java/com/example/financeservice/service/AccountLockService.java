@@ -0,0 +1,55 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.model.Account;
+import com.example.financeservice.repository.AccountRepository;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Acquires pessimistic row locks on several accounts at once. All locks are taken by a single
+ * SELECT ... FOR UPDATE ordered by account id, so concurrent operations touching the same
+ * accounts in opposite directions always queue on the same row first instead of deadlocking.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AccountLockService {
+
+  private static final String ACCOUNT_REPOSITORY = "AccountRepository";
+
+  private final AccountRepository accountRepository;
+  private final MetricsService metricsService;
+
+  /**
+   * Locks the given accounts until the end of the current transaction.
+   *
+   * @return the locked accounts keyed by account number, in lock acquisition order. Account
+   * numbers that do not exist are simply absent from the map.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public Map<String, Account> lockAccounts(String... accountNumbers) {
+    Set<String> distinctNumbers = new LinkedHashSet<>(List.of(accountNumbers));
+    log.debug("Service: Locking accounts {} in id order", distinctNumbers);
+
+    List<Account> accounts = metricsService.recordRepositoryExecutionTime(
+        ACCOUNT_REPOSITORY, "findAllByAccountNumberInWithLock",
+        () -> accountRepository.findAllByAccountNumberInWithLock(distinctNumbers));
+
+    Map<String, Account> lockedAccounts = new LinkedHashMap<>();
+    for (Account account : accounts) {
+      lockedAccounts.put(account.getAccountNumber(), account);
+    }
+
+    log.debug("Service: Locked {} of {} requested accounts", lockedAccounts.size(),
+        distinctNumbers.size());
+    return lockedAccounts;
+  }
+}
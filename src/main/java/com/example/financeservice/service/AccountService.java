@@ -1,20 +1,28 @@
 package com.example.financeservice.service;
 
 
+import com.example.financeservice.dto.AccountBalanceDTO;
 import com.example.financeservice.dto.AccountDTO;
 import com.example.financeservice.dto.CreateAccountDTO;
-import com.example.financeservice.exception.InsufficientFundsException;
+import com.example.financeservice.dto.CursorPageDTO;
+import com.example.financeservice.exception.InvalidTransactionException;
 import com.example.financeservice.exception.ResourceNotFoundException;
+import com.example.financeservice.id.AccountNumberGenerator;
 import com.example.financeservice.model.Account;
 import com.example.financeservice.model.Client;
 import com.example.financeservice.model.Merchant;
 import com.example.financeservice.repository.AccountRepository;
 import com.example.financeservice.repository.ClientRepository;
 import com.example.financeservice.repository.MerchantRepository;
+import jakarta.persistence.EntityManager;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,10 +32,9 @@ import org.springframework.transaction.annotation.Transactional;
 public class AccountService {
 
   private static final String WITHDRAWAL = "withdrawal";
-  private static final String WITHDRAWAL_METRIC = "WITHDRAWAL";
-  private static final String DEPOSIT_METRIC = "DEPOSIT";
   private static final String ACCOUNT_REPOSITORY_METRIC = "AccountRepository";
   private static final String FIND_BY_ID = "findById";
+  private static final String EXISTS_BY_ID = "existsById";
   private static final String ACCOUNT_NOT_FOUND = "Service: Account not found with number: {}";
   private static final String ACCOUNT_NUMBER_NOT_FOUND = "Account not found with number: ";
   private static final String RESOURCE_NOT_FOUND = "ResourceNotFoundException";
@@ -36,106 +43,177 @@ public class AccountService {
   private final ClientRepository clientRepository;
   private final MerchantRepository merchantRepository;
   private final MetricsService metricsService;
-
+  private final AccountNumberGenerator accountNumberGenerator;
+  private final BalanceStripeService balanceStripeService;
+  private final JournalPostingService journalPostingService;
+  private final BalanceSnapshotService balanceSnapshotService;
+  private final AccountCache accountCache;
+  private final TransactionService transactionService;
+  private final EntityManager entityManager;
+
+  /**
+   * Accounts in id order, one page of at most {@code size} after the given cursor (from the start
+   * when null). Every page is a primary key range scan, so no request reads the whole table.
+   */
   @Transactional(readOnly = true)
-  public List<AccountDTO> getAllAccounts() {
-    log.debug("Service: Getting all accounts");
-
-    List<Account> accounts = metricsService.recordRepositoryExecutionTime(
-        ACCOUNT_REPOSITORY_METRIC, "findAll",
-        accountRepository::findAll);
-
-    log.debug("Service: Found {} accounts in database", accounts.size());
+  public CursorPageDTO<AccountDTO> getAccounts(String cursor, int size) {
+    log.debug("Service: Getting accounts after cursor: {}, size: {}", cursor, size);
 
-    return accounts.stream()
-        .map(this::convertToDTO)
-        .toList();
+    if (size < 1 || size > KeysetCursor.MAX_PAGE_SIZE) {
+      metricsService.recordExceptionOccurred("InvalidTransactionException", "getAccounts");
+      throw new InvalidTransactionException(
+          "Page size must be between 1 and " + KeysetCursor.MAX_PAGE_SIZE);
+    }
+    long afterId = cursor == null ? 0L : KeysetCursor.decode(cursor).id();
+
+    // One extra row tells whether there is a next page
+    List<AccountDTO> accounts = metricsService.recordRepositoryExecutionTime(
+        ACCOUNT_REPOSITORY_METRIC, "findDtoPageAfter",
+        () -> accountRepository.findDtoPageAfter(afterId, Limit.of(size + 1)));
+
+    boolean hasMore = accounts.size() > size;
+    List<AccountDTO> page = hasMore ? accounts.subList(0, size) : accounts;
+    log.debug("Service: Found {} accounts, more: {}", page.size(), hasMore);
+
+    return CursorPageDTO.<AccountDTO>builder()
+        .items(withJournalBalances(page))
+        .nextCursor(hasMore ? KeysetCursor.ofId(page.get(size - 1).getId()).encode() : null)
+        .hasMore(hasMore)
+        .build();
   }
 
+  // Served from the account cache; only a miss reads the database
   @Transactional(readOnly = true)
   public AccountDTO getAccountById(Long id) {
     log.debug("Service: Getting account with ID: {}", id);
 
-    Account account = metricsService.recordRepositoryExecutionTime(
-        ACCOUNT_REPOSITORY_METRIC, FIND_BY_ID,
-        () -> accountRepository.findById(id)
-            .orElseThrow(() -> {
-              log.error("Service: Account not found with ID: {}", id);
-              metricsService.recordExceptionOccurred(RESOURCE_NOT_FOUND, "getAccountById");
-              return new ResourceNotFoundException("Account not found with id: " + id);
-            }));
+    AccountDTO account = accountCache.getById(id, () -> convertToDTO(
+        metricsService.recordRepositoryExecutionTime(
+            ACCOUNT_REPOSITORY_METRIC, FIND_BY_ID,
+            () -> accountRepository.findById(id)
+                .orElseThrow(() -> {
+                  log.error("Service: Account not found with ID: {}", id);
+                  metricsService.recordExceptionOccurred(RESOURCE_NOT_FOUND, "getAccountById");
+                  return new ResourceNotFoundException("Account not found with id: " + id);
+                }))));
 
     log.debug("Service: Found account with ID: {}, number: {}", id, account.getAccountNumber());
-    return convertToDTO(account);
+    return withJournalBalance(account);
   }
 
   @Transactional(readOnly = true)
   public AccountDTO getAccountByNumber(String accountNumber) {
     log.debug("Service: Getting account with number: {}", accountNumber);
 
+    AccountDTO account = accountCache.getByNumber(accountNumber, () -> convertToDTO(
+        metricsService.recordRepositoryExecutionTime(
+            ACCOUNT_REPOSITORY_METRIC, "findByAccountNumber",
+            () -> accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> {
+                  log.error(ACCOUNT_NOT_FOUND, accountNumber);
+                  metricsService.recordExceptionOccurred(RESOURCE_NOT_FOUND,
+                      "getAccountByNumber");
+                  return new ResourceNotFoundException(
+                      ACCOUNT_NUMBER_NOT_FOUND + accountNumber);
+                }))));
+
+    log.debug("Service: Found account with number: {}, ID: {}", accountNumber, account.getId());
+    return withJournalBalance(account);
+  }
+
+  /**
+   * Balance of the account at a past instant, from the last daily snapshot before it plus the
+   * ledger entries in between.
+   */
+  @Transactional(readOnly = true)
+  public AccountBalanceDTO getBalanceAsOf(String accountNumber, LocalDateTime asOf) {
+    log.debug("Service: Getting balance of account: {} as of {}", accountNumber, asOf);
+    validateAsOf(asOf, "getBalanceAsOf");
+
     Account account = metricsService.recordRepositoryExecutionTime(
         ACCOUNT_REPOSITORY_METRIC, "findByAccountNumber",
         () -> accountRepository.findByAccountNumber(accountNumber)
             .orElseThrow(() -> {
               log.error(ACCOUNT_NOT_FOUND, accountNumber);
-              metricsService.recordExceptionOccurred(RESOURCE_NOT_FOUND,
-                  "getAccountByNumber");
-              return new ResourceNotFoundException(
-                  ACCOUNT_NUMBER_NOT_FOUND + accountNumber);
+              metricsService.recordExceptionOccurred(RESOURCE_NOT_FOUND, "getBalanceAsOf");
+              return new ResourceNotFoundException(ACCOUNT_NUMBER_NOT_FOUND + accountNumber);
             }));
 
-    log.debug("Service: Found account with number: {}, ID: {}", accountNumber, account.getId());
-    return convertToDTO(account);
+    BigDecimal balance = balanceSnapshotService.balanceAt(account, asOf);
+    log.debug("Service: Balance of account: {} as of {} was {}", accountNumber, asOf, balance);
+    return new AccountBalanceDTO(accountNumber, asOf, balance);
+  }
+
+  /**
+   * Balances of many accounts at the same past instant, in the order of the request.
+   */
+  @Transactional(readOnly = true)
+  public List<AccountBalanceDTO> getBalancesAsOf(List<String> accountNumbers,
+      LocalDateTime asOf) {
+    log.debug("Service: Getting balances of {} accounts as of {}", accountNumbers.size(), asOf);
+    validateAsOf(asOf, "getBalancesAsOf");
+
+    Map<String, Long> accountIds = metricsService.recordRepositoryExecutionTime(
+            ACCOUNT_REPOSITORY_METRIC, "findAllByAccountNumberIn",
+            () -> accountRepository.findAllByAccountNumberIn(accountNumbers))
+        .stream()
+        .collect(Collectors.toMap(Account::getAccountNumber, Account::getId));
+
+    List<String> missing = accountNumbers.stream()
+        .filter(accountNumber -> !accountIds.containsKey(accountNumber))
+        .distinct()
+        .toList();
+    if (!missing.isEmpty()) {
+      log.error("Service: Accounts not found: {}", missing);
+      metricsService.recordExceptionOccurred(RESOURCE_NOT_FOUND, "getBalancesAsOf");
+      throw new ResourceNotFoundException("Accounts not found with numbers: " + missing);
+    }
+
+    Map<Long, BigDecimal> balances = balanceSnapshotService.balancesAt(accountIds.values(), asOf);
+    return accountNumbers.stream()
+        .map(accountNumber -> new AccountBalanceDTO(accountNumber, asOf,
+            balances.get(accountIds.get(accountNumber))))
+        .toList();
   }
 
   @Transactional(readOnly = true)
   public List<AccountDTO> getAccountsByClient(Long clientId) {
     log.debug("Service: Getting accounts for client with ID: {}", clientId);
 
-    Client client = metricsService.recordRepositoryExecutionTime(
-        "ClientRepository", FIND_BY_ID,
-        () -> clientRepository.findById(clientId)
-            .orElseThrow(() -> {
-              log.error("Service: Client not found with ID: {}", clientId);
-              metricsService.recordExceptionOccurred(RESOURCE_NOT_FOUND,
-                  "getAccountsByClient");
-              return new ResourceNotFoundException("Client not found with id: " + clientId);
-            }));
+    List<AccountDTO> accounts = metricsService.recordRepositoryExecutionTime(
+        ACCOUNT_REPOSITORY_METRIC, "findDtosByClientId",
+        () -> accountRepository.findDtosByClientId(clientId));
 
-    List<Account> accounts = metricsService.recordRepositoryExecutionTime(
-        ACCOUNT_REPOSITORY_METRIC, "findByClient",
-        () -> accountRepository.findByClient(client));
+    // Only an empty list has to tell a client without accounts from a missing client
+    if (accounts.isEmpty() && !metricsService.recordRepositoryExecutionTime(
+        "ClientRepository", EXISTS_BY_ID, () -> clientRepository.existsById(clientId))) {
+      log.error("Service: Client not found with ID: {}", clientId);
+      metricsService.recordExceptionOccurred(RESOURCE_NOT_FOUND, "getAccountsByClient");
+      throw new ResourceNotFoundException("Client not found with id: " + clientId);
+    }
 
     log.debug("Service: Found {} accounts for client with ID: {}", accounts.size(), clientId);
-
-    return accounts.stream()
-        .map(this::convertToDTO)
-        .toList();
+    return withJournalBalances(accounts);
   }
 
   @Transactional(readOnly = true)
   public List<AccountDTO> getAccountsByMerchant(Long merchantId) {
     log.debug("Service: Getting accounts for merchant with ID: {}", merchantId);
 
-    Merchant merchant = metricsService.recordRepositoryExecutionTime(
-        "MerchantRepository", FIND_BY_ID,
-        () -> merchantRepository.findById(merchantId)
-            .orElseThrow(() -> {
-              log.error("Service: Merchant not found with ID: {}", merchantId);
-              metricsService.recordExceptionOccurred(RESOURCE_NOT_FOUND,
-                  "getAccountsByMerchant");
-              return new ResourceNotFoundException("Merchant not found with id: " + merchantId);
-            }));
+    List<AccountDTO> accounts = metricsService.recordRepositoryExecutionTime(
+        ACCOUNT_REPOSITORY_METRIC, "findDtosByMerchantId",
+        () -> accountRepository.findDtosByMerchantId(merchantId));
 
-    List<Account> accounts = metricsService.recordRepositoryExecutionTime(
-        ACCOUNT_REPOSITORY_METRIC, "findByMerchant",
-        () -> accountRepository.findByMerchant(merchant));
+    // Only an empty list has to tell a merchant without accounts from a missing merchant
+    if (accounts.isEmpty() && !metricsService.recordRepositoryExecutionTime(
+        "MerchantRepository", EXISTS_BY_ID, () -> merchantRepository.existsById(merchantId))) {
+      log.error("Service: Merchant not found with ID: {}", merchantId);
+      metricsService.recordExceptionOccurred(RESOURCE_NOT_FOUND, "getAccountsByMerchant");
+      throw new ResourceNotFoundException("Merchant not found with id: " + merchantId);
+    }
 
     log.debug("Service: Found {} accounts for merchant with ID: {}", accounts.size(), merchantId);
-
-    return accounts.stream()
-        .map(this::convertToDTO)
-        .toList();
+    return withJournalBalances(accounts);
   }
 
   @Transactional
@@ -154,17 +232,11 @@ public class AccountService {
             }));
 
     Account account = new Account();
+    account.setAccountNumber(accountNumberGenerator.nextAccountNumber());
     account.setType(createAccountDTO.getType());
     account.setBalance(BigDecimal.ZERO);
     account.setClient(client);
 
-    if (createAccountDTO.getInitialDeposit() != null
-        && createAccountDTO.getInitialDeposit().compareTo(BigDecimal.ZERO) > 0) {
-      account.setBalance(createAccountDTO.getInitialDeposit());
-      log.debug("Service: Setting initial deposit of {} for new account",
-          createAccountDTO.getInitialDeposit());
-    }
-
     if (createAccountDTO.getAvailableLimit() != null) {
       account.setAvailableLimit(createAccountDTO.getAvailableLimit());
       log.debug("Service: Setting available limit of {} for new account",
@@ -181,15 +253,7 @@ public class AccountService {
 
     // Registrar métricas
     metricsService.recordAccountCreated(savedAccount.getType().toString(), "CLIENT");
-
-    // Registrar o depósito inicial se houver
-    if (createAccountDTO.getInitialDeposit() != null
-        && createAccountDTO.getInitialDeposit().compareTo(BigDecimal.ZERO) > 0) {
-      metricsService.recordTransactionProcessed(DEPOSIT_METRIC,
-          createAccountDTO.getInitialDeposit(), true);
-      metricsService.recordDailyFinancialVolume(DEPOSIT_METRIC,
-          createAccountDTO.getInitialDeposit());
-    }
+    recordInitialDeposit(savedAccount, createAccountDTO.getInitialDeposit());
 
     return convertToDTO(savedAccount);
   }
@@ -210,17 +274,11 @@ public class AccountService {
             }));
 
     Account account = new Account();
+    account.setAccountNumber(accountNumberGenerator.nextAccountNumber());
     account.setType(createAccountDTO.getType());
     account.setBalance(BigDecimal.ZERO);
     account.setMerchant(merchant);
 
-    if (createAccountDTO.getInitialDeposit() != null
-        && createAccountDTO.getInitialDeposit().compareTo(BigDecimal.ZERO) > 0) {
-      account.setBalance(createAccountDTO.getInitialDeposit());
-      log.debug("Service: Setting initial deposit of {} for new account",
-          createAccountDTO.getInitialDeposit());
-    }
-
     if (createAccountDTO.getAvailableLimit() != null) {
       account.setAvailableLimit(createAccountDTO.getAvailableLimit());
       log.debug("Service: Setting available limit of {} for new account",
@@ -237,19 +295,15 @@ public class AccountService {
 
     // Registrar métricas
     metricsService.recordAccountCreated(savedAccount.getType().toString(), "MERCHANT");
-
-    // Registrar o depósito inicial se houver
-    if (createAccountDTO.getInitialDeposit() != null
-        && createAccountDTO.getInitialDeposit().compareTo(BigDecimal.ZERO) > 0) {
-      metricsService.recordTransactionProcessed(DEPOSIT_METRIC,
-          createAccountDTO.getInitialDeposit(), true);
-      metricsService.recordDailyFinancialVolume(DEPOSIT_METRIC,
-          createAccountDTO.getInitialDeposit());
-    }
+    recordInitialDeposit(savedAccount, createAccountDTO.getInitialDeposit());
 
     return convertToDTO(savedAccount);
   }
 
+  /**
+   * Deposits through {@link TransactionService#deposit}, so the deposit is recorded as a
+   * transaction with its ledger entry like any other posting, and returns the updated account.
+   */
   @Transactional
   public AccountDTO deposit(String accountNumber, BigDecimal amount) {
     log.debug("Service: Processing deposit of {} to account: {}", amount, accountNumber);
@@ -260,33 +314,13 @@ public class AccountService {
       throw new IllegalArgumentException("Deposit amount must be positive");
     }
 
-    Account account = metricsService.recordRepositoryExecutionTime(
-        ACCOUNT_REPOSITORY_METRIC, "findByAccountNumberWithLock",
-        () -> accountRepository.findByAccountNumberWithLock(accountNumber)
-            .orElseThrow(() -> {
-              log.error(ACCOUNT_NOT_FOUND, accountNumber);
-              metricsService.recordExceptionOccurred(RESOURCE_NOT_FOUND, "deposit");
-              return new ResourceNotFoundException(
-                  ACCOUNT_NUMBER_NOT_FOUND + accountNumber);
-            }));
-
-    BigDecimal previousBalance = account.getBalance();
-    account.setBalance(previousBalance.add(amount));
-    Account updatedAccount = metricsService.recordRepositoryExecutionTime(
-        ACCOUNT_REPOSITORY_METRIC, "save",
-        () -> accountRepository.save(account));
-
-    log.info(
-        "Service: Deposit successful for account: {}, amount: {}, previous balance: {}, new balance: {}",
-        accountNumber, amount, previousBalance, updatedAccount.getBalance());
-
-    // Registrar métricas de depósito
-    metricsService.recordTransactionProcessed(DEPOSIT_METRIC, amount, true);
-    metricsService.recordDailyFinancialVolume(DEPOSIT_METRIC, amount);
-
-    return convertToDTO(updatedAccount);
+    transactionService.deposit(accountNumber, amount, null);
+    return currentAccount(accountNumber);
   }
 
+  /**
+   * Withdraws through {@link TransactionService#withdraw} and returns the updated account.
+   */
   @Transactional
   public AccountDTO withdraw(String accountNumber, BigDecimal amount) {
     log.debug("Service: Processing withdrawal of {} from account: {}", amount, accountNumber);
@@ -297,40 +331,8 @@ public class AccountService {
       throw new IllegalArgumentException("Withdrawal amount must be positive");
     }
 
-    Account account = metricsService.recordRepositoryExecutionTime(
-        ACCOUNT_REPOSITORY_METRIC, "findByAccountNumberWithLock",
-        () -> accountRepository.findByAccountNumberWithLock(accountNumber)
-            .orElseThrow(() -> {
-              log.error(ACCOUNT_NOT_FOUND, accountNumber);
-              metricsService.recordExceptionOccurred(RESOURCE_NOT_FOUND, WITHDRAWAL);
-              return new ResourceNotFoundException(
-                  ACCOUNT_NUMBER_NOT_FOUND + accountNumber);
-            }));
-
-    if (account.getBalance().compareTo(amount) < 0) {
-      log.warn(
-          "Service: Insufficient funds for withdrawal. Account: {}, balance: {}, requested amount: {}",
-          accountNumber, account.getBalance(), amount);
-      metricsService.recordExceptionOccurred("InsufficientFundsException", WITHDRAWAL);
-      metricsService.recordTransactionProcessed(WITHDRAWAL_METRIC, amount, false);
-      throw new InsufficientFundsException("Insufficient funds for withdrawal");
-    }
-
-    BigDecimal previousBalance = account.getBalance();
-    account.setBalance(previousBalance.subtract(amount));
-    Account updatedAccount = metricsService.recordRepositoryExecutionTime(
-        ACCOUNT_REPOSITORY_METRIC, "save",
-        () -> accountRepository.save(account));
-
-    log.info(
-        "Service: Withdrawal successful for account: {}, amount: {}, previous balance: {}, new balance: {}",
-        accountNumber, amount, previousBalance, updatedAccount.getBalance());
-
-    // Registrar métricas de saque
-    metricsService.recordTransactionProcessed(WITHDRAWAL_METRIC, amount, true);
-    metricsService.recordDailyFinancialVolume(WITHDRAWAL_METRIC, amount);
-
-    return convertToDTO(updatedAccount);
+    transactionService.withdraw(accountNumber, amount, null);
+    return currentAccount(accountNumber);
   }
 
   @Transactional
@@ -347,6 +349,7 @@ public class AccountService {
               return new ResourceNotFoundException("Account not found with id: " + id);
             }));
 
+    accountCache.evictAfterCommit(account.getAccountNumber());
     Account.AccountStatus previousStatus = account.getStatus();
     account.setStatus(status);
     Account updatedAccount = metricsService.recordRepositoryExecutionTime(
@@ -359,17 +362,105 @@ public class AccountService {
 
     // Registrar métrica de atualização de status
     metricsService.recordAccountStatusUpdate(previousStatus.toString(), status.toString());
+    journalPostingService.accountStatusChanged(updatedAccount.getAccountNumber(), status);
+
+    return convertToDTO(updatedAccount);
+  }
+
+  @Transactional
+  public AccountDTO enableBalanceStriping(String accountNumber, int stripeCount) {
+    log.debug("Service: Enabling balance striping with {} stripes for account: {}", stripeCount,
+        accountNumber);
+
+    Account account = findAccountWithLock(accountNumber, "enableBalanceStriping");
+    accountCache.evictAfterCommit(accountNumber);
+    balanceStripeService.enableStriping(account, stripeCount);
+    Account updatedAccount = metricsService.recordRepositoryExecutionTime(
+        ACCOUNT_REPOSITORY_METRIC, "save",
+        () -> accountRepository.save(account));
 
     return convertToDTO(updatedAccount);
   }
 
+  @Transactional
+  public AccountDTO disableBalanceStriping(String accountNumber) {
+    log.debug("Service: Disabling balance striping for account: {}", accountNumber);
+
+    Account account = findAccountWithLock(accountNumber, "disableBalanceStriping");
+    accountCache.evictAfterCommit(accountNumber);
+    balanceStripeService.disableStriping(account);
+    Account updatedAccount = metricsService.recordRepositoryExecutionTime(
+        ACCOUNT_REPOSITORY_METRIC, "save",
+        () -> accountRepository.save(account));
+
+    return convertToDTO(updatedAccount);
+  }
+
+  // Registrar o depósito inicial se houver, como um depósito com o seu lançamento no razão
+  private void recordInitialDeposit(Account account, BigDecimal initialDeposit) {
+    if (initialDeposit == null || initialDeposit.compareTo(BigDecimal.ZERO) <= 0) {
+      return;
+    }
+
+    log.debug("Service: Recording initial deposit of {} for new account", initialDeposit);
+    transactionService.initialDeposit(account, initialDeposit);
+  }
+
+  private Account findAccountWithLock(String accountNumber, String operation) {
+    return metricsService.recordRepositoryExecutionTime(
+        ACCOUNT_REPOSITORY_METRIC, "findByAccountNumberWithLock",
+        () -> accountRepository.findByAccountNumberWithLock(accountNumber)
+            .orElseThrow(() -> {
+              log.error(ACCOUNT_NOT_FOUND, accountNumber);
+              metricsService.recordExceptionOccurred(RESOURCE_NOT_FOUND, operation);
+              return new ResourceNotFoundException(ACCOUNT_NUMBER_NOT_FOUND + accountNumber);
+            }));
+  }
+
+  // Unlocked postings change the row with bulk UPDATEs the loaded entity does not see, so the
+  // account is read again after the posting
+  private AccountDTO currentAccount(String accountNumber) {
+    Account account = metricsService.recordRepositoryExecutionTime(
+        ACCOUNT_REPOSITORY_METRIC, "findByAccountNumber",
+        () -> accountRepository.findByAccountNumber(accountNumber)
+            .orElseThrow(() -> new ResourceNotFoundException(
+                ACCOUNT_NUMBER_NOT_FOUND + accountNumber)));
+    entityManager.refresh(account);
+    return convertToDTO(account);
+  }
+
+  private void validateAsOf(LocalDateTime asOf, String operation) {
+    if (asOf.isAfter(LocalDateTime.now())) {
+      log.warn("Service: Balance requested for a future date: {}", asOf);
+      metricsService.recordExceptionOccurred("InvalidTransactionException", operation);
+      throw new InvalidTransactionException("Balance date cannot be in the future");
+    }
+  }
+
+  // The listing queries and the account cache hold the committed balance. In journal mode a loaded
+  // account has postings accepted but not yet written, and its in-memory balance is the current one
+  private List<AccountDTO> withJournalBalances(List<AccountDTO> accounts) {
+    accounts.forEach(this::withJournalBalance);
+    return accounts;
+  }
+
+  private AccountDTO withJournalBalance(AccountDTO account) {
+    journalPostingService.currentBalance(account.getAccountNumber())
+        .ifPresent(account::setBalance);
+    return account;
+  }
+
   // Helper methods for DTO conversion
   private AccountDTO convertToDTO(Account account) {
     AccountDTO dto = new AccountDTO();
     dto.setId(account.getId());
     dto.setAccountNumber(account.getAccountNumber());
     dto.setType(account.getType());
-    dto.setBalance(account.getBalance());
+    // Striped accounts report the consolidated balance plus the stripes not yet folded in. In
+    // journal mode the in-memory balance of a loaded account already includes both
+    dto.setBalance(journalPostingService.currentBalance(account.getAccountNumber())
+        .orElseGet(() -> account.getBalance().add(balanceStripeService.stripedBalance(account))));
+    dto.setBalanceStripes(account.getBalanceStripes());
     dto.setAvailableLimit(account.getAvailableLimit());
     dto.setStatus(account.getStatus());
     dto.setCreatedAt(account.getCreatedAt());
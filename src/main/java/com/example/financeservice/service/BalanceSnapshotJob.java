@@ -0,0 +1,257 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.model.BalanceSnapshotRun;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.BalanceSnapshotRunRepository;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the closing balance of every account for each day. Accounts are taken in id order in
+ * chunks of {@code finance.balance-snapshot.chunk-size}, up to
+ * {@code finance.balance-snapshot.parallelism} chunks at a time, each in its own transaction.
+ *
+ * <p>Progress is kept in {@link BalanceSnapshotRun}: after every round of chunks the run records
+ * the last account of the last chunk that completed with all the chunks before it. A run that
+ * failed or was interrupted continues from there; chunks past that point that had already
+ * committed are skipped account by account.
+ *
+ * <p>On startup and on every tick the job works through the days from the earliest one without a
+ * completed run up to yesterday, so a day missed while no instance was up, or that failed, is
+ * taken again. Every instance runs the job, and each day is claimed in the database for
+ * {@code finance.balance-snapshot.claim-lease-ms} before it is run, the lease being renewed with
+ * every checkpoint. A day is also left for a later tick while this instance's ledger journal
+ * still holds postings of that day not written to the database.
+ */
+@Component
+@ConditionalOnProperty(name = "finance.balance-snapshot.enabled", havingValue = "true",
+    matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceSnapshotJob {
+
+  private static final String OPERATION_SNAPSHOT = "snapshotBalances";
+  private static final String RUN_REPOSITORY = "BalanceSnapshotRunRepository";
+  private static final String ACCOUNT_REPOSITORY = "AccountRepository";
+
+  private final BalanceSnapshotService balanceSnapshotService;
+  private final BalanceSnapshotRunRepository runRepository;
+  private final AccountRepository accountRepository;
+  private final JournalPostingService journalPostingService;
+  private final MetricsService metricsService;
+
+  // Owner of the runs this instance claims
+  private final String instanceId = UUID.randomUUID().toString();
+
+  @Value("${finance.balance-snapshot.chunk-size:500}")
+  private int chunkSize = 500;
+
+  @Value("${finance.balance-snapshot.parallelism:4}")
+  private int parallelism = 4;
+
+  @Value("${finance.balance-snapshot.claim-lease-ms:600000}")
+  private long claimLeaseMs = 600000;
+
+  @Value("${finance.balance-snapshot.run-on-startup:true}")
+  private boolean runOnStartup = true;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void snapshotPendingDaysOnStartup() {
+    if (runOnStartup) {
+      snapshotPendingDays();
+    }
+  }
+
+  @Scheduled(cron = "${finance.balance-snapshot.cron:0 5 * * * *}")
+  public void snapshotPendingDays() {
+    LocalDate yesterday = LocalDate.now().minusDays(1);
+    LocalDate date = firstPendingDay(yesterday);
+    try {
+      // Days are taken in order and the first one left unfinished waits for the next tick
+      while (!date.isAfter(yesterday)) {
+        run(date);
+        if (!isCompleted(date)) {
+          break;
+        }
+        date = date.plusDays(1);
+      }
+    } catch (RuntimeException e) {
+      // Already logged; the next tick resumes this day from its checkpoint
+    }
+  }
+
+  /**
+   * Snapshots every account for the given day, continuing a previous run of the same day if
+   * there is one. Nothing is written while another instance holds the run or this instance's
+   * journal has postings of the day not written to the database yet.
+   *
+   * @return number of snapshots written by this call
+   */
+  public int run(LocalDate date) {
+    LocalDateTime closedAt = date.plusDays(1).atStartOfDay();
+    journalPostingService.flushPending();
+    if (journalPostingService.hasUnflushedBefore(closedAt)) {
+      log.warn("Service: Balance snapshots for {} postponed, the journal has postings of the day "
+          + "not written yet", date);
+      return 0;
+    }
+
+    BalanceSnapshotRun run = claim(date);
+    if (run == null) {
+      return 0;
+    }
+
+    log.info("Service: Taking balance snapshots for {} from account id {}", date,
+        run.getLastAccountId());
+    var timer = metricsService.startTimer();
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    int written = 0;
+    try {
+      List<List<Long>> round = nextRound(run.getLastAccountId());
+      while (!round.isEmpty()) {
+        List<Future<Integer>> results = new ArrayList<>(round.size());
+        for (List<Long> chunk : round) {
+          results.add(executor.submit(() -> balanceSnapshotService.snapshotChunk(date, chunk)));
+        }
+
+        // Every chunk is waited for, so a failure never leaves one running behind the checkpoint
+        RuntimeException failure = null;
+        for (int i = 0; i < round.size(); i++) {
+          try {
+            written += results.get(i).get();
+            if (failure == null) {
+              List<Long> chunk = round.get(i);
+              run.setLastAccountId(chunk.get(chunk.size() - 1));
+            }
+          } catch (ExecutionException e) {
+            failure = failure != null ? failure : asRuntimeException(e.getCause());
+          }
+        }
+
+        checkpoint(run);
+        if (failure != null) {
+          throw failure;
+        }
+        round = nextRound(run.getLastAccountId());
+      }
+
+      run.setCompletedAt(LocalDateTime.now());
+      checkpoint(run);
+      log.info("Service: Balance snapshots for {} completed, {} written", date, written);
+      return written;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Balance snapshot run for " + date + " was interrupted", e);
+    } catch (RuntimeException e) {
+      log.error("Service: Balance snapshots for {} stopped after account id {}", date,
+          run.getLastAccountId(), e);
+      metricsService.recordExceptionOccurred(e.getClass().getSimpleName(), OPERATION_SNAPSHOT);
+      throw e;
+    } finally {
+      executor.shutdownNow();
+      metricsService.stopTimer(timer, "finance.balance_snapshots.time");
+    }
+  }
+
+  // Up to `parallelism` consecutive chunks of account ids after the given one
+  private List<List<Long>> nextRound(long afterId) {
+    List<List<Long>> round = new ArrayList<>(parallelism);
+    long cursor = afterId;
+    while (round.size() < parallelism) {
+      long after = cursor;
+      List<Long> chunk = metricsService.recordRepositoryExecutionTime(
+          ACCOUNT_REPOSITORY, "findIdsAfter",
+          () -> accountRepository.findIdsAfter(after, PageRequest.of(0, chunkSize)));
+      if (chunk.isEmpty()) {
+        break;
+      }
+      round.add(chunk);
+      cursor = chunk.get(chunk.size() - 1);
+    }
+    return round;
+  }
+
+  // Earliest day without a completed run: an unfinished one, or the day after the last completed
+  private LocalDate firstPendingDay(LocalDate yesterday) {
+    LocalDate afterCompleted = metricsService.recordRepositoryExecutionTime(
+            RUN_REPOSITORY, "findFirstByCompletedAtIsNotNull",
+            runRepository::findFirstByCompletedAtIsNotNullOrderBySnapshotDateDesc)
+        .map(run -> run.getSnapshotDate().plusDays(1))
+        .orElse(yesterday);
+    return metricsService.recordRepositoryExecutionTime(
+            RUN_REPOSITORY, "findFirstByCompletedAtIsNull",
+            runRepository::findFirstByCompletedAtIsNullOrderBySnapshotDateAsc)
+        .map(BalanceSnapshotRun::getSnapshotDate)
+        .filter(unfinished -> unfinished.isBefore(afterCompleted))
+        .orElse(afterCompleted);
+  }
+
+  private boolean isCompleted(LocalDate date) {
+    return metricsService.recordRepositoryExecutionTime(RUN_REPOSITORY, "findById",
+            () -> runRepository.findById(date))
+        .map(BalanceSnapshotRun::isCompleted)
+        .orElse(false);
+  }
+
+  // The run of the day claimed for this instance, or null when it is completed or held by another
+  private BalanceSnapshotRun claim(LocalDate date) {
+    try {
+      metricsService.recordRepositoryExecutionTime(RUN_REPOSITORY, "saveAndFlush", () -> {
+        if (!runRepository.existsById(date)) {
+          runRepository.saveAndFlush(new BalanceSnapshotRun(date, 0L, null, null, null, null));
+        }
+        return null;
+      });
+    } catch (DataIntegrityViolationException e) {
+      // Another instance created the run at the same time; the claim below decides
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    int claimed = metricsService.recordRepositoryExecutionTime(RUN_REPOSITORY, "claim",
+        () -> runRepository.claim(date, instanceId, now.plus(Duration.ofMillis(claimLeaseMs)),
+            now));
+    if (claimed == 0) {
+      log.debug("Service: Balance snapshots for {} completed or claimed by another instance",
+          date);
+      return null;
+    }
+
+    return metricsService.recordRepositoryExecutionTime(RUN_REPOSITORY, "findById",
+        () -> runRepository.findById(date).orElseThrow());
+  }
+
+  private void checkpoint(BalanceSnapshotRun run) {
+    LocalDateTime now = LocalDateTime.now();
+    int updated = metricsService.recordRepositoryExecutionTime(RUN_REPOSITORY, "checkpoint",
+        () -> runRepository.checkpoint(run.getSnapshotDate(), instanceId, run.getLastAccountId(),
+            run.getCompletedAt(), now.plus(Duration.ofMillis(claimLeaseMs)), now));
+    if (updated == 0) {
+      throw new IllegalStateException("Balance snapshot run for " + run.getSnapshotDate()
+          + " was claimed by another instance");
+    }
+  }
+
+  private static RuntimeException asRuntimeException(Throwable cause) {
+    return cause instanceof RuntimeException runtime
+        ? runtime
+        : new IllegalStateException(cause);
+  }
+}
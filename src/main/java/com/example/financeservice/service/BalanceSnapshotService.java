@@ -0,0 +1,202 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.AccountBalanceSnapshot;
+import com.example.financeservice.repository.AccountBalanceSnapshotRepository;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.AccountRepository.BalanceAtView;
+import com.example.financeservice.repository.LedgerEntryRepository;
+import com.example.financeservice.repository.LedgerEntryRepository.AccountAmountView;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Daily closing balances and the balance of an account at any instant. The balance at an instant
+ * is the closing balance of the last snapshot before it plus the entries posted in between, so
+ * the cost depends on the time since the last snapshot and not on the age of the account. Before
+ * the first snapshot of an account it is worked back from that snapshot instead, and an account
+ * with no snapshot at all, created since the last run, is worked back from its current balance.
+ * Either way only the entries of the account's first day or so are read.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceSnapshotService {
+
+  private static final String SNAPSHOT_REPOSITORY = "AccountBalanceSnapshotRepository";
+  private static final String ACCOUNT_REPOSITORY = "AccountRepository";
+  private static final String LEDGER_ENTRY_REPOSITORY = "LedgerEntryRepository";
+
+  private final AccountBalanceSnapshotRepository snapshotRepository;
+  private final AccountRepository accountRepository;
+  private final LedgerEntryRepository ledgerEntryRepository;
+  private final MetricsService metricsService;
+
+  /**
+   * Writes the closing balance of the given day for a chunk of accounts, in one transaction.
+   * Accounts that already have a snapshot for that day are skipped, so a chunk can be run again
+   * after a restart.
+   *
+   * @return number of snapshots written
+   */
+  @Transactional
+  public int snapshotChunk(LocalDate date, List<Long> accountIds) {
+    Set<Long> pending = new HashSet<>(accountIds);
+    pending.removeAll(metricsService.recordRepositoryExecutionTime(
+        SNAPSHOT_REPOSITORY, "findSnapshottedAccountIds",
+        () -> snapshotRepository.findSnapshottedAccountIds(date, accountIds)));
+    if (pending.isEmpty()) {
+      return 0;
+    }
+
+    LocalDateTime closedAt = date.plusDays(1).atStartOfDay();
+    List<BalanceAtView> balances = metricsService.recordRepositoryExecutionTime(
+        ACCOUNT_REPOSITORY, "findBalancesAt",
+        () -> accountRepository.findBalancesAt(pending, closedAt));
+
+    List<AccountBalanceSnapshot> snapshots = balances.stream()
+        .map(balance -> new AccountBalanceSnapshot(null,
+            accountRepository.getReferenceById(balance.getAccountId()), date,
+            balance.getBalance(), null))
+        .toList();
+
+    metricsService.recordRepositoryExecutionTime(
+        SNAPSHOT_REPOSITORY, "saveAll",
+        () -> snapshotRepository.saveAll(snapshots));
+
+    log.debug("Service: Wrote {} balance snapshots for {}", snapshots.size(), date);
+    return snapshots.size();
+  }
+
+  /**
+   * Balance of the account at the given instant, balance stripes included: the last snapshot
+   * closed at or before it plus the entries posted since. Without one, the first snapshot closed
+   * after the instant minus the entries posted in between, or, for an account that has no
+   * snapshot yet, the current balance minus the entries posted after the instant.
+   */
+  @Transactional(readOnly = true)
+  public BigDecimal balanceAt(Account account, LocalDateTime at) {
+    Optional<AccountBalanceSnapshot> snapshot = metricsService.recordRepositoryExecutionTime(
+        SNAPSHOT_REPOSITORY, "findFirstByAccountAndSnapshotDateBefore",
+        () -> snapshotRepository.findFirstByAccountAndSnapshotDateBeforeOrderBySnapshotDateDesc(
+            account, at.toLocalDate()));
+
+    if (snapshot.isPresent()) {
+      BigDecimal delta = metricsService.recordRepositoryExecutionTime(
+          LEDGER_ENTRY_REPOSITORY, "sumSignedAmount",
+          () -> ledgerEntryRepository.sumSignedAmount(account, snapshot.get().closedAt(), at));
+      return snapshot.get().getClosingBalance().add(delta);
+    }
+
+    log.debug("Service: No balance snapshot before {} for account: {}", at,
+        account.getAccountNumber());
+    Optional<AccountBalanceSnapshot> next = metricsService.recordRepositoryExecutionTime(
+        SNAPSHOT_REPOSITORY, "findFirstByAccountAndSnapshotDateGreaterThanEqual",
+        () -> snapshotRepository
+            .findFirstByAccountAndSnapshotDateGreaterThanEqualOrderBySnapshotDateAsc(
+                account, at.toLocalDate()));
+
+    if (next.isPresent()) {
+      BigDecimal delta = metricsService.recordRepositoryExecutionTime(
+          LEDGER_ENTRY_REPOSITORY, "sumSignedAmount",
+          () -> ledgerEntryRepository.sumSignedAmount(account, at, next.get().closedAt()));
+      return next.get().getClosingBalance().subtract(delta);
+    }
+
+    return metricsService.recordRepositoryExecutionTime(
+            ACCOUNT_REPOSITORY, "findBalancesAt",
+            () -> accountRepository.findBalancesAt(List.of(account.getId()), at))
+        .get(0)
+        .getBalance();
+  }
+
+  /**
+   * Same as {@link #balanceAt} for many accounts at once, keyed by account id. Snapshots are
+   * normally all from the same night, so this takes one snapshot query, one ledger query per
+   * distinct snapshot day, the same again for the accounts with no snapshot before the instant,
+   * and one query for the accounts without any snapshot.
+   */
+  @Transactional(readOnly = true)
+  public Map<Long, BigDecimal> balancesAt(Collection<Long> accountIds, LocalDateTime at) {
+    List<AccountBalanceSnapshot> snapshots = metricsService.recordRepositoryExecutionTime(
+        SNAPSHOT_REPOSITORY, "findLatestBefore",
+        () -> snapshotRepository.findLatestBefore(accountIds, at.toLocalDate()));
+
+    Map<Long, BigDecimal> balances = new HashMap<>(accountIds.size());
+    Map<LocalDate, List<AccountBalanceSnapshot>> byDate = snapshots.stream()
+        .collect(Collectors.groupingBy(AccountBalanceSnapshot::getSnapshotDate));
+    for (List<AccountBalanceSnapshot> sameDay : byDate.values()) {
+      List<Long> ids = sameDay.stream()
+          .map(snapshot -> snapshot.getAccount().getId())
+          .toList();
+      Map<Long, BigDecimal> deltas = metricsService.recordRepositoryExecutionTime(
+              LEDGER_ENTRY_REPOSITORY, "sumSignedAmountByAccount",
+              () -> ledgerEntryRepository.sumSignedAmountByAccount(ids,
+                  sameDay.get(0).closedAt(), at))
+          .stream()
+          .collect(Collectors.toMap(AccountAmountView::getAccountId,
+              AccountAmountView::getAmount));
+
+      for (AccountBalanceSnapshot snapshot : sameDay) {
+        Long accountId = snapshot.getAccount().getId();
+        balances.put(accountId, snapshot.getClosingBalance()
+            .add(deltas.getOrDefault(accountId, BigDecimal.ZERO)));
+      }
+    }
+
+    List<Long> withoutEarlierSnapshot = accountIds.stream()
+        .filter(accountId -> !balances.containsKey(accountId))
+        .toList();
+    if (!withoutEarlierSnapshot.isEmpty()) {
+      List<AccountBalanceSnapshot> nextSnapshots = metricsService.recordRepositoryExecutionTime(
+          SNAPSHOT_REPOSITORY, "findEarliestFrom",
+          () -> snapshotRepository.findEarliestFrom(withoutEarlierSnapshot, at.toLocalDate()));
+
+      Map<LocalDate, List<AccountBalanceSnapshot>> nextByDate = nextSnapshots.stream()
+          .collect(Collectors.groupingBy(AccountBalanceSnapshot::getSnapshotDate));
+      for (List<AccountBalanceSnapshot> sameDay : nextByDate.values()) {
+        List<Long> ids = sameDay.stream()
+            .map(snapshot -> snapshot.getAccount().getId())
+            .toList();
+        Map<Long, BigDecimal> deltas = metricsService.recordRepositoryExecutionTime(
+                LEDGER_ENTRY_REPOSITORY, "sumSignedAmountByAccount",
+                () -> ledgerEntryRepository.sumSignedAmountByAccount(ids, at,
+                    sameDay.get(0).closedAt()))
+            .stream()
+            .collect(Collectors.toMap(AccountAmountView::getAccountId,
+                AccountAmountView::getAmount));
+
+        for (AccountBalanceSnapshot snapshot : sameDay) {
+          Long accountId = snapshot.getAccount().getId();
+          balances.put(accountId, snapshot.getClosingBalance()
+              .subtract(deltas.getOrDefault(accountId, BigDecimal.ZERO)));
+        }
+      }
+    }
+
+    List<Long> withoutSnapshot = accountIds.stream()
+        .filter(accountId -> !balances.containsKey(accountId))
+        .toList();
+    if (!withoutSnapshot.isEmpty()) {
+      metricsService.recordRepositoryExecutionTime(
+              ACCOUNT_REPOSITORY, "findBalancesAt",
+              () -> accountRepository.findBalancesAt(withoutSnapshot, at))
+          .forEach(balance -> balances.put(balance.getAccountId(), balance.getBalance()));
+    }
+
+    return balances;
+  }
+}
@@ -0,0 +1,59 @@
+package com.example.financeservice.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically folds the balance stripes of every striped account back into the account balance,
+ * one short transaction per account, and refreshes the list of striped accounts used to route
+ * credits.
+ */
+@Component
+@ConditionalOnProperty(name = "finance.balance-striping.consolidator.enabled",
+    havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceStripeConsolidator {
+
+  private static final String OPERATION_CONSOLIDATE = "consolidateBalanceStripes";
+
+  private final BalanceStripeService balanceStripeService;
+  private final MetricsService metricsService;
+
+  @Scheduled(fixedDelayString = "${finance.balance-striping.consolidation-interval-ms:30000}")
+  public void consolidateAll() {
+    var timer = metricsService.startTimer();
+    List<String> accountNumbers;
+    try {
+      accountNumbers = balanceStripeService.refreshStripedAccounts();
+    } catch (RuntimeException e) {
+      log.error("Service: Failed to load striped accounts", e);
+      metricsService.recordExceptionOccurred(e.getClass().getSimpleName(), OPERATION_CONSOLIDATE);
+      return;
+    }
+
+    BigDecimal total = BigDecimal.ZERO;
+    for (String accountNumber : accountNumbers) {
+      try {
+        total = total.add(balanceStripeService.consolidate(accountNumber));
+      } catch (RuntimeException e) {
+        // The stripes stay as they are and are picked up again on the next run
+        log.warn("Service: Failed to consolidate balance stripes of account: {}", accountNumber,
+            e);
+        metricsService.recordExceptionOccurred(e.getClass().getSimpleName(),
+            OPERATION_CONSOLIDATE);
+      }
+    }
+
+    metricsService.stopTimer(timer, "finance.balance_stripes.consolidation.time");
+    if (!accountNumbers.isEmpty()) {
+      log.info("Service: Consolidated {} from the balance stripes of {} accounts", total,
+          accountNumbers.size());
+    }
+  }
+}
@@ -0,0 +1,246 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.exception.InvalidTransactionException;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.AccountBalanceStripe;
+import com.example.financeservice.repository.AccountBalanceStripeRepository;
+import com.example.financeservice.repository.AccountRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Striped balances for hot merchant accounts. The balance of a striped account is
+ * {@code accounts.balance} plus the sum of its {@link AccountBalanceStripe} rows. Credits go to a
+ * random stripe with a single UPDATE, so concurrent credits to the same merchant only collide when
+ * they pick the same stripe instead of all queueing on the account row.
+ *
+ * <p>Debits still lock the account row. When the consolidated balance alone does not cover a
+ * debit, the stripes are folded into it first. Locks are always taken account row first and
+ * stripes last, and a credit holds no stripe while it waits for its own. The one transaction that
+ * needs stripes of two accounts, a debit that consolidates its source and then credits a striped
+ * destination, locks the stripes of both in a single query ordered by account id, so it never
+ * waits for a stripe while holding others and two such transfers in opposite directions cannot
+ * deadlock.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceStripeService {
+
+  public static final int MAX_STRIPES = 64;
+
+  private static final String STRIPE_REPOSITORY = "AccountBalanceStripeRepository";
+  private static final String ACCOUNT_REPOSITORY = "AccountRepository";
+
+  private final AccountBalanceStripeRepository stripeRepository;
+  private final AccountRepository accountRepository;
+  private final MetricsService metricsService;
+
+  // Routing hint only: callers check Account.isBalanceStriped() on the loaded entity before
+  // crediting a stripe, and crediting accounts.balance is always valid, so a stale entry (e.g.
+  // striping enabled on another instance) costs contention but never money
+  private final Set<String> stripedAccountNumbers = ConcurrentHashMap.newKeySet();
+
+  public boolean isStriped(String accountNumber) {
+    return stripedAccountNumbers.contains(accountNumber);
+  }
+
+  /**
+   * Creates the stripes of a merchant account. The account must be locked by the caller.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void enableStriping(Account account, int stripeCount) {
+    if (account.getMerchant() == null) {
+      log.warn("Service: Balance striping requested for non-merchant account: {}",
+          account.getAccountNumber());
+      metricsService.recordExceptionOccurred("InvalidTransactionException", "enableStriping");
+      throw new InvalidTransactionException("Balance striping is only available for merchant accounts");
+    }
+
+    if (stripeCount < 2 || stripeCount > MAX_STRIPES) {
+      metricsService.recordExceptionOccurred("IllegalArgumentException", "enableStriping");
+      throw new IllegalArgumentException(
+          "Stripe count must be between 2 and " + MAX_STRIPES + ", got " + stripeCount);
+    }
+
+    if (account.isBalanceStriped()) {
+      log.warn("Service: Balance striping already enabled for account: {}",
+          account.getAccountNumber());
+      metricsService.recordExceptionOccurred("InvalidTransactionException", "enableStriping");
+      throw new InvalidTransactionException("Balance striping is already enabled for this account");
+    }
+
+    List<AccountBalanceStripe> stripes = new ArrayList<>(stripeCount);
+    for (int index = 0; index < stripeCount; index++) {
+      stripes.add(new AccountBalanceStripe(account, index));
+    }
+    metricsService.recordRepositoryExecutionTime(STRIPE_REPOSITORY, "saveAll",
+        () -> stripeRepository.saveAll(stripes));
+
+    account.setBalanceStripes(stripeCount);
+    stripedAccountNumbers.add(account.getAccountNumber());
+
+    log.info("Service: Balance striping enabled for account: {} with {} stripes",
+        account.getAccountNumber(), stripeCount);
+  }
+
+  /**
+   * Folds the stripes into the account balance and removes them. The account must be locked by
+   * the caller.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void disableStriping(Account account) {
+    if (!account.isBalanceStriped()) {
+      return;
+    }
+
+    consolidate(account);
+    metricsService.recordRepositoryExecutionTime(STRIPE_REPOSITORY, "deleteAllByAccountId",
+        () -> stripeRepository.deleteAllByAccountId(account.getId()));
+
+    account.setBalanceStripes(null);
+    stripedAccountNumbers.remove(account.getAccountNumber());
+
+    log.info("Service: Balance striping disabled for account: {}", account.getAccountNumber());
+  }
+
+  /**
+   * Adds the amount to a random stripe of the account. The account row is neither locked nor
+   * updated; its status must have been checked by the caller.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void credit(Account account, BigDecimal amount) {
+    // Random rather than hashed: a hash of the payer would send one busy payer to a single stripe
+    int stripeIndex = ThreadLocalRandom.current().nextInt(account.getBalanceStripes());
+
+    int updatedRows = metricsService.recordRepositoryExecutionTime(
+        STRIPE_REPOSITORY, "creditStripe",
+        () -> stripeRepository.creditStripe(account.getId(), stripeIndex, amount));
+
+    if (updatedRows == 0) {
+      throw new IllegalStateException("Balance stripe " + stripeIndex + " missing for account "
+          + account.getAccountNumber());
+    }
+
+    log.debug("Service: Credited {} to stripe {} of account {}", amount, stripeIndex,
+        account.getAccountNumber());
+  }
+
+  /**
+   * Sum of the stripes not yet consolidated, zero for accounts without striping.
+   */
+  public BigDecimal stripedBalance(Account account) {
+    if (!account.isBalanceStriped()) {
+      return BigDecimal.ZERO;
+    }
+
+    return metricsService.recordRepositoryExecutionTime(STRIPE_REPOSITORY, "sumBalanceByAccountId",
+        () -> stripeRepository.sumBalanceByAccountId(account.getId()));
+  }
+
+  public BigDecimal stripedBalance(String accountNumber) {
+    if (!isStriped(accountNumber)) {
+      return BigDecimal.ZERO;
+    }
+
+    return metricsService.recordRepositoryExecutionTime(STRIPE_REPOSITORY,
+        "sumBalanceByAccountNumber",
+        () -> stripeRepository.sumBalanceByAccountNumber(accountNumber));
+  }
+
+  /**
+   * Moves the stripe balances into the account balance. The account must be locked by the caller
+   * and loaded in the current transaction, since its in-memory balance is updated.
+   *
+   * @return the amount moved from the stripes
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public BigDecimal consolidate(Account account) {
+    if (!account.isBalanceStriped()) {
+      return BigDecimal.ZERO;
+    }
+
+    List<AccountBalanceStripe> stripes = metricsService.recordRepositoryExecutionTime(
+        STRIPE_REPOSITORY, "findAllByAccountIdWithLock",
+        () -> stripeRepository.findAllByAccountIdWithLock(account.getId()));
+
+    return fold(account, stripes);
+  }
+
+  /**
+   * Like {@link #consolidate(Account)}, for a debit that goes on to credit a stripe of
+   * {@code creditedAccount}: the stripes of both accounts are locked together, in account id order.
+   *
+   * @return the amount moved from the stripes of {@code account}
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public BigDecimal consolidate(Account account, Account creditedAccount) {
+    if (!account.isBalanceStriped()) {
+      return BigDecimal.ZERO;
+    }
+    if (!creditedAccount.isBalanceStriped()) {
+      return consolidate(account);
+    }
+
+    List<AccountBalanceStripe> stripes = metricsService.recordRepositoryExecutionTime(
+        STRIPE_REPOSITORY, "findAllByAccountIdInWithLock",
+        () -> stripeRepository.findAllByAccountIdInWithLock(
+            List.of(account.getId(), creditedAccount.getId())));
+
+    return fold(account, stripes.stream()
+        .filter(stripe -> stripe.getAccount().getId().equals(account.getId()))
+        .toList());
+  }
+
+  private BigDecimal fold(Account account, List<AccountBalanceStripe> stripes) {
+    BigDecimal total = BigDecimal.ZERO;
+    for (AccountBalanceStripe stripe : stripes) {
+      if (stripe.getBalance().signum() != 0) {
+        total = total.add(stripe.getBalance());
+        stripe.setBalance(BigDecimal.ZERO);
+      }
+    }
+
+    if (total.signum() != 0) {
+      account.setBalance(account.getBalance().add(total));
+      log.debug("Service: Consolidated {} from {} stripes into account {}", total, stripes.size(),
+          account.getAccountNumber());
+    }
+
+    return total;
+  }
+
+  /**
+   * Locks the account and consolidates its stripes in a transaction of its own.
+   */
+  @Transactional
+  public BigDecimal consolidate(String accountNumber) {
+    return metricsService.recordRepositoryExecutionTime(
+            ACCOUNT_REPOSITORY, "findByAccountNumberWithLock",
+            () -> accountRepository.findByAccountNumberWithLock(accountNumber))
+        .map(this::consolidate)
+        .orElse(BigDecimal.ZERO);
+  }
+
+  /**
+   * Reloads the striped account numbers from the database.
+   */
+  public List<String> refreshStripedAccounts() {
+    List<String> accountNumbers = metricsService.recordRepositoryExecutionTime(
+        ACCOUNT_REPOSITORY, "findStripedAccountNumbers",
+        accountRepository::findStripedAccountNumbers);
+
+    stripedAccountNumbers.retainAll(accountNumbers);
+    stripedAccountNumbers.addAll(accountNumbers);
+    return accountNumbers;
+  }
+}
@@ -0,0 +1,215 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.dto.AccountDTO;
+import com.example.financeservice.dto.ClientDTO;
+import com.example.financeservice.dto.TransactionDTO;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.Client;
+import com.example.financeservice.model.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Admin bulk exports: a whole table as gzip-compressed NDJSON, one object per row, in id order.
+ * Rows are read through a server-side cursor {@code finance.export.fetch-size} at a time,
+ * compressed and written as they arrive, and detached from the persistence context after every
+ * fetch, so memory use does not depend on the size of the table.
+ *
+ * <p>Rows are exported as committed in the database; account balances include their stripes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkExportService {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final EntityManager entityManager;
+  private final TransactionTemplate transactionTemplate;
+  private final MetricsService metricsService;
+  private final ObjectMapper objectMapper;
+
+  @Value("${finance.export.fetch-size:1000}")
+  private int fetchSize = 1000;
+
+  public enum Table {
+    TRANSACTIONS("SELECT t FROM Transaction t LEFT JOIN FETCH t.sourceAccount "
+        + "LEFT JOIN FETCH t.destinationAccount ORDER BY t.id",
+        row -> toTransaction((Transaction) row)),
+    ACCOUNTS("SELECT a, a.balance + (SELECT COALESCE(SUM(s.balance), 0) "
+        + "FROM AccountBalanceStripe s WHERE s.account = a) "
+        + "FROM Account a LEFT JOIN FETCH a.client LEFT JOIN FETCH a.merchant ORDER BY a.id",
+        row -> toAccount((Object[]) row)),
+    CLIENTS("SELECT c FROM Client c ORDER BY c.id",
+        row -> toClient((Client) row));
+
+    private final String query;
+    private final Function<Object, Object> mapper;
+
+    Table(String query, Function<Object, Object> mapper) {
+      this.query = query;
+      this.mapper = mapper;
+    }
+
+    public String getFileName() {
+      return name().toLowerCase(Locale.ROOT) + ".ndjson.gz";
+    }
+  }
+
+  /**
+   * Returns the body that streams the table. Nothing is read until the response is written.
+   */
+  public StreamingResponseBody export(Table table) {
+    return out -> write(table, out);
+  }
+
+  private void write(Table table, OutputStream out) {
+    long start = System.nanoTime();
+    var timer = metricsService.startTimer();
+    // Runs on the async request thread, after the controller returned
+    TransactionTemplate readOnly = new TransactionTemplate(
+        transactionTemplate.getTransactionManager());
+    readOnly.setReadOnly(true);
+    CountingOutputStream counted = new CountingOutputStream(out);
+
+    try {
+      Long rows = readOnly.execute(status -> {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(counted, BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE);
+            Stream<?> results = entityManager.createQuery(table.query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+          long written = 0;
+          Iterator<?> iterator = results.iterator();
+          while (iterator.hasNext()) {
+            writer.write(objectMapper.writeValueAsString(table.mapper.apply(iterator.next())));
+            writer.write('\n');
+
+            if (++written % fetchSize == 0) {
+              entityManager.clear();
+            }
+          }
+          return written;
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+
+      Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+      metricsService.recordBulkExport(table.name(), rows, counted.count, elapsed);
+      log.info("Service: Exported {} rows of {} ({} bytes compressed) in {} ms", rows, table,
+          counted.count, elapsed.toMillis());
+    } catch (UncheckedIOException e) {
+      // Usually the client went away; nothing more can be sent on this response
+      log.warn("Service: Export of {} aborted after {} bytes: {}", table, counted.count,
+          e.getMessage());
+      metricsService.recordExceptionOccurred("IOException", "bulkExport");
+    } finally {
+      metricsService.stopTimer(timer, "finance.export.time", "table", table.name());
+    }
+  }
+
+  private static TransactionDTO toTransaction(Transaction transaction) {
+    return TransactionDTO.builder()
+        .id(transaction.getId())
+        .transactionId(transaction.getTransactionId())
+        .amount(transaction.getAmount())
+        .type(transaction.getType())
+        .description(transaction.getDescription())
+        .status(transaction.getStatus())
+        .createdAt(transaction.getCreatedAt())
+        .processedAt(transaction.getProcessedAt())
+        .batchId(transaction.getBatchId())
+        .sourceAccountNumber(transaction.getSourceAccount() == null
+            ? null : transaction.getSourceAccount().getAccountNumber())
+        .destinationAccountNumber(transaction.getDestinationAccount() == null
+            ? null : transaction.getDestinationAccount().getAccountNumber())
+        .build();
+  }
+
+  private static AccountDTO toAccount(Object[] row) {
+    Account account = (Account) row[0];
+    AccountDTO dto = AccountDTO.builder()
+        .id(account.getId())
+        .accountNumber(account.getAccountNumber())
+        .type(account.getType())
+        .balance((BigDecimal) row[1])
+        .availableLimit(account.getAvailableLimit())
+        .status(account.getStatus())
+        .balanceStripes(account.getBalanceStripes())
+        .createdAt(account.getCreatedAt())
+        .build();
+
+    if (account.getClient() != null) {
+      dto.setOwnerId(account.getClient().getId());
+      dto.setOwnerName(account.getClient().getName());
+      dto.setOwnerType("CLIENT");
+    } else if (account.getMerchant() != null) {
+      dto.setOwnerId(account.getMerchant().getId());
+      dto.setOwnerName(account.getMerchant().getBusinessName());
+      dto.setOwnerType("MERCHANT");
+    }
+    return dto;
+  }
+
+  private static ClientDTO toClient(Client client) {
+    return ClientDTO.builder()
+        .id(client.getId())
+        .name(client.getName())
+        .email(client.getEmail())
+        .documentNumber(client.getDocumentNumber())
+        .phone(client.getPhone())
+        .address(client.getAddress())
+        .build();
+  }
+
+  // Counts the compressed bytes, and leaves the response stream for the container to close
+  private static final class CountingOutputStream extends FilterOutputStream {
+
+    private long count;
+
+    CountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      count += len;
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
+  }
+}
@@ -1,13 +1,17 @@
 package com.example.financeservice.service;
 
 import com.example.financeservice.dto.ClientDTO;
+import com.example.financeservice.dto.CursorPageDTO;
+import com.example.financeservice.exception.InvalidTransactionException;
 import com.example.financeservice.exception.ResourceAlreadyExistsException;
 import com.example.financeservice.exception.ResourceNotFoundException;
 import com.example.financeservice.model.Client;
+import com.example.financeservice.repository.AccountRepository;
 import com.example.financeservice.repository.ClientRepository;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,21 +36,40 @@ public class ClientService {
   private static final String DELETE_CLIENT = "deleteClient";
 
   private final ClientRepository clientRepository;
+  private final AccountRepository accountRepository;
+  private final AccountCache accountCache;
+  private final JournalPostingService journalPostingService;
   private final MetricsService metricsService;
 
+  /**
+   * Clients in id order, one page of at most {@code size} after the given cursor (from the start
+   * when null).
+   */
   @Transactional(readOnly = true)
-  public List<ClientDTO> getAllClients() {
-    log.debug("Service: Getting all clients");
+  public CursorPageDTO<ClientDTO> getClients(String cursor, int size) {
+    log.debug("Service: Getting clients after cursor: {}, size: {}", cursor, size);
 
+    if (size < 1 || size > KeysetCursor.MAX_PAGE_SIZE) {
+      metricsService.recordExceptionOccurred("InvalidTransactionException", "getClients");
+      throw new InvalidTransactionException(
+          "Page size must be between 1 and " + KeysetCursor.MAX_PAGE_SIZE);
+    }
+    long afterId = cursor == null ? 0L : KeysetCursor.decode(cursor).id();
+
+    // One extra row tells whether there is a next page
     List<Client> clients = metricsService.recordRepositoryExecutionTime(
-        REPOSITORY_NAME, "findAll",
-        clientRepository::findAll);
+        REPOSITORY_NAME, "findByIdGreaterThan",
+        () -> clientRepository.findByIdGreaterThanOrderById(afterId, Limit.of(size + 1)));
 
-    log.debug("Service: Found {} clients in database", clients.size());
+    boolean hasMore = clients.size() > size;
+    List<Client> page = hasMore ? clients.subList(0, size) : clients;
+    log.debug("Service: Found {} clients, more: {}", page.size(), hasMore);
 
-    return clients.stream()
-        .map(this::convertToDTO)
-        .toList();
+    return CursorPageDTO.<ClientDTO>builder()
+        .items(page.stream().map(this::convertToDTO).toList())
+        .nextCursor(hasMore ? KeysetCursor.ofId(page.get(size - 1).getId()).encode() : null)
+        .hasMore(hasMore)
+        .build();
   }
 
   @Transactional(readOnly = true)
@@ -176,6 +199,11 @@ public class ClientService {
         }
       }
 
+      // The cached accounts of the client carry its name as the owner name
+      if (!existingClient.getName().equals(clientDTO.getName())) {
+        evictAccountsAfterCommit(id);
+      }
+
       // Update fields
       existingClient.setName(clientDTO.getName());
       existingClient.setEmail(clientDTO.getEmail());
@@ -215,6 +243,10 @@ public class ClientService {
                 return new ResourceNotFoundException(CLIENT_NOT_FOUND_ID + id);
               }));
 
+      // The accounts of the client are deleted with it, refused while any has journaled
+      // postings not written yet
+      journalPostingService.accountsDeleted(evictAccountsAfterCommit(id));
+
       metricsService.recordRepositoryExecutionTime(
           REPOSITORY_NAME, DELETE,
           () -> {
@@ -232,6 +264,14 @@ public class ClientService {
     }
   }
 
+  private List<String> evictAccountsAfterCommit(Long clientId) {
+    List<String> accountNumbers = metricsService.recordRepositoryExecutionTime(
+        "AccountRepository", "findAccountNumbersByClientId",
+        () -> accountRepository.findAccountNumbersByClientId(clientId));
+    accountCache.evictAfterCommit(accountNumbers);
+    return accountNumbers;
+  }
+
   // Helper methods for DTO conversion
   private ClientDTO convertToDTO(Client client) {
     return ClientDTO.builder()
@@ -0,0 +1,369 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.dto.TransactionDTO;
+import com.example.financeservice.exception.PostingUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs single postings from concurrent requests in shared database transactions, so one commit
+ * (and one WAL fsync) serves a whole group of them. Enabled with
+ * {@code finance.posting.group-commit.enabled}.
+ *
+ * <p>A dispatcher thread collects the postings that arrive within
+ * {@code finance.posting.group-commit.window-ms} of the first one, up to
+ * {@code finance.posting.group-commit.max-batch-size}, locks every account they touch in id order
+ * and runs them in arrival order, so postings on the same account apply in the order they were
+ * submitted. Each caller is answered only after the shared commit.
+ *
+ * <p>A posting that throws poisons the shared transaction, so the group is rolled back and run
+ * again without it; the failing caller gets its exception and the others are unaffected. After
+ * {@code finance.posting.group-commit.max-rounds} such rounds the rest of the group runs one
+ * transaction each. A group that fails before its commit, e.g. while locking, is run again one
+ * posting per transaction too. If the commit itself fails the group may or may not have been
+ * stored, so its postings fail with a {@link PostingUnavailableException} carrying their
+ * transaction ids, to be looked up before any retry.
+ *
+ * <p>A posting still queued after {@code finance.posting.group-commit.timeout-ms} is withdrawn and
+ * its caller gets a {@link PostingUnavailableException}, so a retry cannot post it twice; one
+ * already taken by the dispatcher is awaited until its transaction ends. If the dispatcher fails,
+ * the postings it holds and the queued ones fail, and later postings run on their own.
+ *
+ * <p>Callers already inside a transaction run their posting inline, since it has to commit with
+ * that transaction (this is the case for postings with an {@code Idempotency-Key}). So does the
+ * JOURNAL posting mode, which does not post to the database on the request path. OPTIMISTIC
+ * postings are not grouped either: their retries back off with a sleep, which would hold the
+ * locks and the transaction of the whole group, and a version conflict would roll it back.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GroupCommitExecutor {
+
+  private static final String OPERATION_GROUP_COMMIT = "groupCommit";
+
+  private final TransactionTemplate transactionTemplate;
+  private final AccountLockService accountLockService;
+  private final PostingModeResolver postingModeResolver;
+  private final MetricsService metricsService;
+  private final EntityManager entityManager;
+
+  @Value("${finance.posting.group-commit.enabled:false}")
+  private boolean enabled;
+
+  @Value("${finance.posting.group-commit.window-ms:2}")
+  private long windowMillis = 2;
+
+  @Value("${finance.posting.group-commit.max-batch-size:64}")
+  private int maxBatchSize = 64;
+
+  @Value("${finance.posting.group-commit.timeout-ms:5000}")
+  private long timeoutMillis = 5000;
+
+  @Value("${finance.posting.group-commit.max-rounds:3}")
+  private int maxRounds = 3;
+
+  private final BlockingQueue<Posting<?>> queue = new LinkedBlockingQueue<>();
+  private volatile Thread dispatcher;
+  private volatile boolean stopped;
+
+  // One submitted posting and the future its caller waits on
+  private static final class Posting<T> {
+
+    private final List<String> accountNumbers;
+    private final Supplier<T> work;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    // Taken either by the dispatcher to run it or by the caller to withdraw it, never both
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private T value;
+    private RuntimeException failure;
+
+    private Posting(List<String> accountNumbers, Supplier<T> work) {
+      this.accountNumbers = accountNumbers;
+      this.work = work;
+    }
+
+    private boolean claim() {
+      return claimed.compareAndSet(false, true);
+    }
+
+    private void run() {
+      value = work.get();
+    }
+
+    private void complete() {
+      result.complete(value);
+    }
+
+    private void fail(Throwable exception) {
+      result.completeExceptionally(exception);
+    }
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!enabled || postingModeResolver.defaultMode() == PostingMode.JOURNAL) {
+      return;
+    }
+
+    dispatcher = new Thread(this::dispatch, "group-commit-dispatcher");
+    dispatcher.setDaemon(true);
+    dispatcher.start();
+    log.info("Service: Group commit enabled, window {} ms, up to {} postings per transaction",
+        windowMillis, maxBatchSize);
+  }
+
+  @PreDestroy
+  public void stop() {
+    Thread running = dispatcher;
+    if (running == null) {
+      return;
+    }
+
+    stopped = true;
+    dispatcher = null;
+    running.interrupt();
+    try {
+      running.join(5_000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    // Whatever was still queued runs on its own
+    List<Posting<?>> remaining = new ArrayList<>();
+    queue.drainTo(remaining);
+    remaining.removeIf(posting -> !posting.claim());
+    remaining.forEach(this::runAlone);
+  }
+
+  /**
+   * Runs the posting, grouped with concurrent ones when group commit is enabled, and returns its
+   * result once it is committed.
+   *
+   * @param accountNumbers accounts the posting changes, locked up front with the rest of the group
+   * @throws PostingUnavailableException if the posting was not run, because it waited too long in
+   *     the queue or the executor is stopping; it can be retried
+   */
+  public <T> T execute(List<String> accountNumbers, Supplier<T> posting) {
+    if (stopped) {
+      throw unavailable("Posting refused, the service is shutting down");
+    }
+    Thread running = dispatcher;
+    if (running == null || running == Thread.currentThread()
+        || TransactionSynchronizationManager.isActualTransactionActive()
+        || isOptimistic(accountNumbers)) {
+      return posting.get();
+    }
+
+    Posting<T> submitted = new Posting<>(accountNumbers, posting);
+    queue.add(submitted);
+    // Stopped while it was being queued: the queue may already have been drained
+    if (stopped && submitted.claim()) {
+      queue.remove(submitted);
+      throw unavailable("Posting refused, the service is shutting down");
+    }
+
+    try {
+      try {
+        return submitted.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        if (submitted.claim()) {
+          queue.remove(submitted);
+          throw unavailable("Posting not processed in time, please retry");
+        }
+        // Already taken by the dispatcher: its transaction decides the outcome
+        return submitted.result.get();
+      }
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      if (submitted.claim()) {
+        queue.remove(submitted);
+        throw unavailable("Posting interrupted before it was processed");
+      }
+      throw new IllegalStateException("Interrupted while the posting was being processed", e);
+    }
+  }
+
+  private void dispatch() {
+    while (dispatcher == Thread.currentThread()) {
+      List<Posting<?>> batch = new ArrayList<>(maxBatchSize);
+      try {
+        Posting<?> first = queue.take();
+        batch.add(first);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        while (batch.size() < maxBatchSize) {
+          Posting<?> next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+      } catch (InterruptedException e) {
+        // Stopping: postings already taken still run
+        Thread.currentThread().interrupt();
+      }
+
+      // Postings withdrawn by their callers after a timeout are not run
+      batch.removeIf(posting -> !posting.claim());
+      if (batch.isEmpty()) {
+        continue;
+      }
+
+      Thread.interrupted();
+      try {
+        runBatch(batch);
+      } catch (Throwable e) {
+        failAll(batch, e);
+        return;
+      }
+    }
+  }
+
+  // The dispatcher cannot go on: its postings and the queued ones fail, and the postings that
+  // arrive from now on run on their own
+  private void failAll(List<Posting<?>> batch, Throwable cause) {
+    log.error("Service: Group commit dispatcher failed, {} postings in flight", batch.size(),
+        cause);
+    metricsService.recordExceptionOccurred(cause.getClass().getSimpleName(),
+        OPERATION_GROUP_COMMIT);
+    dispatcher = null;
+
+    PostingUnavailableException failure =
+        new PostingUnavailableException("Group commit failed, please retry", cause);
+    batch.forEach(posting -> posting.fail(failure));
+
+    List<Posting<?>> queued = new ArrayList<>();
+    queue.drainTo(queued);
+    queued.stream()
+        .filter(Posting::claim)
+        .forEach(posting -> posting.fail(failure));
+  }
+
+  private boolean isOptimistic(List<String> accountNumbers) {
+    PostingMode mode = accountNumbers.size() == 2
+        ? postingModeResolver.modeFor(accountNumbers.get(0), accountNumbers.get(1))
+        : postingModeResolver.modeFor(accountNumbers.get(0));
+    return mode == PostingMode.OPTIMISTIC;
+  }
+
+  private PostingUnavailableException unavailable(String message) {
+    log.warn("Service: {}", message);
+    metricsService.recordExceptionOccurred("PostingUnavailableException", OPERATION_GROUP_COMMIT);
+    return new PostingUnavailableException(message);
+  }
+
+  private void runBatch(List<Posting<?>> batch) {
+    var timer = metricsService.startTimer();
+    List<Posting<?>> pending = new ArrayList<>(batch);
+    int rounds = 0;
+
+    while (!pending.isEmpty()) {
+      if (rounds == maxRounds) {
+        log.debug("Service: Group commit still failing after {} rounds, running {} postings "
+            + "one by one", rounds, pending.size());
+        pending.forEach(this::runAlone);
+        break;
+      }
+
+      rounds++;
+      // Set once every posting ran: a failure from then on comes from the commit
+      AtomicBoolean committing = new AtomicBoolean();
+      Posting<?> failed;
+      try {
+        failed = transactionTemplate.execute(status -> {
+          accountLockService.lockAccounts(pending.stream()
+              .flatMap(posting -> posting.accountNumbers.stream())
+              .distinct()
+              .toArray(String[]::new));
+
+          // Conditional and optimistic postings update balances with bulk UPDATEs the
+          // persistence context does not see, so the next posting starts from a clean one
+          for (Posting<?> posting : pending) {
+            try {
+              posting.run();
+              entityManager.flush();
+              entityManager.clear();
+            } catch (RuntimeException e) {
+              posting.failure = e;
+              status.setRollbackOnly();
+              return posting;
+            }
+          }
+          committing.set(true);
+          return null;
+        });
+      } catch (RuntimeException e) {
+        metricsService.recordExceptionOccurred(e.getClass().getSimpleName(),
+            OPERATION_GROUP_COMMIT);
+        if (committing.get()) {
+          log.error("Service: Commit of a group of {} postings failed, outcome unknown",
+              pending.size(), e);
+          pending.forEach(posting -> posting.fail(outcomeUnknown(posting, e)));
+        } else {
+          // Nothing was committed, so each posting can safely run again on its own
+          log.warn("Service: Group commit of {} postings failed, running them one by one",
+              pending.size(), e);
+          pending.forEach(this::runAlone);
+        }
+        break;
+      }
+
+      if (failed == null) {
+        pending.forEach(Posting::complete);
+        break;
+      }
+
+      // The failing posting leaves the group, the rest runs again in a new transaction
+      pending.remove(failed);
+      failed.fail(failed.failure);
+    }
+
+    metricsService.recordGroupCommit(batch.size(), rounds);
+    metricsService.stopTimer(timer, "finance.posting.group_commit.time");
+    log.debug("Service: Group commit of {} postings took {} transactions", batch.size(), rounds);
+  }
+
+  private static PostingUnavailableException outcomeUnknown(Posting<?> posting,
+      RuntimeException cause) {
+    String transactionId = posting.value instanceof TransactionDTO transaction
+        ? transaction.getTransactionId()
+        : null;
+    return new PostingUnavailableException(
+        "Posting may or may not have been stored, check it before retrying", transactionId, cause);
+  }
+
+  private void runAlone(Posting<?> posting) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> posting.run());
+      posting.complete();
+    } catch (RuntimeException e) {
+      posting.fail(e);
+    }
+  }
+}
@@ -0,0 +1,294 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.dto.TransactionDTO;
+import com.example.financeservice.exception.IdempotencyKeyConflictException;
+import com.example.financeservice.exception.InvalidTransactionException;
+import com.example.financeservice.model.IdempotencyRecord;
+import com.example.financeservice.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs postings identified by an {@code Idempotency-Key} header at most once per user and key.
+ * Keys are remembered for {@code finance.idempotency.ttl-hours}.
+ *
+ * <p>The first request for a key on this instance registers a future in a bounded in-memory
+ * cache. Concurrent duplicates wait on that future instead of queueing on the account locks, and
+ * later retries are answered from it without touching the database. Without a cached future the
+ * stored record is looked up; if there is none, the posting runs and its response is stored in the
+ * same database transaction. A duplicate running on another instance at the same time fails on
+ * the unique (username, idempotency_key) constraint at commit, so its posting is rolled back and
+ * it answers with the stored response instead.
+ *
+ * <p>Failed postings are not remembered: a retry with the same key runs the posting again.
+ *
+ * <p>Keys are rejected in {@link PostingMode#JOURNAL}: a journal posting is accepted outside the
+ * database transaction that stores the record, so a duplicate failing on the unique constraint
+ * would be posted twice.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+
+  public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+  public static final int MAX_KEY_LENGTH = 255;
+
+  private static final String IDEMPOTENCY_REPOSITORY = "IdempotencyRecordRepository";
+  private static final String ANONYMOUS_USER = "anonymous";
+  private static final String SOURCE_MEMORY = "memory";
+  private static final String SOURCE_DATABASE = "database";
+
+  private final IdempotencyRecordRepository idempotencyRecordRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final MetricsService metricsService;
+  private final PostingModeResolver postingModeResolver;
+
+  @Value("${finance.idempotency.ttl-hours:24}")
+  private long ttlHours = 24;
+
+  @Value("${finance.idempotency.cache-size:10000}")
+  private long cacheSize = 10_000;
+
+  @Value("${finance.idempotency.wait-timeout-ms:30000}")
+  private long waitTimeoutMillis = 30_000;
+
+  // Keyed by username and idempotency key; a future is completed by the request that owns the key
+  private Cache<String, CompletableFuture<StoredResponse>> responses;
+
+  @PostConstruct
+  public void init() {
+    responses = CacheBuilder.newBuilder()
+        .maximumSize(cacheSize)
+        .expireAfterWrite(ttlHours, TimeUnit.HOURS)
+        .build();
+  }
+
+  /**
+   * Runs the posting unless a request with the same key was already completed, in which case its
+   * response is returned. Without a key the posting simply runs.
+   *
+   * @param request the request payload; a key reused with a different payload is rejected
+   */
+  public TransactionDTO execute(String idempotencyKey, String operation, Object request,
+      Supplier<TransactionDTO> posting) {
+    if (idempotencyKey == null) {
+      return posting.get();
+    }
+
+    if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+      log.warn("Service: Invalid idempotency key for operation: {}", operation);
+      metricsService.recordExceptionOccurred("InvalidTransactionException", operation);
+      throw new InvalidTransactionException(
+          "Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters");
+    }
+
+    if (postingModeResolver.defaultMode() == PostingMode.JOURNAL) {
+      log.warn("Service: Idempotency key sent in JOURNAL posting mode for operation: {}",
+          operation);
+      metricsService.recordExceptionOccurred("InvalidTransactionException", operation);
+      throw new InvalidTransactionException(
+          "Idempotency-Key is not supported in the JOURNAL posting mode");
+    }
+
+    String username = currentUsername();
+    String cacheKey = username + '\n' + idempotencyKey;
+    String requestHash = requestHash(operation, request);
+
+    while (true) {
+      CompletableFuture<StoredResponse> pending = new CompletableFuture<>();
+      CompletableFuture<StoredResponse> existing = responses.asMap()
+          .putIfAbsent(cacheKey, pending);
+
+      if (existing == null) {
+        return executeAsOwner(cacheKey, pending, username, idempotencyKey, operation, requestHash,
+            posting);
+      }
+
+      StoredResponse stored = await(existing, operation);
+      if (stored != null) {
+        log.info("Service: Replaying {} for idempotency key {} from memory", operation,
+            idempotencyKey);
+        metricsService.recordIdempotentReplay(operation, SOURCE_MEMORY);
+        return replay(stored, requestHash, operation);
+      }
+      // The request that owned the key failed and released it; try to take it over
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${finance.idempotency.purge-interval-ms:3600000}")
+  public void purgeExpired() {
+    int deleted = metricsService.recordRepositoryExecutionTime(
+        IDEMPOTENCY_REPOSITORY, "deleteExpired",
+        () -> idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+
+    if (deleted > 0) {
+      log.info("Service: Purged {} expired idempotency keys", deleted);
+    }
+  }
+
+  private TransactionDTO executeAsOwner(String cacheKey,
+      CompletableFuture<StoredResponse> pending, String username, String idempotencyKey,
+      String operation, String requestHash, Supplier<TransactionDTO> posting) {
+    try {
+      Optional<StoredResponse> stored = findStored(username, idempotencyKey);
+      if (stored.isPresent()) {
+        pending.complete(stored.get());
+        log.info("Service: Replaying {} for idempotency key {} from the database", operation,
+            idempotencyKey);
+        metricsService.recordIdempotentReplay(operation, SOURCE_DATABASE);
+        return replay(stored.get(), requestHash, operation);
+      }
+
+      StoredResponse response;
+      try {
+        // The posting joins this transaction, so the record commits or rolls back with it
+        response = transactionTemplate.execute(status -> {
+          TransactionDTO transaction = posting.get();
+          store(username, idempotencyKey, operation, requestHash, transaction);
+          return new StoredResponse(requestHash, transaction);
+        });
+      } catch (DataIntegrityViolationException e) {
+        log.warn("Service: Idempotency key {} was stored concurrently, replaying its response",
+            idempotencyKey);
+        response = findStored(username, idempotencyKey).orElseThrow(() -> e);
+        metricsService.recordIdempotentReplay(operation, SOURCE_DATABASE);
+      }
+
+      pending.complete(response);
+      return replay(response, requestHash, operation);
+    } catch (RuntimeException e) {
+      // Release the key before waking up the waiters, so one of them can run the posting again
+      responses.asMap().remove(cacheKey, pending);
+      pending.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private StoredResponse await(CompletableFuture<StoredResponse> future, String operation) {
+    try {
+      return future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      return null;
+    } catch (TimeoutException e) {
+      throw stillInProgress(operation);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw stillInProgress(operation);
+    }
+  }
+
+  private IdempotencyKeyConflictException stillInProgress(String operation) {
+    metricsService.recordExceptionOccurred("IdempotencyKeyConflictException", operation);
+    return new IdempotencyKeyConflictException(
+        "A request with this Idempotency-Key is still being processed");
+  }
+
+  private TransactionDTO replay(StoredResponse stored, String requestHash, String operation) {
+    if (!stored.requestHash().equals(requestHash)) {
+      log.warn("Service: Idempotency key reused with a different request for operation: {}",
+          operation);
+      metricsService.recordExceptionOccurred("IdempotencyKeyConflictException", operation);
+      throw new IdempotencyKeyConflictException(
+          "Idempotency-Key was already used for a different request");
+    }
+
+    return stored.transaction();
+  }
+
+  private Optional<StoredResponse> findStored(String username, String idempotencyKey) {
+    Optional<IdempotencyRecord> stored = metricsService.recordRepositoryExecutionTime(
+        IDEMPOTENCY_REPOSITORY, "findByUsernameAndIdempotencyKey",
+        () -> idempotencyRecordRepository.findByUsernameAndIdempotencyKey(username,
+            idempotencyKey));
+
+    if (stored.isEmpty()) {
+      return Optional.empty();
+    }
+
+    IdempotencyRecord record = stored.get();
+    if (record.getExpiresAt().isBefore(LocalDateTime.now())) {
+      // Expired but not purged yet: drop it so the key can be used again
+      metricsService.recordRepositoryExecutionTime(IDEMPOTENCY_REPOSITORY, "delete",
+          () -> {
+            idempotencyRecordRepository.delete(record);
+            return null;
+          });
+      return Optional.empty();
+    }
+
+    try {
+      return Optional.of(new StoredResponse(record.getRequestHash(),
+          objectMapper.readValue(record.getResponse(), TransactionDTO.class)));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Unreadable stored response for idempotency key", e);
+    }
+  }
+
+  private void store(String username, String idempotencyKey, String operation,
+      String requestHash, TransactionDTO transaction) {
+    IdempotencyRecord record = new IdempotencyRecord();
+    record.setUsername(username);
+    record.setIdempotencyKey(idempotencyKey);
+    record.setOperation(operation);
+    record.setRequestHash(requestHash);
+    record.setTransactionId(transaction.getTransactionId());
+    record.setExpiresAt(LocalDateTime.now().plusHours(ttlHours));
+
+    try {
+      record.setResponse(objectMapper.writeValueAsString(transaction));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize response for idempotency key", e);
+    }
+
+    metricsService.recordRepositoryExecutionTime(IDEMPOTENCY_REPOSITORY, "save",
+        () -> idempotencyRecordRepository.save(record));
+  }
+
+  private String requestHash(String operation, Object request) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(operation.getBytes(StandardCharsets.UTF_8));
+      digest.update(objectMapper.writeValueAsBytes(request));
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+      throw new IllegalStateException("Could not hash idempotent request", e);
+    }
+  }
+
+  private String currentUsername() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null || !authentication.isAuthenticated()) {
+      return ANONYMOUS_USER;
+    }
+    return authentication.getName();
+  }
+
+  private record StoredResponse(String requestHash, TransactionDTO transaction) {
+
+  }
+}
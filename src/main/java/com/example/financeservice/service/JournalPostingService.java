@@ -0,0 +1,694 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.dto.TransactionDTO;
+import com.example.financeservice.exception.InsufficientFundsException;
+import com.example.financeservice.exception.InvalidTransactionException;
+import com.example.financeservice.exception.PostingUnavailableException;
+import com.example.financeservice.exception.ResourceNotFoundException;
+import com.example.financeservice.id.TransactionIdGenerator;
+import com.example.financeservice.journal.JournalEntry;
+import com.example.financeservice.journal.LedgerJournal;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.JournalCheckpoint;
+import com.example.financeservice.model.JournalDeadLetter;
+import com.example.financeservice.model.LedgerEntry;
+import com.example.financeservice.model.Transaction;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.JournalCheckpointRepository;
+import com.example.financeservice.repository.JournalDeadLetterRepository;
+import com.example.financeservice.repository.LedgerEntryRepository;
+import com.example.financeservice.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Postings for {@link PostingMode#JOURNAL}. A posting is validated against the in-memory balances,
+ * appended to the {@link LedgerJournal} and applied in memory; the caller gets its answer once the
+ * journal record is on disk, without any database work on the request path.
+ *
+ * <p>A scheduled write-behind takes the durable records in batches and, in one database
+ * transaction per batch, adds their net amounts to the account balances, inserts their
+ * transaction rows and ledger entries and advances the {@link JournalCheckpoint} of this node. On startup the
+ * journal replays the records after the checkpoint, so nothing accepted is lost or applied twice.
+ *
+ * <p>Accounts are loaded into memory on first use, from the database balance plus their balance
+ * stripes and the journaled amounts not written yet. The in-memory balances are only correct
+ * while this node is the single writer of the accounts, so the mode cannot be combined with
+ * per-type overrides and should run on one node at a time.
+ *
+ * <p>A record the write-behind cannot apply, because an account it posts to no longer exists, is
+ * stored as a {@link JournalDeadLetter} instead and its amount taken back from the other account
+ * in memory, so it does not hold up the records after it. Deleting an account is refused while it
+ * has records not written yet, which leaves only the postings that race with the deletion.
+ *
+ * <p>A posting whose record is not confirmed on disk within the timeout is answered with a
+ * {@link PostingUnavailableException} carrying its transaction id, since it is still written
+ * once the fsync completes. If the journal fails, the service stops accepting postings and drops
+ * the in-memory balances, which may hold records that never reached the disk; the write-behind
+ * keeps storing the durable ones, and a restart replays whatever the journal holds.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JournalPostingService {
+
+  private static final String ACCOUNT_REPOSITORY = "AccountRepository";
+  private static final String TRANSACTION_REPOSITORY = "TransactionRepository";
+  private static final String CHECKPOINT_REPOSITORY = "JournalCheckpointRepository";
+  private static final String LEDGER_ENTRY_REPOSITORY = "LedgerEntryRepository";
+  private static final String DEAD_LETTER_REPOSITORY = "JournalDeadLetterRepository";
+  private static final String OPERATION_FLUSH = "journalFlush";
+  private static final String OPERATION_JOURNAL = "journal";
+  private static final long DURABILITY_TIMEOUT_MILLIS = 10_000;
+
+  private final AccountRepository accountRepository;
+  private final TransactionRepository transactionRepository;
+  private final LedgerEntryRepository ledgerEntryRepository;
+  private final JournalCheckpointRepository checkpointRepository;
+  private final JournalDeadLetterRepository deadLetterRepository;
+  private final AccountLockService accountLockService;
+  private final BalanceStripeService balanceStripeService;
+  private final PostingModeResolver postingModeResolver;
+  private final TransactionIdGenerator transactionIdGenerator;
+  private final MetricsService metricsService;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${finance.journal.directory:data/journal}")
+  private String directory = "data/journal";
+
+  @Value("${finance.journal.segment-size-bytes:67108864}")
+  private int segmentSizeBytes = 64 * 1024 * 1024;
+
+  @Value("${finance.journal.batch-size:5000}")
+  private int batchSize = 5000;
+
+  @Value("${finance.id.node-id:0}")
+  private long nodeId;
+
+  private final Map<String, AccountState> accounts = new ConcurrentHashMap<>();
+
+  // Loading an account (read lock) must not interleave with committing a flush and deducting
+  // its amounts from the unflushed ones (write lock), or the amounts would be counted twice
+  private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+  private volatile LedgerJournal journal;
+
+  // Set once the journal fails; postings are refused from then on, until a restart
+  private volatile boolean failed;
+
+  // Balance and status of one account as seen by the journal; guarded by its own monitor
+  private static final class AccountState {
+
+    private volatile boolean loaded;
+    private BigDecimal balance;
+    private Account.AccountStatus status;
+    // Journaled but not written to the database yet
+    private BigDecimal unflushed = BigDecimal.ZERO;
+    private int unflushedRecords;
+    // Set while a transaction deletes the account; no posting is accepted meanwhile
+    private boolean deleting;
+
+    private void apply(BigDecimal delta) {
+      balance = balance.add(delta);
+      unflushed = unflushed.add(delta);
+      unflushedRecords++;
+    }
+
+    private boolean isActive() {
+      return !deleting && status == Account.AccountStatus.ACTIVE;
+    }
+  }
+
+  @PostConstruct
+  public void open() {
+    if (postingModeResolver.defaultMode() != PostingMode.JOURNAL) {
+      return;
+    }
+
+    long checkpoint = checkpointRepository.findById(nodeId)
+        .map(JournalCheckpoint::getAppliedSequence)
+        .orElse(0L);
+
+    try {
+      journal = LedgerJournal.open(Path.of(directory), segmentSizeBytes, checkpoint,
+          metricsService::recordJournalGroupCommit);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not open the ledger journal in " + directory, e);
+    }
+
+    // Replayed records count as unflushed until the write-behind stores them
+    List<JournalEntry> replayed = journal.durableEntries(Integer.MAX_VALUE);
+    netAmounts(replayed).forEach((accountNumber, delta) ->
+        accounts.computeIfAbsent(accountNumber, number -> new AccountState()).unflushed = delta);
+    recordCounts(replayed).forEach((accountNumber, count) ->
+        accounts.get(accountNumber).unflushedRecords = count);
+
+    metricsService.registerJournalBacklog(journal::unreleasedCount);
+    log.info("Service: Journal posting enabled in {} for node {}, checkpoint {}, {} records to "
+        + "replay", directory, nodeId, checkpoint, replayed.size());
+  }
+
+  public boolean isEnabled() {
+    return journal != null;
+  }
+
+  public TransactionDTO transfer(String sourceAccountNumber, String destinationAccountNumber,
+      BigDecimal amount, String description) {
+    AccountState source = account(sourceAccountNumber, "Source account not found with number: ");
+    AccountState destination = account(destinationAccountNumber,
+        "Destination account not found with number: ");
+
+    // Both monitors, always in account number order so opposing transfers cannot deadlock
+    boolean sourceFirst = sourceAccountNumber.compareTo(destinationAccountNumber) < 0;
+    JournalEntry entry;
+    synchronized (sourceFirst ? source : destination) {
+      synchronized (sourceFirst ? destination : source) {
+        if (!source.isActive()) {
+          throw rejected("TRANSFER", "transfer", amount,
+              new InvalidTransactionException("Source account is not active"));
+        }
+        if (!destination.isActive()) {
+          throw rejected("TRANSFER", "transfer", amount,
+              new InvalidTransactionException("Destination account is not active"));
+        }
+        if (source.balance.compareTo(amount) < 0) {
+          throw rejected("TRANSFER", "transfer", amount,
+              new InsufficientFundsException("Insufficient funds in source account"));
+        }
+
+        entry = append(Transaction.TransactionType.TRANSFER, sourceAccountNumber,
+            destinationAccountNumber, amount, description);
+        source.apply(amount.negate());
+        destination.apply(amount);
+      }
+    }
+
+    return accepted(entry, "TRANSFER");
+  }
+
+  public TransactionDTO deposit(String accountNumber, BigDecimal amount, String description) {
+    AccountState state = account(accountNumber, "Account not found with number: ");
+
+    JournalEntry entry;
+    synchronized (state) {
+      if (!state.isActive()) {
+        throw rejected("DEPOSIT", "deposit", amount,
+            new InvalidTransactionException("Account is not active"));
+      }
+
+      entry = append(Transaction.TransactionType.DEPOSIT, null, accountNumber, amount,
+          description);
+      state.apply(amount);
+    }
+
+    return accepted(entry, "DEPOSIT");
+  }
+
+  public TransactionDTO withdraw(String accountNumber, BigDecimal amount, String description) {
+    AccountState state = account(accountNumber, "Account not found with number: ");
+
+    JournalEntry entry;
+    synchronized (state) {
+      if (!state.isActive()) {
+        throw rejected("WITHDRAWAL", "withdraw", amount,
+            new InvalidTransactionException("Account is not active"));
+      }
+      if (state.balance.compareTo(amount) < 0) {
+        throw rejected("WITHDRAWAL", "withdraw", amount,
+            new InsufficientFundsException("Insufficient funds for withdrawal"));
+      }
+
+      entry = append(Transaction.TransactionType.WITHDRAWAL, accountNumber, null, amount,
+          description);
+      state.apply(amount.negate());
+    }
+
+    return accepted(entry, "WITHDRAWAL");
+  }
+
+  /**
+   * Balance including the postings not written to the database yet, if the account is loaded.
+   */
+  public Optional<BigDecimal> currentBalance(String accountNumber) {
+    AccountState state = accounts.get(accountNumber);
+    if (failed || state == null || !state.loaded) {
+      return Optional.empty();
+    }
+
+    synchronized (state) {
+      return Optional.of(state.balance);
+    }
+  }
+
+  /**
+   * Applies a status change to the loaded account once the current transaction commits.
+   */
+  public void accountStatusChanged(String accountNumber, Account.AccountStatus status) {
+    AccountState state = accounts.get(accountNumber);
+    if (state == null) {
+      return;
+    }
+
+    Runnable update = () -> {
+      synchronized (state) {
+        state.status = status;
+      }
+    };
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          update.run();
+        }
+      });
+    } else {
+      update.run();
+    }
+  }
+
+  /**
+   * Stops accepting postings to the accounts, which the current transaction deletes, and forgets
+   * them once it commits. Refused while an account has journal records not written yet, since
+   * they could no longer be applied.
+   */
+  public void accountsDeleted(Collection<String> accountNumbers) {
+    if (journal == null) {
+      return;
+    }
+
+    List<AccountState> marked = new ArrayList<>(accountNumbers.size());
+    try {
+      for (String accountNumber : accountNumbers) {
+        AccountState state = accounts.computeIfAbsent(accountNumber, number -> new AccountState());
+        synchronized (state) {
+          if (state.unflushedRecords > 0) {
+            log.warn("Service: Account {} has {} journal records not written yet",
+                accountNumber, state.unflushedRecords);
+            metricsService.recordExceptionOccurred("InvalidTransactionException",
+                "deleteAccount");
+            throw new InvalidTransactionException("Account " + accountNumber
+                + " has postings that are not written yet, try again shortly");
+          }
+          state.deleting = true;
+        }
+        marked.add(state);
+      }
+    } catch (RuntimeException e) {
+      marked.forEach(JournalPostingService::clearDeleting);
+      throw e;
+    }
+
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      accountNumbers.forEach(accounts::remove);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status == STATUS_COMMITTED) {
+          accountNumbers.forEach(accounts::remove);
+        } else {
+          marked.forEach(JournalPostingService::clearDeleting);
+        }
+      }
+    });
+  }
+
+  /**
+   * Whether this instance holds journal records processed before {@code at} that are not in the
+   * database yet.
+   */
+  public boolean hasUnflushedBefore(LocalDateTime at) {
+    LedgerJournal current = journal;
+    return current != null && current.hasUnreleasedBefore(
+        at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+  }
+
+  @Scheduled(fixedDelayString = "${finance.journal.flush-interval-ms:200}")
+  public void flushPending() {
+    if (journal == null) {
+      return;
+    }
+
+    try {
+      while (flush() == batchSize) {
+        // Keep going while full batches are waiting
+      }
+    } catch (RuntimeException e) {
+      // The records stay in the journal and are picked up again on the next run
+      log.error("Service: Journal write-behind failed", e);
+      metricsService.recordExceptionOccurred(e.getClass().getSimpleName(), OPERATION_FLUSH);
+    }
+  }
+
+  /**
+   * Writes the next batch of durable journal records to the database.
+   *
+   * @return the number of records written
+   */
+  public int flush() {
+    List<JournalEntry> entries = journal.durableEntries(batchSize);
+    if (entries.isEmpty()) {
+      return 0;
+    }
+
+    var timer = metricsService.startTimer();
+    long lastSequence = entries.get(entries.size() - 1).sequence();
+    Map<String, BigDecimal> netAmounts = netAmounts(entries);
+    Map<String, Integer> recordCounts = recordCounts(entries);
+
+    flushLock.writeLock().lock();
+    try {
+      List<JournalEntry> deadLetters = transactionTemplate.execute(
+          status -> write(entries, lastSequence));
+      Map<String, BigDecimal> reverted = netAmounts(deadLetters);
+
+      for (Map.Entry<String, BigDecimal> netAmount : netAmounts.entrySet()) {
+        AccountState state = accounts.get(netAmount.getKey());
+        if (state == null) {
+          // Dropped when the journal failed or the account was deleted
+          continue;
+        }
+        synchronized (state) {
+          state.unflushed = state.unflushed.subtract(netAmount.getValue());
+          state.unflushedRecords -= recordCounts.get(netAmount.getKey());
+          // A dead letter never reaches the database, so it is taken back from the balance
+          if (state.loaded && reverted.containsKey(netAmount.getKey())) {
+            state.balance = state.balance.subtract(reverted.get(netAmount.getKey()));
+          }
+        }
+      }
+    } finally {
+      flushLock.writeLock().unlock();
+    }
+
+    journal.release(lastSequence);
+    metricsService.recordJournalFlush(entries.size());
+    metricsService.stopTimer(timer, "finance.journal.flush.time");
+    log.debug("Service: Wrote {} journal records to the database, up to sequence {}",
+        entries.size(), lastSequence);
+    return entries.size();
+  }
+
+  @PreDestroy
+  public void close() {
+    if (journal == null) {
+      return;
+    }
+
+    flushPending();
+    journal.close();
+    journal = null;
+  }
+
+  // Returns the records stored as dead letters instead of being applied
+  private List<JournalEntry> write(List<JournalEntry> entries, long lastSequence) {
+    JournalCheckpoint checkpoint = metricsService.recordRepositoryExecutionTime(
+        CHECKPOINT_REPOSITORY, "findByNodeIdWithLock",
+        () -> checkpointRepository.findByNodeIdWithLock(nodeId))
+        .orElseGet(() -> new JournalCheckpoint(nodeId, 0, null));
+
+    // Records up to the checkpoint were already written, by an earlier run of this node
+    List<JournalEntry> pending = entries.stream()
+        .filter(entry -> entry.sequence() > checkpoint.getAppliedSequence())
+        .toList();
+    if (pending.isEmpty()) {
+      return List.of();
+    }
+
+    // One net amount per account, locked in id order like any other posting
+    Map<String, Account> lockedAccounts = accountLockService.lockAccounts(
+        netAmounts(pending).keySet().toArray(String[]::new));
+
+    // A record posting to an account that no longer exists can never be applied
+    List<JournalEntry> applicable = new ArrayList<>(pending.size());
+    List<JournalEntry> deadLetters = new ArrayList<>();
+    for (JournalEntry entry : pending) {
+      boolean missing = (entry.sourceAccountNumber() != null
+          && !lockedAccounts.containsKey(entry.sourceAccountNumber()))
+          || (entry.destinationAccountNumber() != null
+          && !lockedAccounts.containsKey(entry.destinationAccountNumber()));
+      (missing ? deadLetters : applicable).add(entry);
+    }
+    if (!deadLetters.isEmpty()) {
+      saveDeadLetters(deadLetters);
+    }
+
+    Map<String, BigDecimal> runningBalances = new HashMap<>();
+    lockedAccounts.forEach((accountNumber, account) ->
+        runningBalances.put(accountNumber, account.getBalance()));
+    netAmounts(applicable).forEach((accountNumber, delta) -> {
+      Account account = lockedAccounts.get(accountNumber);
+      account.setBalance(account.getBalance().add(delta));
+    });
+
+    // Running balances replay the records in journal order from the balances before the batch
+    List<Transaction> transactions = new ArrayList<>(applicable.size());
+    List<LedgerEntry> ledgerEntries = new ArrayList<>(2 * applicable.size());
+    for (JournalEntry entry : applicable) {
+      Transaction transaction = toTransaction(entry, lockedAccounts);
+      transactions.add(transaction);
+      if (transaction.getSourceAccount() != null) {
+        ledgerEntries.add(LedgerEntry.debit(transaction, runningBalance(
+            transaction.getSourceAccount(), runningBalances.merge(entry.sourceAccountNumber(),
+                entry.amount(), BigDecimal::subtract))));
+      }
+      if (transaction.getDestinationAccount() != null) {
+        ledgerEntries.add(LedgerEntry.credit(transaction, runningBalance(
+            transaction.getDestinationAccount(), runningBalances.merge(
+                entry.destinationAccountNumber(), entry.amount(), BigDecimal::add))));
+      }
+    }
+    metricsService.recordRepositoryExecutionTime(TRANSACTION_REPOSITORY, "saveAll",
+        () -> transactionRepository.saveAll(transactions));
+    metricsService.recordRepositoryExecutionTime(LEDGER_ENTRY_REPOSITORY, "saveAll",
+        () -> ledgerEntryRepository.saveAll(ledgerEntries));
+
+    checkpoint.setAppliedSequence(lastSequence);
+    metricsService.recordRepositoryExecutionTime(CHECKPOINT_REPOSITORY, "save",
+        () -> checkpointRepository.save(checkpoint));
+    return deadLetters;
+  }
+
+  private void saveDeadLetters(List<JournalEntry> entries) {
+    List<JournalDeadLetter> deadLetters = new ArrayList<>(entries.size());
+    for (JournalEntry entry : entries) {
+      log.error("Service: Journal record {} ({} {}) posts to an account that no longer exists, "
+          + "stored as a dead letter", entry.sequence(), entry.type(), entry.transactionId());
+      metricsService.recordExceptionOccurred("ResourceNotFoundException", OPERATION_FLUSH);
+      deadLetters.add(new JournalDeadLetter(entry.transactionId(), nodeId, entry.sequence(),
+          entry.type(), entry.sourceAccountNumber(), entry.destinationAccountNumber(),
+          entry.amount(), entry.description(), processedAt(entry), "Account not found", null));
+    }
+    metricsService.recordRepositoryExecutionTime(DEAD_LETTER_REPOSITORY, "saveAll",
+        () -> deadLetterRepository.saveAll(deadLetters));
+  }
+
+  // Loads the account on first use; later calls only read the map
+  private AccountState account(String accountNumber, String notFoundMessage) {
+    if (failed) {
+      throw unavailable(null, null);
+    }
+
+    AccountState state = accounts.computeIfAbsent(accountNumber, number -> new AccountState());
+    if (state.loaded) {
+      return state;
+    }
+
+    flushLock.readLock().lock();
+    try {
+      synchronized (state) {
+        if (!state.loaded) {
+          Optional<AccountRepository.FundsView> funds =
+              metricsService.recordRepositoryExecutionTime(ACCOUNT_REPOSITORY,
+                  "findFundsByAccountNumber",
+                  () -> accountRepository.findFundsByAccountNumber(accountNumber));
+          if (funds.isEmpty()) {
+            accounts.remove(accountNumber, state);
+            log.error("Service: Account not found with number: {}", accountNumber);
+            metricsService.recordExceptionOccurred("ResourceNotFoundException", OPERATION_JOURNAL);
+            throw new ResourceNotFoundException(notFoundMessage + accountNumber);
+          }
+
+          state.balance = funds.get().getBalance()
+              .add(balanceStripeService.stripedBalance(accountNumber))
+              .add(state.unflushed);
+          state.status = funds.get().getStatus();
+          state.loaded = true;
+        }
+      }
+    } finally {
+      flushLock.readLock().unlock();
+    }
+
+    // Loaded while the journal was failing: the state missed the drop and must not be used
+    if (failed) {
+      accounts.remove(accountNumber, state);
+      throw unavailable(null, null);
+    }
+    return state;
+  }
+
+  private JournalEntry append(Transaction.TransactionType type, String sourceAccountNumber,
+      String destinationAccountNumber, BigDecimal amount, String description) {
+    try {
+      return journal.append(new JournalEntry(0, transactionIdGenerator.nextTransactionId(), type,
+          sourceAccountNumber, destinationAccountNumber, amount, description,
+          System.currentTimeMillis()));
+    } catch (IllegalStateException e) {
+      throw failClosed(null, e);
+    }
+  }
+
+  // The fsync is awaited outside the account monitors, so other postings join the same group
+  private TransactionDTO accepted(JournalEntry entry, String metricType) {
+    boolean durable;
+    try {
+      durable = journal.awaitDurable(entry.sequence(), DURABILITY_TIMEOUT_MILLIS);
+    } catch (IllegalStateException e) {
+      throw failClosed(entry.transactionId(), e);
+    }
+
+    if (!durable) {
+      // The record stays in the journal and is written once the fsync completes, so the caller
+      // must look the transaction up rather than post it again
+      log.warn("Service: {} {} is journaled but not confirmed on disk after {} ms",
+          entry.type(), entry.transactionId(), DURABILITY_TIMEOUT_MILLIS);
+      throw unavailable(entry.transactionId(), null);
+    }
+
+    log.info("Service: {} accepted into the journal. Transaction ID: {}, sequence: {}, amount: {}",
+        entry.type(), entry.transactionId(), entry.sequence(), entry.amount());
+    metricsService.recordTransactionProcessed(metricType, entry.amount(), true);
+    metricsService.recordDailyFinancialVolume(metricType, entry.amount());
+
+    LocalDateTime processedAt = processedAt(entry);
+    return TransactionDTO.builder()
+        .transactionId(entry.transactionId())
+        .amount(entry.amount())
+        .type(entry.type())
+        .description(entry.description())
+        .status(Transaction.TransactionStatus.COMPLETED)
+        .createdAt(processedAt)
+        .processedAt(processedAt)
+        .sourceAccountNumber(entry.sourceAccountNumber())
+        .destinationAccountNumber(entry.destinationAccountNumber())
+        .build();
+  }
+
+  // Nothing can be confirmed any more, and the in-memory balances may include records that never
+  // reached the disk, so they are dropped instead of being served or posted against
+  private PostingUnavailableException failClosed(String transactionId, RuntimeException cause) {
+    if (!failed) {
+      failed = true;
+      accounts.clear();
+      log.error("Service: Ledger journal failed, journal postings are disabled until a restart",
+          cause);
+    }
+    return unavailable(transactionId, cause);
+  }
+
+  private PostingUnavailableException unavailable(String transactionId, Throwable cause) {
+    metricsService.recordExceptionOccurred("PostingUnavailableException", OPERATION_JOURNAL);
+    if (transactionId == null) {
+      return new PostingUnavailableException("The ledger journal is not accepting postings",
+          cause);
+    }
+    return new PostingUnavailableException("Transaction " + transactionId
+        + " was recorded but could not be confirmed yet; look it up before retrying",
+        transactionId, cause);
+  }
+
+  private RuntimeException rejected(String metricType, String operation, BigDecimal amount,
+      RuntimeException exception) {
+    log.warn("Service: Journal {} rejected: {}", operation, exception.getMessage());
+    metricsService.recordExceptionOccurred(exception.getClass().getSimpleName(), operation);
+    metricsService.recordTransactionProcessed(metricType, amount, false);
+    return exception;
+  }
+
+  private static Map<String, BigDecimal> netAmounts(List<JournalEntry> entries) {
+    Map<String, BigDecimal> netAmounts = new TreeMap<>();
+    for (JournalEntry entry : entries) {
+      if (entry.sourceAccountNumber() != null) {
+        netAmounts.merge(entry.sourceAccountNumber(), entry.amount().negate(), BigDecimal::add);
+      }
+      if (entry.destinationAccountNumber() != null) {
+        netAmounts.merge(entry.destinationAccountNumber(), entry.amount(), BigDecimal::add);
+      }
+    }
+    return netAmounts;
+  }
+
+  private static Map<String, Integer> recordCounts(List<JournalEntry> entries) {
+    Map<String, Integer> counts = new HashMap<>();
+    for (JournalEntry entry : entries) {
+      if (entry.sourceAccountNumber() != null) {
+        counts.merge(entry.sourceAccountNumber(), 1, Integer::sum);
+      }
+      if (entry.destinationAccountNumber() != null) {
+        counts.merge(entry.destinationAccountNumber(), 1, Integer::sum);
+      }
+    }
+    return counts;
+  }
+
+  private static void clearDeleting(AccountState state) {
+    synchronized (state) {
+      state.deleting = false;
+    }
+  }
+
+  private static Transaction toTransaction(JournalEntry entry, Map<String, Account> accounts) {
+    Transaction transaction = new Transaction();
+    transaction.setTransactionId(entry.transactionId());
+    transaction.setAmount(entry.amount());
+    transaction.setType(entry.type());
+    transaction.setDescription(entry.description());
+    transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+    transaction.setProcessedAt(processedAt(entry));
+    if (entry.sourceAccountNumber() != null) {
+      transaction.setSourceAccount(accounts.get(entry.sourceAccountNumber()));
+    }
+    if (entry.destinationAccountNumber() != null) {
+      transaction.setDestinationAccount(accounts.get(entry.destinationAccountNumber()));
+    }
+    return transaction;
+  }
+
+  // The row balance of a striped account leaves out its stripes, so it has no running balance
+  private static BigDecimal runningBalance(Account account, BigDecimal balance) {
+    return account.isBalanceStriped() ? null : balance;
+  }
+
+  private static LocalDateTime processedAt(JournalEntry entry) {
+    return LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.processedAtMillis()),
+        ZoneId.systemDefault());
+  }
+}
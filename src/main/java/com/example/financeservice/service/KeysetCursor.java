@@ -0,0 +1,41 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.exception.InvalidTransactionException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a page in a (timestamp, id) ordered listing, or in an id ordered
+ * one, where the position is null. Clients get it as an opaque URL-safe token and send it back
+ * unchanged to get the next page.
+ */
+public record KeysetCursor(LocalDateTime position, long id) {
+
+  public static final int MAX_PAGE_SIZE = 100;
+
+  private static final char SEPARATOR = '|';
+
+  public static KeysetCursor ofId(long id) {
+    return new KeysetCursor(null, id);
+  }
+
+  public String encode() {
+    String value = (position == null ? "" : position.toString()) + SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static KeysetCursor decode(String token) {
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int separator = decoded.lastIndexOf(SEPARATOR);
+      String position = decoded.substring(0, separator);
+      return new KeysetCursor(position.isEmpty() ? null : LocalDateTime.parse(position),
+          Long.parseLong(decoded.substring(separator + 1)));
+    } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+      throw new InvalidTransactionException("Invalid cursor: " + token);
+    }
+  }
+}
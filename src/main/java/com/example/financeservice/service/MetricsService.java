@@ -1,10 +1,14 @@
 package com.example.financeservice.service;
 
+import com.google.common.cache.Cache;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.function.Supplier;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -230,6 +234,109 @@ public class MetricsService {
         .record(execution);
   }
 
+  public void recordRoundTrips(String operation, long roundTrips) {
+    DistributionSummary.builder("finance.operations.round_trips")
+        .tag("operation", operation)
+        .description("Database round trips per financial operation, including the commit")
+        .register(registry)
+        .record(roundTrips);
+    log.debug("Metric: {} database round trips for operation {}", roundTrips, operation);
+  }
+
+  public void recordOptimisticAttempt(String operation, boolean conflict) {
+    Counter.builder("finance.posting.optimistic.attempts")
+        .tag("operation", operation)
+        .tag("result", conflict ? "conflict" : "applied")
+        .description("Version-checked balance updates of optimistic postings, by result")
+        .register(registry)
+        .increment();
+  }
+
+  public void recordOptimisticRetries(String operation, int retries, String outcome) {
+    DistributionSummary.builder("finance.posting.optimistic.retries")
+        .tag("operation", operation)
+        .tag("outcome", outcome)
+        .description("Retries after a version conflict per optimistic posting")
+        .register(registry)
+        .record(retries);
+    log.debug("Metric: Optimistic posting for operation {} {} after {} retries", operation,
+        outcome, retries);
+  }
+
+  public void recordJournalGroupCommit(int records) {
+    DistributionSummary.builder("finance.journal.group_commit.records")
+        .description("Journal records made durable by a single fsync")
+        .register(registry)
+        .record(records);
+  }
+
+  public void recordJournalFlush(int records) {
+    DistributionSummary.builder("finance.journal.flush.records")
+        .description("Journal records written to the database by one write-behind transaction")
+        .register(registry)
+        .record(records);
+    log.debug("Metric: Journal flush wrote {} records to the database", records);
+  }
+
+  public void registerJournalBacklog(Supplier<Number> backlog) {
+    Gauge.builder("finance.journal.backlog", backlog)
+        .description("Journal records accepted but not yet written to the database")
+        .register(registry);
+  }
+
+  // Hits, misses, evictions and load time from the cache statistics, plus the hit ratio
+  public void registerCache(String name, Cache<?, ?> cache) {
+    GuavaCacheMetrics.monitor(registry, cache, name);
+    Gauge.builder("finance.cache.hit_ratio", cache, c -> c.stats().hitRate())
+        .tag("cache", name)
+        .description("Share of cache reads answered without loading")
+        .register(registry);
+  }
+
+  public void recordGroupCommit(int postings, int transactions) {
+    DistributionSummary.builder("finance.posting.group_commit.postings")
+        .description("Postings committed together by one group commit")
+        .register(registry)
+        .record(postings);
+    DistributionSummary.builder("finance.posting.group_commit.transactions")
+        .description("Database transactions a group commit needed, one more per failed posting")
+        .register(registry)
+        .record(transactions);
+    log.debug("Metric: Group commit of {} postings in {} transactions", postings, transactions);
+  }
+
+  public void recordBulkExport(String table, long rows, long bytes, Duration elapsed) {
+    Counter.builder("finance.export.rows")
+        .tag("table", table)
+        .description("Rows written by the bulk exports")
+        .register(registry)
+        .increment(rows);
+    Counter.builder("finance.export.bytes")
+        .tag("table", table)
+        .baseUnit("bytes")
+        .description("Compressed bytes sent by the bulk exports")
+        .register(registry)
+        .increment(bytes);
+    double seconds = Math.max(elapsed.toNanos(), 1) / 1e9;
+    DistributionSummary.builder("finance.export.throughput")
+        .tag("table", table)
+        .baseUnit("rows/s")
+        .description("Rows per second of each bulk export")
+        .register(registry)
+        .record(rows / seconds);
+    log.debug("Metric: Export of {} wrote {} rows, {} bytes in {}", table, rows, bytes, elapsed);
+  }
+
+  public void recordIdempotentReplay(String operation, String source) {
+    Counter.builder("finance.idempotency.replays")
+        .tag("operation", operation)
+        .tag("source", source)
+        .description("Requests answered with the stored response of an earlier idempotent request")
+        .register(registry)
+        .increment();
+    log.debug("Metric: Idempotent replay of operation {} from {}", operation, source);
+  }
+
   public void recordExceptionOccurred(String exceptionType, String operationType) {
     Counter.builder("finance.exceptions")
         .tag("type", exceptionType)
@@ -0,0 +1,145 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.model.Account;
+import com.example.financeservice.repository.AccountRepository;
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Balance changes for {@link PostingMode#OPTIMISTIC}: the account is read without a lock and
+ * the new balance is written with a single UPDATE guarded by the version that was read.
+ *
+ * <p>The version check is done by the UPDATE itself rather than by flushing the entity, because
+ * a failed flush marks the whole transaction rollback-only. Here a conflict only means the
+ * UPDATE matched no row, so the account is re-read and the change retried within the caller's
+ * transaction, after a jittered exponential backoff. When the attempts run out an
+ * {@link ObjectOptimisticLockingFailureException} is thrown.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OptimisticPostingService {
+
+  private static final String ACCOUNT_REPOSITORY = "AccountRepository";
+  private static final String OUTCOME_APPLIED = "applied";
+  private static final String OUTCOME_REJECTED = "rejected";
+  private static final String OUTCOME_EXHAUSTED = "exhausted";
+
+  private final AccountRepository accountRepository;
+  private final MetricsService metricsService;
+
+  @Value("${finance.posting.optimistic.max-attempts:5}")
+  private int maxAttempts = 5;
+
+  @Value("${finance.posting.optimistic.initial-backoff-ms:5}")
+  private long initialBackoffMillis = 5;
+
+  @Value("${finance.posting.optimistic.max-backoff-ms:100}")
+  private long maxBackoffMillis = 100;
+
+  /**
+   * Adds {@code delta} to the balance of an account already read in this transaction; its state
+   * is used for the first attempt, so an uncontended posting costs a single UPDATE.
+   *
+   * @return false if the account is not active or, for a debit, lacks the funds
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public boolean apply(Account account, BigDecimal delta, String operation) {
+    return apply(account.getAccountNumber(), new Snapshot(account.getId(), account.getBalance(),
+        account.getStatus(), account.getVersion()), delta, operation);
+  }
+
+  /**
+   * Adds {@code delta} to the balance of the account, reading it first.
+   *
+   * @return false if the account does not exist, is not active or, for a debit, lacks the funds
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public boolean apply(String accountNumber, BigDecimal delta, String operation) {
+    return apply(accountNumber, null, delta, operation);
+  }
+
+  private boolean apply(String accountNumber, Snapshot snapshot, BigDecimal delta,
+      String operation) {
+    for (int attempt = 1; ; attempt++) {
+      Optional<Snapshot> current = attempt == 1 && snapshot != null
+          ? Optional.of(snapshot)
+          : readSnapshot(accountNumber);
+
+      BigDecimal newBalance = current
+          .filter(account -> account.status() == Account.AccountStatus.ACTIVE)
+          .map(account -> account.balance().add(delta))
+          .filter(balance -> balance.signum() >= 0)
+          .orElse(null);
+
+      if (newBalance == null) {
+        metricsService.recordOptimisticRetries(operation, attempt - 1, OUTCOME_REJECTED);
+        return false;
+      }
+
+      Snapshot account = current.get();
+      int updatedRows = metricsService.recordRepositoryExecutionTime(
+          ACCOUNT_REPOSITORY, "updateBalanceIfVersion",
+          () -> accountRepository.updateBalanceIfVersion(account.id(), account.version(),
+              newBalance));
+      metricsService.recordOptimisticAttempt(operation, updatedRows == 0);
+
+      if (updatedRows > 0) {
+        metricsService.recordOptimisticRetries(operation, attempt - 1, OUTCOME_APPLIED);
+        return true;
+      }
+
+      log.debug("Service: Version conflict on account {} (attempt {} of {})", accountNumber,
+          attempt, maxAttempts);
+
+      if (attempt >= maxAttempts || !backOff(attempt)) {
+        log.warn("Service: Optimistic posting gave up after {} attempts. Account: {}",
+            attempt, accountNumber);
+        metricsService.recordOptimisticRetries(operation, attempt - 1, OUTCOME_EXHAUSTED);
+        metricsService.recordExceptionOccurred("ObjectOptimisticLockingFailureException",
+            operation);
+        throw new ObjectOptimisticLockingFailureException(Account.class, account.id());
+      }
+    }
+  }
+
+  // The projection is not cached in the persistence context, so every retry sees the balance
+  // and version committed by the posting that won the previous round
+  private Optional<Snapshot> readSnapshot(String accountNumber) {
+    return metricsService.recordRepositoryExecutionTime(
+            ACCOUNT_REPOSITORY, "findVersionedBalanceByAccountNumber",
+            () -> accountRepository.findVersionedBalanceByAccountNumber(accountNumber))
+        .map(view -> new Snapshot(view.getId(), view.getBalance(), view.getStatus(),
+            view.getVersion()));
+  }
+
+  // Full jitter: a random delay up to the exponential bound, so postings that collided once do
+  // not collide again on the next round. Returns false if the thread was interrupted
+  private boolean backOff(int attempt) {
+    long bound = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+    if (bound <= 0) {
+      return true;
+    }
+
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private record Snapshot(Long id, BigDecimal balance, Account.AccountStatus status,
+      Long version) {
+
+  }
+}
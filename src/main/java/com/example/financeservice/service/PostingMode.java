@@ -0,0 +1,34 @@
+package com.example.financeservice.service;
+
+/**
+ * Strategy used to apply balance changes, selected with the {@code finance.posting.mode}
+ * property and optionally per account type (see {@link PostingModeResolver}).
+ */
+public enum PostingMode {
+
+  /**
+   * Locks the account rows with SELECT ... FOR UPDATE, changes the balance in memory and saves
+   * the entity.
+   */
+  PESSIMISTIC,
+
+  /**
+   * Applies each balance change with a single conditional UPDATE statement. The affected row
+   * count decides whether the posting succeeded, so no row lock is held while the JVM works.
+   */
+  CONDITIONAL,
+
+  /**
+   * Reads the account without a lock and writes the new balance only if the account version is
+   * still the one that was read. A version conflict re-reads the account and retries after a
+   * jittered exponential backoff, up to {@code finance.posting.optimistic.max-attempts}.
+   */
+  OPTIMISTIC,
+
+  /**
+   * Accepts postings into the local {@link com.example.financeservice.journal.LedgerJournal} and
+   * applies them to in-memory balances; {@link JournalPostingService} writes them to the
+   * database in batches afterwards. Only valid as the default mode of a single writer node.
+   */
+  JOURNAL
+}
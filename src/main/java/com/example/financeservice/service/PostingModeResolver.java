@@ -0,0 +1,103 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.model.Account;
+import com.example.financeservice.repository.AccountRepository;
+import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides which {@link PostingMode} applies to an account. {@code finance.posting.mode} is the
+ * default; {@code finance.posting.mode-by-type} overrides it per account type, for example
+ * {@code CHECKING:OPTIMISTIC,SAVINGS:OPTIMISTIC}.
+ *
+ * <p>Without overrides no lookup is made. With overrides the account type is read once per
+ * account and cached, since it never changes after the account is created.
+ */
+@Component
+@Slf4j
+public class PostingModeResolver {
+
+  private static final String ACCOUNT_REPOSITORY = "AccountRepository";
+  private static final long ACCOUNT_TYPE_CACHE_SIZE = 100_000;
+
+  private final AccountRepository accountRepository;
+  private final MetricsService metricsService;
+  private final PostingMode defaultMode;
+  private final Map<Account.AccountType, PostingMode> modesByType =
+      new EnumMap<>(Account.AccountType.class);
+  private final Cache<String, Account.AccountType> accountTypes = CacheBuilder.newBuilder()
+      .maximumSize(ACCOUNT_TYPE_CACHE_SIZE)
+      .build();
+
+  public PostingModeResolver(AccountRepository accountRepository, MetricsService metricsService,
+      @Value("${finance.posting.mode:PESSIMISTIC}") PostingMode defaultMode,
+      @Value("${finance.posting.mode-by-type:}") String modesByType) {
+    this.accountRepository = accountRepository;
+    this.metricsService = metricsService;
+    this.defaultMode = defaultMode;
+
+    Splitter.on(',').trimResults().omitEmptyStrings()
+        .withKeyValueSeparator(Splitter.on(':').trimResults())
+        .split(modesByType)
+        .forEach((type, mode) -> this.modesByType.put(
+            Account.AccountType.valueOf(type), PostingMode.valueOf(mode)));
+
+    // The journal keeps the balances in memory, so it must own every account or none
+    if (defaultMode == PostingMode.JOURNAL && !this.modesByType.isEmpty()
+        || this.modesByType.containsValue(PostingMode.JOURNAL)) {
+      throw new IllegalArgumentException(
+          "The JOURNAL posting mode cannot be combined with finance.posting.mode-by-type");
+    }
+
+    log.info("Posting mode: {} (overrides by account type: {})", defaultMode, this.modesByType);
+  }
+
+  public PostingMode defaultMode() {
+    return defaultMode;
+  }
+
+  public PostingMode modeFor(String accountNumber) {
+    if (modesByType.isEmpty()) {
+      return defaultMode;
+    }
+
+    return accountType(accountNumber)
+        .map(type -> modesByType.getOrDefault(type, defaultMode))
+        .orElse(defaultMode);
+  }
+
+  /**
+   * Mode for a posting touching both accounts. When their types resolve to different modes the
+   * posting falls back to {@link PostingMode#PESSIMISTIC}, which is correct for any account.
+   */
+  public PostingMode modeFor(String sourceAccountNumber, String destinationAccountNumber) {
+    if (modesByType.isEmpty()) {
+      return defaultMode;
+    }
+
+    PostingMode sourceMode = modeFor(sourceAccountNumber);
+    PostingMode destinationMode = modeFor(destinationAccountNumber);
+    return sourceMode == destinationMode ? sourceMode : PostingMode.PESSIMISTIC;
+  }
+
+  private Optional<Account.AccountType> accountType(String accountNumber) {
+    Account.AccountType cached = accountTypes.getIfPresent(accountNumber);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+
+    // Unknown accounts are not cached; the posting itself reports them as not found
+    Optional<Account.AccountType> type = metricsService.recordRepositoryExecutionTime(
+        ACCOUNT_REPOSITORY, "findTypeByAccountNumber",
+        () -> accountRepository.findTypeByAccountNumber(accountNumber));
+    type.ifPresent(value -> accountTypes.put(accountNumber, value));
+    return type;
+  }
+}
@@ -0,0 +1,201 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.dto.StatementLineDTO;
+import com.example.financeservice.exception.ResourceNotFoundException;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.LedgerEntry;
+import com.example.financeservice.model.Transaction;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.LedgerEntryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Writes account statements of any length as NDJSON or CSV without holding them in memory.
+ * Entries are read through a database cursor, written to the response as they arrive and
+ * detached from the persistence context every {@link LedgerEntryRepository#STREAM_FETCH_SIZE}
+ * rows, so memory use does not grow with the statement.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StatementExportService {
+
+  private static final String ACCOUNT_REPOSITORY = "AccountRepository";
+  private static final int DETACH_EVERY = Integer.parseInt(LedgerEntryRepository.STREAM_FETCH_SIZE);
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final String CSV_HEADER =
+      "posted_at,transaction_id,type,direction,amount,balance_after,counterparty_account_number,"
+          + "description";
+
+  private final AccountRepository accountRepository;
+  private final LedgerEntryRepository ledgerEntryRepository;
+  private final MetricsService metricsService;
+  private final TransactionTemplate transactionTemplate;
+  private final EntityManager entityManager;
+  private final ObjectMapper objectMapper;
+
+  public enum Format {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    Format(String contentType, String extension) {
+      this.contentType = contentType;
+      this.extension = extension;
+    }
+
+    public String getContentType() {
+      return contentType;
+    }
+
+    public String getExtension() {
+      return extension;
+    }
+  }
+
+  /**
+   * Checks the account and returns the body that streams its statement. The account is looked up
+   * here, before the response is committed, so an unknown account is still answered with a 404.
+   */
+  @Transactional(readOnly = true)
+  public StreamingResponseBody export(String accountNumber, LocalDateTime startDate,
+      LocalDateTime endDate, Format format) {
+    Account account = metricsService.recordRepositoryExecutionTime(
+        ACCOUNT_REPOSITORY, "findByAccountNumber",
+        () -> accountRepository.findByAccountNumber(accountNumber)
+            .orElseThrow(() -> {
+              log.error("Service: Account not found with number: {}", accountNumber);
+              metricsService.recordExceptionOccurred("ResourceNotFoundException",
+                  "exportStatement");
+              return new ResourceNotFoundException(
+                  "Account not found with number: " + accountNumber);
+            }));
+
+    Long accountId = account.getId();
+    return out -> write(accountId, accountNumber, startDate, endDate, format, out);
+  }
+
+  private void write(Long accountId, String accountNumber, LocalDateTime startDate,
+      LocalDateTime endDate, Format format, OutputStream out) {
+    var timer = metricsService.startTimer();
+    // Runs on the async request thread, after the controller returned
+    TransactionTemplate readOnly = new TransactionTemplate(
+        transactionTemplate.getTransactionManager());
+    readOnly.setReadOnly(true);
+
+    try {
+      Long rows = readOnly.execute(status -> {
+        Writer writer = new BufferedWriter(
+            new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try (Stream<LedgerEntry> entries = ledgerEntryRepository
+            .streamByAccountAndPostedAtBetween(accountRepository.getReferenceById(accountId),
+                startDate, endDate)) {
+          if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+          }
+
+          long written = 0;
+          Iterator<LedgerEntry> iterator = entries.iterator();
+          while (iterator.hasNext()) {
+            StatementLineDTO line = toLine(iterator.next());
+            if (format == Format.CSV) {
+              writeCsv(writer, line);
+            } else {
+              writer.write(objectMapper.writeValueAsString(line));
+              writer.write('\n');
+            }
+
+            if (++written % DETACH_EVERY == 0) {
+              writer.flush();
+              entityManager.clear();
+            }
+          }
+          writer.flush();
+          return written;
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+
+      log.info("Service: Exported {} statement lines of account: {} as {}", rows, accountNumber,
+          format);
+    } catch (UncheckedIOException e) {
+      // Usually the client went away; nothing more can be sent on this response
+      log.warn("Service: Statement export of account: {} aborted: {}", accountNumber,
+          e.getMessage());
+      metricsService.recordExceptionOccurred("IOException", "exportStatement");
+    } finally {
+      metricsService.stopTimer(timer, "finance.statement.export.time", "format",
+          format.name());
+    }
+  }
+
+  private static StatementLineDTO toLine(LedgerEntry entry) {
+    Transaction transaction = entry.getTransaction();
+    Account counterparty = entry.getDirection() == LedgerEntry.Direction.DEBIT
+        ? transaction.getDestinationAccount()
+        : transaction.getSourceAccount();
+
+    return StatementLineDTO.builder()
+        .postedAt(entry.getPostedAt())
+        .transactionId(transaction.getTransactionId())
+        .type(transaction.getType())
+        .direction(entry.getDirection())
+        .amount(entry.signedAmount())
+        .balanceAfter(entry.getBalanceAfter())
+        .counterpartyAccountNumber(counterparty == null ? null : counterparty.getAccountNumber())
+        .description(transaction.getDescription())
+        .build();
+  }
+
+  private static void writeCsv(Writer writer, StatementLineDTO line) throws IOException {
+    writer.write(String.valueOf(line.getPostedAt()));
+    writer.write(',');
+    writer.write(csv(line.getTransactionId()));
+    writer.write(',');
+    writer.write(String.valueOf(line.getType()));
+    writer.write(',');
+    writer.write(String.valueOf(line.getDirection()));
+    writer.write(',');
+    writer.write(line.getAmount().toPlainString());
+    writer.write(',');
+    writer.write(line.getBalanceAfter() == null ? "" : line.getBalanceAfter().toPlainString());
+    writer.write(',');
+    writer.write(csv(line.getCounterpartyAccountNumber()));
+    writer.write(',');
+    writer.write(csv(line.getDescription()));
+    writer.write('\n');
+  }
+
+  // RFC 4180 quoting, only where needed
+  private static String csv(String value) {
+    if (value == null) {
+      return "";
+    }
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+        && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+}
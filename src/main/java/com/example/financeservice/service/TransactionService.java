@@ -1,24 +1,51 @@
 package com.example.financeservice.service;
 
+import com.example.financeservice.config.JdbcRoundTripCounter;
+import com.example.financeservice.dto.BatchTransferRequestDTO;
+import com.example.financeservice.dto.BatchTransferResultDTO;
+import com.example.financeservice.dto.CursorPageDTO;
+import com.example.financeservice.dto.PayoutItemDTO;
+import com.example.financeservice.dto.PayoutRequestDTO;
+import com.example.financeservice.dto.PayoutResultDTO;
 import com.example.financeservice.dto.StatementDTO;
 import com.example.financeservice.dto.TransactionDTO;
 import com.example.financeservice.dto.TransferDTO;
 import com.example.financeservice.exception.InsufficientFundsException;
 import com.example.financeservice.exception.InvalidTransactionException;
 import com.example.financeservice.exception.ResourceNotFoundException;
+import com.example.financeservice.id.TransactionIdGenerator;
 import com.example.financeservice.model.Account;
+import com.example.financeservice.model.LedgerEntry;
 import com.example.financeservice.model.Transaction;
 import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.LedgerEntryRepository;
+import com.example.financeservice.repository.LedgerEntryRepository.EntryView;
 import com.example.financeservice.repository.TransactionRepository;
+import com.example.financeservice.repository.TransactionRepository.TransactionView;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @RequiredArgsConstructor
@@ -27,12 +54,15 @@ public class TransactionService {
 
   private static final String ACCOUNT_REPOSITORY = "AccountRepository";
   private static final String TRANSACTION_REPOSITORY = "TransactionRepository";
+  private static final String LEDGER_ENTRY_REPOSITORY = "LedgerEntryRepository";
   private static final String FIND_BY_ACCOUNT_NUMBER = "findByAccountNumber";
   private static final String FIND_BY_ACCOUNT_NUMBER_WITH_LOCK = "findByAccountNumberWithLock";
   private static final String TRANSACTION_TYPE_DEPOSIT = "DEPOSIT";
   private static final String TRANSACTION_TYPE_WITHDRAWAL = "WITHDRAWAL";
   private static final String TRANSACTION_TYPE_TRANSFER = "TRANSFER";
   private static final String OPERATION_TRANSFER = "transfer";
+  private static final String OPERATION_TRANSFER_BATCH = "transferBatch";
+  private static final String OPERATION_PAYOUT = "payout";
   private static final String OPERATION_DEPOSIT = "deposit";
   private static final String OPERATION_WITHDRAW = "withdraw";
   private static final String ERROR_ACCOUNT_NOT_FOUND = "Account not found with number: ";
@@ -42,31 +72,57 @@ public class TransactionService {
   private static final String EXCEPTION_INSUFFICIENT_FUNDS = "InsufficientFundsException";
 
   private final TransactionRepository transactionRepository;
+  private final LedgerEntryRepository ledgerEntryRepository;
   private final AccountRepository accountRepository;
   private final MetricsService metricsService;
-
+  private final AccountLockService accountLockService;
+  private final BalanceStripeService balanceStripeService;
+  private final JdbcRoundTripCounter roundTripCounter;
+  private final TransactionIdGenerator transactionIdGenerator;
+  private final PostingModeResolver postingModeResolver;
+  private final OptimisticPostingService optimisticPostingService;
+  private final JournalPostingService journalPostingService;
+  private final BalanceSnapshotService balanceSnapshotService;
+  private final AccountCache accountCache;
+
+  /**
+   * Transactions in id order, one page of at most {@code size} after the given cursor (from the
+   * start when null). Every page is a primary key range scan, so no request reads the whole table.
+   */
   @Transactional(readOnly = true)
-  public List<TransactionDTO> getAllTransactions() {
-    log.debug("Service: Getting all transactions");
-
-    List<Transaction> transactions = metricsService.recordRepositoryExecutionTime(
-        TRANSACTION_REPOSITORY, "findAll",
-        transactionRepository::findAll);
-
-    log.debug("Service: Found {} transactions in database", transactions.size());
+  public CursorPageDTO<TransactionDTO> getTransactions(String cursor, int size) {
+    log.debug("Service: Getting transactions after cursor: {}, size: {}", cursor, size);
 
-    return transactions.stream()
-        .map(this::convertToDTO)
-        .toList();
+    if (size < 1 || size > KeysetCursor.MAX_PAGE_SIZE) {
+      metricsService.recordExceptionOccurred(EXCEPTION_INVALID_TRANSACTION, "getTransactions");
+      throw new InvalidTransactionException(
+          "Page size must be between 1 and " + KeysetCursor.MAX_PAGE_SIZE);
+    }
+    long afterId = cursor == null ? 0L : KeysetCursor.decode(cursor).id();
+
+    // One extra row tells whether there is a next page
+    List<TransactionView> transactions = metricsService.recordRepositoryExecutionTime(
+        TRANSACTION_REPOSITORY, "findViewPageAfter",
+        () -> transactionRepository.findViewPageAfter(afterId, Limit.of(size + 1)));
+
+    boolean hasMore = transactions.size() > size;
+    List<TransactionView> page = hasMore ? transactions.subList(0, size) : transactions;
+    log.debug("Service: Found {} transactions, more: {}", page.size(), hasMore);
+
+    return CursorPageDTO.<TransactionDTO>builder()
+        .items(page.stream().map(this::convertToDTO).toList())
+        .nextCursor(hasMore ? KeysetCursor.ofId(page.get(size - 1).id()).encode() : null)
+        .hasMore(hasMore)
+        .build();
   }
 
   @Transactional(readOnly = true)
   public TransactionDTO getTransactionById(Long id) {
     log.debug("Service: Getting transaction with ID: {}", id);
 
-    Transaction transaction = metricsService.recordRepositoryExecutionTime(
-        TRANSACTION_REPOSITORY, "findById",
-        () -> transactionRepository.findById(id)
+    TransactionView transaction = metricsService.recordRepositoryExecutionTime(
+        TRANSACTION_REPOSITORY, "findViewById",
+        () -> transactionRepository.findViewById(id)
             .orElseThrow(() -> {
               log.error("Service: Transaction not found with ID: {}", id);
               metricsService.recordExceptionOccurred(EXCEPTION_RESOURCE_NOT_FOUND, "getTransactionById");
@@ -74,7 +130,7 @@ public class TransactionService {
             }));
 
     log.debug("Service: Found transaction with ID: {}, type: {}, amount: {}",
-        id, transaction.getType(), transaction.getAmount());
+        id, transaction.type(), transaction.amount());
     return convertToDTO(transaction);
   }
 
@@ -82,9 +138,9 @@ public class TransactionService {
   public TransactionDTO getTransactionByTransactionId(String transactionId) {
     log.debug("Service: Getting transaction with transaction ID: {}", transactionId);
 
-    Transaction transaction = metricsService.recordRepositoryExecutionTime(
-        TRANSACTION_REPOSITORY, "findByTransactionId",
-        () -> transactionRepository.findByTransactionId(transactionId)
+    TransactionView transaction = metricsService.recordRepositoryExecutionTime(
+        TRANSACTION_REPOSITORY, "findViewByTransactionId",
+        () -> transactionRepository.findViewByTransactionId(transactionId)
             .orElseThrow(() -> {
               log.error("Service: Transaction not found with transaction ID: {}", transactionId);
               metricsService.recordExceptionOccurred(EXCEPTION_RESOURCE_NOT_FOUND, "getTransactionByTransactionId");
@@ -93,7 +149,7 @@ public class TransactionService {
             }));
 
     log.debug("Service: Found transaction with transaction ID: {}, type: {}, amount: {}",
-        transactionId, transaction.getType(), transaction.getAmount());
+        transactionId, transaction.type(), transaction.amount());
     return convertToDTO(transaction);
   }
 
@@ -110,13 +166,13 @@ public class TransactionService {
               return new ResourceNotFoundException(ERROR_ACCOUNT_NOT_FOUND + accountNumber);
             }));
 
-    List<Transaction> transactions = metricsService.recordRepositoryExecutionTime(
-        TRANSACTION_REPOSITORY, "findByAccount",
-        () -> transactionRepository.findByAccount(account));
+    List<EntryView> entries = metricsService.recordRepositoryExecutionTime(
+        LEDGER_ENTRY_REPOSITORY, "findViewsByAccount",
+        () -> ledgerEntryRepository.findViewsByAccount(account));
 
-    log.debug("Service: Found {} transactions for account: {}", transactions.size(), accountNumber);
+    log.debug("Service: Found {} transactions for account: {}", entries.size(), accountNumber);
 
-    return transactions.stream()
+    return entries.stream()
         .map(this::convertToDTO)
         .toList();
   }
@@ -136,9 +192,11 @@ public class TransactionService {
               return new ResourceNotFoundException(ERROR_ACCOUNT_NOT_FOUND + accountNumber);
             }));
 
-    Page<Transaction> transactions = metricsService.recordRepositoryExecutionTime(
-        TRANSACTION_REPOSITORY, "findByAccountPaginated",
-        () -> transactionRepository.findByAccountPaginated(account, pageable));
+    // Always newest first, in index order: a requested sort is not applied
+    Page<EntryView> transactions = metricsService.recordRepositoryExecutionTime(
+        LEDGER_ENTRY_REPOSITORY, "findViewsByAccountPaginated",
+        () -> ledgerEntryRepository.findViewsByAccountPaginated(account,
+            PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())));
 
     log.debug("Service: Found page {} of {} for account: {}, total elements: {}",
         pageable.getPageNumber(), pageable.getPageSize(), accountNumber,
@@ -147,6 +205,61 @@ public class TransactionService {
     return transactions.map(this::convertToDTO);
   }
 
+  /**
+   * Account history newest first, one page of at most {@code size} entries after the given
+   * cursor (from the start when null). Each page is an index seek on (account, posted_at, id), so
+   * deep pages cost the same as the first, there is no count query, and entries posted while the
+   * client pages through never shift the next page.
+   */
+  @Transactional(readOnly = true)
+  public CursorPageDTO<TransactionDTO> getTransactionsByAccountAfterCursor(String accountNumber,
+      String cursor, int size) {
+    log.debug("Service: Getting transactions for account: {} after cursor: {}, size: {}",
+        accountNumber, cursor, size);
+
+    if (size < 1 || size > KeysetCursor.MAX_PAGE_SIZE) {
+      metricsService.recordExceptionOccurred(EXCEPTION_INVALID_TRANSACTION,
+          "getTransactionsByAccountAfterCursor");
+      throw new InvalidTransactionException(
+          "Page size must be between 1 and " + KeysetCursor.MAX_PAGE_SIZE);
+    }
+    KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+
+    Account account = metricsService.recordRepositoryExecutionTime(
+        ACCOUNT_REPOSITORY, FIND_BY_ACCOUNT_NUMBER,
+        () -> accountRepository.findByAccountNumber(accountNumber)
+            .orElseThrow(() -> {
+              log.error(ERROR_SERVICE_ACCOUNT_NOT_FOUND, accountNumber);
+              metricsService.recordExceptionOccurred(EXCEPTION_RESOURCE_NOT_FOUND,
+                  "getTransactionsByAccountAfterCursor");
+              return new ResourceNotFoundException(ERROR_ACCOUNT_NOT_FOUND + accountNumber);
+            }));
+
+    // One extra row tells whether there is a next page
+    Limit limit = Limit.of(size + 1);
+    List<EntryView> entries = after == null
+        ? metricsService.recordRepositoryExecutionTime(
+            LEDGER_ENTRY_REPOSITORY, "findLatestViewsByAccount",
+            () -> ledgerEntryRepository.findLatestViewsByAccount(account, limit))
+        : metricsService.recordRepositoryExecutionTime(
+            LEDGER_ENTRY_REPOSITORY, "findViewsByAccountBefore",
+            () -> ledgerEntryRepository.findViewsByAccountBefore(account, after.position(),
+                after.id(), limit));
+
+    boolean hasMore = entries.size() > size;
+    List<EntryView> page = hasMore ? entries.subList(0, size) : entries;
+    EntryView last = page.isEmpty() ? null : page.get(page.size() - 1);
+
+    log.debug("Service: Found {} transactions for account: {}, more: {}", page.size(),
+        accountNumber, hasMore);
+
+    return CursorPageDTO.<TransactionDTO>builder()
+        .items(page.stream().map(this::convertToDTO).toList())
+        .nextCursor(hasMore ? new KeysetCursor(last.postedAt(), last.entryId()).encode() : null)
+        .hasMore(hasMore)
+        .build();
+  }
+
   @Transactional(readOnly = true)
   public StatementDTO getAccountStatement(String accountNumber, LocalDateTime startDate,
       LocalDateTime endDate) {
@@ -162,27 +275,36 @@ public class TransactionService {
               return new ResourceNotFoundException(ERROR_ACCOUNT_NOT_FOUND + accountNumber);
             }));
 
-    List<Transaction> transactions = metricsService.recordRepositoryExecutionTime(
-        TRANSACTION_REPOSITORY, "findByAccountAndDateRange",
-        () -> transactionRepository.findByAccountAndDateRange(account, startDate, endDate));
+    List<EntryView> entries = metricsService.recordRepositoryExecutionTime(
+        LEDGER_ENTRY_REPOSITORY, "findViewsByAccountAndPostedAtBetween",
+        () -> ledgerEntryRepository.findViewsByAccountAndPostedAtBetween(account, startDate,
+            endDate));
 
     log.debug("Service: Found {} transactions for account: {} between {} and {}",
-        transactions.size(), accountNumber, startDate, endDate);
+        entries.size(), accountNumber, startDate, endDate);
+
+    // Last daily snapshot plus the entries since, however old the account is
+    BigDecimal openingBalance = balanceSnapshotService.balanceAt(account, startDate);
+    BigDecimal closingBalance = entries.stream()
+        .map(EntryView::signedAmount)
+        .reduce(openingBalance, BigDecimal::add);
 
     StatementDTO statement = new StatementDTO();
     statement.setAccountNumber(account.getAccountNumber());
     statement.setAccountType(account.getType());
     statement.setCurrentBalance(account.getBalance());
+    statement.setOpeningBalance(openingBalance);
+    statement.setClosingBalance(closingBalance);
     statement.setStatementStartDate(startDate);
     statement.setStatementEndDate(endDate);
     statement.setGeneratedAt(LocalDateTime.now());
 
-    statement.setTransactions(transactions.stream()
+    statement.setTransactions(entries.stream()
         .map(this::convertToDTO)
         .toList());
 
     log.info("Service: Successfully generated statement for account: {} with {} transactions",
-        accountNumber, transactions.size());
+        accountNumber, entries.size());
 
     return statement;
   }
@@ -192,9 +314,12 @@ public class TransactionService {
     log.debug("Service: Processing transfer of {} from account: {} to account: {}",
         transferDTO.getAmount(), transferDTO.getSourceAccountNumber(),
         transferDTO.getDestinationAccountNumber());
+    accountCache.evictAfterCommit(transferDTO.getSourceAccountNumber(),
+        transferDTO.getDestinationAccountNumber());
 
     // Iniciar timer para acompanhar tempo total da transferência
     var timer = metricsService.startTimer();
+    long roundTripsBefore = roundTripCounter.currentCount();
 
     try {
       // Validações
@@ -213,30 +338,42 @@ public class TransactionService {
         throw new InvalidTransactionException("Source and destination accounts cannot be the same");
       }
 
-      // Get accounts with lock to prevent concurrent modifications
-      Account sourceAccount = metricsService.recordRepositoryExecutionTime(
-          ACCOUNT_REPOSITORY, FIND_BY_ACCOUNT_NUMBER_WITH_LOCK,
-          () -> accountRepository.findByAccountNumberWithLock(
-                  transferDTO.getSourceAccountNumber())
-              .orElseThrow(() -> {
-                log.error("Service: Source account not found with number: {}",
-                    transferDTO.getSourceAccountNumber());
-                metricsService.recordExceptionOccurred(EXCEPTION_RESOURCE_NOT_FOUND, OPERATION_TRANSFER);
-                return new ResourceNotFoundException(
-                    "Source account not found with number: " + transferDTO.getSourceAccountNumber());
-              }));
-
-      Account destinationAccount = metricsService.recordRepositoryExecutionTime(
-          ACCOUNT_REPOSITORY, FIND_BY_ACCOUNT_NUMBER_WITH_LOCK,
-          () -> accountRepository.findByAccountNumberWithLock(
-                  transferDTO.getDestinationAccountNumber())
-              .orElseThrow(() -> {
-                log.error("Service: Destination account not found with number: {}",
-                    transferDTO.getDestinationAccountNumber());
-                metricsService.recordExceptionOccurred(EXCEPTION_RESOURCE_NOT_FOUND, OPERATION_TRANSFER);
-                return new ResourceNotFoundException("Destination account not found with number: "
-                    + transferDTO.getDestinationAccountNumber());
-              }));
+      // Lock both accounts with a single query, always in ascending id order, so opposing
+      // transfers (A -> B and B -> A) queue on the same row instead of deadlocking. A striped
+      // source is locked in any mode, a striped destination never is
+      PostingMode postingMode = postingModeResolver.modeFor(
+          transferDTO.getSourceAccountNumber(), transferDTO.getDestinationAccountNumber());
+      if (postingMode == PostingMode.JOURNAL) {
+        return journalPostingService.transfer(transferDTO.getSourceAccountNumber(),
+            transferDTO.getDestinationAccountNumber(), transferDTO.getAmount(),
+            transferDTO.getDescription());
+      }
+      boolean lockedPosting = postingMode == PostingMode.PESSIMISTIC
+          || balanceStripeService.isStriped(transferDTO.getSourceAccountNumber());
+      boolean destinationLocked = lockedPosting
+          && !balanceStripeService.isStriped(transferDTO.getDestinationAccountNumber());
+      Map<String, Account> accounts = resolveTransferAccounts(lockedPosting, destinationLocked,
+          transferDTO.getSourceAccountNumber(), transferDTO.getDestinationAccountNumber());
+
+      Account sourceAccount = Optional.ofNullable(
+              accounts.get(transferDTO.getSourceAccountNumber()))
+          .orElseThrow(() -> {
+            log.error("Service: Source account not found with number: {}",
+                transferDTO.getSourceAccountNumber());
+            metricsService.recordExceptionOccurred(EXCEPTION_RESOURCE_NOT_FOUND, OPERATION_TRANSFER);
+            return new ResourceNotFoundException(
+                "Source account not found with number: " + transferDTO.getSourceAccountNumber());
+          });
+
+      Account destinationAccount = Optional.ofNullable(
+              accounts.get(transferDTO.getDestinationAccountNumber()))
+          .orElseThrow(() -> {
+            log.error("Service: Destination account not found with number: {}",
+                transferDTO.getDestinationAccountNumber());
+            metricsService.recordExceptionOccurred(EXCEPTION_RESOURCE_NOT_FOUND, OPERATION_TRANSFER);
+            return new ResourceNotFoundException("Destination account not found with number: "
+                + transferDTO.getDestinationAccountNumber());
+          });
 
       // Check if accounts are active
       if (sourceAccount.getStatus() != Account.AccountStatus.ACTIVE) {
@@ -255,6 +392,12 @@ public class TransactionService {
         throw new InvalidTransactionException("Destination account is not active");
       }
 
+      // Part of the funds of a striped source may still sit in its stripes. A striped destination
+      // has its stripes locked with them, since one of them is credited below
+      if (lockedPosting && sourceAccount.getBalance().compareTo(transferDTO.getAmount()) < 0) {
+        balanceStripeService.consolidate(sourceAccount, destinationAccount);
+      }
+
       // Check if source account has sufficient funds
       if (sourceAccount.getBalance().compareTo(transferDTO.getAmount()) < 0) {
         log.warn(
@@ -266,51 +409,72 @@ public class TransactionService {
         throw new InsufficientFundsException("Insufficient funds in source account");
       }
 
-      // Create transaction
-      Transaction transaction = new Transaction();
-      transaction.setAmount(transferDTO.getAmount());
-      transaction.setType(Transaction.TransactionType.TRANSFER);
-      transaction.setDescription(transferDTO.getDescription());
-      transaction.setSourceAccount(sourceAccount);
-      transaction.setDestinationAccount(destinationAccount);
-      transaction.setStatus(Transaction.TransactionStatus.PENDING);
-
-      // Save transaction
-      Transaction savedTransaction = metricsService.recordRepositoryExecutionTime(
-          TRANSACTION_REPOSITORY, "save",
-          () -> transactionRepository.save(transaction));
-
-      log.debug("Service: Created pending transaction with ID: {}, transaction ID: {}",
-          savedTransaction.getId(), savedTransaction.getTransactionId());
-
       try {
         // Update account balances
-        BigDecimal sourceBalanceBefore = sourceAccount.getBalance();
-        BigDecimal destBalanceBefore = destinationAccount.getBalance();
-
-        sourceAccount.setBalance(sourceAccount.getBalance().subtract(transferDTO.getAmount()));
-        destinationAccount.setBalance(destinationAccount.getBalance().add(transferDTO.getAmount()));
-
-        metricsService.recordRepositoryExecutionTime(
-            ACCOUNT_REPOSITORY, "save",
-            () -> accountRepository.save(sourceAccount));
-
-        metricsService.recordRepositoryExecutionTime(
-            ACCOUNT_REPOSITORY, "save",
-            () -> accountRepository.save(destinationAccount));
-
-        log.debug(
-            "Service: Updated account balances. Source account: {} ({} -> {}), Destination account: {} ({} -> {})",
-            sourceAccount.getAccountNumber(), sourceBalanceBefore, sourceAccount.getBalance(),
-            destinationAccount.getAccountNumber(), destBalanceBefore,
-            destinationAccount.getBalance());
-
-        // Update transaction status
-        savedTransaction.setStatus(Transaction.TransactionStatus.COMPLETED);
-        Transaction finalSavedTransaction = savedTransaction;
-        savedTransaction = metricsService.recordRepositoryExecutionTime(
+        BigDecimal sourceBalanceAfter;
+        BigDecimal destinationBalanceAfter;
+        if (!lockedPosting && !destinationAccount.isBalanceStriped()) {
+          applyUnlockedTransfer(postingMode, sourceAccount, destinationAccount,
+              transferDTO.getAmount());
+          sourceBalanceAfter = balanceAfterUnlockedPosting(sourceAccount);
+          destinationBalanceAfter = balanceAfterUnlockedPosting(destinationAccount);
+        } else if (!lockedPosting) {
+          // The stripe is locked last, after the debit, like every other stripe credit
+          applyUnlockedDebit(postingMode, sourceAccount, transferDTO.getAmount(),
+              OPERATION_TRANSFER, "Source account is not active",
+              "Insufficient funds in source account");
+          creditUnlockedAccount(postingMode, destinationAccount, transferDTO.getAmount(),
+              OPERATION_TRANSFER, "Destination account is not active");
+          sourceBalanceAfter = balanceAfterUnlockedPosting(sourceAccount);
+          destinationBalanceAfter = null;
+        } else {
+          // The managed accounts are flushed at commit, both UPDATEs in a single JDBC batch
+          BigDecimal sourceBalanceBefore = sourceAccount.getBalance();
+          BigDecimal destBalanceBefore = destinationAccount.getBalance();
+
+          sourceAccount.setBalance(sourceAccount.getBalance().subtract(transferDTO.getAmount()));
+          metricsService.recordRepositoryExecutionTime(
+              ACCOUNT_REPOSITORY, "save",
+              () -> accountRepository.save(sourceAccount));
+
+          if (destinationLocked) {
+            destinationAccount.setBalance(
+                destinationAccount.getBalance().add(transferDTO.getAmount()));
+            metricsService.recordRepositoryExecutionTime(
+                ACCOUNT_REPOSITORY, "save",
+                () -> accountRepository.save(destinationAccount));
+            destinationBalanceAfter = runningBalance(destinationAccount);
+          } else {
+            creditUnlockedAccount(postingMode, destinationAccount, transferDTO.getAmount(),
+                OPERATION_TRANSFER, "Destination account is not active");
+            destinationBalanceAfter = balanceAfterUnlockedPosting(destinationAccount);
+          }
+          sourceBalanceAfter = runningBalance(sourceAccount);
+
+          log.debug(
+              "Service: Updated account balances. Source account: {} ({} -> {}), Destination account: {} ({} -> {})",
+              sourceAccount.getAccountNumber(), sourceBalanceBefore, sourceAccount.getBalance(),
+              destinationAccount.getAccountNumber(), destBalanceBefore,
+              destinationAccount.getBalance());
+        }
+
+        // Record the transaction once, already in its final state: inside this transaction a
+        // PENDING row is never visible to anyone, and any failure rolls everything back anyway
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(transactionIdGenerator.nextTransactionId());
+        transaction.setAmount(transferDTO.getAmount());
+        transaction.setType(Transaction.TransactionType.TRANSFER);
+        transaction.setDescription(transferDTO.getDescription());
+        transaction.setSourceAccount(sourceAccount);
+        transaction.setDestinationAccount(destinationAccount);
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        transaction.setProcessedAt(LocalDateTime.now());
+
+        Transaction savedTransaction = metricsService.recordRepositoryExecutionTime(
             TRANSACTION_REPOSITORY, "save",
-            () -> transactionRepository.save(finalSavedTransaction));
+            () -> transactionRepository.save(transaction));
+        saveLedgerEntries(List.of(LedgerEntry.debit(savedTransaction, sourceBalanceAfter),
+            LedgerEntry.credit(savedTransaction, destinationBalanceAfter)));
 
         log.info(
             "Service: Transfer completed successfully. Transaction ID: {}, Amount: {}, From: {}, To: {}",
@@ -318,23 +482,20 @@ public class TransactionService {
             transferDTO.getSourceAccountNumber(), transferDTO.getDestinationAccountNumber());
 
         // Registrar métricas para transferência bem-sucedida
-        metricsService.recordTransactionProcessed(TRANSACTION_TYPE_TRANSFER, transferDTO.getAmount(), true);
-        metricsService.recordDailyFinancialVolume(TRANSACTION_TYPE_TRANSFER, transferDTO.getAmount());
+        recordProcessedAfterCommit(TRANSACTION_TYPE_TRANSFER, transferDTO.getAmount());
 
         // Parar o timer e registrar o tempo total da operação
         metricsService.stopTimer(timer, "finance.operations.transfer.time",
             "source", transferDTO.getSourceAccountNumber(),
             "destination", transferDTO.getDestinationAccountNumber());
 
+        recordRoundTripsAfterCommit(OPERATION_TRANSFER, roundTripsBefore);
+
         return convertToDTO(savedTransaction);
       } catch (Exception e) {
-        // If any exception occurs, mark transaction as failed
-        savedTransaction.setStatus(Transaction.TransactionStatus.FAILED);
-        transactionRepository.save(savedTransaction);
-
-        log.error("Service: Transfer failed. Transaction ID: {}, Amount: {}, From: {}, To: {}",
-            savedTransaction.getTransactionId(), transferDTO.getAmount(),
-            transferDTO.getSourceAccountNumber(), transferDTO.getDestinationAccountNumber(), e);
+        log.error("Service: Transfer failed. Amount: {}, From: {}, To: {}",
+            transferDTO.getAmount(), transferDTO.getSourceAccountNumber(),
+            transferDTO.getDestinationAccountNumber(), e);
 
         // Registrar métricas para transferência com falha
         metricsService.recordTransactionProcessed(TRANSACTION_TYPE_TRANSFER, transferDTO.getAmount(), false);
@@ -350,12 +511,348 @@ public class TransactionService {
     }
   }
 
+  @Transactional
+  public BatchTransferResultDTO transferBatch(BatchTransferRequestDTO request) {
+    List<TransferDTO> transfers = request.getTransfers();
+    BatchTransferRequestDTO.Mode mode = Optional.ofNullable(request.getMode())
+        .orElse(BatchTransferRequestDTO.Mode.ALL_OR_NOTHING);
+
+    if (transfers == null || transfers.isEmpty()) {
+      log.warn("Service: Empty transfer batch");
+      metricsService.recordExceptionOccurred(EXCEPTION_INVALID_TRANSACTION, OPERATION_TRANSFER_BATCH);
+      throw new InvalidTransactionException("Batch must contain at least one transfer");
+    }
+
+    // A batch is applied in a single database transaction, which the journal does not offer
+    if (postingModeResolver.defaultMode() == PostingMode.JOURNAL) {
+      log.warn("Service: Transfer batches are not supported in JOURNAL posting mode");
+      metricsService.recordExceptionOccurred(EXCEPTION_INVALID_TRANSACTION, OPERATION_TRANSFER_BATCH);
+      throw new InvalidTransactionException(
+          "Transfer batches are not supported in JOURNAL posting mode");
+    }
+
+    log.debug("Service: Processing batch of {} transfers in {} mode", transfers.size(), mode);
+
+    var timer = metricsService.startTimer();
+    long roundTripsBefore = roundTripCounter.currentCount();
+
+    try {
+      // Every account of the batch is locked by a single query, in ascending id order, so two
+      // batches (or a batch and a single transfer) touching the same accounts cannot deadlock
+      String[] accountNumbers = transfers.stream()
+          .flatMap(transfer -> Stream.of(transfer.getSourceAccountNumber(),
+              transfer.getDestinationAccountNumber()))
+          .filter(Objects::nonNull)
+          .distinct()
+          .toArray(String[]::new);
+      Map<String, Account> accounts = accountLockService.lockAccounts(accountNumbers);
+      accountCache.evictAfterCommit(accountNumbers);
+
+      // Validate every item against the running balances first; nothing is written yet. A
+      // striped source counts its stripes, which are only folded in once the batch is accepted
+      Map<String, BigDecimal> balances = new HashMap<>();
+      accounts.forEach((accountNumber, account) -> balances.put(accountNumber, account.getBalance()));
+      transfers.stream()
+          .map(TransferDTO::getSourceAccountNumber)
+          .filter(Objects::nonNull)
+          .distinct()
+          .map(accounts::get)
+          .filter(Objects::nonNull)
+          .forEach(account -> balances.merge(account.getAccountNumber(),
+              balanceStripeService.stripedBalance(account), BigDecimal::add));
+      Map<String, BigDecimal> balancesBefore = new HashMap<>(balances);
+
+      List<BatchTransferResultDTO.ItemResult> results = new ArrayList<>(transfers.size());
+      int failed = 0;
+      for (int index = 0; index < transfers.size(); index++) {
+        TransferDTO transfer = transfers.get(index);
+        RuntimeException rejection = validateBatchTransfer(transfer, accounts, balances);
+
+        if (rejection != null) {
+          log.warn("Service: Batch transfer item {} rejected: {}", index, rejection.getMessage());
+          metricsService.recordExceptionOccurred(rejection.getClass().getSimpleName(),
+              OPERATION_TRANSFER_BATCH);
+          results.add(BatchTransferResultDTO.ItemResult.builder()
+              .index(index)
+              .status(BatchTransferResultDTO.ItemStatus.FAILED)
+              .errorCode(rejection.getClass().getSimpleName())
+              .errorMessage(rejection.getMessage())
+              .build());
+          failed++;
+        } else {
+          balances.merge(transfer.getSourceAccountNumber(), transfer.getAmount(), BigDecimal::subtract);
+          balances.merge(transfer.getDestinationAccountNumber(), transfer.getAmount(), BigDecimal::add);
+          results.add(BatchTransferResultDTO.ItemResult.builder()
+              .index(index)
+              .status(BatchTransferResultDTO.ItemStatus.COMPLETED)
+              .build());
+        }
+      }
+
+      if (failed > 0 && mode == BatchTransferRequestDTO.Mode.ALL_OR_NOTHING) {
+        log.warn("Service: Transfer batch rejected, {} of {} items failed", failed, transfers.size());
+        results.stream()
+            .filter(result -> result.getStatus() == BatchTransferResultDTO.ItemStatus.COMPLETED)
+            .forEach(result -> result.setStatus(BatchTransferResultDTO.ItemStatus.NOT_POSTED));
+        transfers.forEach(transfer -> metricsService.recordTransactionProcessed(
+            TRANSACTION_TYPE_TRANSFER, transfer.getAmount(), false));
+
+        return BatchTransferResultDTO.builder()
+            .mode(mode)
+            .committed(false)
+            .total(transfers.size())
+            .succeeded(0)
+            .failed(failed)
+            .results(results)
+            .build();
+      }
+
+      // Like a single transfer, a striped source only has its stripes folded in when its row
+      // balance alone cannot take the net debit of the batch
+      Map<String, BigDecimal> changes = new HashMap<>();
+      balances.forEach((accountNumber, balance) ->
+          changes.put(accountNumber, balance.subtract(balancesBefore.get(accountNumber))));
+      accounts.forEach((accountNumber, account) -> {
+        if (account.getBalance().add(changes.get(accountNumber)).signum() < 0) {
+          balanceStripeService.consolidate(account);
+        }
+      });
+
+      // The managed accounts are flushed at commit: one UPDATE per changed account, sent in JDBC
+      // batches, followed by the batched INSERTs of every transaction row and ledger entry
+      Map<String, BigDecimal> runningBalances = new HashMap<>();
+      accounts.forEach((accountNumber, account) ->
+          runningBalances.put(accountNumber, account.getBalance()));
+      accounts.forEach((accountNumber, account) -> {
+        BigDecimal change = changes.get(accountNumber);
+        if (change.signum() != 0) {
+          account.setBalance(account.getBalance().add(change));
+        }
+      });
+
+      LocalDateTime processedAt = LocalDateTime.now();
+      List<Transaction> transactions = new ArrayList<>(transfers.size() - failed);
+      List<LedgerEntry> entries = new ArrayList<>(2 * (transfers.size() - failed));
+      for (BatchTransferResultDTO.ItemResult result : results) {
+        if (result.getStatus() != BatchTransferResultDTO.ItemStatus.COMPLETED) {
+          continue;
+        }
+        TransferDTO transfer = transfers.get(result.getIndex());
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(transactionIdGenerator.nextTransactionId());
+        transaction.setAmount(transfer.getAmount());
+        transaction.setType(Transaction.TransactionType.TRANSFER);
+        transaction.setDescription(transfer.getDescription());
+        transaction.setSourceAccount(accounts.get(transfer.getSourceAccountNumber()));
+        transaction.setDestinationAccount(accounts.get(transfer.getDestinationAccountNumber()));
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        transaction.setProcessedAt(processedAt);
+        transactions.add(transaction);
+
+        // The running balances replay the batch item by item from the balances before it
+        entries.add(LedgerEntry.debit(transaction, runningBalance(transaction.getSourceAccount(),
+            runningBalances.merge(transfer.getSourceAccountNumber(), transfer.getAmount(),
+                BigDecimal::subtract))));
+        entries.add(LedgerEntry.credit(transaction, runningBalance(
+            transaction.getDestinationAccount(),
+            runningBalances.merge(transfer.getDestinationAccountNumber(), transfer.getAmount(),
+                BigDecimal::add))));
+      }
+
+      List<Transaction> savedTransactions = metricsService.recordRepositoryExecutionTime(
+          TRANSACTION_REPOSITORY, "saveAll",
+          () -> transactionRepository.saveAll(transactions));
+      saveLedgerEntries(entries);
+
+      Iterator<Transaction> saved = savedTransactions.iterator();
+      for (BatchTransferResultDTO.ItemResult result : results) {
+        TransferDTO transfer = transfers.get(result.getIndex());
+        boolean completed = result.getStatus() == BatchTransferResultDTO.ItemStatus.COMPLETED;
+        if (completed) {
+          result.setTransaction(convertToDTO(saved.next()));
+          recordProcessedAfterCommit(TRANSACTION_TYPE_TRANSFER, transfer.getAmount());
+        } else {
+          metricsService.recordTransactionProcessed(TRANSACTION_TYPE_TRANSFER,
+              transfer.getAmount(), false);
+        }
+      }
+
+      log.info("Service: Transfer batch completed. Mode: {}, Items: {}, Succeeded: {}, Failed: {}",
+          mode, transfers.size(), transactions.size(), failed);
+
+      recordRoundTripsAfterCommit(OPERATION_TRANSFER_BATCH, roundTripsBefore);
+
+      return BatchTransferResultDTO.builder()
+          .mode(mode)
+          .committed(true)
+          .total(transfers.size())
+          .succeeded(transactions.size())
+          .failed(failed)
+          .results(results)
+          .build();
+    } catch (Exception e) {
+      log.error("Service: Transfer batch failed. Mode: {}, Items: {}", mode, transfers.size(), e);
+      metricsService.recordExceptionOccurred(e.getClass().getSimpleName(), OPERATION_TRANSFER_BATCH);
+      throw e;
+    } finally {
+      metricsService.stopTimer(timer, "finance.operations.transfer_batch.time", "mode", mode.name());
+    }
+  }
+
+  @Transactional
+  public PayoutResultDTO payout(PayoutRequestDTO request) {
+    String sourceAccountNumber = request.getSourceAccountNumber();
+    List<PayoutItemDTO> payouts = request.getPayouts();
+
+    if (payouts == null || payouts.isEmpty()) {
+      throw payoutRejected(new InvalidTransactionException(
+          "Payout must contain at least one destination"));
+    }
+
+    if (postingModeResolver.defaultMode() == PostingMode.JOURNAL) {
+      throw payoutRejected(new InvalidTransactionException(
+          "Payouts are not supported in JOURNAL posting mode"));
+    }
+
+    log.debug("Service: Processing payout from account: {} to {} destinations",
+        sourceAccountNumber, payouts.size());
+
+    var timer = metricsService.startTimer();
+    long roundTripsBefore = roundTripCounter.currentCount();
+
+    try {
+      // Up-front validation, before any lock is taken: item amounts, destinations and the total
+      // against the current source balance. Credits to the same destination are aggregated
+      BigDecimal totalAmount = BigDecimal.ZERO;
+      Map<String, BigDecimal> credits = new LinkedHashMap<>();
+      for (PayoutItemDTO item : payouts) {
+        if (item.getAmount() == null || item.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+          throw payoutRejected(new InvalidTransactionException("Payout amount must be positive"));
+        }
+        if (sourceAccountNumber.equals(item.getDestinationAccountNumber())) {
+          throw payoutRejected(new InvalidTransactionException(
+              "Source and destination accounts cannot be the same"));
+        }
+        totalAmount = totalAmount.add(item.getAmount());
+        credits.merge(item.getDestinationAccountNumber(), item.getAmount(), BigDecimal::add);
+      }
+
+      AccountRepository.FundsView sourceFunds = metricsService.recordRepositoryExecutionTime(
+          ACCOUNT_REPOSITORY, "findFundsByAccountNumber",
+          () -> accountRepository.findFundsByAccountNumber(sourceAccountNumber))
+          .orElseThrow(() -> payoutRejected(new ResourceNotFoundException(
+              "Source account not found with number: " + sourceAccountNumber)));
+      checkPayoutSource(sourceFunds.getStatus(),
+          sourceFunds.getBalance().add(balanceStripeService.stripedBalance(sourceAccountNumber)),
+          totalAmount);
+
+      // The source row is locked once for the whole payout, together with every destination,
+      // in ascending id order like any other posting
+      String[] accountNumbers = Stream.concat(Stream.of(sourceAccountNumber),
+              credits.keySet().stream())
+          .toArray(String[]::new);
+      Map<String, Account> accounts = accountLockService.lockAccounts(accountNumbers);
+      accountCache.evictAfterCommit(accountNumbers);
+
+      // The balance may have changed between the up-front check and the lock
+      Account sourceAccount = Optional.ofNullable(accounts.get(sourceAccountNumber))
+          .orElseThrow(() -> payoutRejected(new ResourceNotFoundException(
+              "Source account not found with number: " + sourceAccountNumber)));
+      if (sourceAccount.getBalance().compareTo(totalAmount) < 0) {
+        balanceStripeService.consolidate(sourceAccount);
+      }
+      checkPayoutSource(sourceAccount.getStatus(), sourceAccount.getBalance(), totalAmount);
+
+      for (String destinationAccountNumber : credits.keySet()) {
+        Account destinationAccount = accounts.get(destinationAccountNumber);
+        if (destinationAccount == null) {
+          throw payoutRejected(new ResourceNotFoundException(
+              "Destination account not found with number: " + destinationAccountNumber));
+        }
+        if (destinationAccount.getStatus() != Account.AccountStatus.ACTIVE) {
+          throw payoutRejected(new InvalidTransactionException(
+              "Destination account is not active: " + destinationAccountNumber));
+        }
+      }
+
+      Map<String, BigDecimal> runningBalances = new HashMap<>();
+      accounts.forEach((accountNumber, account) ->
+          runningBalances.put(accountNumber, account.getBalance()));
+
+      // One debit of the total; the credits are flushed at commit as batched UPDATEs
+      sourceAccount.setBalance(sourceAccount.getBalance().subtract(totalAmount));
+      credits.forEach((destinationAccountNumber, amount) -> {
+        Account destinationAccount = accounts.get(destinationAccountNumber);
+        destinationAccount.setBalance(destinationAccount.getBalance().add(amount));
+      });
+
+      String batchId = UUID.randomUUID().toString();
+      LocalDateTime processedAt = LocalDateTime.now();
+      List<Transaction> transactions = new ArrayList<>(payouts.size());
+      List<LedgerEntry> entries = new ArrayList<>(2 * payouts.size());
+      for (PayoutItemDTO item : payouts) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(transactionIdGenerator.nextTransactionId());
+        transaction.setBatchId(batchId);
+        transaction.setAmount(item.getAmount());
+        transaction.setType(Transaction.TransactionType.TRANSFER);
+        transaction.setDescription(Optional.ofNullable(item.getDescription())
+            .orElse(request.getDescription()));
+        transaction.setSourceAccount(sourceAccount);
+        transaction.setDestinationAccount(accounts.get(item.getDestinationAccountNumber()));
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        transaction.setProcessedAt(processedAt);
+        transactions.add(transaction);
+
+        // The single debit of the total is entered per item, so each row has its running balance
+        entries.add(LedgerEntry.debit(transaction, runningBalance(sourceAccount,
+            runningBalances.merge(sourceAccountNumber, item.getAmount(), BigDecimal::subtract))));
+        entries.add(LedgerEntry.credit(transaction, runningBalance(
+            transaction.getDestinationAccount(),
+            runningBalances.merge(item.getDestinationAccountNumber(), item.getAmount(),
+                BigDecimal::add))));
+      }
+
+      List<Transaction> savedTransactions = metricsService.recordRepositoryExecutionTime(
+          TRANSACTION_REPOSITORY, "saveAll",
+          () -> transactionRepository.saveAll(transactions));
+      saveLedgerEntries(entries);
+
+      log.info("Service: Payout completed successfully. Batch ID: {}, Source: {}, Destinations: {}, Total: {}",
+          batchId, sourceAccountNumber, payouts.size(), totalAmount);
+
+      BigDecimal postedAmount = totalAmount;
+      recordAfterCommit(() -> {
+        payouts.forEach(item -> metricsService.recordTransactionProcessed(
+            TRANSACTION_TYPE_TRANSFER, item.getAmount(), true));
+        metricsService.recordDailyFinancialVolume(TRANSACTION_TYPE_TRANSFER, postedAmount);
+      });
+
+      recordRoundTripsAfterCommit(OPERATION_PAYOUT, roundTripsBefore);
+
+      return PayoutResultDTO.builder()
+          .batchId(batchId)
+          .sourceAccountNumber(sourceAccountNumber)
+          .totalAmount(totalAmount)
+          .sourceBalance(sourceAccount.getBalance()
+              .add(balanceStripeService.stripedBalance(sourceAccount)))
+          .transactions(savedTransactions.stream()
+              .map(this::convertToDTO)
+              .toList())
+          .build();
+    } finally {
+      metricsService.stopTimer(timer, "finance.operations.payout.time");
+    }
+  }
+
   @Transactional
   public TransactionDTO deposit(String accountNumber, BigDecimal amount, String description) {
     log.debug("Service: Processing deposit of {} to account: {}", amount, accountNumber);
+    accountCache.evictAfterCommit(accountNumber);
 
     // Iniciar timer para acompanhar tempo total do depósito
     var timer = metricsService.startTimer();
+    long roundTripsBefore = roundTripCounter.currentCount();
 
     try {
       if (amount.compareTo(BigDecimal.ZERO) <= 0) {
@@ -365,14 +862,14 @@ public class TransactionService {
         throw new InvalidTransactionException("Deposit amount must be positive");
       }
 
-      Account account = metricsService.recordRepositoryExecutionTime(
-          ACCOUNT_REPOSITORY, FIND_BY_ACCOUNT_NUMBER_WITH_LOCK,
-          () -> accountRepository.findByAccountNumberWithLock(accountNumber)
-              .orElseThrow(() -> {
-                log.error(ERROR_SERVICE_ACCOUNT_NOT_FOUND, accountNumber);
-                metricsService.recordExceptionOccurred(EXCEPTION_RESOURCE_NOT_FOUND, OPERATION_DEPOSIT);
-                return new ResourceNotFoundException(ERROR_ACCOUNT_NOT_FOUND + accountNumber);
-              }));
+      // Credits to a striped account go to a balance stripe and leave the account row unlocked
+      PostingMode postingMode = postingModeResolver.modeFor(accountNumber);
+      if (postingMode == PostingMode.JOURNAL) {
+        return journalPostingService.deposit(accountNumber, amount, description);
+      }
+      boolean lockedPosting = postingMode == PostingMode.PESSIMISTIC
+          && !balanceStripeService.isStriped(accountNumber);
+      Account account = findAccountForPosting(accountNumber, OPERATION_DEPOSIT, lockedPosting);
 
       if (account.getStatus() != Account.AccountStatus.ACTIVE) {
         log.warn("Service: Account is not active. Account: {}, Status: {}", accountNumber,
@@ -382,61 +879,62 @@ public class TransactionService {
         throw new InvalidTransactionException("Account is not active");
       }
 
-      // Create transaction
-      Transaction transaction = new Transaction();
-      transaction.setAmount(amount);
-      transaction.setType(Transaction.TransactionType.DEPOSIT);
-      transaction.setDescription(description);
-      transaction.setDestinationAccount(account);
-      transaction.setStatus(Transaction.TransactionStatus.PENDING);
-
-      // Save transaction
-      Transaction savedTransaction = metricsService.recordRepositoryExecutionTime(
-          TRANSACTION_REPOSITORY, "save",
-          () -> transactionRepository.save(transaction));
-
-      log.debug("Service: Created pending deposit transaction with ID: {}, transaction ID: {}",
-          savedTransaction.getId(), savedTransaction.getTransactionId());
-
       try {
         // Update account balance
-        BigDecimal balanceBefore = account.getBalance();
-        account.setBalance(account.getBalance().add(amount));
-
-        metricsService.recordRepositoryExecutionTime(
-            ACCOUNT_REPOSITORY, "save",
-            () -> accountRepository.save(account));
-
-        log.debug("Service: Updated account balance. Account: {} ({} -> {})",
-            account.getAccountNumber(), balanceBefore, account.getBalance());
-
-        // Update transaction status
-        savedTransaction.setStatus(Transaction.TransactionStatus.COMPLETED);
-        Transaction finalSavedTransaction = savedTransaction;
-        savedTransaction = metricsService.recordRepositoryExecutionTime(
+        BigDecimal balanceAfter;
+        if (!lockedPosting) {
+          creditUnlockedAccount(postingMode, account, amount, OPERATION_DEPOSIT,
+              "Account is not active");
+          balanceAfter = balanceAfterUnlockedPosting(account);
+          log.debug("Service: Credited {} to account {} without locking it ({})",
+              amount, account.getAccountNumber(), postingMode);
+        } else {
+          BigDecimal balanceBefore = account.getBalance();
+          account.setBalance(account.getBalance().add(amount));
+
+          metricsService.recordRepositoryExecutionTime(
+              ACCOUNT_REPOSITORY, "save",
+              () -> accountRepository.save(account));
+
+          log.debug("Service: Updated account balance. Account: {} ({} -> {})",
+              account.getAccountNumber(), balanceBefore, account.getBalance());
+          balanceAfter = runningBalance(account);
+        }
+
+        // Record the transaction once, already in its final state: inside this transaction a
+        // PENDING row is never visible to anyone, and any failure rolls everything back anyway
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(transactionIdGenerator.nextTransactionId());
+        transaction.setAmount(amount);
+        transaction.setType(Transaction.TransactionType.DEPOSIT);
+        transaction.setDescription(description);
+        transaction.setDestinationAccount(account);
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        transaction.setProcessedAt(LocalDateTime.now());
+
+        Transaction savedTransaction = metricsService.recordRepositoryExecutionTime(
             TRANSACTION_REPOSITORY, "save",
-            () -> transactionRepository.save(finalSavedTransaction));
+            () -> transactionRepository.save(transaction));
+
+        saveLedgerEntries(List.of(LedgerEntry.credit(savedTransaction, balanceAfter)));
 
         log.info(
             "Service: Deposit completed successfully. Transaction ID: {}, Amount: {}, To account: {}",
             savedTransaction.getTransactionId(), amount, accountNumber);
 
         // Registrar métricas para depósito bem-sucedido
-        metricsService.recordTransactionProcessed(TRANSACTION_TYPE_DEPOSIT, amount, true);
-        metricsService.recordDailyFinancialVolume(TRANSACTION_TYPE_DEPOSIT, amount);
+        recordProcessedAfterCommit(TRANSACTION_TYPE_DEPOSIT, amount);
 
         // Parar o timer e registrar o tempo total da operação
         metricsService.stopTimer(timer, "finance.operations.deposit.time",
             "account", accountNumber);
 
+        recordRoundTripsAfterCommit(OPERATION_DEPOSIT, roundTripsBefore);
+
         return convertToDTO(savedTransaction);
       } catch (Exception e) {
-        // If any exception occurs, mark transaction as failed
-        savedTransaction.setStatus(Transaction.TransactionStatus.FAILED);
-        transactionRepository.save(savedTransaction);
-
-        log.error("Service: Deposit failed. Transaction ID: {}, Amount: {}, To account: {}",
-            savedTransaction.getTransactionId(), amount, accountNumber, e);
+        log.error("Service: Deposit failed. Amount: {}, To account: {}", amount, accountNumber,
+            e);
 
         // Registrar métricas para depósito com falha
         metricsService.recordTransactionProcessed(TRANSACTION_TYPE_DEPOSIT, amount, false);
@@ -455,9 +953,11 @@ public class TransactionService {
   @Transactional
   public TransactionDTO withdraw(String accountNumber, BigDecimal amount, String description) {
     log.debug("Service: Processing withdrawal of {} from account: {}", amount, accountNumber);
+    accountCache.evictAfterCommit(accountNumber);
 
     // Iniciar timer para acompanhar tempo total do saque
     var timer = metricsService.startTimer();
+    long roundTripsBefore = roundTripCounter.currentCount();
 
     try {
       if (amount.compareTo(BigDecimal.ZERO) <= 0) {
@@ -467,14 +967,14 @@ public class TransactionService {
         throw new InvalidTransactionException("Withdrawal amount must be positive");
       }
 
-      Account account = metricsService.recordRepositoryExecutionTime(
-          ACCOUNT_REPOSITORY, FIND_BY_ACCOUNT_NUMBER_WITH_LOCK,
-          () -> accountRepository.findByAccountNumberWithLock(accountNumber)
-              .orElseThrow(() -> {
-                log.error(ERROR_SERVICE_ACCOUNT_NOT_FOUND, accountNumber);
-                metricsService.recordExceptionOccurred(EXCEPTION_RESOURCE_NOT_FOUND, OPERATION_WITHDRAW);
-                return new ResourceNotFoundException(ERROR_ACCOUNT_NOT_FOUND + accountNumber);
-              }));
+      // Debits from a striped account always lock it, since its stripes may have to be folded in
+      PostingMode postingMode = postingModeResolver.modeFor(accountNumber);
+      if (postingMode == PostingMode.JOURNAL) {
+        return journalPostingService.withdraw(accountNumber, amount, description);
+      }
+      boolean lockedPosting = postingMode == PostingMode.PESSIMISTIC
+          || balanceStripeService.isStriped(accountNumber);
+      Account account = findAccountForPosting(accountNumber, OPERATION_WITHDRAW, lockedPosting);
 
       if (account.getStatus() != Account.AccountStatus.ACTIVE) {
         log.warn("Service: Account is not active. Account: {}, Status: {}", accountNumber,
@@ -484,6 +984,10 @@ public class TransactionService {
         throw new InvalidTransactionException("Account is not active");
       }
 
+      if (lockedPosting && account.getBalance().compareTo(amount) < 0) {
+        balanceStripeService.consolidate(account);
+      }
+
       if (account.getBalance().compareTo(amount) < 0) {
         log.warn(
             "Service: Insufficient funds for withdrawal. Account: {}, Balance: {}, Requested amount: {}",
@@ -493,61 +997,62 @@ public class TransactionService {
         throw new InsufficientFundsException("Insufficient funds for withdrawal");
       }
 
-      // Create transaction
-      Transaction transaction = new Transaction();
-      transaction.setAmount(amount);
-      transaction.setType(Transaction.TransactionType.WITHDRAWAL);
-      transaction.setDescription(description);
-      transaction.setSourceAccount(account);
-      transaction.setStatus(Transaction.TransactionStatus.PENDING);
-
-      // Save transaction
-      Transaction savedTransaction = metricsService.recordRepositoryExecutionTime(
-          TRANSACTION_REPOSITORY, "save",
-          () -> transactionRepository.save(transaction));
-
-      log.debug("Service: Created pending withdrawal transaction with ID: {}, transaction ID: {}",
-          savedTransaction.getId(), savedTransaction.getTransactionId());
-
       try {
         // Update account balance
-        BigDecimal balanceBefore = account.getBalance();
-        account.setBalance(account.getBalance().subtract(amount));
-
-        metricsService.recordRepositoryExecutionTime(
-            ACCOUNT_REPOSITORY, "save",
-            () -> accountRepository.save(account));
-
-        log.debug("Service: Updated account balance. Account: {} ({} -> {})",
-            account.getAccountNumber(), balanceBefore, account.getBalance());
-
-        // Update transaction status
-        savedTransaction.setStatus(Transaction.TransactionStatus.COMPLETED);
-        Transaction finalSavedTransaction = savedTransaction;
-        savedTransaction = metricsService.recordRepositoryExecutionTime(
+        BigDecimal balanceAfter;
+        if (!lockedPosting) {
+          applyUnlockedDebit(postingMode, account, amount, OPERATION_WITHDRAW,
+              "Account is not active", "Insufficient funds for withdrawal");
+          balanceAfter = balanceAfterUnlockedPosting(account);
+          log.debug("Service: Debited {} from account {} without locking it ({})",
+              amount, account.getAccountNumber(), postingMode);
+        } else {
+          BigDecimal balanceBefore = account.getBalance();
+          account.setBalance(account.getBalance().subtract(amount));
+
+          metricsService.recordRepositoryExecutionTime(
+              ACCOUNT_REPOSITORY, "save",
+              () -> accountRepository.save(account));
+
+          log.debug("Service: Updated account balance. Account: {} ({} -> {})",
+              account.getAccountNumber(), balanceBefore, account.getBalance());
+          balanceAfter = runningBalance(account);
+        }
+
+        // Record the transaction once, already in its final state: inside this transaction a
+        // PENDING row is never visible to anyone, and any failure rolls everything back anyway
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(transactionIdGenerator.nextTransactionId());
+        transaction.setAmount(amount);
+        transaction.setType(Transaction.TransactionType.WITHDRAWAL);
+        transaction.setDescription(description);
+        transaction.setSourceAccount(account);
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        transaction.setProcessedAt(LocalDateTime.now());
+
+        Transaction savedTransaction = metricsService.recordRepositoryExecutionTime(
             TRANSACTION_REPOSITORY, "save",
-            () -> transactionRepository.save(finalSavedTransaction));
+            () -> transactionRepository.save(transaction));
+
+        saveLedgerEntries(List.of(LedgerEntry.debit(savedTransaction, balanceAfter)));
 
         log.info(
             "Service: Withdrawal completed successfully. Transaction ID: {}, Amount: {}, From account: {}",
             savedTransaction.getTransactionId(), amount, accountNumber);
 
         // Registrar métricas para saque bem-sucedido
-        metricsService.recordTransactionProcessed(TRANSACTION_TYPE_WITHDRAWAL, amount, true);
-        metricsService.recordDailyFinancialVolume(TRANSACTION_TYPE_WITHDRAWAL, amount);
+        recordProcessedAfterCommit(TRANSACTION_TYPE_WITHDRAWAL, amount);
 
         // Parar o timer e registrar o tempo total da operação
         metricsService.stopTimer(timer, "finance.operations.withdrawal.time",
             "account", accountNumber);
 
+        recordRoundTripsAfterCommit(OPERATION_WITHDRAW, roundTripsBefore);
+
         return convertToDTO(savedTransaction);
       } catch (Exception e) {
-        // If any exception occurs, mark transaction as failed
-        savedTransaction.setStatus(Transaction.TransactionStatus.FAILED);
-        transactionRepository.save(savedTransaction);
-
-        log.error("Service: Withdrawal failed. Transaction ID: {}, Amount: {}, From account: {}",
-            savedTransaction.getTransactionId(), amount, accountNumber, e);
+        log.error("Service: Withdrawal failed. Amount: {}, From account: {}", amount,
+            accountNumber, e);
 
         // Registrar métricas para saque com falha
         metricsService.recordTransactionProcessed(TRANSACTION_TYPE_WITHDRAWAL, amount, false);
@@ -563,7 +1068,332 @@ public class TransactionService {
     }
   }
 
+  /**
+   * Credits the initial deposit of an account saved in the current transaction and records it as
+   * a deposit with its ledger entry. No other transaction can see the account before this one
+   * commits, so it is credited directly whatever the posting mode; in journal mode the account is
+   * loaded from the committed balance on first use.
+   */
+  @Transactional
+  public TransactionDTO initialDeposit(Account account, BigDecimal amount) {
+    account.setBalance(account.getBalance().add(amount));
+
+    Transaction transaction = new Transaction();
+    transaction.setTransactionId(transactionIdGenerator.nextTransactionId());
+    transaction.setAmount(amount);
+    transaction.setType(Transaction.TransactionType.DEPOSIT);
+    transaction.setDescription("Initial deposit");
+    transaction.setDestinationAccount(account);
+    transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+    transaction.setProcessedAt(LocalDateTime.now());
+
+    Transaction savedTransaction = metricsService.recordRepositoryExecutionTime(
+        TRANSACTION_REPOSITORY, "save",
+        () -> transactionRepository.save(transaction));
+
+    saveLedgerEntries(List.of(LedgerEntry.credit(savedTransaction, runningBalance(account))));
+
+    log.info("Service: Initial deposit recorded. Transaction ID: {}, Amount: {}, To account: {}",
+        savedTransaction.getTransactionId(), amount, account.getAccountNumber());
+
+    recordProcessedAfterCommit(TRANSACTION_TYPE_DEPOSIT, amount);
+
+    return convertToDTO(savedTransaction);
+  }
+
+  // A posting only counts as processed once it commits: a group commit may roll it back with the
+  // rest of its group and run it again
+  private void recordProcessedAfterCommit(String transactionType, BigDecimal amount) {
+    recordAfterCommit(() -> {
+      metricsService.recordTransactionProcessed(transactionType, amount, true);
+      metricsService.recordDailyFinancialVolume(transactionType, amount);
+    });
+  }
+
+  private void recordAfterCommit(Runnable metrics) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      metrics.run();
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        metrics.run();
+      }
+    });
+  }
+
+  // Statements are counted up to the commit, so the batched balance updates sent at flush time
+  // are included; the commit itself adds one more round trip
+  private void recordRoundTripsAfterCommit(String operation, long roundTripsBefore) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        metricsService.recordRoundTrips(operation,
+            roundTripCounter.currentCount() - roundTripsBefore + 1);
+      }
+    });
+  }
+
+  // Flushed together with the balance updates and the transaction rows of the posting; with
+  // ordered inserts all its entries go out as a single JDBC batch
+  private void saveLedgerEntries(List<LedgerEntry> entries) {
+    metricsService.recordRepositoryExecutionTime(LEDGER_ENTRY_REPOSITORY, "saveAll",
+        () -> ledgerEntryRepository.saveAll(entries));
+  }
+
+  // Running balance of an account whose new balance is in the entity. A striped account keeps part
+  // of its balance in its stripes, so its row balance is not a running balance
+  private static BigDecimal runningBalance(Account account) {
+    return runningBalance(account, account.getBalance());
+  }
+
+  private static BigDecimal runningBalance(Account account, BigDecimal balance) {
+    return account.isBalanceStriped() ? null : balance;
+  }
+
+  // Re-reads the balance left by an unlocked UPDATE. The row stays locked by that UPDATE until
+  // commit, so nothing else can have changed it in between
+  private BigDecimal balanceAfterUnlockedPosting(Account account) {
+    if (account.isBalanceStriped()) {
+      return null;
+    }
+
+    return metricsService.recordRepositoryExecutionTime(
+            ACCOUNT_REPOSITORY, "findFundsByAccountNumber",
+            () -> accountRepository.findFundsByAccountNumber(account.getAccountNumber()))
+        .map(AccountRepository.FundsView::getBalance)
+        .orElse(null);
+  }
+
+  private void checkPayoutSource(Account.AccountStatus status, BigDecimal balance,
+      BigDecimal totalAmount) {
+    if (status != Account.AccountStatus.ACTIVE) {
+      throw payoutRejected(new InvalidTransactionException("Source account is not active"));
+    }
+
+    if (balance.compareTo(totalAmount) < 0) {
+      throw payoutRejected(new InsufficientFundsException(
+          "Insufficient funds in source account for payout total of " + totalAmount));
+    }
+  }
+
+  private RuntimeException payoutRejected(RuntimeException exception) {
+    log.warn("Service: Payout rejected: {}", exception.getMessage());
+    metricsService.recordExceptionOccurred(exception.getClass().getSimpleName(), OPERATION_PAYOUT);
+    return exception;
+  }
+
+  // Same rules as a single transfer, checked against the balances left by the previous items of
+  // the batch. Returns the exception the single transfer would throw, or null if the item is valid
+  private RuntimeException validateBatchTransfer(TransferDTO transfer,
+      Map<String, Account> accounts, Map<String, BigDecimal> balances) {
+    if (transfer.getAmount() == null || transfer.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+      return new InvalidTransactionException("Transfer amount must be positive");
+    }
+
+    if (Objects.equals(transfer.getSourceAccountNumber(), transfer.getDestinationAccountNumber())) {
+      return new InvalidTransactionException("Source and destination accounts cannot be the same");
+    }
+
+    Account sourceAccount = accounts.get(transfer.getSourceAccountNumber());
+    if (sourceAccount == null) {
+      return new ResourceNotFoundException(
+          "Source account not found with number: " + transfer.getSourceAccountNumber());
+    }
+
+    Account destinationAccount = accounts.get(transfer.getDestinationAccountNumber());
+    if (destinationAccount == null) {
+      return new ResourceNotFoundException(
+          "Destination account not found with number: " + transfer.getDestinationAccountNumber());
+    }
+
+    if (sourceAccount.getStatus() != Account.AccountStatus.ACTIVE) {
+      return new InvalidTransactionException("Source account is not active");
+    }
+
+    if (destinationAccount.getStatus() != Account.AccountStatus.ACTIVE) {
+      return new InvalidTransactionException("Destination account is not active");
+    }
+
+    if (balances.get(transfer.getSourceAccountNumber()).compareTo(transfer.getAmount()) < 0) {
+      return new InsufficientFundsException("Insufficient funds in source account");
+    }
+
+    return null;
+  }
+
+  // Locked posting takes the row locks up front; conditional and optimistic posting only read
+  // the accounts because the balance updates themselves enforce the status and funds rules. An
+  // unlocked destination of a locked posting is read separately
+  private Map<String, Account> resolveTransferAccounts(boolean lockedPosting,
+      boolean destinationLocked, String sourceAccountNumber, String destinationAccountNumber) {
+    if (lockedPosting && destinationLocked) {
+      return accountLockService.lockAccounts(sourceAccountNumber, destinationAccountNumber);
+    }
+
+    if (lockedPosting) {
+      Map<String, Account> accounts = new HashMap<>(
+          accountLockService.lockAccounts(sourceAccountNumber));
+      metricsService.recordRepositoryExecutionTime(
+              ACCOUNT_REPOSITORY, FIND_BY_ACCOUNT_NUMBER,
+              () -> accountRepository.findByAccountNumber(destinationAccountNumber))
+          .ifPresent(account -> accounts.put(destinationAccountNumber, account));
+      return accounts;
+    }
+
+    List<Account> accounts = metricsService.recordRepositoryExecutionTime(
+        ACCOUNT_REPOSITORY, "findAllByAccountNumberIn",
+        () -> accountRepository.findAllByAccountNumberIn(
+            List.of(sourceAccountNumber, destinationAccountNumber)));
+
+    return accounts.stream()
+        .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+  }
+
+  private Account findAccountForPosting(String accountNumber, String operation,
+      boolean lockedPosting) {
+    return metricsService.recordRepositoryExecutionTime(
+        ACCOUNT_REPOSITORY, lockedPosting ? FIND_BY_ACCOUNT_NUMBER_WITH_LOCK : FIND_BY_ACCOUNT_NUMBER,
+        () -> (lockedPosting
+            ? accountRepository.findByAccountNumberWithLock(accountNumber)
+            : accountRepository.findByAccountNumber(accountNumber))
+            .orElseThrow(() -> {
+              log.error(ERROR_SERVICE_ACCOUNT_NOT_FOUND, accountNumber);
+              metricsService.recordExceptionOccurred(EXCEPTION_RESOURCE_NOT_FOUND, operation);
+              return new ResourceNotFoundException(ERROR_ACCOUNT_NOT_FOUND + accountNumber);
+            }));
+  }
+
+  // Both legs are applied in ascending id order, the same order used by the pessimistic lock
+  // query, so the row locks taken by the UPDATE statements cannot deadlock either
+  private void applyUnlockedTransfer(PostingMode postingMode, Account sourceAccount,
+      Account destinationAccount, BigDecimal amount) {
+    if (sourceAccount.getId() < destinationAccount.getId()) {
+      applyUnlockedDebit(postingMode, sourceAccount, amount, OPERATION_TRANSFER,
+          "Source account is not active", "Insufficient funds in source account");
+      applyUnlockedCredit(postingMode, destinationAccount, amount, OPERATION_TRANSFER,
+          "Destination account is not active");
+    } else {
+      applyUnlockedCredit(postingMode, destinationAccount, amount, OPERATION_TRANSFER,
+          "Destination account is not active");
+      applyUnlockedDebit(postingMode, sourceAccount, amount, OPERATION_TRANSFER,
+          "Source account is not active", "Insufficient funds in source account");
+    }
+
+    log.debug(
+        "Service: Applied {} balance updates. Source account: {} (-{}), Destination account: {} (+{})",
+        postingMode, sourceAccount.getAccountNumber(), amount,
+        destinationAccount.getAccountNumber(), amount);
+  }
+
+  // Optimistic posting writes the balance computed from the account that was read, guarded by
+  // its version; any other mode lets a conditional UPDATE apply the change in the database
+  private void applyUnlockedDebit(PostingMode postingMode, Account account, BigDecimal amount,
+      String operation, String notActiveMessage, String insufficientFundsMessage) {
+    boolean applied;
+    if (postingMode == PostingMode.OPTIMISTIC) {
+      applied = optimisticPostingService.apply(account, amount.negate(), operation);
+    } else {
+      applied = metricsService.recordRepositoryExecutionTime(
+          ACCOUNT_REPOSITORY, "debitIfSufficientFunds",
+          () -> accountRepository.debitIfSufficientFunds(account.getAccountNumber(), amount)) > 0;
+    }
+
+    if (!applied) {
+      throw conditionalUpdateRejected(account.getAccountNumber(), notActiveMessage,
+          insufficientFundsMessage);
+    }
+  }
+
+  private void applyUnlockedCredit(PostingMode postingMode, Account account, BigDecimal amount,
+      String operation, String notActiveMessage) {
+    boolean applied;
+    if (postingMode == PostingMode.OPTIMISTIC) {
+      applied = optimisticPostingService.apply(account, amount, operation);
+    } else {
+      applied = metricsService.recordRepositoryExecutionTime(
+          ACCOUNT_REPOSITORY, "creditIfActive",
+          () -> accountRepository.creditIfActive(account.getAccountNumber(), amount)) > 0;
+    }
+
+    if (!applied) {
+      throw conditionalUpdateRejected(account.getAccountNumber(), notActiveMessage, null);
+    }
+  }
+
+  // Credit to an account that was read but not locked: striped accounts take it on a balance
+  // stripe, any other account through an unlocked UPDATE
+  private void creditUnlockedAccount(PostingMode postingMode, Account account, BigDecimal amount,
+      String operation, String notActiveMessage) {
+    if (account.isBalanceStriped()) {
+      balanceStripeService.credit(account, amount);
+    } else {
+      applyUnlockedCredit(postingMode, account, amount, operation, notActiveMessage);
+    }
+  }
+
+  // The unlocked UPDATE matched no row, so re-read the current status to report why
+  private RuntimeException conditionalUpdateRejected(String accountNumber,
+      String notActiveMessage, String insufficientFundsMessage) {
+    Account.AccountStatus status = accountRepository.findStatusByAccountNumber(accountNumber)
+        .orElse(null);
+
+    if (status == null) {
+      log.error(ERROR_SERVICE_ACCOUNT_NOT_FOUND, accountNumber);
+      return new ResourceNotFoundException(ERROR_ACCOUNT_NOT_FOUND + accountNumber);
+    }
+
+    if (status != Account.AccountStatus.ACTIVE || insufficientFundsMessage == null) {
+      log.warn("Service: Conditional update rejected, account is not active. Account: {}, Status: {}",
+          accountNumber, status);
+      return new InvalidTransactionException(notActiveMessage);
+    }
+
+    log.warn("Service: Conditional update rejected, insufficient funds. Account: {}",
+        accountNumber);
+    return new InsufficientFundsException(insufficientFundsMessage);
+  }
+
   // Helper methods for DTO conversion
+  private TransactionDTO convertToDTO(TransactionView transaction) {
+    return TransactionDTO.builder()
+        .id(transaction.id())
+        .transactionId(transaction.transactionId())
+        .amount(transaction.amount())
+        .type(transaction.type())
+        .description(transaction.description())
+        .status(transaction.status())
+        .createdAt(transaction.createdAt())
+        .processedAt(transaction.processedAt())
+        .batchId(transaction.batchId())
+        .sourceAccountNumber(transaction.sourceAccountNumber())
+        .destinationAccountNumber(transaction.destinationAccountNumber())
+        .build();
+  }
+
+  private TransactionDTO convertToDTO(EntryView entry) {
+    return TransactionDTO.builder()
+        .id(entry.id())
+        .transactionId(entry.transactionId())
+        .amount(entry.amount())
+        .type(entry.type())
+        .description(entry.description())
+        .status(entry.status())
+        .createdAt(entry.createdAt())
+        .processedAt(entry.processedAt())
+        .batchId(entry.batchId())
+        .sourceAccountNumber(entry.sourceAccountNumber())
+        .destinationAccountNumber(entry.destinationAccountNumber())
+        .balanceAfter(entry.balanceAfter())
+        .build();
+  }
+
   private TransactionDTO convertToDTO(Transaction transaction) {
     TransactionDTO dto = new TransactionDTO();
     dto.setId(transaction.getId());
@@ -574,6 +1404,7 @@ public class TransactionService {
     dto.setStatus(transaction.getStatus());
     dto.setCreatedAt(transaction.getCreatedAt());
     dto.setProcessedAt(transaction.getProcessedAt());
+    dto.setBatchId(transaction.getBatchId());
 
     if (transaction.getSourceAccount() != null) {
       dto.setSourceAccountNumber(transaction.getSourceAccount().getAccountNumber());
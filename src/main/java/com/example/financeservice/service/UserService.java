@@ -4,8 +4,11 @@ import com.example.financeservice.exception.InvalidTokenException;
 import com.example.financeservice.exception.ResourceNotFoundException;
 import com.example.financeservice.model.User;
 import com.example.financeservice.repository.UserRepository;
+import com.example.financeservice.security.AuthenticatedUser;
+import com.example.financeservice.security.TokenAuthenticationCache;
 import io.micrometer.core.instrument.Counter;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -33,6 +36,7 @@ public class UserService implements UserDetailsService {
   private final PasswordEncoder passwordEncoder;
   private final MetricsService metricsService;
   private final EmailService emailService;
+  private final TokenAuthenticationCache tokenAuthenticationCache;
 
   @Override
   @Transactional(readOnly = true)
@@ -53,17 +57,10 @@ public class UserService implements UserDetailsService {
               user.getPassword().substring(0, 10));
           log.info("Roles do usuário: {}", user.getRoles());
 
-          return org.springframework.security.core.userdetails.User.builder()
-              .username(user.getUsername())
-              .password(user.getPassword())
-              .authorities(user.getRoles().stream()
+          return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword(),
+              user.isEnabled(), user.getRoles().stream()
                   .map(SimpleGrantedAuthority::new)
-                  .toList())
-              .disabled(!user.isEnabled())
-              .accountExpired(false)
-              .credentialsExpired(false)
-              .accountLocked(false)
-              .build();
+                  .toList());
         });
   }
 
@@ -187,4 +184,39 @@ public class UserService implements UserDetailsService {
     userRepository.save(user);
     log.info("User updated: {}", user.getUsername());
   }
+
+  /**
+   * Enables or disables the user. The tokens already issued to the user stop authenticating once
+   * the change commits.
+   */
+  @Transactional
+  public void updateUserStatus(Long userId, boolean enabled) {
+    User user = findUserForUpdate(userId, "updateUserStatus");
+    user.setEnabled(enabled);
+    userRepository.save(user);
+    tokenAuthenticationCache.invalidateUserAfterCommit(user.getUsername());
+    log.info("User {} {}", user.getUsername(), enabled ? "enabled" : "disabled");
+  }
+
+  /**
+   * Replaces the roles of the user. Requests with the tokens already issued to the user get the new
+   * roles once the change commits.
+   */
+  @Transactional
+  public void updateUserRoles(Long userId, Collection<String> roles) {
+    User user = findUserForUpdate(userId, "updateUserRoles");
+    user.setRoles(new HashSet<>(roles));
+    userRepository.save(user);
+    tokenAuthenticationCache.invalidateUserAfterCommit(user.getUsername());
+    log.info("Roles of user {} updated: {}", user.getUsername(), roles);
+  }
+
+  private User findUserForUpdate(Long userId, String operation) {
+    return userRepository.findById(userId)
+        .orElseThrow(() -> {
+          log.error("User not found with id: {}", userId);
+          metricsService.recordExceptionOccurred(EXCEPTION_RESOURCE_NOT_FOUND, operation);
+          return new ResourceNotFoundException("User not found with id: " + userId);
+        });
+  }
 }
@@ -0,0 +1,152 @@
+package com.example.financeservice.benchmark;
+
+import com.example.financeservice.config.HibernateConfig;
+import com.example.financeservice.config.JdbcRoundTripCounter;
+import com.example.financeservice.repository.UserRepository;
+import com.example.financeservice.security.JwtRequestFilter;
+import com.example.financeservice.security.JwtUtils;
+import com.example.financeservice.security.TokenAuthenticationCache;
+import com.example.financeservice.service.EmailService;
+import com.example.financeservice.service.MetricsService;
+import com.example.financeservice.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Authenticates requests through the JWT filter with the real user lookup, once with every token
+ * verified and loaded again (the filter before the token cache) and once through the token cache,
+ * then the same in the stateless mode, where the user comes from the claims of the token.
+ * Prints the p50 and p99 latency per request and the JDBC statements per request of each.
+ * Run with {@code ./gradlew benchmark}; it is excluded from the regular test task.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false)
+@ActiveProfiles("test")
+@TestPropertySource(properties =
+    "logging.level.com.example.financeservice.service.UserService=WARN")
+@Import({UserService.class, MetricsService.class, JwtUtils.class, TokenAuthenticationCache.class,
+    JdbcRoundTripCounter.class, HibernateConfig.class,
+    AuthenticationFilterBenchmark.TestConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuthenticationFilterBenchmark {
+
+  private static final int USERS = 100;
+  private static final int WARMUP_REQUESTS = 20_000;
+  private static final int MEASURED_REQUESTS = 100_000;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private MetricsService metricsService;
+
+  @Autowired
+  private JwtUtils jwtUtils;
+
+  @Autowired
+  private JdbcRoundTripCounter roundTripCounter;
+
+  @MockBean
+  private EmailService emailService;
+
+  @TestConfiguration
+  static class TestConfig {
+
+    @Bean
+    MeterRegistry meterRegistry() {
+      return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    PasswordEncoder passwordEncoder() {
+      return new BCryptPasswordEncoder(4);
+    }
+  }
+
+  @Test
+  void authenticateRequests() throws Exception {
+    List<String> tokens = new ArrayList<>(USERS);
+    for (int i = 0; i < USERS; i++) {
+      userService.createUser("bench.user" + i, "bench-password", "bench" + i + "@example.com",
+          "Bench", "User", List.of("ROLE_USER"));
+      tokens.add(jwtUtils.generateToken(userService.loadUserByUsername("bench.user" + i)));
+    }
+
+    // A cache that keeps nothing verifies every token and loads its user, like the filter did
+    measure("without token cache", filter(0, false), tokens);
+    measure("with token cache", filter(10_000, false), tokens);
+    // Stateless: the user comes from the claims, so even a miss takes no user lookup
+    measure("stateless, without token cache", filter(0, true), tokens);
+    measure("stateless, with token cache", filter(10_000, true), tokens);
+
+    userRepository.deleteAll();
+  }
+
+  private JwtRequestFilter filter(long cacheSize, boolean stateless) {
+    TokenAuthenticationCache cache = new TokenAuthenticationCache(metricsService, userRepository);
+    ReflectionTestUtils.setField(cache, "size", cacheSize);
+    cache.init();
+    JwtRequestFilter filter = new JwtRequestFilter(userService, jwtUtils, cache);
+    ReflectionTestUtils.setField(filter, "stateless", stateless);
+    return filter;
+  }
+
+  private void measure(String name, JwtRequestFilter filter, List<String> tokens)
+      throws Exception {
+    for (int i = 0; i < WARMUP_REQUESTS; i++) {
+      authenticate(filter, tokens.get(i % USERS));
+    }
+
+    long[] latencies = new long[MEASURED_REQUESTS];
+    long statementsBefore = roundTripCounter.currentCount();
+    for (int i = 0; i < MEASURED_REQUESTS; i++) {
+      long start = System.nanoTime();
+      authenticate(filter, tokens.get(i % USERS));
+      latencies[i] = System.nanoTime() - start;
+    }
+    long statements = roundTripCounter.currentCount() - statementsBefore;
+
+    Arrays.sort(latencies);
+    System.out.printf("Request authentication (%s): p50 %.1f us, p99 %.1f us, "
+            + "%.3f statements per request%n",
+        name, latencies[MEASURED_REQUESTS / 2] / 1_000.0,
+        latencies[MEASURED_REQUESTS * 99 / 100] / 1_000.0,
+        (double) statements / MEASURED_REQUESTS);
+  }
+
+  private static void authenticate(JwtRequestFilter filter, String token) throws Exception {
+    SecurityContextHolder.clearContext();
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/accounts");
+    request.addHeader("Authorization", "Bearer " + token);
+    filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    if (SecurityContextHolder.getContext().getAuthentication() == null) {
+      throw new IllegalStateException("Request was not authenticated");
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.example.financeservice.benchmark;
+
+import com.example.financeservice.id.AccountNumberGenerator;
+import com.example.financeservice.id.BlockAccountNumberGenerator;
+import com.example.financeservice.id.SnowflakeIdGenerator;
+import com.example.financeservice.id.TransactionIdGenerator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Throughput of the transaction id and account number generators, single-threaded and with four
+ * threads sharing one generator. UUID.randomUUID() is included as a reference point.
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+  private final TransactionIdGenerator transactionIdGenerator = new SnowflakeIdGenerator(1);
+
+  // In-memory block source; the database sequence is hit once per 1000 numbers in production
+  private final AtomicLong blockSequence = new AtomicLong(1_000_000_000L);
+  private final AccountNumberGenerator accountNumberGenerator = new BlockAccountNumberGenerator(
+      blockSize -> blockSequence.getAndAdd(blockSize), 1000);
+
+  @Benchmark
+  public String snowflakeTransactionId() {
+    return transactionIdGenerator.nextTransactionId();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String snowflakeTransactionIdContended() {
+    return transactionIdGenerator.nextTransactionId();
+  }
+
+  @Benchmark
+  public String blockAccountNumber() {
+    return accountNumberGenerator.nextAccountNumber();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String blockAccountNumberContended() {
+    return accountNumberGenerator.nextAccountNumber();
+  }
+
+  @Benchmark
+  public String randomUuid() {
+    return UUID.randomUUID().toString();
+  }
+
+  @Test
+  void runBenchmarks() throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(IdGeneratorBenchmark.class.getName())
+        .build())
+        .run();
+  }
+}
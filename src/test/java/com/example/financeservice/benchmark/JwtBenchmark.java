@@ -0,0 +1,104 @@
+package com.example.financeservice.benchmark;
+
+import com.example.financeservice.security.AuthenticatedUser;
+import com.example.financeservice.security.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Throughput of issuing and validating tokens with JwtUtils, single-threaded and with four threads
+ * sharing it. {@code validatePerClaim} reproduces the previous validation: the key decoded and a
+ * parser built per call, and the token parsed once for the username, once for the check and once
+ * for the expiry. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+  private static final String SECRET = "mysecretkey12345mysecretkey12345mysecretkey12345";
+
+  private final JwtUtils jwtUtils = new JwtUtils(SECRET, 86_400_000);
+  private final UserDetails user = new AuthenticatedUser(42L, "bench.user", "", true,
+      List.of(new SimpleGrantedAuthority("ROLE_USER")));
+  private final String token = jwtUtils.generateToken(user, 0);
+
+  @Benchmark
+  public String generate() {
+    return jwtUtils.generateToken(user, 0);
+  }
+
+  @Benchmark
+  public boolean validate() {
+    return jwtUtils.parse(token).isValidFor(user);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public boolean validateContended() {
+    return jwtUtils.parse(token).isValidFor(user);
+  }
+
+  @Benchmark
+  public boolean validatePerClaim() {
+    String username = legacyClaims(token).getSubject();
+    return username.equals(user.getUsername())
+        && legacyClaims(token).getSubject().equals(user.getUsername())
+        && !legacyClaims(token).getExpiration().before(new Date());
+  }
+
+  private static Claims legacyClaims(String token) {
+    return Jwts.parser()
+        .verifyWith(legacySignKey())
+        .build()
+        .parseSignedClaims(token)
+        .getPayload();
+  }
+
+  private static SecretKey legacySignKey() {
+    String encoded;
+    try {
+      Decoders.BASE64.decode(SECRET);
+      encoded = SECRET;
+    } catch (Exception e) {
+      encoded = Base64.getEncoder().encodeToString(SECRET.getBytes());
+    }
+    return Keys.hmacShaKeyFor(Decoders.BASE64.decode(encoded));
+  }
+
+  @Test
+  void runBenchmarks() throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(JwtBenchmark.class.getName())
+        .build())
+        .run();
+  }
+}
@@ -0,0 +1,192 @@
+package com.example.financeservice.benchmark;
+
+import com.example.financeservice.config.HibernateConfig;
+import com.example.financeservice.config.JdbcRoundTripCounter;
+import com.example.financeservice.dto.TransactionDTO;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.LedgerEntry;
+import com.example.financeservice.model.Transaction;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.LedgerEntryRepository;
+import com.example.financeservice.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Reads the statement lines of an account with 10k transactions, the way the statement was built
+ * before (ledger entities, with the transaction accounts loaded lazily) and with the record
+ * projection it uses now. Prints the time and the JDBC statements of each.
+ * Run with {@code ./gradlew benchmark}; it is excluded from the regular test task.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false)
+@ActiveProfiles("test")
+@Import({JdbcRoundTripCounter.class, HibernateConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StatementReadBenchmark {
+
+  private static final int TRANSACTIONS = 10_000;
+  private static final int COUNTERPARTS = 1_000;
+  private static final int ROWS_PER_COMMIT = 500;
+  private static final int WARMUP_ITERATIONS = 3;
+  private static final int MEASURED_ITERATIONS = 10;
+
+  // The statement query before the projection: the accounts of each transaction load lazily
+  private static final String ENTITY_QUERY = "SELECT e FROM LedgerEntry e JOIN FETCH "
+      + "e.transaction WHERE e.account = :account "
+      + "AND e.postedAt BETWEEN :startDate AND :endDate ORDER BY e.postedAt, e.id";
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private LedgerEntryRepository ledgerEntryRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private JdbcRoundTripCounter roundTripCounter;
+
+  @Test
+  void readStatement() {
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    Account account = newAccount("BENCH-STMT");
+    List<Long> counterpartIds = new ArrayList<>(COUNTERPARTS);
+    for (int i = 0; i < COUNTERPARTS; i++) {
+      counterpartIds.add(newAccount("BENCH-STMT-" + i).getId());
+    }
+    LocalDateTime start = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+    insertTransfers(transactionTemplate, account, counterpartIds, start);
+    LocalDateTime end = LocalDateTime.now();
+
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    measure("entities", readOnly, () -> entityManager.createQuery(ENTITY_QUERY, LedgerEntry.class)
+        .setParameter("account", account)
+        .setParameter("startDate", start)
+        .setParameter("endDate", end)
+        .getResultStream()
+        .map(StatementReadBenchmark::toDto)
+        .toList());
+    measure("projection", readOnly,
+        () -> ledgerEntryRepository.findViewsByAccountAndPostedAtBetween(account, start, end)
+            .stream()
+            .map(StatementReadBenchmark::toDto)
+            .toList());
+
+    ledgerEntryRepository.deleteAllInBatch();
+    transactionRepository.deleteAllInBatch();
+    accountRepository.deleteAllInBatch();
+  }
+
+  private void measure(String name, TransactionTemplate readOnly,
+      Supplier<List<TransactionDTO>> statement) {
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      readOnly.execute(status -> statement.get());
+    }
+
+    long statementsBefore = roundTripCounter.currentCount();
+    long start = System.nanoTime();
+    int lines = 0;
+    for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+      lines = readOnly.execute(status -> statement.get()).size();
+    }
+    long elapsedNanos = System.nanoTime() - start;
+    long statements = roundTripCounter.currentCount() - statementsBefore;
+
+    System.out.printf("Statement read (%s): %d lines in %.1f ms, %.1f statements per statement%n",
+        name, lines, elapsedNanos / 1_000_000.0 / MEASURED_ITERATIONS,
+        (double) statements / MEASURED_ITERATIONS);
+  }
+
+  private Account newAccount(String accountNumber) {
+    Account account = new Account();
+    account.setAccountNumber(accountNumber);
+    account.setType(Account.AccountType.CHECKING);
+    return accountRepository.save(account);
+  }
+
+  private void insertTransfers(TransactionTemplate transactionTemplate, Account account,
+      List<Long> counterpartIds, LocalDateTime start) {
+    for (int done = 0; done < TRANSACTIONS; done += ROWS_PER_COMMIT) {
+      int offset = done;
+      transactionTemplate.executeWithoutResult(status -> {
+        Account source = entityManager.getReference(Account.class, account.getId());
+        for (int i = offset; i < offset + ROWS_PER_COMMIT; i++) {
+          Transaction transaction = new Transaction();
+          transaction.setTransactionId(UUID.randomUUID().toString());
+          transaction.setAmount(BigDecimal.ONE);
+          transaction.setType(Transaction.TransactionType.TRANSFER);
+          transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+          transaction.setProcessedAt(start.plusSeconds(i));
+          transaction.setSourceAccount(source);
+          transaction.setDestinationAccount(entityManager.getReference(Account.class,
+              counterpartIds.get(i % COUNTERPARTS)));
+          entityManager.persist(transaction);
+          entityManager.persist(LedgerEntry.debit(transaction, BigDecimal.valueOf(-i - 1L)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+      });
+    }
+  }
+
+  private static TransactionDTO toDto(LedgerEntry entry) {
+    Transaction transaction = entry.getTransaction();
+    TransactionDTO dto = new TransactionDTO();
+    dto.setId(transaction.getId());
+    dto.setTransactionId(transaction.getTransactionId());
+    dto.setAmount(transaction.getAmount());
+    dto.setType(transaction.getType());
+    dto.setDescription(transaction.getDescription());
+    dto.setStatus(transaction.getStatus());
+    dto.setCreatedAt(transaction.getCreatedAt());
+    dto.setProcessedAt(transaction.getProcessedAt());
+    dto.setBatchId(transaction.getBatchId());
+    dto.setSourceAccountNumber(transaction.getSourceAccount().getAccountNumber());
+    dto.setDestinationAccountNumber(transaction.getDestinationAccount().getAccountNumber());
+    dto.setBalanceAfter(entry.getBalanceAfter());
+    return dto;
+  }
+
+  private static TransactionDTO toDto(LedgerEntryRepository.EntryView entry) {
+    return TransactionDTO.builder()
+        .id(entry.id())
+        .transactionId(entry.transactionId())
+        .amount(entry.amount())
+        .type(entry.type())
+        .description(entry.description())
+        .status(entry.status())
+        .createdAt(entry.createdAt())
+        .processedAt(entry.processedAt())
+        .batchId(entry.batchId())
+        .sourceAccountNumber(entry.sourceAccountNumber())
+        .destinationAccountNumber(entry.destinationAccountNumber())
+        .balanceAfter(entry.balanceAfter())
+        .build();
+  }
+}
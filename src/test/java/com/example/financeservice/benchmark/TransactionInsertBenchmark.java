@@ -0,0 +1,99 @@
+package com.example.financeservice.benchmark;
+
+import com.example.financeservice.config.HibernateConfig;
+import com.example.financeservice.config.JdbcRoundTripCounter;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.Transaction;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Measures transaction inserts per second and JDBC statements per insert.
+ * Run with {@code ./gradlew benchmark}; it is excluded from the regular test task.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false)
+@ActiveProfiles("test")
+@Import({JdbcRoundTripCounter.class, HibernateConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionInsertBenchmark {
+
+  private static final int WARMUP_ROWS = 5_000;
+  private static final int MEASURED_ROWS = 20_000;
+  private static final int ROWS_PER_COMMIT = 500;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private JdbcRoundTripCounter roundTripCounter;
+
+  @Test
+  void insertTransactions() {
+    Account account = new Account();
+    account.setAccountNumber("BENCH-ACC-1");
+    account.setType(Account.AccountType.CHECKING);
+    account = accountRepository.save(account);
+
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    insertRows(transactionTemplate, account, WARMUP_ROWS);
+
+    long statementsBefore = roundTripCounter.currentCount();
+    long start = System.nanoTime();
+    insertRows(transactionTemplate, account, MEASURED_ROWS);
+    long elapsedNanos = System.nanoTime() - start;
+    long statements = roundTripCounter.currentCount() - statementsBefore;
+
+    System.out.printf("Transaction inserts: %d rows in %d ms, %.0f inserts/s, %.3f statements/insert%n",
+        MEASURED_ROWS, elapsedNanos / 1_000_000,
+        MEASURED_ROWS / (elapsedNanos / 1_000_000_000.0),
+        (double) statements / MEASURED_ROWS);
+
+    transactionRepository.deleteAllInBatch();
+    accountRepository.deleteAllInBatch();
+  }
+
+  private void insertRows(TransactionTemplate transactionTemplate, Account account, int rows) {
+    for (int done = 0; done < rows; done += ROWS_PER_COMMIT) {
+      transactionTemplate.executeWithoutResult(status -> {
+        Account reference = entityManager.getReference(Account.class, account.getId());
+        for (int i = 0; i < ROWS_PER_COMMIT; i++) {
+          Transaction transaction = new Transaction();
+          transaction.setTransactionId(UUID.randomUUID().toString());
+          transaction.setAmount(BigDecimal.TEN);
+          transaction.setType(Transaction.TransactionType.DEPOSIT);
+          transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+          transaction.setProcessedAt(LocalDateTime.now());
+          transaction.setDestinationAccount(reference);
+          entityManager.persist(transaction);
+        }
+        entityManager.flush();
+        entityManager.clear();
+      });
+    }
+  }
+}
@@ -1,11 +1,15 @@
 package com.example.financeservice.controller;
 
+import com.example.financeservice.dto.AccountBalanceDTO;
 import com.example.financeservice.dto.AccountDTO;
+import com.example.financeservice.dto.BalanceAsOfRequestDTO;
 import com.example.financeservice.dto.CreateAccountDTO;
+import com.example.financeservice.dto.CursorPageDTO;
 import com.example.financeservice.model.Account;
 import com.example.financeservice.model.Account.AccountType;
 import com.example.financeservice.security.JwtRequestFilter;
 import com.example.financeservice.security.JwtUtils;
+import com.example.financeservice.security.TokenAuthenticationCache;
 import com.example.financeservice.service.AccountService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -61,6 +65,9 @@ class AccountControllerIT {
   @MockBean
   private JwtUtils jwtUtils;
 
+  @MockBean
+  private TokenAuthenticationCache tokenAuthenticationCache;
+
   @MockBean
   private AuthenticationManager authenticationManager;
 
@@ -113,20 +120,24 @@ class AccountControllerIT {
 
   @Test
   @WithMockUser(username = "admin", roles = {"ADMIN"})
-  void getAllAccounts_ShouldReturnAccounts() throws Exception {
+  void getAccounts_ShouldReturnPageOfAccounts() throws Exception {
     // Arrange
-    when(accountService.getAllAccounts()).thenReturn(accountList);
+    when(accountService.getAccounts(null, 20)).thenReturn(CursorPageDTO.<AccountDTO>builder()
+        .items(accountList)
+        .hasMore(false)
+        .build());
 
     // Act & Assert
     mockMvc.perform(get("/accounts"))
         .andExpect(status().isOk())
-        .andExpect(jsonPath("$", hasSize(2)))
-        .andExpect(jsonPath("$[0].id").value(1L))
-        .andExpect(jsonPath("$[0].accountNumber").value("ACC-123456789"))
-        .andExpect(jsonPath("$[0].ownerType").value("CLIENT"))
-        .andExpect(jsonPath("$[1].id").value(2L))
-        .andExpect(jsonPath("$[1].accountNumber").value("ACC-987654321"))
-        .andExpect(jsonPath("$[1].ownerType").value("CLIENT"));
+        .andExpect(jsonPath("$.items", hasSize(2)))
+        .andExpect(jsonPath("$.items[0].id").value(1L))
+        .andExpect(jsonPath("$.items[0].accountNumber").value("ACC-123456789"))
+        .andExpect(jsonPath("$.items[0].ownerType").value("CLIENT"))
+        .andExpect(jsonPath("$.items[1].id").value(2L))
+        .andExpect(jsonPath("$.items[1].accountNumber").value("ACC-987654321"))
+        .andExpect(jsonPath("$.items[1].ownerType").value("CLIENT"))
+        .andExpect(jsonPath("$.hasMore").value(false));
   }
 
   @Test
@@ -236,6 +247,56 @@ class AccountControllerIT {
         .andExpect(jsonPath("$.ownerType").value("MERCHANT"));
   }
 
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void getBalanceAsOf_ShouldReturnBalance() throws Exception {
+    // Arrange
+    LocalDateTime asOf = LocalDateTime.of(2024, 3, 1, 12, 0);
+    when(accountService.getBalanceAsOf("ACC-123456789", asOf)).thenReturn(
+        new AccountBalanceDTO("ACC-123456789", asOf, new BigDecimal("750.00")));
+
+    // Act & Assert
+    mockMvc.perform(get("/accounts/{accountNumber}/balance", "ACC-123456789")
+            .param("asOf", "2024-03-01T12:00:00"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.accountNumber").value("ACC-123456789"))
+        .andExpect(jsonPath("$.balance").value(750.00));
+  }
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void getBalancesAsOf_ShouldReturnBalancesInRequestOrder() throws Exception {
+    // Arrange
+    LocalDateTime asOf = LocalDateTime.of(2024, 3, 1, 12, 0);
+    List<String> accountNumbers = List.of("ACC-987654321", "ACC-123456789");
+    when(accountService.getBalancesAsOf(accountNumbers, asOf)).thenReturn(List.of(
+        new AccountBalanceDTO("ACC-987654321", asOf, new BigDecimal("2000.00")),
+        new AccountBalanceDTO("ACC-123456789", asOf, new BigDecimal("750.00"))));
+
+    // Act & Assert
+    mockMvc.perform(post("/accounts/balances/as-of")
+            .with(SecurityMockMvcRequestPostProcessors.csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(
+                new BalanceAsOfRequestDTO(accountNumbers, asOf))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].accountNumber").value("ACC-987654321"))
+        .andExpect(jsonPath("$[1].balance").value(750.00));
+  }
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void getBalancesAsOf_WithoutAccounts_ShouldReturnBadRequest() throws Exception {
+    // Act & Assert
+    mockMvc.perform(post("/accounts/balances/as-of")
+            .with(SecurityMockMvcRequestPostProcessors.csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(
+                new BalanceAsOfRequestDTO(List.of(), LocalDateTime.of(2024, 3, 1, 12, 0)))))
+        .andExpect(status().isBadRequest());
+  }
+
   @Test
   @WithMockUser(username = "admin", roles = {"ADMIN"})
   void deposit_ShouldUpdateAndReturnAccount() throws Exception {
@@ -319,4 +380,32 @@ class AccountControllerIT {
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.status").value("BLOCKED"));
   }
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void enableBalanceStriping_ShouldReturnStripedAccount() throws Exception {
+    // Arrange
+    AccountDTO stripedAccount = AccountDTO.builder()
+        .id(2L)
+        .accountNumber("ACC-987654321")
+        .balance(new BigDecimal("5000.00"))
+        .type(Account.AccountType.BUSINESS)
+        .status(Account.AccountStatus.ACTIVE)
+        .balanceStripes(8)
+        .createdAt(now)
+        .ownerId(2L)
+        .ownerName("Test Merchant")
+        .ownerType("MERCHANT")
+        .build();
+
+    when(accountService.enableBalanceStriping("ACC-987654321", 8)).thenReturn(stripedAccount);
+
+    // Act & Assert
+    mockMvc.perform(put("/accounts/{accountNumber}/balance-stripes", "ACC-987654321")
+            .with(SecurityMockMvcRequestPostProcessors.csrf())
+            .param("stripes", "8"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.balanceStripes").value(8))
+        .andExpect(jsonPath("$.balance").value(5000.00));
+  }
 }
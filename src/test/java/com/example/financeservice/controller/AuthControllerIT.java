@@ -9,6 +9,7 @@ import com.example.financeservice.exception.ResourceNotFoundException;
 import com.example.financeservice.model.User;
 import com.example.financeservice.security.JwtUtils;
 import com.example.financeservice.security.LoginAttemptService;
+import com.example.financeservice.security.TokenAuthenticationCache;
 import com.example.financeservice.service.MetricsService;
 import com.example.financeservice.service.UserService;
 import com.example.financeservice.TestSecurityConfig;
@@ -18,6 +19,7 @@ import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
@@ -37,6 +39,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -64,6 +67,9 @@ class AuthControllerIT {
   @MockBean
   private JwtUtils jwtUtils;
 
+  @MockBean
+  private TokenAuthenticationCache tokenAuthenticationCache;
+
   @MockBean
   private LoginAttemptService loginAttemptService;
 
@@ -110,7 +116,7 @@ class AuthControllerIT {
 
     when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
         .thenReturn(authentication);
-    when(jwtUtils.generateToken(any(UserDetails.class))).thenReturn("test.jwt.token");
+    when(jwtUtils.generateToken(any(UserDetails.class), anyLong())).thenReturn("test.jwt.token");
     when(loginAttemptService.isBlocked(anyString())).thenReturn(false);
     doNothing().when(loginAttemptService).loginSucceeded(anyString());
     doNothing().when(metricsService).recordSuccessfulLogin(anyString());
@@ -260,4 +266,23 @@ class AuthControllerIT {
         .andExpect(status().isBadRequest())
         .andExpect(MockMvcResultMatchers.content().string("Password reset token has expired"));
   }
+
+  @Test
+  @WithMockUser(username = "testuser")
+  void logout_WithAuthenticatedUser_ShouldRevokeTheirTokens() throws Exception {
+    // Act & Assert
+    mockMvc.perform(post("/auth/logout")
+            .with(SecurityMockMvcRequestPostProcessors.csrf()))
+        .andExpect(status().isOk());
+
+    verify(tokenAuthenticationCache, times(1)).invalidateUserAfterCommit("testuser");
+  }
+
+  @Test
+  void logout_WithoutAuthentication_ShouldReturn401() throws Exception {
+    // Act & Assert
+    mockMvc.perform(post("/auth/logout")
+            .with(SecurityMockMvcRequestPostProcessors.csrf()))
+        .andExpect(status().isUnauthorized());
+  }
 }
@@ -1,11 +1,13 @@
 package com.example.financeservice.controller;
 
 import com.example.financeservice.dto.ClientDTO;
+import com.example.financeservice.dto.CursorPageDTO;
 import com.example.financeservice.exception.ResourceAlreadyExistsException;
 import com.example.financeservice.exception.ResourceNotFoundException;
 import com.example.financeservice.repository.ClientRepository;
 import com.example.financeservice.security.JwtRequestFilter;
 import com.example.financeservice.security.JwtUtils;
+import com.example.financeservice.security.TokenAuthenticationCache;
 import com.example.financeservice.service.ClientService;
 import com.example.financeservice.service.MetricsService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -60,6 +62,9 @@ class ClientControllerIT {
   @MockBean
   private JwtUtils jwtUtils;
 
+  @MockBean
+  private TokenAuthenticationCache tokenAuthenticationCache;
+
   @MockBean
   private AuthenticationManager authenticationManager;
 
@@ -98,17 +103,24 @@ class ClientControllerIT {
 
   @Test
   @WithMockUser(username = "admin", roles = {"ADMIN"})
-  void getAllClients_ShouldReturnClients() throws Exception {
+  void getClients_ShouldReturnPageOfClients() throws Exception {
     // Arrange
-    when(clientService.getAllClients()).thenReturn(Arrays.asList(sampleClient));
+    when(clientService.getClients("cursor", 10)).thenReturn(CursorPageDTO.<ClientDTO>builder()
+        .items(Arrays.asList(sampleClient))
+        .nextCursor("next-cursor")
+        .hasMore(true)
+        .build());
 
     // Act & Assert
-    mockMvc.perform(get("/clients"))
+    mockMvc.perform(get("/clients")
+            .param("cursor", "cursor")
+            .param("size", "10"))
         .andExpect(status().isOk())
-        .andExpect(jsonPath("$", hasSize(1)))
-        .andExpect(jsonPath("$[0].id").value(1L))
-        .andExpect(jsonPath("$[0].name").value("Test Client"))
-        .andExpect(jsonPath("$[0].email").value("test@example.com"));
+        .andExpect(jsonPath("$.items", hasSize(1)))
+        .andExpect(jsonPath("$.items[0].id").value(1L))
+        .andExpect(jsonPath("$.items[0].name").value("Test Client"))
+        .andExpect(jsonPath("$.items[0].email").value("test@example.com"))
+        .andExpect(jsonPath("$.nextCursor").value("next-cursor"));
   }
 
   @Test
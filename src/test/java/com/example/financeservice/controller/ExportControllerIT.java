@@ -0,0 +1,89 @@
+package com.example.financeservice.controller;
+
+import com.example.financeservice.security.JwtRequestFilter;
+import com.example.financeservice.security.JwtUtils;
+import com.example.financeservice.security.TokenAuthenticationCache;
+import com.example.financeservice.service.BulkExportService;
+import com.example.financeservice.service.MetricsService;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ExportController.class)
+@Import(JwtRequestFilter.class)
+@ActiveProfiles("test")
+@AutoConfigureMockMvc(addFilters = false)
+class ExportControllerIT {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private BulkExportService bulkExportService;
+
+  @MockBean
+  private UserDetailsService userDetailsService;
+
+  @MockBean
+  private JwtUtils jwtUtils;
+
+  @MockBean
+  private TokenAuthenticationCache tokenAuthenticationCache;
+
+  @MockBean
+  private AuthenticationManager authenticationManager;
+
+  @MockBean
+  private MetricsService metricsService;
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void exportTable_ShouldStreamTheCompressedTableAsAnAttachment() throws Exception {
+    // Arrange
+    byte[] compressed = "compressed".getBytes(StandardCharsets.UTF_8);
+    StreamingResponseBody body = out -> out.write(compressed);
+    when(bulkExportService.export(BulkExportService.Table.ACCOUNTS)).thenReturn(body);
+
+    // Act
+    MvcResult result = mockMvc.perform(get("/admin/exports/{table}", "ACCOUNTS"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // Assert
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Disposition",
+            "attachment; filename=\"accounts.ndjson.gz\""))
+        .andExpect(content().contentType("application/gzip"))
+        .andExpect(content().bytes(compressed));
+    verify(bulkExportService).export(BulkExportService.Table.ACCOUNTS);
+  }
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void exportTable_WithUnknownTable_ShouldReturnBadRequest() throws Exception {
+    // Act & Assert
+    mockMvc.perform(get("/admin/exports/{table}", "USERS"))
+        .andExpect(status().isBadRequest());
+  }
+}
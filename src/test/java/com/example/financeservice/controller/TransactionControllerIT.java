@@ -1,5 +1,11 @@
 package com.example.financeservice.controller;
 
+import com.example.financeservice.dto.BatchTransferRequestDTO;
+import com.example.financeservice.dto.BatchTransferResultDTO;
+import com.example.financeservice.dto.CursorPageDTO;
+import com.example.financeservice.dto.PayoutItemDTO;
+import com.example.financeservice.dto.PayoutRequestDTO;
+import com.example.financeservice.dto.PayoutResultDTO;
 import com.example.financeservice.dto.StatementDTO;
 import com.example.financeservice.dto.TransactionDTO;
 import com.example.financeservice.dto.TransferDTO;
@@ -9,7 +15,11 @@ import com.example.financeservice.repository.AccountRepository;
 import com.example.financeservice.repository.TransactionRepository;
 import com.example.financeservice.security.JwtRequestFilter;
 import com.example.financeservice.security.JwtUtils;
+import com.example.financeservice.security.TokenAuthenticationCache;
+import com.example.financeservice.service.GroupCommitExecutor;
 import com.example.financeservice.service.MetricsService;
+import com.example.financeservice.service.IdempotencyService;
+import com.example.financeservice.service.StatementExportService;
 import com.example.financeservice.service.TransactionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -33,22 +43,32 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = TransactionController.class)
@@ -66,12 +86,24 @@ class TransactionControllerIT {
   @MockBean
   private TransactionService transactionService;
 
+  @MockBean
+  private IdempotencyService idempotencyService;
+
+  @MockBean
+  private GroupCommitExecutor groupCommitExecutor;
+
+  @MockBean
+  private StatementExportService statementExportService;
+
   @MockBean
   private UserDetailsService userDetailsService;
 
   @MockBean
   private JwtUtils jwtUtils;
 
+  @MockBean
+  private TokenAuthenticationCache tokenAuthenticationCache;
+
   @MockBean
   private AuthenticationManager authenticationManager;
 
@@ -103,6 +135,16 @@ class TransactionControllerIT {
     // Configure userDetailsService mock
     when(userDetailsService.loadUserByUsername("admin")).thenReturn(userDetails);
 
+    // Idempotency service runs the posting it receives
+    when(idempotencyService.execute(any(), anyString(), any(), any())).thenAnswer(invocation -> {
+      Supplier<TransactionDTO> posting = invocation.getArgument(3);
+      return posting.get();
+    });
+    when(groupCommitExecutor.execute(any(), any())).thenAnswer(invocation -> {
+      Supplier<TransactionDTO> posting = invocation.getArgument(1);
+      return posting.get();
+    });
+
     // Create sample transaction
     sampleTransaction = TransactionDTO.builder()
         .id(1L)
@@ -152,18 +194,23 @@ class TransactionControllerIT {
 
   @Test
   @WithMockUser(username = "admin", roles = {"ADMIN"})
-  void getAllTransactions_ShouldReturnTransactions() throws Exception {
+  void getTransactions_ShouldReturnPageOfTransactions() throws Exception {
     // Arrange
-    when(transactionService.getAllTransactions()).thenReturn(transactionList);
+    when(transactionService.getTransactions(null, 20)).thenReturn(
+        CursorPageDTO.<TransactionDTO>builder()
+            .items(transactionList)
+            .hasMore(false)
+            .build());
 
     // Act & Assert
     mockMvc.perform(get("/transactions"))
         .andExpect(status().isOk())
-        .andExpect(jsonPath("$", hasSize(2)))
-        .andExpect(jsonPath("$[0].id").value(1L))
-        .andExpect(jsonPath("$[0].type").value("TRANSFER"))
-        .andExpect(jsonPath("$[1].id").value(2L))
-        .andExpect(jsonPath("$[1].type").value("DEPOSIT"));
+        .andExpect(jsonPath("$.items", hasSize(2)))
+        .andExpect(jsonPath("$.items[0].id").value(1L))
+        .andExpect(jsonPath("$.items[0].type").value("TRANSFER"))
+        .andExpect(jsonPath("$.items[1].id").value(2L))
+        .andExpect(jsonPath("$.items[1].type").value("DEPOSIT"))
+        .andExpect(jsonPath("$.nextCursor").doesNotExist());
   }
 
   @Test
@@ -233,6 +280,57 @@ class TransactionControllerIT {
         .andExpect(jsonPath("$.totalPages").value(1));
   }
 
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void getTransactionsByAccountAfterCursor_ShouldReturnPageWithNextCursor() throws Exception {
+    // Arrange
+    CursorPageDTO<TransactionDTO> page = CursorPageDTO.<TransactionDTO>builder()
+        .items(transactionList)
+        .nextCursor("next-cursor")
+        .hasMore(true)
+        .build();
+
+    when(transactionService.getTransactionsByAccountAfterCursor("ACC-123456", "cursor", 2))
+        .thenReturn(page);
+
+    // Act & Assert
+    mockMvc.perform(get("/transactions/account/{accountNumber}/history", "ACC-123456")
+            .param("cursor", "cursor")
+            .param("size", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items", hasSize(2)))
+        .andExpect(jsonPath("$.nextCursor").value("next-cursor"))
+        .andExpect(jsonPath("$.hasMore").value(true))
+        .andExpect(jsonPath("$.totalElements").doesNotExist());
+  }
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void exportAccountStatement_ShouldStreamTheBodyAsAnAttachment() throws Exception {
+    // Arrange
+    StreamingResponseBody body = out -> out.write(
+        "posted_at,transaction_id\n".getBytes(StandardCharsets.UTF_8));
+    when(statementExportService.export(eq("ACC-123456"), any(LocalDateTime.class),
+        any(LocalDateTime.class), eq(StatementExportService.Format.CSV))).thenReturn(body);
+
+    // Act
+    MvcResult result = mockMvc.perform(
+            get("/transactions/account/{accountNumber}/statement/export", "ACC-123456")
+                .param("startDate", now.minusDays(30).toString())
+                .param("endDate", now.toString())
+                .param("format", "CSV"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // Assert
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Disposition",
+            "attachment; filename=\"statement-ACC-123456.csv\""))
+        .andExpect(content().contentTypeCompatibleWith("text/csv"))
+        .andExpect(content().string("posted_at,transaction_id\n"));
+  }
+
   @Test
   @WithMockUser(username = "admin", roles = {"ADMIN"})
   void getAccountStatement_ShouldReturnStatement() throws Exception {
@@ -273,6 +371,175 @@ class TransactionControllerIT {
         .andExpect(jsonPath("$.destinationAccountNumber").value("ACC-789012"));
   }
 
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void transfer_WithIdempotencyKey_ShouldPassKeyToIdempotencyService() throws Exception {
+    // Arrange
+    when(idempotencyService.execute(eq("retry-key-1"), eq("transfer"), any(TransferDTO.class),
+        any())).thenReturn(sampleTransaction);
+
+    // Act & Assert
+    mockMvc.perform(post("/transactions/transfer")
+            .with(SecurityMockMvcRequestPostProcessors.csrf())
+            .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "retry-key-1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(transferDTO)))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.transactionId").value(sampleTransaction.getTransactionId()));
+
+    verify(transactionService, never()).transfer(any(TransferDTO.class));
+  }
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void transferBatch_WhenAllItemsPosted_ShouldReturnCreated() throws Exception {
+    // Arrange
+    BatchTransferRequestDTO request = BatchTransferRequestDTO.builder()
+        .transfers(List.of(transferDTO, transferDTO))
+        .build();
+    when(transactionService.transferBatch(any(BatchTransferRequestDTO.class))).thenReturn(
+        BatchTransferResultDTO.builder()
+            .mode(BatchTransferRequestDTO.Mode.ALL_OR_NOTHING)
+            .committed(true)
+            .total(2)
+            .succeeded(2)
+            .results(List.of(
+                completedItem(0),
+                completedItem(1)))
+            .build());
+
+    // Act & Assert
+    mockMvc.perform(post("/transactions/transfer/batch")
+            .with(SecurityMockMvcRequestPostProcessors.csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.succeeded").value(2))
+        .andExpect(jsonPath("$.results", hasSize(2)))
+        .andExpect(jsonPath("$.results[1].transaction.type").value("TRANSFER"));
+  }
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void transferBatch_WhenAllOrNothingBatchRejected_ShouldReturnUnprocessableEntity()
+      throws Exception {
+    // Arrange
+    BatchTransferRequestDTO request = BatchTransferRequestDTO.builder()
+        .transfers(List.of(transferDTO, transferDTO))
+        .build();
+    when(transactionService.transferBatch(any(BatchTransferRequestDTO.class))).thenReturn(
+        BatchTransferResultDTO.builder()
+            .mode(BatchTransferRequestDTO.Mode.ALL_OR_NOTHING)
+            .committed(false)
+            .total(2)
+            .failed(1)
+            .results(List.of(
+                BatchTransferResultDTO.ItemResult.builder()
+                    .index(0)
+                    .status(BatchTransferResultDTO.ItemStatus.NOT_POSTED)
+                    .build(),
+                BatchTransferResultDTO.ItemResult.builder()
+                    .index(1)
+                    .status(BatchTransferResultDTO.ItemStatus.FAILED)
+                    .errorCode("InsufficientFundsException")
+                    .errorMessage("Insufficient funds in source account")
+                    .build()))
+            .build());
+
+    // Act & Assert
+    mockMvc.perform(post("/transactions/transfer/batch")
+            .with(SecurityMockMvcRequestPostProcessors.csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isUnprocessableEntity())
+        .andExpect(jsonPath("$.committed").value(false))
+        .andExpect(jsonPath("$.results[0].status").value("NOT_POSTED"))
+        .andExpect(jsonPath("$.results[1].errorCode").value("InsufficientFundsException"));
+  }
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void transferBatch_WhenBestEffortBatchPartiallyPosted_ShouldReturnOk() throws Exception {
+    // Arrange
+    BatchTransferRequestDTO request = BatchTransferRequestDTO.builder()
+        .mode(BatchTransferRequestDTO.Mode.BEST_EFFORT)
+        .transfers(List.of(transferDTO, transferDTO))
+        .build();
+    when(transactionService.transferBatch(any(BatchTransferRequestDTO.class))).thenReturn(
+        BatchTransferResultDTO.builder()
+            .mode(BatchTransferRequestDTO.Mode.BEST_EFFORT)
+            .committed(true)
+            .total(2)
+            .succeeded(1)
+            .failed(1)
+            .results(List.of(
+                completedItem(0),
+                BatchTransferResultDTO.ItemResult.builder()
+                    .index(1)
+                    .status(BatchTransferResultDTO.ItemStatus.FAILED)
+                    .build()))
+            .build());
+
+    // Act & Assert
+    mockMvc.perform(post("/transactions/transfer/batch")
+            .with(SecurityMockMvcRequestPostProcessors.csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.mode").value("BEST_EFFORT"))
+        .andExpect(jsonPath("$.results[1].status").value("FAILED"));
+  }
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void transferBatch_WithInvalidItem_ShouldReturnBadRequest() throws Exception {
+    // Arrange
+    TransferDTO invalidTransfer = TransferDTO.builder()
+        .sourceAccountNumber("ACC-123456")
+        .amount(new BigDecimal("-1.00"))
+        .build();
+    BatchTransferRequestDTO request = BatchTransferRequestDTO.builder()
+        .transfers(List.of(transferDTO, invalidTransfer))
+        .build();
+
+    // Act & Assert
+    mockMvc.perform(post("/transactions/transfer/batch")
+            .with(SecurityMockMvcRequestPostProcessors.csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void payout_ShouldCreateLinkedTransactions() throws Exception {
+    // Arrange
+    PayoutRequestDTO request = PayoutRequestDTO.builder()
+        .sourceAccountNumber("ACC-123456")
+        .payouts(List.of(PayoutItemDTO.builder()
+            .destinationAccountNumber("ACC-789012")
+            .amount(new BigDecimal("200.00"))
+            .build()))
+        .build();
+    when(transactionService.payout(any(PayoutRequestDTO.class))).thenReturn(
+        PayoutResultDTO.builder()
+            .batchId("BATCH-1")
+            .sourceAccountNumber("ACC-123456")
+            .totalAmount(new BigDecimal("200.00"))
+            .transactions(List.of(sampleTransaction))
+            .build());
+
+    // Act & Assert
+    mockMvc.perform(post("/transactions/payout")
+            .with(SecurityMockMvcRequestPostProcessors.csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.batchId").value("BATCH-1"))
+        .andExpect(jsonPath("$.totalAmount").value(200.00))
+        .andExpect(jsonPath("$.transactions", hasSize(1)));
+  }
+
   @Test
   @WithMockUser(username = "admin", roles = {"ADMIN"})
   void deposit_ShouldCreateTransaction() throws Exception {
@@ -338,4 +605,12 @@ class TransactionControllerIT {
         .andExpect(jsonPath("$.amount").value(300.00))
         .andExpect(jsonPath("$.sourceAccountNumber").value("ACC-123456"));
   }
+
+  private BatchTransferResultDTO.ItemResult completedItem(int index) {
+    return BatchTransferResultDTO.ItemResult.builder()
+        .index(index)
+        .status(BatchTransferResultDTO.ItemStatus.COMPLETED)
+        .transaction(sampleTransaction)
+        .build();
+  }
 }
@@ -1,10 +1,13 @@
 package com.example.financeservice.controller;
 
 import com.example.financeservice.dto.auth.UserProfileUpdateDTO;
+import com.example.financeservice.dto.auth.UserRolesUpdateDTO;
+import com.example.financeservice.dto.auth.UserStatusUpdateDTO;
 import com.example.financeservice.exception.ResourceNotFoundException;
 import com.example.financeservice.repository.UserRepository;
 import com.example.financeservice.security.JwtUtils;
 import com.example.financeservice.security.SecurityService;
+import com.example.financeservice.security.TokenAuthenticationCache;
 import com.example.financeservice.service.EmailService;
 import com.example.financeservice.service.MetricsService;
 import com.example.financeservice.service.UserService;
@@ -12,8 +15,10 @@ import com.example.financeservice.TestSecurityConfig;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.util.Set;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -64,6 +69,9 @@ class UserControllerIT {
   @MockBean
   private JwtUtils jwtUtils;
 
+  @MockBean
+  private TokenAuthenticationCache tokenAuthenticationCache;
+
   @MockBean
   private AuthenticationManager authenticationManager;
 
@@ -143,4 +151,44 @@ class UserControllerIT {
             .content(objectMapper.writeValueAsString(profileDTO)))
         .andExpect(status().isBadRequest()); // Bad request devido à ResourceNotFoundException
   }
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void updateUserStatus_ShouldDisableTheUser() throws Exception {
+    // Act & Assert
+    mockMvc.perform(put("/api/users/1/status")
+            .with(SecurityMockMvcRequestPostProcessors.csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new UserStatusUpdateDTO(false))))
+        .andExpect(status().isNoContent());
+
+    verify(userService, times(1)).updateUserStatus(1L, false);
+  }
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void updateUserRoles_ShouldReplaceTheRoles() throws Exception {
+    // Act & Assert
+    mockMvc.perform(put("/api/users/1/roles")
+            .with(SecurityMockMvcRequestPostProcessors.csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(
+                new UserRolesUpdateDTO(Set.of("ROLE_ADMIN")))))
+        .andExpect(status().isNoContent());
+
+    verify(userService, times(1)).updateUserRoles(1L, Set.of("ROLE_ADMIN"));
+  }
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void updateUserRoles_WithoutRoles_ShouldReturnBadRequest() throws Exception {
+    // Act & Assert
+    mockMvc.perform(put("/api/users/1/roles")
+            .with(SecurityMockMvcRequestPostProcessors.csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new UserRolesUpdateDTO(Set.of()))))
+        .andExpect(status().isBadRequest());
+
+    verify(userService, never()).updateUserRoles(1L, Set.of());
+  }
 }
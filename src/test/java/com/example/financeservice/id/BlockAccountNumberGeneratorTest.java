@@ -0,0 +1,119 @@
+package com.example.financeservice.id;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockAccountNumberGeneratorTest {
+
+  @Test
+  void nextAccountNumber_ShouldAppendLuhnCheckDigit() {
+    // Arrange
+    BlockAccountNumberGenerator generator = new BlockAccountNumberGenerator(
+        blockSize -> 7992739871L, 10);
+
+    // Act
+    String accountNumber = generator.nextAccountNumber();
+
+    // Assert
+    assertEquals("79927398713", accountNumber);
+    assertTrue(LuhnCheckDigit.isValid(accountNumber));
+  }
+
+  @Test
+  void nextAccountNumber_ShouldPadBaseNumberToTenDigits() {
+    // Arrange
+    BlockAccountNumberGenerator generator = new BlockAccountNumberGenerator(blockSize -> 42, 10);
+
+    // Act
+    String accountNumber = generator.nextAccountNumber();
+
+    // Assert
+    assertEquals(BlockAccountNumberGenerator.BASE_DIGITS + 1, accountNumber.length());
+    assertTrue(accountNumber.startsWith("0000000042"));
+    assertTrue(LuhnCheckDigit.isValid(accountNumber));
+  }
+
+  @Test
+  void nextAccountNumber_ShouldReserveNewBlockOnlyWhenCurrentIsExhausted() {
+    // Arrange
+    AtomicInteger reservations = new AtomicInteger();
+    AtomicLong sequence = new AtomicLong(1_000_000_000L);
+    BlockAccountNumberGenerator generator = new BlockAccountNumberGenerator(blockSize -> {
+      reservations.incrementAndGet();
+      return sequence.getAndAdd(blockSize);
+    }, 100);
+
+    // Act
+    for (int i = 0; i < 250; i++) {
+      generator.nextAccountNumber();
+    }
+
+    // Assert
+    assertEquals(3, reservations.get());
+  }
+
+  @Test
+  void nextAccountNumber_WhenBlockExceedsTenDigits_ShouldThrowException() {
+    // Arrange
+    BlockAccountNumberGenerator generator = new BlockAccountNumberGenerator(
+        blockSize -> 9_999_999_990L, 100);
+
+    // Act & Assert
+    assertThrows(IllegalStateException.class, generator::nextAccountNumber);
+  }
+
+  @Test
+  void isValid_WithSingleDigitTypo_ShouldReturnFalse() {
+    assertTrue(LuhnCheckDigit.isValid("79927398713"));
+    assertFalse(LuhnCheckDigit.isValid("79927398813"));
+    assertFalse(LuhnCheckDigit.isValid("7992739871A"));
+    assertFalse(LuhnCheckDigit.isValid(null));
+  }
+
+  @Test
+  void nextAccountNumber_FromManyThreads_ShouldNeverRepeat() throws Exception {
+    // Arrange: two generators simulate two nodes sharing the same block source
+    int threads = 8;
+    int numbersPerThread = 20_000;
+    AtomicLong sequence = new AtomicLong(1_000_000_000L);
+    AccountNumberBlockSource blockSource = blockSize -> sequence.getAndAdd(blockSize);
+    BlockAccountNumberGenerator nodeA = new BlockAccountNumberGenerator(blockSource, 1000);
+    BlockAccountNumberGenerator nodeB = new BlockAccountNumberGenerator(blockSource, 1000);
+    Set<String> numbers = ConcurrentHashMap.newKeySet();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+    // Act
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      AccountNumberGenerator generator = t % 2 == 0 ? nodeA : nodeB;
+      futures.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < numbersPerThread; i++) {
+          numbers.add(generator.nextAccountNumber());
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    // Assert
+    assertEquals(threads * numbersPerThread, numbers.size());
+  }
+}
@@ -0,0 +1,125 @@
+package com.example.financeservice.id;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+
+  private static final long EPOCH_MILLIS = SnowflakeIdGenerator.EPOCH.toEpochMilli();
+
+  @Test
+  void nextId_ShouldPackTimestampNodeAndSequence() {
+    // Arrange
+    SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5, () -> EPOCH_MILLIS + 1000);
+
+    // Act
+    long first = generator.nextId();
+    long second = generator.nextId();
+
+    // Assert
+    assertEquals(1000, first >>> 22);
+    assertEquals(5, (first >>> 12) & SnowflakeIdGenerator.MAX_NODE_ID);
+    assertEquals(0, first & 0xFFF);
+    assertEquals(first + 1, second);
+  }
+
+  @Test
+  void nextId_WhenSequenceOverflows_ShouldMoveToNextMillisecondWithoutDuplicates() {
+    // Arrange: the clock is frozen, so all ids must come from the same millisecond budget
+    SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, () -> EPOCH_MILLIS + 50);
+    Set<Long> ids = new HashSet<>();
+
+    // Act
+    long last = 0;
+    for (int i = 0; i < 10_000; i++) {
+      long id = generator.nextId();
+      assertTrue(id > last);
+      last = id;
+      ids.add(id);
+    }
+
+    // Assert
+    assertEquals(10_000, ids.size());
+    assertEquals(52, last >>> 22);
+  }
+
+  @Test
+  void nextId_WhenClockMovesBackwards_ShouldStayMonotonic() {
+    // Arrange
+    AtomicLong clock = new AtomicLong(EPOCH_MILLIS + 5_000);
+    SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, clock::get);
+    long before = generator.nextId();
+
+    // Act
+    clock.set(EPOCH_MILLIS + 4_000);
+    long after = generator.nextId();
+
+    // Assert
+    assertTrue(after > before);
+  }
+
+  @Test
+  void nextTransactionId_ShouldBeFixedWidthAndSortable() {
+    // Arrange
+    SnowflakeIdGenerator generator = new SnowflakeIdGenerator(42);
+
+    // Act
+    String first = generator.nextTransactionId();
+    String second = generator.nextTransactionId();
+
+    // Assert
+    assertTrue(first.startsWith("TX"));
+    assertEquals(2 + Base32.ENCODED_LENGTH, first.length());
+    assertTrue(first.compareTo(second) < 0);
+  }
+
+  @Test
+  void constructor_WithNodeIdOutOfRange_ShouldThrowException() {
+    assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+    assertThrows(IllegalArgumentException.class,
+        () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+  }
+
+  @Test
+  void nextTransactionId_FromManyThreads_ShouldNeverRepeat() throws Exception {
+    // Arrange
+    int threads = 8;
+    int idsPerThread = 100_000;
+    SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7);
+    Set<String> ids = ConcurrentHashMap.newKeySet();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+    // Act
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < idsPerThread; i++) {
+          ids.add(generator.nextTransactionId());
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    // Assert
+    assertEquals(threads * idsPerThread, ids.size());
+  }
+}
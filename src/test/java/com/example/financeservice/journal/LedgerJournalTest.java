@@ -0,0 +1,174 @@
+package com.example.financeservice.journal;
+
+import com.example.financeservice.model.Transaction;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerJournalTest {
+
+  private static final int SEGMENT_SIZE = 64 * 1024;
+  private static final long TIMEOUT_MILLIS = 5_000;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void append_ShouldAssignSequencesAndReplayThemAfterReopen() throws IOException {
+    // Arrange
+    AtomicInteger grouped = new AtomicInteger();
+    try (LedgerJournal journal = LedgerJournal.open(directory, SEGMENT_SIZE, 0,
+        grouped::addAndGet)) {
+      // Act
+      JournalEntry first = journal.append(transfer("TX-1", "10.00"));
+      journal.append(deposit("TX-2", "0.01"));
+      JournalEntry last = journal.append(transfer("TX-3", "12345678901234567.89"));
+      journal.awaitDurable(last.sequence(), TIMEOUT_MILLIS);
+
+      // Assert
+      assertEquals(1, first.sequence());
+      assertEquals(3, last.sequence());
+    }
+    assertEquals(3, grouped.get());
+
+    try (LedgerJournal reopened = LedgerJournal.open(directory, SEGMENT_SIZE, 0, records -> { })) {
+      List<JournalEntry> entries = reopened.durableEntries(10);
+      assertEquals(List.of("TX-1", "TX-2", "TX-3"),
+          entries.stream().map(JournalEntry::transactionId).toList());
+      assertEquals(transfer("TX-1", "10.00").withSequence(1), entries.get(0));
+      assertNull(entries.get(1).sourceAccountNumber());
+      assertEquals(new BigDecimal("12345678901234567.89"), entries.get(2).amount());
+      assertEquals(4, reopened.append(deposit("TX-4", "1.00")).sequence());
+    }
+  }
+
+  @Test
+  void open_WithCheckpoint_ShouldOnlyKeepLaterRecords() throws IOException {
+    // Arrange
+    appendAndClose(5);
+
+    // Act
+    try (LedgerJournal journal = LedgerJournal.open(directory, SEGMENT_SIZE, 3, records -> { })) {
+      // Assert
+      assertEquals(List.of(4L, 5L),
+          journal.durableEntries(10).stream().map(JournalEntry::sequence).toList());
+      assertEquals(6, journal.append(deposit("TX-6", "1.00")).sequence());
+    }
+  }
+
+  @Test
+  void open_WithCorruptedLastRecord_ShouldTruncateTheTail() throws IOException {
+    // Arrange: flip the last written byte, which belongs to the third record
+    appendAndClose(3);
+    Path segment = segments().get(0);
+    try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+      long position = file.length() - 1;
+      file.seek(position);
+      while (file.read() == 0) {
+        file.seek(--position);
+      }
+      file.seek(position);
+      file.write(0x7F);
+    }
+
+    // Act
+    try (LedgerJournal journal = LedgerJournal.open(directory, SEGMENT_SIZE, 0, records -> { })) {
+      // Assert: the torn record is gone and its sequence is reused
+      assertEquals(2, journal.durableEntries(10).size());
+      assertEquals(3, journal.append(deposit("TX-NEW", "1.00")).sequence());
+    }
+
+    try (LedgerJournal journal = LedgerJournal.open(directory, SEGMENT_SIZE, 0, records -> { })) {
+      assertEquals("TX-NEW", journal.durableEntries(10).get(2).transactionId());
+    }
+  }
+
+  @Test
+  void append_WhenSegmentIsFull_ShouldRollOverToNewSegment() throws IOException {
+    // Arrange: room for a few records per segment
+    try (LedgerJournal journal = LedgerJournal.open(directory, 256, 0, records -> { })) {
+      // Act
+      for (int i = 1; i <= 10; i++) {
+        journal.append(deposit("TX-" + i, i + ".00"));
+      }
+      journal.awaitDurable(10, TIMEOUT_MILLIS);
+    }
+
+    // Assert
+    assertTrue(segments().size() > 1);
+    try (LedgerJournal journal = LedgerJournal.open(directory, 256, 0, records -> { })) {
+      assertEquals(10, journal.durableEntries(100).size());
+      assertEquals(10, journal.lastSequence());
+    }
+  }
+
+  @Test
+  void release_ShouldDropRecordsAndDeleteFullyReleasedSegments() throws IOException {
+    // Arrange
+    try (LedgerJournal journal = LedgerJournal.open(directory, 256, 0, records -> { })) {
+      for (int i = 1; i <= 10; i++) {
+        journal.append(deposit("TX-" + i, "1.00"));
+      }
+      journal.awaitDurable(10, TIMEOUT_MILLIS);
+      int segmentsBefore = segments().size();
+
+      // Act
+      journal.release(10);
+
+      // Assert: only the segment still being written is kept
+      assertEquals(0, journal.unreleasedCount());
+      assertTrue(journal.durableEntries(10).isEmpty());
+      assertTrue(segmentsBefore > 1);
+      assertEquals(1, segments().size());
+    }
+  }
+
+  @Test
+  void hasUnreleasedBefore_ShouldOnlySeeRecordsNotReleasedYet() throws IOException {
+    try (LedgerJournal journal = LedgerJournal.open(directory, SEGMENT_SIZE, 0, records -> { })) {
+      // Arrange
+      journal.append(deposit("TX-1", "1.00"));
+      journal.awaitDurable(1, TIMEOUT_MILLIS);
+
+      // Act & Assert: the deposit was processed at 1_700_000_000_000
+      assertTrue(journal.hasUnreleasedBefore(1_700_000_000_001L));
+      assertFalse(journal.hasUnreleasedBefore(1_700_000_000_000L));
+      journal.release(1);
+      assertFalse(journal.hasUnreleasedBefore(1_700_000_000_001L));
+    }
+  }
+
+  private void appendAndClose(int records) throws IOException {
+    try (LedgerJournal journal = LedgerJournal.open(directory, SEGMENT_SIZE, 0, grouped -> { })) {
+      for (int i = 1; i <= records; i++) {
+        journal.append(deposit("TX-" + i, "1.00"));
+      }
+      journal.awaitDurable(records, TIMEOUT_MILLIS);
+    }
+  }
+
+  private List<Path> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.sorted().toList();
+    }
+  }
+
+  private static JournalEntry transfer(String transactionId, String amount) {
+    return new JournalEntry(0, transactionId, Transaction.TransactionType.TRANSFER, "ACC-A",
+        "ACC-B", new BigDecimal(amount), "Journal test", 1_700_000_000_000L);
+  }
+
+  private static JournalEntry deposit(String transactionId, String amount) {
+    return new JournalEntry(0, transactionId, Transaction.TransactionType.DEPOSIT, null, "ACC-A",
+        new BigDecimal(amount), null, 1_700_000_000_000L);
+  }
+}
@@ -0,0 +1,75 @@
+package com.example.financeservice.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AccountNumberSequenceRepositoryTest {
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.execute("DROP SEQUENCE IF EXISTS account_number_seq");
+  }
+
+  @Test
+  void reserveBlock_WithMatchingIncrement_ShouldReturnDisjointBlocks() {
+    // Arrange
+    createSequence(1000);
+    AccountNumberSequenceRepository repository = new AccountNumberSequenceRepository(entityManager);
+    repository.checkBlockSize(1000);
+
+    // Act
+    long first = repository.reserveBlock(1000);
+    long second = repository.reserveBlock(1000);
+
+    // Assert
+    assertEquals(1_000_000_000L, first);
+    assertEquals(first + 1000, second);
+  }
+
+  @Test
+  void checkBlockSize_WithDifferentIncrement_ShouldFailBeforeReservingAnything() {
+    // Arrange
+    createSequence(1000);
+    AccountNumberSequenceRepository repository = new AccountNumberSequenceRepository(entityManager);
+
+    // Act & Assert
+    IllegalStateException exception = assertThrows(IllegalStateException.class,
+        () -> repository.checkBlockSize(5000));
+    assertTrue(exception.getMessage().contains("increments by 1000"));
+    assertThrows(IllegalStateException.class, () -> repository.reserveBlock(5000));
+    assertEquals(1_000_000_000L, repository.reserveBlock(1000));
+  }
+
+  @Test
+  void withoutSequence_ShouldStartButNotReserveBlocks() {
+    // Arrange
+    AccountNumberSequenceRepository repository = new AccountNumberSequenceRepository(entityManager);
+
+    // Act & Assert
+    assertDoesNotThrow(() -> repository.checkBlockSize(1000));
+    assertThrows(IllegalStateException.class, () -> repository.reserveBlock(1000));
+  }
+
+  private void createSequence(int increment) {
+    jdbcTemplate.execute("CREATE SEQUENCE account_number_seq START WITH 1000000000 INCREMENT BY "
+        + increment);
+  }
+}
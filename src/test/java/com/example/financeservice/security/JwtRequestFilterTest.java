@@ -0,0 +1,293 @@
+package com.example.financeservice.security;
+
+import com.example.financeservice.repository.UserRepository;
+import com.example.financeservice.service.MetricsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class JwtRequestFilterTest {
+
+  @Mock
+  private UserDetailsService userDetailsService;
+
+  @Mock
+  private MetricsService metricsService;
+
+  @Mock
+  private UserRepository userRepository;
+
+  // token_version of the users rows
+  private final Map<String, Long> storedTokenVersions = new ConcurrentHashMap<>();
+
+  private JwtUtils jwtUtils;
+  private TokenAuthenticationCache tokenAuthenticationCache;
+  private JwtRequestFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    jwtUtils = new JwtUtils("filtertestsecret12345filtertestsecret12345filtertestsecret12345",
+        3_600_000);
+
+    when(metricsService.recordRepositoryExecutionTime(anyString(), anyString(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+    when(userRepository.findTokenVersionByUsername(anyString())).thenAnswer(invocation ->
+        Optional.ofNullable(storedTokenVersions.get(invocation.<String>getArgument(0))));
+    when(userRepository.incrementTokenVersion(anyString())).thenAnswer(invocation -> {
+      storedTokenVersions.merge(invocation.getArgument(0), 1L, Long::sum);
+      return 1;
+    });
+
+    tokenAuthenticationCache = new TokenAuthenticationCache(metricsService, userRepository);
+    tokenAuthenticationCache.init();
+    filter = new JwtRequestFilter(userDetailsService, jwtUtils, tokenAuthenticationCache);
+
+    when(userDetailsService.loadUserByUsername("alice"))
+        .thenReturn(user("alice", true, "ROLE_USER"));
+    when(userDetailsService.loadUserByUsername("bob"))
+        .thenReturn(user("bob", true, "ROLE_USER"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void repeatedRequests_ShouldVerifyTheTokenAndLoadTheUserOnce() throws Exception {
+    // Arrange
+    String token = jwtUtils.generateToken(user("alice", true, "ROLE_USER"));
+
+    // Act & Assert
+    for (int i = 0; i < 3; i++) {
+      Authentication authentication = authenticate(token);
+      assertNotNull(authentication);
+      assertEquals("alice", authentication.getName());
+    }
+    verify(userDetailsService, times(1)).loadUserByUsername("alice");
+  }
+
+  @Test
+  void invalidToken_ShouldNotAuthenticateNorBeCached() throws Exception {
+    // Act & Assert
+    assertNull(authenticate("not-a-jwt"));
+    assertNull(authenticate("not-a-jwt"));
+    verify(userDetailsService, never()).loadUserByUsername(anyString());
+  }
+
+  @Test
+  void disabledUser_ShouldStopAuthenticatingOnceTheirTokensAreDropped() throws Exception {
+    // Arrange
+    String token = jwtUtils.generateToken(user("alice", true, "ROLE_USER"));
+    assertNotNull(authenticate(token));
+    when(userDetailsService.loadUserByUsername("alice"))
+        .thenReturn(user("alice", false, "ROLE_USER"));
+
+    // Act
+    tokenAuthenticationCache.invalidateUserAfterCommit("alice");
+
+    // Assert
+    assertNull(authenticate(token));
+    verify(userDetailsService, times(2)).loadUserByUsername("alice");
+  }
+
+  @Test
+  void disabledUser_ShouldStopAuthenticatingOnOtherInstancesWithinTheMaxStaleness()
+      throws Exception {
+    // Arrange: another instance, whose cache the drop does not reach
+    TokenAuthenticationCache otherCache = new TokenAuthenticationCache(metricsService,
+        userRepository);
+    ReflectionTestUtils.setField(otherCache, "maxStalenessMs", 200L);
+    otherCache.init();
+    JwtRequestFilter otherFilter = new JwtRequestFilter(userDetailsService, jwtUtils, otherCache);
+    String token = jwtUtils.generateToken(user("alice", true, "ROLE_USER"));
+    assertNotNull(authenticate(otherFilter, token));
+    when(userDetailsService.loadUserByUsername("alice"))
+        .thenReturn(user("alice", false, "ROLE_USER"));
+
+    // Act
+    tokenAuthenticationCache.invalidateUserAfterCommit("alice");
+    Thread.sleep(300);
+
+    // Assert: the cached user expired and was loaded again
+    assertNull(authenticate(otherFilter, token));
+    verify(userDetailsService, times(2)).loadUserByUsername("alice");
+  }
+
+  @Test
+  void roleChange_ShouldApplyToTheNextRequestOnceTheTokensAreDropped() throws Exception {
+    // Arrange
+    String aliceToken = jwtUtils.generateToken(user("alice", true, "ROLE_USER"));
+    String bobToken = jwtUtils.generateToken(user("bob", true, "ROLE_USER"));
+    authenticate(aliceToken);
+    authenticate(bobToken);
+    when(userDetailsService.loadUserByUsername("alice"))
+        .thenReturn(user("alice", true, "ROLE_USER", "ROLE_ADMIN"));
+
+    // Act
+    tokenAuthenticationCache.invalidateUserAfterCommit("alice");
+
+    // Assert: only the tokens of alice are verified again
+    assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), authorities(authenticate(aliceToken)));
+    assertEquals(Set.of("ROLE_USER"), authorities(authenticate(bobToken)));
+    verify(userDetailsService, times(2)).loadUserByUsername("alice");
+    verify(userDetailsService, times(1)).loadUserByUsername("bob");
+  }
+
+  @Test
+  void statelessToken_ShouldAuthenticateFromItsClaimsWithoutLoadingTheUser() throws Exception {
+    // Arrange
+    ReflectionTestUtils.setField(filter, "stateless", true);
+    String token = jwtUtils.generateToken(authenticatedUser(7L, "alice", "ROLE_USER", "ROLE_ADMIN"),
+        tokenAuthenticationCache.tokenVersion("alice"));
+
+    // Act
+    Authentication authentication = authenticate(token);
+
+    // Assert
+    AuthenticatedUser principal = assertInstanceOf(AuthenticatedUser.class,
+        authentication.getPrincipal());
+    assertEquals(7L, principal.getId());
+    assertEquals("alice", principal.getUsername());
+    assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), authorities(authentication));
+    verify(userDetailsService, never()).loadUserByUsername(anyString());
+  }
+
+  @Test
+  void statelessToken_ShouldStopAuthenticatingOnceRevoked() throws Exception {
+    // Arrange
+    ReflectionTestUtils.setField(filter, "stateless", true);
+    String revoked = jwtUtils.generateToken(authenticatedUser(7L, "alice", "ROLE_USER"),
+        tokenAuthenticationCache.tokenVersion("alice"));
+    assertNotNull(authenticate(revoked));
+
+    // Act
+    tokenAuthenticationCache.invalidateUserAfterCommit("alice");
+
+    // Assert: tokens issued after the revocation carry the new version
+    String current = jwtUtils.generateToken(authenticatedUser(7L, "alice", "ROLE_USER"),
+        tokenAuthenticationCache.tokenVersion("alice"));
+    assertNull(authenticate(revoked));
+    assertNotNull(authenticate(current));
+    verify(userDetailsService, never()).loadUserByUsername(anyString());
+  }
+
+  @Test
+  void statelessToken_ShouldStopAuthenticatingOnOtherInstancesWithinTheMaxStaleness()
+      throws Exception {
+    // Arrange: another instance, which read the version before the revocation
+    TokenAuthenticationCache otherCache = new TokenAuthenticationCache(metricsService,
+        userRepository);
+    ReflectionTestUtils.setField(otherCache, "maxStalenessMs", 200L);
+    otherCache.init();
+    JwtRequestFilter otherFilter = new JwtRequestFilter(userDetailsService, jwtUtils, otherCache);
+    ReflectionTestUtils.setField(otherFilter, "stateless", true);
+    String revoked = jwtUtils.generateToken(authenticatedUser(7L, "alice", "ROLE_USER"),
+        otherCache.tokenVersion("alice"));
+    assertNotNull(authenticate(otherFilter, revoked));
+
+    // Act
+    tokenAuthenticationCache.invalidateUserAfterCommit("alice");
+    Thread.sleep(300);
+
+    // Assert: the version was read again from the user
+    assertEquals(1L, otherCache.tokenVersion("alice"));
+    assertNull(authenticate(otherFilter, revoked));
+  }
+
+  @Test
+  void statelessToken_ShouldStayRevokedAfterARestart() throws Exception {
+    // Arrange
+    ReflectionTestUtils.setField(filter, "stateless", true);
+    String revoked = jwtUtils.generateToken(authenticatedUser(7L, "alice", "ROLE_USER"),
+        tokenAuthenticationCache.tokenVersion("alice"));
+    tokenAuthenticationCache.invalidateUserAfterCommit("alice");
+
+    // Act: a new instance starts with nothing in memory
+    TokenAuthenticationCache restartedCache = new TokenAuthenticationCache(metricsService,
+        userRepository);
+    restartedCache.init();
+    filter = new JwtRequestFilter(userDetailsService, jwtUtils, restartedCache);
+    ReflectionTestUtils.setField(filter, "stateless", true);
+
+    // Assert: the revocation was stored with the user, so the old version is still rejected
+    assertEquals(1L, restartedCache.tokenVersion("alice"));
+    assertNull(authenticate(revoked));
+    assertNotNull(authenticate(jwtUtils.generateToken(
+        authenticatedUser(7L, "alice", "ROLE_USER"), restartedCache.tokenVersion("alice"))));
+  }
+
+  @Test
+  void tokenWithoutVersion_ShouldBeVerifiedAgainstTheUserInStatelessMode() throws Exception {
+    // Arrange
+    ReflectionTestUtils.setField(filter, "stateless", true);
+    String token = jwtUtils.generateToken(user("alice", true, "ROLE_USER"));
+
+    // Act & Assert
+    assertNotNull(authenticate(token));
+    verify(userDetailsService, times(1)).loadUserByUsername("alice");
+  }
+
+  private Authentication authenticate(String token) throws Exception {
+    return authenticate(filter, token);
+  }
+
+  private static Authentication authenticate(JwtRequestFilter filter, String token)
+      throws Exception {
+    SecurityContextHolder.clearContext();
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/accounts");
+    request.addHeader("Authorization", "Bearer " + token);
+    filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    return SecurityContextHolder.getContext().getAuthentication();
+  }
+
+  private static Set<String> authorities(Authentication authentication) {
+    return authentication.getAuthorities().stream()
+        .map(GrantedAuthority::getAuthority)
+        .collect(Collectors.toSet());
+  }
+
+  private static AuthenticatedUser authenticatedUser(Long id, String username, String... roles) {
+    return new AuthenticatedUser(id, username, "encodedPassword", true,
+        Arrays.stream(roles).map(SimpleGrantedAuthority::new).toList());
+  }
+
+  private static UserDetails user(String username, boolean enabled, String... roles) {
+    return User.withUsername(username)
+        .password("encodedPassword")
+        .authorities(roles)
+        .disabled(!enabled)
+        .build();
+  }
+}
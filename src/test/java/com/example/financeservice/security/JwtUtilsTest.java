@@ -0,0 +1,76 @@
+package com.example.financeservice.security;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsTest {
+
+  private static final String SECRET =
+      "utilstestsecret12345utilstestsecret12345utilstestsecret12345";
+
+  private JwtUtils jwtUtils;
+  private UserDetails alice;
+
+  @BeforeEach
+  void setUp() {
+    jwtUtils = new JwtUtils(SECRET, 3_600_000);
+    alice = User.withUsername("alice")
+        .password("encodedPassword")
+        .authorities("ROLE_USER")
+        .build();
+  }
+
+  @Test
+  void parse_ShouldReturnTheUsernameAndExpiryOfTheToken() {
+    // Arrange
+    String token = jwtUtils.generateToken(alice);
+
+    // Act
+    JwtUtils.ParsedToken parsed = jwtUtils.parse(token);
+
+    // Assert
+    assertEquals("alice", parsed.username());
+    assertFalse(parsed.isExpired());
+    assertTrue(parsed.expiresAt().isAfter(Instant.now().plusSeconds(3_500)));
+    assertTrue(parsed.isValidFor(alice));
+    assertFalse(parsed.isValidFor(User.withUsername("bob").password("x").authorities("R").build()));
+  }
+
+  @Test
+  void parse_WithTamperedOrForeignToken_ShouldThrow() {
+    // Arrange
+    String token = jwtUtils.generateToken(alice);
+    String tampered = token.substring(0, token.length() - 2)
+        + (token.endsWith("AA") ? "BB" : "AA");
+    String foreign = new JwtUtils(SECRET.replace('1', '9'), 3_600_000).generateToken(alice);
+
+    // Act & Assert
+    assertThrows(JwtException.class, () -> jwtUtils.parse(tampered));
+    assertThrows(JwtException.class, () -> jwtUtils.parse(foreign));
+    assertThrows(JwtException.class, () -> jwtUtils.parse("not-a-jwt"));
+  }
+
+  @Test
+  void generateToken_ForAuthenticatedUser_ShouldCarryIdRolesAndVersion() {
+    // Arrange
+    AuthenticatedUser user = new AuthenticatedUser(7L, "alice", "encodedPassword", true,
+        List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+    // Act
+    JwtUtils.ParsedToken parsed = jwtUtils.parse(jwtUtils.generateToken(user, 3));
+
+    // Assert
+    assertEquals(7L, parsed.claims().get(JwtUtils.USER_ID_CLAIM, Long.class));
+    assertEquals(List.of("ROLE_USER"), parsed.claims().get(JwtUtils.ROLES_CLAIM));
+    assertEquals(3L, parsed.claims().get(JwtUtils.VERSION_CLAIM, Long.class));
+  }
+}
@@ -0,0 +1,119 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.config.HibernateConfig;
+import com.example.financeservice.config.IdGeneratorConfig;
+import com.example.financeservice.config.JdbcRoundTripCounter;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.repository.AccountBalanceSnapshotRepository;
+import com.example.financeservice.repository.AccountBalanceStripeRepository;
+import com.example.financeservice.repository.AccountNumberSequenceRepository;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.BalanceSnapshotRunRepository;
+import com.example.financeservice.repository.ClientRepository;
+import com.example.financeservice.repository.IdempotencyRecordRepository;
+import com.example.financeservice.repository.LedgerEntryRepository;
+import com.example.financeservice.repository.MerchantRepository;
+import com.example.financeservice.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+/**
+ * Base of the service tests that run the postings against the test database. Every test commits
+ * its own transactions, so the tables are emptied after each one; a test that stores rows the
+ * cleanup here does not know about deletes them in its own {@code @AfterEach}, which runs first.
+ *
+ * <p>Test classes add the services they test on top of the posting services with their own
+ * {@code @Import}.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(AbstractServiceJpaTest.PostingServicesConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+abstract class AbstractServiceJpaTest {
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private LedgerEntryRepository ledgerEntryRepository;
+
+  @Autowired
+  private AccountBalanceStripeRepository stripeRepository;
+
+  @Autowired
+  private AccountBalanceSnapshotRepository snapshotRepository;
+
+  @Autowired
+  private BalanceSnapshotRunRepository snapshotRunRepository;
+
+  @Autowired
+  private IdempotencyRecordRepository idempotencyRecordRepository;
+
+  @Autowired
+  private ClientRepository clientRepository;
+
+  @Autowired
+  private MerchantRepository merchantRepository;
+
+  @Autowired
+  private AccountCache accountCache;
+
+  @TestConfiguration
+  @Import({AccountService.class, TransactionService.class, AccountLockService.class,
+      MetricsService.class, BalanceStripeService.class, JdbcRoundTripCounter.class,
+      HibernateConfig.class, IdGeneratorConfig.class, AccountNumberSequenceRepository.class,
+      PostingModeResolver.class, OptimisticPostingService.class, JournalPostingService.class,
+      BalanceSnapshotService.class, AccountCache.class})
+  static class PostingServicesConfig {
+
+    @Bean
+    MeterRegistry meterRegistry() {
+      return new SimpleMeterRegistry();
+    }
+  }
+
+  @AfterEach
+  void deleteAccounts() {
+    idempotencyRecordRepository.deleteAll();
+    snapshotRunRepository.deleteAll();
+    snapshotRepository.deleteAll();
+    ledgerEntryRepository.deleteAll();
+    transactionRepository.deleteAll();
+    stripeRepository.deleteAll();
+    accountRepository.deleteAll();
+    merchantRepository.deleteAll();
+    clientRepository.deleteAll();
+    accountCache.clear();
+  }
+
+  /**
+   * An active checking account with the given balance, not saved yet.
+   */
+  static Account newAccount(String accountNumber, String balance) {
+    return newAccount(accountNumber, balance, Account.AccountStatus.ACTIVE);
+  }
+
+  static Account newAccount(String accountNumber, String balance,
+      Account.AccountStatus status) {
+    Account account = new Account();
+    account.setAccountNumber(accountNumber);
+    account.setType(Account.AccountType.CHECKING);
+    account.setBalance(new BigDecimal(balance));
+    account.setStatus(status);
+    return account;
+  }
+}
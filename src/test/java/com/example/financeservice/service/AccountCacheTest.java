@@ -0,0 +1,202 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.config.JdbcRoundTripCounter;
+import com.example.financeservice.dto.AccountDTO;
+import com.example.financeservice.dto.BatchTransferRequestDTO;
+import com.example.financeservice.dto.PayoutItemDTO;
+import com.example.financeservice.dto.PayoutRequestDTO;
+import com.example.financeservice.dto.TransferDTO;
+import com.example.financeservice.exception.InsufficientFundsException;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.repository.AccountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads accounts through the account cache while every kind of posting changes them: a read that
+ * follows a committed write never returns the balance from before it.
+ */
+class AccountCacheTest extends AbstractServiceJpaTest {
+
+  private static final String ACCOUNT_A = "CACHE-A";
+  private static final String ACCOUNT_B = "CACHE-B";
+  private static final int READERS = 4;
+  private static final int DEPOSITS = 50;
+
+  @Autowired
+  private AccountService accountService;
+
+  @Autowired
+  private TransactionService transactionService;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private JdbcRoundTripCounter roundTripCounter;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private Long accountAId;
+
+  @BeforeEach
+  void setUp() {
+    accountAId = accountRepository.save(newAccount(ACCOUNT_A, "100.00")).getId();
+    accountRepository.save(newAccount(ACCOUNT_B, "100.00"));
+  }
+
+  @Test
+  void repeatedReads_ShouldBeServedFromTheCache() {
+    // Arrange
+    accountService.getAccountByNumber(ACCOUNT_A);
+
+    // Act
+    double hitsBefore = cacheHits();
+    long roundTripsBefore = roundTripCounter.currentCount();
+    AccountDTO byNumber = accountService.getAccountByNumber(ACCOUNT_A);
+    AccountDTO byId = accountService.getAccountById(accountAId);
+    AccountDTO byIdAgain = accountService.getAccountById(accountAId);
+    long roundTrips = roundTripCounter.currentCount() - roundTripsBefore;
+
+    // Assert: only the first read by id goes to the database, to find the account number
+    assertEquals(1, roundTrips);
+    assertAmount("100.00", byNumber.getBalance());
+    assertEquals(ACCOUNT_A, byId.getAccountNumber());
+    assertAmount("100.00", byIdAgain.getBalance());
+    assertEquals(3.0, cacheHits() - hitsBefore);
+    assertTrue(meterRegistry.get("finance.cache.hit_ratio").tag("cache", "accounts").gauge()
+        .value() > 0);
+  }
+
+  @Test
+  void readAfterEveryCommittedPosting_ShouldReturnTheNewBalance() {
+    // Each posting path, with both accounts cached before it runs
+    assertPostingIsVisible(() -> accountService.deposit(ACCOUNT_A, new BigDecimal("10.00")),
+        "110.00", "100.00");
+    assertPostingIsVisible(() -> accountService.withdraw(ACCOUNT_A, new BigDecimal("20.00")),
+        "90.00", "100.00");
+    assertPostingIsVisible(() -> transactionService.deposit(ACCOUNT_A, new BigDecimal("5.00"),
+        "Deposit"), "95.00", "100.00");
+    assertPostingIsVisible(() -> transactionService.withdraw(ACCOUNT_A, new BigDecimal("15.00"),
+        "Withdrawal"), "80.00", "100.00");
+    assertPostingIsVisible(() -> transactionService.transfer(transfer(ACCOUNT_A, ACCOUNT_B,
+        "30.00")), "50.00", "130.00");
+    assertPostingIsVisible(() -> transactionService.transferBatch(BatchTransferRequestDTO
+        .builder()
+        .transfers(List.of(transfer(ACCOUNT_B, ACCOUNT_A, "40.00")))
+        .build()), "90.00", "90.00");
+    assertPostingIsVisible(() -> transactionService.payout(PayoutRequestDTO.builder()
+        .sourceAccountNumber(ACCOUNT_A)
+        .payouts(List.of(PayoutItemDTO.builder()
+            .destinationAccountNumber(ACCOUNT_B)
+            .amount(new BigDecimal("10.00"))
+            .build()))
+        .build()), "80.00", "100.00");
+  }
+
+  @Test
+  void statusUpdate_ShouldBeVisibleToTheNextRead() {
+    // Arrange
+    accountService.getAccountById(accountAId);
+
+    // Act
+    accountService.updateAccountStatus(accountAId, Account.AccountStatus.BLOCKED);
+
+    // Assert
+    assertEquals(Account.AccountStatus.BLOCKED, accountService.getAccountById(accountAId)
+        .getStatus());
+    assertEquals(Account.AccountStatus.BLOCKED, accountService.getAccountByNumber(ACCOUNT_A)
+        .getStatus());
+  }
+
+  @Test
+  void rejectedPosting_ShouldLeaveTheCachedAccountCorrect() {
+    // Arrange
+    accountService.getAccountByNumber(ACCOUNT_A);
+
+    // Act
+    assertThrows(InsufficientFundsException.class,
+        () -> transactionService.withdraw(ACCOUNT_A, new BigDecimal("500.00"), "Too much"));
+
+    // Assert
+    assertAmount("100.00", accountService.getAccountByNumber(ACCOUNT_A).getBalance());
+  }
+
+  @Test
+  void concurrentReaders_ShouldNeverSeeABalanceOlderThanTheLastCommit() throws Exception {
+    // Arrange: readers keep loading the account while it is being evicted
+    ExecutorService executor = Executors.newFixedThreadPool(READERS);
+    AtomicBoolean writing = new AtomicBoolean(true);
+    List<Future<?>> readers = new ArrayList<>();
+    for (int i = 0; i < READERS; i++) {
+      readers.add(executor.submit(() -> {
+        while (writing.get()) {
+          accountService.getAccountByNumber(ACCOUNT_A);
+        }
+        return null;
+      }));
+    }
+
+    // Act & Assert: every read after a committed deposit sees that deposit
+    try {
+      BigDecimal expected = new BigDecimal("100.00");
+      for (int i = 0; i < DEPOSITS; i++) {
+        transactionService.deposit(ACCOUNT_A, BigDecimal.ONE, "Deposit " + i);
+        expected = expected.add(BigDecimal.ONE);
+        assertAmount(expected.toPlainString(),
+            accountService.getAccountByNumber(ACCOUNT_A).getBalance());
+      }
+    } finally {
+      writing.set(false);
+      for (Future<?> reader : readers) {
+        reader.get(30, TimeUnit.SECONDS);
+      }
+      executor.shutdown();
+    }
+  }
+
+  private void assertPostingIsVisible(Runnable posting, String balanceA, String balanceB) {
+    accountService.getAccountByNumber(ACCOUNT_A);
+    accountService.getAccountById(accountAId);
+    accountService.getAccountByNumber(ACCOUNT_B);
+
+    posting.run();
+
+    assertAmount(balanceA, accountService.getAccountByNumber(ACCOUNT_A).getBalance());
+    assertAmount(balanceA, accountService.getAccountById(accountAId).getBalance());
+    assertAmount(balanceB, accountService.getAccountByNumber(ACCOUNT_B).getBalance());
+  }
+
+  private double cacheHits() {
+    return meterRegistry.get("cache.gets").tags("cache", "accounts", "result", "hit")
+        .functionCounter().count();
+  }
+
+  private void assertAmount(String expected, BigDecimal actual) {
+    assertNotNull(actual);
+    assertEquals(0, new BigDecimal(expected).compareTo(actual),
+        () -> "expected " + expected + " but was " + actual);
+  }
+
+  private TransferDTO transfer(String source, String destination, String amount) {
+    return TransferDTO.builder()
+        .sourceAccountNumber(source)
+        .destinationAccountNumber(destination)
+        .amount(new BigDecimal(amount))
+        .build();
+  }
+}
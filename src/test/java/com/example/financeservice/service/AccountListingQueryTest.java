@@ -0,0 +1,156 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.dto.AccountDTO;
+import com.example.financeservice.dto.CursorPageDTO;
+import com.example.financeservice.exception.ResourceNotFoundException;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.Client;
+import com.example.financeservice.model.Merchant;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.ClientRepository;
+import com.example.financeservice.repository.MerchantRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the statements of the account listings with Hibernate statistics: each listing is one
+ * statement however many accounts it returns, owners and balance stripes included.
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class AccountListingQueryTest extends AbstractServiceJpaTest {
+
+  private static final int CLIENT_ACCOUNTS = 6;
+  private static final int MERCHANT_ACCOUNTS = 3;
+
+  @Autowired
+  private AccountService accountService;
+
+  @Autowired
+  private TransactionService transactionService;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private ClientRepository clientRepository;
+
+  @Autowired
+  private MerchantRepository merchantRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Client client;
+  private Merchant merchant;
+
+  @BeforeEach
+  void setUp() {
+    client = new Client();
+    client.setName("Listing Client");
+    client.setEmail("listing@example.com");
+    client.setDocumentNumber("LISTING-DOC");
+    client.setPhone("5550000000");
+    client = clientRepository.save(client);
+
+    merchant = new Merchant();
+    merchant.setBusinessName("Listing Merchant");
+    merchant.setEmail("listing-merchant@example.com");
+    merchant.setNif("999999991");
+    merchant.setPhone("+351000000000");
+    merchant = merchantRepository.save(merchant);
+
+    for (int i = 0; i < CLIENT_ACCOUNTS; i++) {
+      Account account = newAccount("LIST-C-" + i, "100.00");
+      account.setClient(client);
+      accountRepository.save(account);
+    }
+    for (int i = 0; i < MERCHANT_ACCOUNTS; i++) {
+      Account account = newAccount("LIST-M-" + i, "0.00");
+      account.setType(Account.AccountType.BUSINESS);
+      account.setMerchant(merchant);
+      accountRepository.save(account);
+    }
+  }
+
+  @Test
+  void getAccountsByClient_ShouldTakeOneStatement() {
+    // Act
+    List<AccountDTO> accounts = countingStatements(1,
+        () -> accountService.getAccountsByClient(client.getId()));
+
+    // Assert
+    assertEquals(CLIENT_ACCOUNTS, accounts.size());
+    for (AccountDTO account : accounts) {
+      assertEquals(client.getId(), account.getOwnerId());
+      assertEquals("Listing Client", account.getOwnerName());
+      assertEquals("CLIENT", account.getOwnerType());
+      assertEquals(0, new BigDecimal("100.00").compareTo(account.getBalance()));
+    }
+  }
+
+  @Test
+  void getAccountsByMerchant_ShouldTakeOneStatementWithStripesIncluded() {
+    // Arrange: part of the balance of one account sits in its stripes
+    accountService.enableBalanceStriping("LIST-M-0", 4);
+    transactionService.deposit("LIST-M-0", new BigDecimal("40.00"), "Sale");
+
+    // Act
+    List<AccountDTO> accounts = countingStatements(1,
+        () -> accountService.getAccountsByMerchant(merchant.getId()));
+
+    // Assert
+    assertEquals(MERCHANT_ACCOUNTS, accounts.size());
+    assertEquals("LIST-M-0", accounts.get(0).getAccountNumber());
+    assertEquals(0, new BigDecimal("40.00").compareTo(accounts.get(0).getBalance()));
+    assertEquals(4, accounts.get(0).getBalanceStripes());
+    assertEquals("Listing Merchant", accounts.get(1).getOwnerName());
+    assertEquals("MERCHANT", accounts.get(1).getOwnerType());
+  }
+
+  @Test
+  void getAccounts_ShouldTakeOneStatementPerPage() {
+    // Act
+    CursorPageDTO<AccountDTO> page = countingStatements(1,
+        () -> accountService.getAccounts(null, CLIENT_ACCOUNTS + MERCHANT_ACCOUNTS));
+
+    // Assert
+    assertEquals(CLIENT_ACCOUNTS + MERCHANT_ACCOUNTS, page.getItems().size());
+    assertFalse(page.isHasMore());
+    assertEquals("CLIENT", page.getItems().get(0).getOwnerType());
+    assertEquals("MERCHANT", page.getItems().get(CLIENT_ACCOUNTS).getOwnerType());
+  }
+
+  @Test
+  void getAccountsByClient_WithUnknownClient_ShouldThrowAfterTwoStatements() {
+    // Act & Assert
+    Statistics statistics = statistics();
+    statistics.clear();
+    assertThrows(ResourceNotFoundException.class,
+        () -> accountService.getAccountsByClient(client.getId() + 1000));
+    assertEquals(2, statistics.getPrepareStatementCount());
+  }
+
+  private <T> T countingStatements(long expected, Supplier<T> call) {
+    Statistics statistics = statistics();
+    statistics.clear();
+    T result = call.get();
+    assertEquals(expected, statistics.getPrepareStatementCount(),
+        "statements executed by the call");
+    return result;
+  }
+
+  private Statistics statistics() {
+    return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+}
@@ -0,0 +1,109 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.model.Account;
+import com.example.financeservice.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AccountLockServiceTest {
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private MetricsService metricsService;
+
+  @InjectMocks
+  private AccountLockService accountLockService;
+
+  private Account firstAccount;
+  private Account secondAccount;
+
+  @BeforeEach
+  void setUp() {
+    doAnswer(invocation -> {
+      Supplier<?> supplier = invocation.getArgument(2);
+      return supplier.get();
+    }).when(metricsService)
+        .recordRepositoryExecutionTime(anyString(), anyString(), any(Supplier.class));
+
+    firstAccount = new Account();
+    firstAccount.setId(1L);
+    firstAccount.setAccountNumber("ACC-B");
+
+    secondAccount = new Account();
+    secondAccount.setId(2L);
+    secondAccount.setAccountNumber("ACC-A");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void lockAccounts_ShouldLockAllAccountsWithSingleQuery() {
+    // Arrange
+    when(accountRepository.findAllByAccountNumberInWithLock(anyCollection()))
+        .thenReturn(List.of(firstAccount, secondAccount));
+
+    // Act
+    Map<String, Account> result = accountLockService.lockAccounts("ACC-A", "ACC-B");
+
+    // Assert
+    ArgumentCaptor<Collection<String>> captor = ArgumentCaptor.forClass(Collection.class);
+    verify(accountRepository, times(1)).findAllByAccountNumberInWithLock(captor.capture());
+    verify(accountRepository, never()).findByAccountNumberWithLock(anyString());
+    assertEquals(2, captor.getValue().size());
+    assertTrue(captor.getValue().containsAll(List.of("ACC-A", "ACC-B")));
+
+    // Result keeps the id order in which the rows were locked
+    assertEquals(List.of("ACC-B", "ACC-A"), List.copyOf(result.keySet()));
+    assertSame(secondAccount, result.get("ACC-A"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void lockAccounts_WithDuplicateNumbers_ShouldQueryEachAccountOnce() {
+    // Arrange
+    when(accountRepository.findAllByAccountNumberInWithLock(anyCollection()))
+        .thenReturn(List.of(secondAccount));
+
+    // Act
+    Map<String, Account> result = accountLockService.lockAccounts("ACC-A", "ACC-A");
+
+    // Assert
+    ArgumentCaptor<Collection<String>> captor = ArgumentCaptor.forClass(Collection.class);
+    verify(accountRepository).findAllByAccountNumberInWithLock(captor.capture());
+    assertEquals(1, captor.getValue().size());
+    assertEquals(1, result.size());
+  }
+
+  @Test
+  void lockAccounts_WithMissingAccount_ShouldOmitItFromResult() {
+    // Arrange
+    when(accountRepository.findAllByAccountNumberInWithLock(anyCollection()))
+        .thenReturn(List.of(firstAccount));
+
+    // Act
+    Map<String, Account> result = accountLockService.lockAccounts("ACC-B", "UNKNOWN");
+
+    // Assert
+    assertEquals(1, result.size());
+    assertFalse(result.containsKey("UNKNOWN"));
+  }
+}
@@ -1,15 +1,20 @@
 package com.example.financeservice.service;
 
+import com.example.financeservice.dto.AccountBalanceDTO;
 import com.example.financeservice.dto.AccountDTO;
 import com.example.financeservice.dto.CreateAccountDTO;
+import com.example.financeservice.dto.CursorPageDTO;
 import com.example.financeservice.exception.InsufficientFundsException;
+import com.example.financeservice.exception.InvalidTransactionException;
 import com.example.financeservice.exception.ResourceNotFoundException;
+import com.example.financeservice.id.AccountNumberGenerator;
 import com.example.financeservice.model.Account;
 import com.example.financeservice.model.Client;
 import com.example.financeservice.model.Merchant;
 import com.example.financeservice.repository.AccountRepository;
 import com.example.financeservice.repository.ClientRepository;
 import com.example.financeservice.repository.MerchantRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,6 +23,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -46,6 +52,27 @@ class AccountServiceTest {
   @Mock
   private MetricsService metricsService;
 
+  @Mock
+  private AccountNumberGenerator accountNumberGenerator;
+
+  @Mock
+  private BalanceStripeService balanceStripeService;
+
+  @Mock
+  private JournalPostingService journalPostingService;
+
+  @Mock
+  private BalanceSnapshotService balanceSnapshotService;
+
+  @Mock
+  private AccountCache accountCache;
+
+  @Mock
+  private TransactionService transactionService;
+
+  @Mock
+  private EntityManager entityManager;
+
   @InjectMocks
   private AccountService accountService;
 
@@ -69,6 +96,24 @@ class AccountServiceTest {
     doNothing().when(metricsService).recordAccountStatusUpdate(anyString(), anyString());
     doNothing().when(metricsService).recordExceptionOccurred(anyString(), anyString());
 
+    // O cache de contas delega sempre a leitura ao repositório
+    when(accountCache.getById(anyLong(), any())).thenAnswer(
+        invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    when(accountCache.getByNumber(anyString(), any())).thenAnswer(
+        invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
+    // Nenhuma conta com saldo particionado por padrão
+    when(balanceStripeService.stripedBalance(any(Account.class))).thenReturn(BigDecimal.ZERO);
+    when(balanceStripeService.stripedBalance(anyString())).thenReturn(BigDecimal.ZERO);
+
+    // O depósito inicial credita a conta recebida
+    when(transactionService.initialDeposit(any(Account.class), any(BigDecimal.class)))
+        .thenAnswer(invocation -> {
+          Account account = invocation.getArgument(0);
+          account.setBalance(account.getBalance().add(invocation.getArgument(1)));
+          return null;
+        });
+
     // Configurar dados de teste
     testClient = new Client();
     testClient.setId(1L);
@@ -104,23 +149,36 @@ class AccountServiceTest {
   }
 
   @Test
-  void getAllAccounts_ShouldReturnAllAccounts() {
+  void getAccounts_ShouldReturnTheFirstPage() {
     // Arrange
-    Account account2 = new Account();
-    account2.setId(2L);
-    account2.setAccountNumber("ACC654321");
-    account2.setType(Account.AccountType.SAVINGS);
-    account2.setBalance(new BigDecimal("2000.00"));
-    account2.setStatus(Account.AccountStatus.ACTIVE);
-    account2.setMerchant(testMerchant);
-
-    when(accountRepository.findAll()).thenReturn(Arrays.asList(testAccount, account2));
+    AccountDTO account1 = AccountDTO.builder()
+        .id(1L)
+        .accountNumber("ACC123456")
+        .type(Account.AccountType.CHECKING)
+        .balance(new BigDecimal("1000.00"))
+        .ownerType("CLIENT")
+        .ownerName("Test Client")
+        .build();
+    AccountDTO account2 = AccountDTO.builder()
+        .id(2L)
+        .accountNumber("ACC654321")
+        .type(Account.AccountType.SAVINGS)
+        .balance(new BigDecimal("2000.00"))
+        .ownerType("MERCHANT")
+        .ownerName("Test Merchant")
+        .build();
+
+    when(accountRepository.findDtoPageAfter(0L, Limit.of(21)))
+        .thenReturn(Arrays.asList(account1, account2));
 
     // Act
-    List<AccountDTO> result = accountService.getAllAccounts();
+    CursorPageDTO<AccountDTO> page = accountService.getAccounts(null, 20);
 
     // Assert
-    assertNotNull(result);
+    assertNotNull(page);
+    assertFalse(page.isHasMore());
+    assertNull(page.getNextCursor());
+    List<AccountDTO> result = page.getItems();
     assertEquals(2, result.size());
 
     // Verify first account
@@ -139,7 +197,15 @@ class AccountServiceTest {
     assertEquals("MERCHANT", result.get(1).getOwnerType());
     assertEquals("Test Merchant", result.get(1).getOwnerName());
 
-    verify(accountRepository, times(1)).findAll();
+    verify(accountRepository, times(1)).findDtoPageAfter(0L, Limit.of(21));
+  }
+
+  @Test
+  void getAccounts_WithOversizedPage_ShouldThrowException() {
+    // Act & Assert
+    assertThrows(InvalidTransactionException.class,
+        () -> accountService.getAccounts(null, KeysetCursor.MAX_PAGE_SIZE + 1));
+    verify(accountRepository, never()).findDtoPageAfter(any(), any());
   }
 
   @Test
@@ -206,17 +272,58 @@ class AccountServiceTest {
     verify(metricsService, times(1)).recordExceptionOccurred("ResourceNotFoundException", "getAccountByNumber");
   }
 
+  @Test
+  void getBalanceAsOf_WithValidNumber_ShouldReturnBalanceAtThatInstant() {
+    // Arrange
+    LocalDateTime asOf = LocalDateTime.now().minusDays(10);
+    when(accountRepository.findByAccountNumber("ACC123456")).thenReturn(Optional.of(testAccount));
+    when(balanceSnapshotService.balanceAt(testAccount, asOf)).thenReturn(new BigDecimal("420.00"));
+
+    // Act
+    AccountBalanceDTO result = accountService.getBalanceAsOf("ACC123456", asOf);
+
+    // Assert
+    assertEquals("ACC123456", result.getAccountNumber());
+    assertEquals(asOf, result.getAsOf());
+    assertEquals(new BigDecimal("420.00"), result.getBalance());
+  }
+
+  @Test
+  void getBalanceAsOf_WithFutureDate_ShouldThrowException() {
+    // Act & Assert
+    LocalDateTime asOf = LocalDateTime.now().plusDays(1);
+    assertThrows(InvalidTransactionException.class,
+        () -> accountService.getBalanceAsOf("ACC123456", asOf));
+
+    verify(balanceSnapshotService, never()).balanceAt(any(), any());
+  }
+
+  @Test
+  void getBalancesAsOf_WithUnknownAccount_ShouldThrowException() {
+    // Arrange
+    LocalDateTime asOf = LocalDateTime.now().minusDays(1);
+    when(accountRepository.findAllByAccountNumberIn(List.of("ACC123456", "INVALID")))
+        .thenReturn(List.of(testAccount));
+
+    // Act & Assert
+    ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+        () -> accountService.getBalancesAsOf(List.of("ACC123456", "INVALID"), asOf));
+
+    assertEquals("Accounts not found with numbers: [INVALID]", exception.getMessage());
+    verify(balanceSnapshotService, never()).balancesAt(any(), any());
+  }
+
   @Test
   void getAccountsByClient_WithValidClientId_ShouldReturnAccounts() {
     // Arrange
-    Account account2 = new Account();
-    account2.setId(3L);
-    account2.setAccountNumber("ACC789012");
-    account2.setType(Account.AccountType.SAVINGS);
-    account2.setClient(testClient);
+    AccountDTO account1 = AccountDTO.builder().id(1L).accountNumber("ACC123456")
+        .balance(new BigDecimal("1000.00")).build();
+    AccountDTO account2 = AccountDTO.builder().id(3L).accountNumber("ACC789012")
+        .balance(BigDecimal.ZERO).build();
 
-    when(clientRepository.findById(1L)).thenReturn(Optional.of(testClient));
-    when(accountRepository.findByClient(testClient)).thenReturn(Arrays.asList(testAccount, account2));
+    when(accountRepository.findDtosByClientId(1L)).thenReturn(Arrays.asList(account1, account2));
+    when(journalPostingService.currentBalance("ACC789012"))
+        .thenReturn(Optional.of(new BigDecimal("25.00")));
 
     // Act
     List<AccountDTO> result = accountService.getAccountsByClient(1L);
@@ -226,23 +333,26 @@ class AccountServiceTest {
     assertEquals(2, result.size());
     assertEquals("ACC123456", result.get(0).getAccountNumber());
     assertEquals("ACC789012", result.get(1).getAccountNumber());
+    assertEquals(new BigDecimal("1000.00"), result.get(0).getBalance());
+    // Postings accepted by the journal but not yet written are part of the balance
+    assertEquals(new BigDecimal("25.00"), result.get(1).getBalance());
 
-    verify(clientRepository, times(1)).findById(1L);
-    verify(accountRepository, times(1)).findByClient(testClient);
+    verify(accountRepository, times(1)).findDtosByClientId(1L);
+    verify(clientRepository, never()).existsById(anyLong());
   }
 
   @Test
   void getAccountsByClient_WithInvalidClientId_ShouldThrowException() {
     // Arrange
-    when(clientRepository.findById(999L)).thenReturn(Optional.empty());
+    when(accountRepository.findDtosByClientId(999L)).thenReturn(List.of());
+    when(clientRepository.existsById(999L)).thenReturn(false);
 
     // Act & Assert
     ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
         () -> accountService.getAccountsByClient(999L));
 
     assertEquals("Client not found with id: 999", exception.getMessage());
-    verify(clientRepository, times(1)).findById(999L);
-    verify(accountRepository, never()).findByClient(any(Client.class));
+    verify(clientRepository, times(1)).existsById(999L);
     verify(metricsService, times(1)).recordExceptionOccurred("ResourceNotFoundException", "getAccountsByClient");
   }
 
@@ -250,10 +360,10 @@ class AccountServiceTest {
   void createClientAccount_WithValidData_ShouldCreateAccount() {
     // Arrange
     when(clientRepository.findById(1L)).thenReturn(Optional.of(testClient));
+    when(accountNumberGenerator.nextAccountNumber()).thenReturn("ACC555555");
     when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> {
       Account savedAccount = invocation.getArgument(0);
       savedAccount.setId(5L);
-      savedAccount.setAccountNumber("ACC555555");
       return savedAccount;
     });
 
@@ -273,8 +383,8 @@ class AccountServiceTest {
     verify(clientRepository, times(1)).findById(1L);
     verify(accountRepository, times(1)).save(any(Account.class));
     verify(metricsService, times(1)).recordAccountCreated("CHECKING", "CLIENT");
-    verify(metricsService, times(1)).recordTransactionProcessed("DEPOSIT", new BigDecimal("500.00"), true);
-    verify(metricsService, times(1)).recordDailyFinancialVolume("DEPOSIT", new BigDecimal("500.00"));
+    verify(transactionService, times(1)).initialDeposit(any(Account.class),
+        eq(new BigDecimal("500.00")));
   }
 
   @Test
@@ -293,14 +403,28 @@ class AccountServiceTest {
     verify(metricsService, times(1)).recordExceptionOccurred("ResourceNotFoundException", "createClientAccount");
   }
 
+  @Test
+  void getAccountsByMerchant_WithoutAccounts_ShouldReturnEmptyList() {
+    // Arrange
+    when(accountRepository.findDtosByMerchantId(2L)).thenReturn(List.of());
+    when(merchantRepository.existsById(2L)).thenReturn(true);
+
+    // Act
+    List<AccountDTO> result = accountService.getAccountsByMerchant(2L);
+
+    // Assert
+    assertTrue(result.isEmpty());
+    verify(merchantRepository, times(1)).existsById(2L);
+  }
+
   @Test
   void createMerchantAccount_WithValidData_ShouldCreateAccount() {
     // Arrange
     when(merchantRepository.findById(2L)).thenReturn(Optional.of(testMerchant));
+    when(accountNumberGenerator.nextAccountNumber()).thenReturn("ACC666666");
     when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> {
       Account savedAccount = invocation.getArgument(0);
       savedAccount.setId(6L);
-      savedAccount.setAccountNumber("ACC666666");
       return savedAccount;
     });
 
@@ -320,22 +444,21 @@ class AccountServiceTest {
     verify(merchantRepository, times(1)).findById(2L);
     verify(accountRepository, times(1)).save(any(Account.class));
     verify(metricsService, times(1)).recordAccountCreated("BUSINESS", "MERCHANT");
-    verify(metricsService, times(1)).recordTransactionProcessed("DEPOSIT", new BigDecimal("1000.00"), true);
-    verify(metricsService, times(1)).recordDailyFinancialVolume("DEPOSIT", new BigDecimal("1000.00"));
+    verify(transactionService, times(1)).initialDeposit(any(Account.class),
+        eq(new BigDecimal("1000.00")));
   }
 
   @Test
-  void deposit_WithValidData_ShouldIncreaseBalance() {
+  void deposit_WithValidData_ShouldPostTheDepositAndReturnTheUpdatedAccount() {
     // Arrange
     Account account = new Account();
     account.setId(1L);
     account.setAccountNumber("ACC123456");
-    account.setBalance(new BigDecimal("1000.00"));
+    account.setBalance(new BigDecimal("1500.00"));
     account.setStatus(Account.AccountStatus.ACTIVE);
     account.setClient(testClient);
 
-    when(accountRepository.findByAccountNumberWithLock("ACC123456")).thenReturn(Optional.of(account));
-    when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    when(accountRepository.findByAccountNumber("ACC123456")).thenReturn(Optional.of(account));
 
     BigDecimal depositAmount = new BigDecimal("500.00");
 
@@ -346,10 +469,9 @@ class AccountServiceTest {
     assertNotNull(result);
     assertEquals(new BigDecimal("1500.00"), result.getBalance());
 
-    verify(accountRepository, times(1)).findByAccountNumberWithLock("ACC123456");
-    verify(accountRepository, times(1)).save(any(Account.class));
-    verify(metricsService, times(1)).recordTransactionProcessed("DEPOSIT", depositAmount, true);
-    verify(metricsService, times(1)).recordDailyFinancialVolume("DEPOSIT", depositAmount);
+    verify(transactionService, times(1)).deposit("ACC123456", depositAmount, null);
+    verify(entityManager, times(1)).refresh(account);
+    verify(accountRepository, never()).save(any(Account.class));
   }
 
   @Test
@@ -362,39 +484,36 @@ class AccountServiceTest {
         () -> accountService.deposit("ACC123456", negativeAmount));
 
     assertEquals("Deposit amount must be positive", exception.getMessage());
-    verify(accountRepository, never()).findByAccountNumberWithLock(anyString());
-    verify(accountRepository, never()).save(any(Account.class));
+    verify(transactionService, never()).deposit(anyString(), any(BigDecimal.class), any());
     verify(metricsService, times(1)).recordExceptionOccurred("IllegalArgumentException", "deposit");
   }
 
   @Test
   void deposit_WithInvalidAccountNumber_ShouldThrowException() {
     // Arrange
-    when(accountRepository.findByAccountNumberWithLock("INVALID")).thenReturn(Optional.empty());
     BigDecimal amount = new BigDecimal("500.00");
+    when(transactionService.deposit("INVALID", amount, null))
+        .thenThrow(new ResourceNotFoundException("Account not found with number: INVALID"));
 
     // Act & Assert
     ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
         () -> accountService.deposit("INVALID", amount));
 
     assertEquals("Account not found with number: INVALID", exception.getMessage());
-    verify(accountRepository, times(1)).findByAccountNumberWithLock("INVALID");
-    verify(accountRepository, never()).save(any(Account.class));
-    verify(metricsService, times(1)).recordExceptionOccurred("ResourceNotFoundException", "deposit");
+    verify(accountRepository, never()).findByAccountNumber(anyString());
   }
 
   @Test
-  void withdraw_WithValidData_ShouldDecreaseBalance() {
+  void withdraw_WithValidData_ShouldPostTheWithdrawalAndReturnTheUpdatedAccount() {
     // Arrange
     Account account = new Account();
     account.setId(1L);
     account.setAccountNumber("ACC123456");
-    account.setBalance(new BigDecimal("1000.00"));
+    account.setBalance(new BigDecimal("700.00"));
     account.setStatus(Account.AccountStatus.ACTIVE);
     account.setClient(testClient);
 
-    when(accountRepository.findByAccountNumberWithLock("ACC123456")).thenReturn(Optional.of(account));
-    when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    when(accountRepository.findByAccountNumber("ACC123456")).thenReturn(Optional.of(account));
 
     BigDecimal withdrawAmount = new BigDecimal("300.00");
 
@@ -405,34 +524,46 @@ class AccountServiceTest {
     assertNotNull(result);
     assertEquals(new BigDecimal("700.00"), result.getBalance());
 
-    verify(accountRepository, times(1)).findByAccountNumberWithLock("ACC123456");
-    verify(accountRepository, times(1)).save(any(Account.class));
-    verify(metricsService, times(1)).recordTransactionProcessed("WITHDRAWAL", withdrawAmount, true);
-    verify(metricsService, times(1)).recordDailyFinancialVolume("WITHDRAWAL", withdrawAmount);
+    verify(transactionService, times(1)).withdraw("ACC123456", withdrawAmount, null);
+    verify(entityManager, times(1)).refresh(account);
+    verify(accountRepository, never()).save(any(Account.class));
   }
 
   @Test
   void withdraw_WithInsufficientFunds_ShouldThrowException() {
     // Arrange
-    Account account = new Account();
-    account.setId(1L);
-    account.setAccountNumber("ACC123456");
-    account.setBalance(new BigDecimal("500.00"));
-    account.setStatus(Account.AccountStatus.ACTIVE);
-
-    when(accountRepository.findByAccountNumberWithLock("ACC123456")).thenReturn(Optional.of(account));
-
     BigDecimal withdrawAmount = new BigDecimal("1000.00");
+    when(transactionService.withdraw("ACC123456", withdrawAmount, null))
+        .thenThrow(new InsufficientFundsException("Insufficient funds for withdrawal"));
 
     // Act & Assert
     InsufficientFundsException exception = assertThrows(InsufficientFundsException.class,
         () -> accountService.withdraw("ACC123456", withdrawAmount));
 
     assertEquals("Insufficient funds for withdrawal", exception.getMessage());
-    verify(accountRepository, times(1)).findByAccountNumberWithLock("ACC123456");
-    verify(accountRepository, never()).save(any(Account.class));
-    verify(metricsService, times(1)).recordExceptionOccurred("InsufficientFundsException", "withdrawal");
-    verify(metricsService, times(1)).recordTransactionProcessed("WITHDRAWAL", withdrawAmount, false);
+    verify(accountRepository, never()).findByAccountNumber(anyString());
+  }
+
+  @Test
+  void deposit_WithJournalPostingMode_ShouldReturnInMemoryBalance() {
+    // Arrange
+    Account account = new Account();
+    account.setId(1L);
+    account.setAccountNumber("ACC123456");
+    account.setBalance(new BigDecimal("1000.00"));
+    account.setStatus(Account.AccountStatus.ACTIVE);
+    account.setClient(testClient);
+
+    when(accountRepository.findByAccountNumber("ACC123456")).thenReturn(Optional.of(account));
+    when(journalPostingService.currentBalance("ACC123456"))
+        .thenReturn(Optional.of(new BigDecimal("1100.00")));
+
+    // Act
+    AccountDTO result = accountService.deposit("ACC123456", new BigDecimal("100.00"));
+
+    // Assert: the database row is only updated by the write-behind
+    assertEquals(new BigDecimal("1100.00"), result.getBalance());
+    verify(transactionService, times(1)).deposit("ACC123456", new BigDecimal("100.00"), null);
   }
 
   @Test
@@ -459,5 +590,7 @@ class AccountServiceTest {
     verify(metricsService, times(1)).recordAccountStatusUpdate(
         Account.AccountStatus.ACTIVE.toString(),
         Account.AccountStatus.BLOCKED.toString());
+    verify(journalPostingService, times(1)).accountStatusChanged("ACC123456",
+        Account.AccountStatus.BLOCKED);
   }
 }
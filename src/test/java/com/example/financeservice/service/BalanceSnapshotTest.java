@@ -0,0 +1,249 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.dto.StatementDTO;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.AccountBalanceSnapshot;
+import com.example.financeservice.model.BalanceSnapshotRun;
+import com.example.financeservice.repository.AccountBalanceSnapshotRepository;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.BalanceSnapshotRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the daily balance snapshot job and the statement opening balance against a real database.
+ */
+@TestPropertySource(properties = {
+    "finance.balance-snapshot.chunk-size=2",
+    "finance.balance-snapshot.parallelism=2",
+    "finance.balance-snapshot.run-on-startup=false"})
+@Import(BalanceSnapshotJob.class)
+class BalanceSnapshotTest extends AbstractServiceJpaTest {
+
+  private static final int ACCOUNT_COUNT = 7;
+
+  @Autowired
+  private BalanceSnapshotJob balanceSnapshotJob;
+
+  @Autowired
+  private BalanceSnapshotService balanceSnapshotService;
+
+  @Autowired
+  private TransactionService transactionService;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private AccountBalanceSnapshotRepository snapshotRepository;
+
+  @Autowired
+  private BalanceSnapshotRunRepository runRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  private final List<Account> accounts = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    for (int i = 0; i < ACCOUNT_COUNT; i++) {
+      accounts.add(accountRepository.save(newAccount("SNAP-" + i, "100.00")));
+    }
+  }
+
+  @Test
+  void run_ShouldSnapshotEveryAccountAtTheEndOfTheDay() {
+    // Arrange: postings made today are after yesterday's close
+    LocalDate yesterday = LocalDate.now().minusDays(1);
+    transactionService.deposit("SNAP-0", new BigDecimal("25.00"), "Today");
+    transactionService.withdraw("SNAP-1", new BigDecimal("40.00"), "Today");
+
+    // Act
+    int written = balanceSnapshotJob.run(yesterday);
+
+    // Assert
+    assertEquals(ACCOUNT_COUNT, written);
+    assertEquals(ACCOUNT_COUNT, snapshotRepository.count());
+    for (Account account : accounts) {
+      assertAmount("100.00", closingBalance(account, yesterday));
+    }
+    BalanceSnapshotRun run = runRepository.findById(yesterday).orElseThrow();
+    assertTrue(run.isCompleted());
+    assertEquals(accounts.get(ACCOUNT_COUNT - 1).getId(), run.getLastAccountId());
+  }
+
+  @Test
+  void run_AfterAnInterruptedRun_ShouldContinueFromTheCheckpoint() {
+    // Arrange: the first chunk is checkpointed and a later chunk committed before the stop
+    LocalDate date = LocalDate.now().minusDays(1);
+    balanceSnapshotService.snapshotChunk(date,
+        List.of(accounts.get(0).getId(), accounts.get(1).getId()));
+    balanceSnapshotService.snapshotChunk(date,
+        List.of(accounts.get(4).getId(), accounts.get(5).getId()));
+    runRepository.save(new BalanceSnapshotRun(date, accounts.get(1).getId(), null, null, null,
+        null));
+
+    // Act
+    int written = balanceSnapshotJob.run(date);
+    int rerun = balanceSnapshotJob.run(date);
+
+    // Assert: only the accounts without a snapshot are written, and a completed run is a no-op
+    assertEquals(3, written);
+    assertEquals(0, rerun);
+    assertEquals(ACCOUNT_COUNT, snapshotRepository.count());
+    assertTrue(runRepository.findById(date).orElseThrow().isCompleted());
+  }
+
+  @Test
+  void run_WhileAnotherInstanceHoldsTheRun_ShouldWriteNothingUntilItsLeaseExpires() {
+    // Arrange
+    LocalDate date = LocalDate.now().minusDays(1);
+    BalanceSnapshotRun held = runRepository.save(new BalanceSnapshotRun(date, 0L, null,
+        "other-instance", LocalDateTime.now().plusHours(1), null));
+
+    // Act & Assert
+    assertEquals(0, balanceSnapshotJob.run(date));
+    assertEquals(0, snapshotRepository.count());
+
+    held.setClaimedUntil(LocalDateTime.now().minusMinutes(1));
+    runRepository.save(held);
+    assertEquals(ACCOUNT_COUNT, balanceSnapshotJob.run(date));
+    assertTrue(runRepository.findById(date).orElseThrow().isCompleted());
+  }
+
+  @Test
+  void snapshotPendingDays_ShouldResumeFromTheEarliestDayWithoutACompletedRun() {
+    // Arrange: a run that failed five days ago, and one completed three days ago
+    LocalDate today = LocalDate.now();
+    runRepository.save(new BalanceSnapshotRun(today.minusDays(5), 0L, null, null, null, null));
+    runRepository.save(new BalanceSnapshotRun(today.minusDays(3), accounts.get(6).getId(),
+        LocalDateTime.now(), null, null, null));
+
+    // Act
+    balanceSnapshotJob.snapshotPendingDays();
+
+    // Assert: every day from the failed one up to yesterday, skipping the completed one
+    for (int days = 5; days >= 1; days--) {
+      assertTrue(runRepository.findById(today.minusDays(days)).orElseThrow().isCompleted());
+    }
+    assertEquals(4 * ACCOUNT_COUNT, snapshotRepository.count());
+    assertTrue(runRepository.findById(today).isEmpty());
+  }
+
+  @Test
+  void statement_ShouldStartFromTheLastSnapshotPlusLaterEntries() {
+    // Arrange: a snapshot two days back, then postings today before and during the statement
+    Account account = accounts.get(0);
+    snapshotRepository.save(new AccountBalanceSnapshot(null, account,
+        LocalDate.now().minusDays(2), new BigDecimal("1000.00"), null));
+    transactionService.deposit("SNAP-0", new BigDecimal("10.00"), "Before the statement");
+    LocalDateTime startDate = LocalDateTime.now();
+    transactionService.withdraw("SNAP-0", new BigDecimal("30.00"), "In the statement");
+
+    // Act
+    StatementDTO statement = transactionService.getAccountStatement("SNAP-0", startDate,
+        LocalDateTime.now().plusHours(1));
+
+    // Assert: the opening balance comes from the snapshot, not from the current balance
+    assertAmount("1010.00", statement.getOpeningBalance());
+    assertAmount("980.00", statement.getClosingBalance());
+    assertEquals(1, statement.getTransactions().size());
+  }
+
+  @Test
+  void statement_WithoutSnapshot_ShouldWorkBackFromTheCurrentBalance() {
+    // Arrange
+    transactionService.deposit("SNAP-0", new BigDecimal("10.00"), "Before the statement");
+    LocalDateTime startDate = LocalDateTime.now();
+    transactionService.withdraw("SNAP-0", new BigDecimal("30.00"), "In the statement");
+
+    // Act
+    StatementDTO statement = transactionService.getAccountStatement("SNAP-0", startDate,
+        LocalDateTime.now().plusHours(1));
+
+    // Assert
+    assertAmount("110.00", statement.getOpeningBalance());
+    assertAmount("80.00", statement.getClosingBalance());
+    assertAmount("80.00", statement.getCurrentBalance());
+  }
+
+  @Test
+  void balancesAt_ShouldMatchTheSingleAccountQuery() {
+    // Arrange: some accounts have a snapshot, the others are worked back from today
+    LocalDate yesterday = LocalDate.now().minusDays(1);
+    balanceSnapshotService.snapshotChunk(yesterday,
+        List.of(accounts.get(0).getId(), accounts.get(1).getId()));
+    transactionService.deposit("SNAP-0", new BigDecimal("10.00"), "Before");
+    transactionService.deposit("SNAP-2", new BigDecimal("20.00"), "Before");
+    LocalDateTime asOf = LocalDateTime.now();
+    transactionService.withdraw("SNAP-0", new BigDecimal("5.00"), "After");
+    transactionService.withdraw("SNAP-2", new BigDecimal("5.00"), "After");
+
+    // Act
+    Map<Long, BigDecimal> balances = balanceSnapshotService.balancesAt(
+        accounts.stream().map(Account::getId).toList(), asOf);
+
+    // Assert
+    assertEquals(ACCOUNT_COUNT, balances.size());
+    assertAmount("110.00", balances.get(accounts.get(0).getId()));
+    assertAmount("100.00", balances.get(accounts.get(1).getId()));
+    assertAmount("120.00", balances.get(accounts.get(2).getId()));
+    for (Account account : accounts) {
+      BigDecimal single = transactionTemplate.execute(status ->
+          balanceSnapshotService.balanceAt(account, asOf));
+      assertAmount(single.toPlainString(), balances.get(account.getId()));
+    }
+  }
+
+  @Test
+  void balanceAt_BeforeTheFirstSnapshot_ShouldWorkBackFromIt() {
+    // Arrange: the snapshot closes tonight, after the instant, with a balance the current one
+    // cannot explain, so only working back from the snapshot gives 505
+    Account account = accounts.get(0);
+    snapshotRepository.save(new AccountBalanceSnapshot(null, account, LocalDate.now(),
+        new BigDecimal("500.00"), null));
+    transactionService.deposit("SNAP-0", new BigDecimal("10.00"), "Before");
+    LocalDateTime asOf = LocalDateTime.now();
+    transactionService.withdraw("SNAP-0", new BigDecimal("5.00"), "After");
+
+    // Act
+    BigDecimal balance = transactionTemplate.execute(status ->
+        balanceSnapshotService.balanceAt(account, asOf));
+    Map<Long, BigDecimal> balances = balanceSnapshotService.balancesAt(
+        List.of(account.getId(), accounts.get(1).getId()), asOf);
+
+    // Assert
+    assertAmount("505.00", balance);
+    assertAmount("505.00", balances.get(account.getId()));
+    assertAmount("100.00", balances.get(accounts.get(1).getId()));
+  }
+
+  private BigDecimal closingBalance(Account account, LocalDate date) {
+    return transactionTemplate.execute(status -> snapshotRepository
+        .findFirstByAccountAndSnapshotDateBeforeOrderBySnapshotDateDesc(account,
+            date.plusDays(1))
+        .filter(snapshot -> snapshot.getSnapshotDate().equals(date))
+        .orElseThrow()
+        .getClosingBalance());
+  }
+
+  private void assertAmount(String expected, BigDecimal actual) {
+    assertNotNull(actual);
+    assertEquals(0, new BigDecimal(expected).compareTo(actual),
+        () -> "expected " + expected + " but was " + actual);
+  }
+}
@@ -0,0 +1,168 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.exception.InvalidTransactionException;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.AccountBalanceStripe;
+import com.example.financeservice.model.Merchant;
+import com.example.financeservice.repository.AccountBalanceStripeRepository;
+import com.example.financeservice.repository.AccountRepository;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BalanceStripeServiceTest {
+
+  @Mock
+  private AccountBalanceStripeRepository stripeRepository;
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private MetricsService metricsService;
+
+  @InjectMocks
+  private BalanceStripeService balanceStripeService;
+
+  private Account merchantAccount;
+
+  @BeforeEach
+  void setUp() {
+    doAnswer(invocation -> {
+      Supplier<?> supplier = invocation.getArgument(2);
+      return supplier.get();
+    }).when(metricsService)
+        .recordRepositoryExecutionTime(anyString(), anyString(), any(Supplier.class));
+
+    Merchant merchant = new Merchant();
+    merchant.setId(1L);
+
+    merchantAccount = new Account();
+    merchantAccount.setId(10L);
+    merchantAccount.setAccountNumber("MERCHANT-ACC");
+    merchantAccount.setType(Account.AccountType.BUSINESS);
+    merchantAccount.setBalance(new BigDecimal("100.00"));
+    merchantAccount.setMerchant(merchant);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void enableStriping_ShouldCreateStripesAndMarkAccount() {
+    // Act
+    balanceStripeService.enableStriping(merchantAccount, 4);
+
+    // Assert
+    ArgumentCaptor<List<AccountBalanceStripe>> stripes = ArgumentCaptor.forClass(List.class);
+    verify(stripeRepository).saveAll(stripes.capture());
+    assertEquals(4, stripes.getValue().size());
+    assertEquals(3, stripes.getValue().get(3).getStripeIndex());
+    assertEquals(4, merchantAccount.getBalanceStripes());
+    assertTrue(balanceStripeService.isStriped("MERCHANT-ACC"));
+  }
+
+  @Test
+  void enableStriping_WithClientAccount_ShouldThrowException() {
+    // Arrange
+    merchantAccount.setMerchant(null);
+
+    // Act & Assert
+    assertThrows(InvalidTransactionException.class,
+        () -> balanceStripeService.enableStriping(merchantAccount, 4));
+    verify(stripeRepository, never()).saveAll(anyList());
+    assertFalse(balanceStripeService.isStriped("MERCHANT-ACC"));
+  }
+
+  @Test
+  void enableStriping_WithStripeCountOutOfRange_ShouldThrowException() {
+    assertThrows(IllegalArgumentException.class,
+        () -> balanceStripeService.enableStriping(merchantAccount, 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> balanceStripeService.enableStriping(merchantAccount,
+            BalanceStripeService.MAX_STRIPES + 1));
+  }
+
+  @Test
+  void credit_ShouldUpdateOneStripeWithinRange() {
+    // Arrange
+    merchantAccount.setBalanceStripes(4);
+    when(stripeRepository.creditStripe(eq(10L), anyInt(), any(BigDecimal.class))).thenReturn(1);
+
+    // Act
+    for (int i = 0; i < 20; i++) {
+      balanceStripeService.credit(merchantAccount, BigDecimal.TEN);
+    }
+
+    // Assert
+    ArgumentCaptor<Integer> stripeIndex = ArgumentCaptor.forClass(Integer.class);
+    verify(stripeRepository, times(20))
+        .creditStripe(eq(10L), stripeIndex.capture(), eq(BigDecimal.TEN));
+    assertTrue(stripeIndex.getAllValues().stream().allMatch(index -> index >= 0 && index < 4));
+    verify(accountRepository, never()).save(any(Account.class));
+  }
+
+  @Test
+  void consolidate_ShouldMoveStripeBalancesIntoAccount() {
+    // Arrange
+    merchantAccount.setBalanceStripes(3);
+    AccountBalanceStripe first = stripe(0, "25.00");
+    AccountBalanceStripe second = stripe(1, "0.00");
+    AccountBalanceStripe third = stripe(2, "75.50");
+    when(stripeRepository.findAllByAccountIdWithLock(10L))
+        .thenReturn(List.of(first, second, third));
+
+    // Act
+    BigDecimal consolidated = balanceStripeService.consolidate(merchantAccount);
+
+    // Assert
+    assertEquals(new BigDecimal("100.50"), consolidated);
+    assertEquals(new BigDecimal("200.50"), merchantAccount.getBalance());
+    assertEquals(0, first.getBalance().signum());
+    assertEquals(0, third.getBalance().signum());
+  }
+
+  @Test
+  void consolidate_WithAccountNotStriped_ShouldNotTouchStripes() {
+    // Act
+    BigDecimal consolidated = balanceStripeService.consolidate(merchantAccount);
+
+    // Assert
+    assertEquals(BigDecimal.ZERO, consolidated);
+    verifyNoInteractions(stripeRepository);
+  }
+
+  @Test
+  void refreshStripedAccounts_ShouldReplaceKnownAccounts() {
+    // Arrange
+    merchantAccount.setBalanceStripes(null);
+    balanceStripeService.enableStriping(merchantAccount, 2);
+    when(accountRepository.findStripedAccountNumbers()).thenReturn(List.of("OTHER-ACC"));
+
+    // Act
+    balanceStripeService.refreshStripedAccounts();
+
+    // Assert
+    assertFalse(balanceStripeService.isStriped("MERCHANT-ACC"));
+    assertTrue(balanceStripeService.isStriped("OTHER-ACC"));
+  }
+
+  private AccountBalanceStripe stripe(int index, String balance) {
+    AccountBalanceStripe stripe = new AccountBalanceStripe(merchantAccount, index);
+    stripe.setBalance(new BigDecimal(balance));
+    return stripe;
+  }
+}
@@ -0,0 +1,310 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.dto.BatchTransferRequestDTO;
+import com.example.financeservice.dto.BatchTransferResultDTO;
+import com.example.financeservice.dto.TransferDTO;
+import com.example.financeservice.exception.InsufficientFundsException;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.Merchant;
+import com.example.financeservice.repository.AccountBalanceStripeRepository;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.MerchantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Striped merchant balances against a real database: concurrent credits land on the stripes
+ * without touching the account row, and reads, debits and the consolidator all see the
+ * aggregated balance.
+ */
+@Import(BalanceStripeConsolidator.class)
+class BalanceStripingTest extends AbstractServiceJpaTest {
+
+  private static final int THREADS = 8;
+  private static final int TRANSFERS_PER_THREAD = 25;
+  private static final String MERCHANT_ACCOUNT = "STRIPED-MERCHANT";
+  private static final String OTHER_MERCHANT_ACCOUNT = "OTHER-STRIPED-MERCHANT";
+
+  @Autowired
+  private TransactionService transactionService;
+
+  @Autowired
+  private AccountService accountService;
+
+  @Autowired
+  private BalanceStripeConsolidator balanceStripeConsolidator;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private AccountBalanceStripeRepository stripeRepository;
+
+  @Autowired
+  private MerchantRepository merchantRepository;
+
+  @BeforeEach
+  void setUp() {
+    Merchant merchant = new Merchant();
+    merchant.setBusinessName("Striped Merchant");
+    merchant.setEmail("striped@example.com");
+    merchant.setNif("999999990");
+    merchant.setPhone("+351000000000");
+    merchant = merchantRepository.save(merchant);
+
+    Account merchantAccount = newAccount(MERCHANT_ACCOUNT, "0");
+    merchantAccount.setType(Account.AccountType.BUSINESS);
+    merchantAccount.setMerchant(merchant);
+    accountRepository.save(merchantAccount);
+
+    for (int i = 0; i < THREADS; i++) {
+      accountRepository.save(newAccount("PAYER-" + i, "1000.00"));
+    }
+
+    accountService.enableBalanceStriping(MERCHANT_ACCOUNT, 8);
+  }
+
+  @Test
+  void concurrentTransfers_ShouldCreditStripesAndKeepAggregatedBalance() throws Exception {
+    // Arrange
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch startSignal = new CountDownLatch(1);
+    Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    List<Future<?>> futures = new ArrayList<>();
+
+    for (int i = 0; i < THREADS; i++) {
+      String payer = "PAYER-" + i;
+      futures.add(executor.submit(() -> {
+        startSignal.await();
+        for (int j = 0; j < TRANSFERS_PER_THREAD; j++) {
+          try {
+            transactionService.transfer(TransferDTO.builder()
+                .sourceAccountNumber(payer)
+                .destinationAccountNumber(MERCHANT_ACCOUNT)
+                .amount(BigDecimal.ONE)
+                .description("Striping test")
+                .build());
+          } catch (Exception e) {
+            failures.add(e);
+          }
+        }
+        return null;
+      }));
+    }
+
+    // Act
+    startSignal.countDown();
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    // Assert
+    assertTrue(failures.isEmpty(), () -> "Transfers failed: " + failures);
+    BigDecimal expected = BigDecimal.valueOf(THREADS * TRANSFERS_PER_THREAD);
+
+    // The account row was never updated; every credit sits in the stripes
+    assertEquals(0, accountBalance().signum());
+    assertEquals(0, expected.compareTo(stripesBalance()));
+    assertEquals(0, expected.compareTo(
+        accountService.getAccountByNumber(MERCHANT_ACCOUNT).getBalance()));
+  }
+
+  @Test
+  void opposingTransfers_BetweenStripedMerchants_ShouldNotDeadlock() throws Exception {
+    // Arrange: every transfer moves the whole balance of its source, which sits in the stripes,
+    // so each one consolidates its source and credits a stripe of the other merchant
+    Merchant otherMerchant = new Merchant();
+    otherMerchant.setBusinessName("Other Striped Merchant");
+    otherMerchant.setEmail("other-striped@example.com");
+    otherMerchant.setNif("999999991");
+    otherMerchant.setPhone("+351000000001");
+    otherMerchant = merchantRepository.save(otherMerchant);
+
+    Account otherAccount = newAccount(OTHER_MERCHANT_ACCOUNT, "0");
+    otherAccount.setType(Account.AccountType.BUSINESS);
+    otherAccount.setMerchant(otherMerchant);
+    accountRepository.save(otherAccount);
+    accountService.enableBalanceStriping(OTHER_MERCHANT_ACCOUNT, 8);
+
+    BigDecimal amount = new BigDecimal("100.00");
+    transactionService.deposit(MERCHANT_ACCOUNT, amount, "Sale");
+    transactionService.deposit(OTHER_MERCHANT_ACCOUNT, amount, "Sale");
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch startSignal = new CountDownLatch(1);
+    Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    List<Future<?>> futures = new ArrayList<>();
+
+    for (int i = 0; i < THREADS; i++) {
+      String source = i % 2 == 0 ? MERCHANT_ACCOUNT : OTHER_MERCHANT_ACCOUNT;
+      String destination = i % 2 == 0 ? OTHER_MERCHANT_ACCOUNT : MERCHANT_ACCOUNT;
+      futures.add(executor.submit(() -> {
+        startSignal.await();
+        for (int j = 0; j < TRANSFERS_PER_THREAD; j++) {
+          try {
+            transactionService.transfer(TransferDTO.builder()
+                .sourceAccountNumber(source)
+                .destinationAccountNumber(destination)
+                .amount(amount)
+                .description("Striping deadlock test")
+                .build());
+          } catch (InsufficientFundsException e) {
+            // The source already sent its balance and has not received it back yet
+          } catch (Exception e) {
+            failures.add(e);
+          }
+        }
+        return null;
+      }));
+    }
+
+    // Act
+    startSignal.countDown();
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    // Assert
+    assertTrue(failures.isEmpty(), () -> "Transfers failed: " + failures);
+    assertEquals(0, new BigDecimal("200.00").compareTo(
+        accountService.getAccountByNumber(MERCHANT_ACCOUNT).getBalance()
+            .add(accountService.getAccountByNumber(OTHER_MERCHANT_ACCOUNT).getBalance())));
+  }
+
+  @Test
+  void withdraw_WhenConsolidatedBalanceIsShort_ShouldFoldStripesFirst() {
+    // Arrange
+    for (int i = 0; i < 3; i++) {
+      transactionService.deposit(MERCHANT_ACCOUNT, new BigDecimal("50.00"), "Sale");
+    }
+
+    // Act
+    transactionService.withdraw(MERCHANT_ACCOUNT, new BigDecimal("120.00"), "Settlement");
+
+    // Assert
+    assertEquals(0, new BigDecimal("30.00").compareTo(accountBalance()));
+    assertEquals(0, stripesBalance().signum());
+  }
+
+  @Test
+  void transferBatch_WhenRejected_ShouldLeaveTheStripesAlone() {
+    // Arrange: 150 in the stripes, nothing on the row
+    for (int i = 0; i < 3; i++) {
+      transactionService.deposit(MERCHANT_ACCOUNT, new BigDecimal("50.00"), "Sale");
+    }
+
+    // Act: the second item cannot be covered even with the stripes
+    BatchTransferResultDTO result = transactionService.transferBatch(batch(
+        new BigDecimal("100.00"), new BigDecimal("100.00")));
+
+    // Assert
+    assertFalse(result.isCommitted());
+    assertEquals(0, accountBalance().signum());
+    assertEquals(0, new BigDecimal("150.00").compareTo(stripesBalance()));
+  }
+
+  @Test
+  void transferBatch_WhenTheRowBalanceIsShort_ShouldFoldStripesFirst() {
+    // Arrange
+    for (int i = 0; i < 3; i++) {
+      transactionService.deposit(MERCHANT_ACCOUNT, new BigDecimal("50.00"), "Sale");
+    }
+
+    // Act
+    BatchTransferResultDTO result = transactionService.transferBatch(batch(
+        new BigDecimal("100.00"), new BigDecimal("20.00")));
+
+    // Assert
+    assertTrue(result.isCommitted());
+    assertEquals(0, new BigDecimal("30.00").compareTo(accountBalance()));
+    assertEquals(0, stripesBalance().signum());
+  }
+
+  @Test
+  void transferBatch_WhenTheRowBalanceCoversTheDebits_ShouldNotFoldStripes() {
+    // Arrange
+    accountService.disableBalanceStriping(MERCHANT_ACCOUNT);
+    transactionService.deposit(MERCHANT_ACCOUNT, new BigDecimal("100.00"), "Sale");
+    accountService.enableBalanceStriping(MERCHANT_ACCOUNT, 8);
+    transactionService.deposit(MERCHANT_ACCOUNT, new BigDecimal("50.00"), "Sale");
+
+    // Act
+    BatchTransferResultDTO result = transactionService.transferBatch(batch(
+        new BigDecimal("60.00"), new BigDecimal("40.00")));
+
+    // Assert
+    assertTrue(result.isCommitted());
+    assertEquals(0, accountBalance().signum());
+    assertEquals(0, new BigDecimal("50.00").compareTo(stripesBalance()));
+  }
+
+  @Test
+  void consolidateAll_ShouldFoldStripesIntoAccountBalance() {
+    // Arrange
+    transactionService.deposit(MERCHANT_ACCOUNT, new BigDecimal("40.00"), "Sale");
+    accountService.deposit(MERCHANT_ACCOUNT, new BigDecimal("60.00"));
+
+    // Act
+    balanceStripeConsolidator.consolidateAll();
+
+    // Assert
+    assertEquals(0, new BigDecimal("100.00").compareTo(accountBalance()));
+    assertEquals(0, stripesBalance().signum());
+    assertEquals(0, new BigDecimal("100.00").compareTo(
+        accountService.getAccountByNumber(MERCHANT_ACCOUNT).getBalance()));
+  }
+
+  @Test
+  void disableBalanceStriping_ShouldKeepBalanceAndRemoveStripes() {
+    // Arrange
+    transactionService.deposit(MERCHANT_ACCOUNT, new BigDecimal("75.00"), "Sale");
+
+    // Act
+    accountService.disableBalanceStriping(MERCHANT_ACCOUNT);
+
+    // Assert
+    assertEquals(0, new BigDecimal("75.00").compareTo(accountBalance()));
+    assertEquals(0, stripeRepository.count());
+    assertNull(accountService.getAccountByNumber(MERCHANT_ACCOUNT).getBalanceStripes());
+  }
+
+  private BatchTransferRequestDTO batch(BigDecimal... amounts) {
+    List<TransferDTO> transfers = new ArrayList<>();
+    for (int i = 0; i < amounts.length; i++) {
+      transfers.add(TransferDTO.builder()
+          .sourceAccountNumber(MERCHANT_ACCOUNT)
+          .destinationAccountNumber("PAYER-" + i)
+          .amount(amounts[i])
+          .description("Refund")
+          .build());
+    }
+    return BatchTransferRequestDTO.builder()
+        .transfers(transfers)
+        .build();
+  }
+
+  private BigDecimal accountBalance() {
+    return accountRepository.findByAccountNumber(MERCHANT_ACCOUNT).orElseThrow().getBalance();
+  }
+
+  private BigDecimal stripesBalance() {
+    return stripeRepository.sumBalanceByAccountNumber(MERCHANT_ACCOUNT);
+  }
+}
@@ -0,0 +1,170 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.dto.AccountDTO;
+import com.example.financeservice.dto.CursorPageDTO;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.Client;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.ClientRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pages through whole tables by cursor and exports them as compressed NDJSON from a real
+ * database. The fetch size is smaller than the tables, so the exports span several fetches.
+ */
+@TestPropertySource(properties = "finance.export.fetch-size=2")
+@Import({BulkExportService.class, BulkExportTest.TestConfig.class})
+class BulkExportTest extends AbstractServiceJpaTest {
+
+  private static final int ACCOUNT_COUNT = 5;
+
+  @Autowired
+  private BulkExportService bulkExportService;
+
+  @Autowired
+  private AccountService accountService;
+
+  @Autowired
+  private TransactionService transactionService;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private ClientRepository clientRepository;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @TestConfiguration
+  static class TestConfig {
+
+    @Bean
+    ObjectMapper objectMapper() {
+      return new ObjectMapper().findAndRegisterModules()
+          .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    Client client = new Client();
+    client.setName("Export Client");
+    client.setEmail("export@example.com");
+    client.setDocumentNumber("EXPORT-DOC");
+    client.setPhone("5550000000");
+    client = clientRepository.save(client);
+
+    for (int i = 0; i < ACCOUNT_COUNT; i++) {
+      Account account = new Account();
+      account.setAccountNumber("BULK-" + i);
+      account.setType(Account.AccountType.CHECKING);
+      account.setBalance(new BigDecimal("100.00"));
+      account.setStatus(Account.AccountStatus.ACTIVE);
+      account.setClient(client);
+      accountRepository.save(account);
+    }
+  }
+
+  @Test
+  void getAccounts_ShouldWalkTheTableByCursorWithoutGapsOrDuplicates() {
+    // Act
+    List<String> accountNumbers = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      CursorPageDTO<AccountDTO> page = accountService.getAccounts(cursor, 2);
+      page.getItems().forEach(account -> accountNumbers.add(account.getAccountNumber()));
+      cursor = page.getNextCursor();
+      pages++;
+    } while (cursor != null);
+
+    // Assert
+    assertEquals(3, pages);
+    assertEquals(List.of("BULK-0", "BULK-1", "BULK-2", "BULK-3", "BULK-4"), accountNumbers);
+  }
+
+  @Test
+  void exportAccounts_ShouldWriteEveryRowWithItsOwner() throws IOException {
+    // Act
+    List<JsonNode> rows = export(BulkExportService.Table.ACCOUNTS);
+
+    // Assert
+    assertEquals(ACCOUNT_COUNT, rows.size());
+    for (int i = 0; i < ACCOUNT_COUNT; i++) {
+      assertEquals("BULK-" + i, rows.get(i).get("accountNumber").asText());
+      assertEquals("Export Client", rows.get(i).get("ownerName").asText());
+      assertEquals(0,
+          new BigDecimal("100.00").compareTo(rows.get(i).get("balance").decimalValue()));
+    }
+  }
+
+  @Test
+  void exportTransactions_ShouldWriteEveryRowAndRecordThroughput() throws IOException {
+    // Arrange
+    transactionService.deposit("BULK-0", new BigDecimal("10.00"), "First");
+    transactionService.withdraw("BULK-1", new BigDecimal("20.00"), "Second");
+    transactionService.deposit("BULK-2", new BigDecimal("30.00"), "Third");
+
+    // Act
+    List<JsonNode> rows = export(BulkExportService.Table.TRANSACTIONS);
+
+    // Assert
+    assertEquals(List.of("First", "Second", "Third"),
+        rows.stream().map(row -> row.get("description").asText()).toList());
+    assertEquals("BULK-1", rows.get(1).get("sourceAccountNumber").asText());
+    assertEquals(3.0, meterRegistry.get("finance.export.rows")
+        .tag("table", "TRANSACTIONS").counter().count());
+    assertTrue(meterRegistry.get("finance.export.bytes")
+        .tag("table", "TRANSACTIONS").counter().count() > 0);
+    assertEquals(1, meterRegistry.get("finance.export.throughput")
+        .tag("table", "TRANSACTIONS").summary().count());
+  }
+
+  @Test
+  void exportClients_ShouldWriteEveryRow() throws IOException {
+    // Act
+    List<JsonNode> rows = export(BulkExportService.Table.CLIENTS);
+
+    // Assert
+    assertEquals(1, rows.size());
+    assertEquals("export@example.com", rows.get(0).get("email").asText());
+  }
+
+  private List<JsonNode> export(BulkExportService.Table table) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    bulkExportService.export(table).writeTo(out);
+
+    List<JsonNode> rows = new ArrayList<>();
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+      for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList()) {
+        rows.add(objectMapper.readTree(line));
+      }
+    }
+    return rows;
+  }
+}
@@ -1,18 +1,21 @@
 package com.example.financeservice.service;
 
 import com.example.financeservice.dto.ClientDTO;
+import com.example.financeservice.dto.CursorPageDTO;
+import com.example.financeservice.exception.InvalidTransactionException;
 import com.example.financeservice.exception.ResourceAlreadyExistsException;
 import com.example.financeservice.exception.ResourceNotFoundException;
 import com.example.financeservice.model.Client;
+import com.example.financeservice.repository.AccountRepository;
 import com.example.financeservice.repository.ClientRepository;
 import io.micrometer.core.instrument.Timer;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,6 +25,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -30,6 +34,7 @@ import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +44,15 @@ class ClientServiceTest {
   @Mock
   private ClientRepository clientRepository;
 
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private AccountCache accountCache;
+
+  @Mock
+  private JournalPostingService journalPostingService;
+
   @Mock
   private MetricsService metricsService;
 
@@ -77,19 +91,26 @@ class ClientServiceTest {
   }
 
   @Test
-  void getAllClients_ShouldReturnListOfClients() {
+  void getClients_ShouldReturnThePageAfterTheCursor() {
     // Given
-    when(clientRepository.findAll()).thenReturn(Collections.singletonList(client));
+    String cursor = KeysetCursor.ofId(0L).encode();
+    Client next = new Client();
+    next.setId(client.getId() + 1);
+    when(clientRepository.findByIdGreaterThanOrderById(0L, Limit.of(2)))
+        .thenReturn(List.of(client, next));
 
     // When
-    List<ClientDTO> result = clientService.getAllClients();
+    CursorPageDTO<ClientDTO> page = clientService.getClients(cursor, 1);
 
     // Then
-    assertNotNull(result);
+    assertNotNull(page);
+    List<ClientDTO> result = page.getItems();
     assertEquals(1, result.size());
     assertEquals(client.getId(), result.getFirst().getId());
     assertEquals(client.getName(), result.getFirst().getName());
-    verify(clientRepository, times(1)).findAll();
+    assertTrue(page.isHasMore());
+    assertEquals(client.getId(), KeysetCursor.decode(page.getNextCursor()).id());
+    verify(clientRepository, times(1)).findByIdGreaterThanOrderById(0L, Limit.of(2));
   }
 
   @Test
@@ -174,6 +195,7 @@ class ClientServiceTest {
     // Given
     when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
     when(clientRepository.save(any(Client.class))).thenReturn(client);
+    when(accountRepository.findAccountNumbersByClientId(1L)).thenReturn(List.of("ACC-1"));
 
     // Mock timer
     Timer.Sample mockSample = mock(Timer.Sample.class);
@@ -202,6 +224,26 @@ class ClientServiceTest {
     verify(clientRepository, times(1)).findById(1L);
     verify(clientRepository, times(1)).save(any(Client.class));
     verify(metricsService, times(1)).recordClientUpdated();
+    verify(accountCache, times(1)).evictAfterCommit(List.of("ACC-1"));
+  }
+
+  @Test
+  @MockitoSettings(strictness = Strictness.LENIENT)
+  void deleteClient_WithPostingsNotWrittenYet_ShouldNotDelete() {
+    // Given
+    when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
+    when(accountRepository.findAccountNumbersByClientId(1L)).thenReturn(List.of("ACC-1"));
+    doThrow(new InvalidTransactionException("Not written yet"))
+        .when(journalPostingService).accountsDeleted(List.of("ACC-1"));
+
+    // Mock timer
+    Timer.Sample mockSample = mock(Timer.Sample.class);
+    when(metricsService.startTimer()).thenReturn(mockSample);
+
+    // When & Then
+    assertThrows(InvalidTransactionException.class, () -> clientService.deleteClient(1L));
+    verify(clientRepository, never()).delete(any(Client.class));
+    verify(metricsService, never()).recordClientDeleted();
   }
 
   @Test
@@ -210,6 +252,7 @@ class ClientServiceTest {
     // Given
     when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
     doNothing().when(clientRepository).delete(client);
+    when(accountRepository.findAccountNumbersByClientId(1L)).thenReturn(List.of("ACC-1"));
 
     // Mock timer
     Timer.Sample mockSample = mock(Timer.Sample.class);
@@ -224,6 +267,8 @@ class ClientServiceTest {
     verify(clientRepository, times(1)).findById(1L);
     verify(clientRepository, times(1)).delete(client);
     verify(metricsService, times(1)).recordClientDeleted();
+    verify(accountCache, times(1)).evictAfterCommit(List.of("ACC-1"));
+    verify(journalPostingService, times(1)).accountsDeleted(List.of("ACC-1"));
   }
 
   @Test
@@ -0,0 +1,201 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.config.JdbcRoundTripCounter;
+import com.example.financeservice.dto.ClientDTO;
+import com.example.financeservice.exception.ResourceNotFoundException;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.Client;
+import com.example.financeservice.model.User;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.ClientRepository;
+import com.example.financeservice.repository.UserRepository;
+import com.example.financeservice.security.TokenAuthenticationCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.orm.jpa.HibernateMetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads clients and users through the Hibernate second-level and query caches: repeated reads take
+ * no statement, and a read after an update or a delete sees it.
+ */
+@ImportAutoConfiguration(HibernateMetricsAutoConfiguration.class)
+@Import({ClientService.class, UserService.class, TokenAuthenticationCache.class,
+    EntityCacheTest.TestConfig.class})
+class EntityCacheTest extends AbstractServiceJpaTest {
+
+  private static final String ACCOUNT_NUMBER = "ENTITY-CACHE-1";
+
+  @Autowired
+  private ClientService clientService;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private AccountService accountService;
+
+  @Autowired
+  private ClientRepository clientRepository;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private JdbcRoundTripCounter roundTripCounter;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @MockBean
+  private EmailService emailService;
+
+  private Long clientId;
+
+  @TestConfiguration
+  static class TestConfig {
+
+    @Bean
+    PasswordEncoder passwordEncoder() {
+      return new BCryptPasswordEncoder();
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    clientId = clientService.createClient(ClientDTO.builder()
+        .name("Cached Client")
+        .email("cached@example.com")
+        .documentNumber("CACHED-DOC")
+        .phone("5550000000")
+        .build()).getId();
+
+    Account account = new Account();
+    account.setAccountNumber(ACCOUNT_NUMBER);
+    account.setType(Account.AccountType.CHECKING);
+    account.setBalance(new BigDecimal("100.00"));
+    account.setStatus(Account.AccountStatus.ACTIVE);
+    account.setClient(clientRepository.getReferenceById(clientId));
+    accountRepository.save(account);
+
+    userService.createUser("cached.user", "secret-password", "cached.user@example.com", "Cached",
+        "User", List.of("ROLE_USER", "ROLE_ADMIN"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    userRepository.deleteAll();
+  }
+
+  @Test
+  void getClientById_ShouldBeServedFromTheSecondLevelCache() {
+    // Arrange
+    clientService.getClientById(clientId);
+
+    // Act
+    ClientDTO client = countingRoundTrips(0, () -> clientService.getClientById(clientId));
+
+    // Assert
+    assertEquals("Cached Client", client.getName());
+    assertTrue(meterRegistry.get("hibernate.second.level.cache.requests")
+        .tags("region", "clients", "result", "hit").functionCounter().count() > 0);
+  }
+
+  @Test
+  void updateClient_ShouldBeVisibleToTheNextReadsOfTheClientAndItsAccounts() {
+    // Arrange
+    clientService.getClientById(clientId);
+    assertEquals("Cached Client", accountService.getAccountByNumber(ACCOUNT_NUMBER).getOwnerName());
+
+    // Act
+    clientService.updateClient(clientId, ClientDTO.builder()
+        .name("Renamed Client")
+        .email("renamed@example.com")
+        .documentNumber("CACHED-DOC")
+        .phone("5550000000")
+        .build());
+
+    // Assert
+    ClientDTO client = clientService.getClientById(clientId);
+    assertEquals("Renamed Client", client.getName());
+    assertEquals("renamed@example.com", client.getEmail());
+    assertEquals("Renamed Client",
+        accountService.getAccountByNumber(ACCOUNT_NUMBER).getOwnerName());
+  }
+
+  @Test
+  void deleteClient_ShouldEvictTheClientAndItsAccounts() {
+    // Arrange
+    clientService.getClientById(clientId);
+    accountService.getAccountByNumber(ACCOUNT_NUMBER);
+
+    // Act
+    clientService.deleteClient(clientId);
+
+    // Assert
+    assertThrows(ResourceNotFoundException.class, () -> clientService.getClientById(clientId));
+    assertThrows(ResourceNotFoundException.class,
+        () -> accountService.getAccountByNumber(ACCOUNT_NUMBER));
+  }
+
+  @Test
+  void loadUserByUsername_ShouldBeServedFromTheQueryAndEntityCaches() {
+    // Arrange
+    userService.loadUserByUsername("cached.user");
+
+    // Act
+    UserDetails user = countingRoundTrips(0, () -> userService.loadUserByUsername("cached.user"));
+
+    // Assert
+    assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), user.getAuthorities().stream()
+        .map(GrantedAuthority::getAuthority)
+        .collect(Collectors.toSet()));
+    assertTrue(meterRegistry.get("hibernate.cache.query.requests")
+        .tag("result", "hit").functionCounter().count() > 0);
+  }
+
+  @Test
+  void updateUser_ShouldBeVisibleToTheNextLookup() {
+    // Arrange
+    User cached = userService.findByUsername("cached.user").orElseThrow();
+
+    // Act
+    userService.updateUser(cached.getId(), "Renamed", null, "renamed.user@example.com");
+
+    // Assert
+    User user = userService.findByUsername("cached.user").orElseThrow();
+    assertEquals("Renamed", user.getFirstName());
+    assertEquals("renamed.user@example.com", user.getEmail());
+    assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), user.getRoles());
+  }
+
+  private <T> T countingRoundTrips(long expected, Supplier<T> call) {
+    long before = roundTripCounter.currentCount();
+    T result = call.get();
+    assertEquals(expected, roundTripCounter.currentCount() - before,
+        "statements executed by the call");
+    return result;
+  }
+}
@@ -0,0 +1,319 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.dto.TransactionDTO;
+import com.example.financeservice.dto.TransferDTO;
+import com.example.financeservice.exception.InsufficientFundsException;
+import com.example.financeservice.exception.PostingUnavailableException;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs concurrent postings through the group commit executor against a real database: they share
+ * transactions, and a posting that fails does not take its group down with it.
+ */
+@TestPropertySource(properties = {
+    "finance.posting.group-commit.enabled=true",
+    "finance.posting.group-commit.window-ms=50",
+    "finance.posting.group-commit.timeout-ms=1000",
+    "finance.posting.group-commit.max-rounds=2"})
+@Import(GroupCommitExecutor.class)
+class GroupCommitTest extends AbstractServiceJpaTest {
+
+  private static final String ACCOUNT_A = "GRP-A";
+  private static final String ACCOUNT_B = "GRP-B";
+
+  @Autowired
+  private GroupCommitExecutor groupCommitExecutor;
+
+  @Autowired
+  private TransactionService transactionService;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @BeforeEach
+  void setUp() {
+    accountRepository.save(newAccount(ACCOUNT_A, "100.00"));
+    accountRepository.save(newAccount(ACCOUNT_B, "100.00"));
+  }
+
+  @Test
+  void concurrentPostings_ShouldShareTransactions() throws Exception {
+    // Arrange
+    long groupsBefore = groupCommits();
+    List<Callable<TransactionDTO>> postings = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      TransferDTO transfer = i % 2 == 0
+          ? transfer(ACCOUNT_A, ACCOUNT_B, "1.00")
+          : transfer(ACCOUNT_B, ACCOUNT_A, "2.00");
+      postings.add(() -> groupCommitExecutor.execute(
+          List.of(transfer.getSourceAccountNumber(), transfer.getDestinationAccountNumber()),
+          () -> transactionService.transfer(transfer)));
+    }
+
+    // Act
+    List<Future<TransactionDTO>> results = runConcurrently(postings);
+
+    // Assert: every caller got its own transaction back, in fewer commits than postings
+    for (Future<TransactionDTO> result : results) {
+      assertNotNull(result.get().getTransactionId());
+    }
+    long groups = groupCommits() - groupsBefore;
+    assertTrue(groups < 20, () -> "20 postings took " + groups + " group commits");
+    assertBalance(ACCOUNT_A, "110.00");
+    assertBalance(ACCOUNT_B, "90.00");
+    assertEquals(20, transactionRepository.count());
+  }
+
+  @Test
+  void failingPosting_ShouldNotFailTheRestOfItsGroup() throws Exception {
+    // Arrange: the overdraft lands in the middle of the group
+    List<Callable<TransactionDTO>> postings = List.of(
+        () -> groupCommitExecutor.execute(List.of(ACCOUNT_A),
+            () -> transactionService.withdraw(ACCOUNT_A, new BigDecimal("30.00"), "Fits")),
+        () -> groupCommitExecutor.execute(List.of(ACCOUNT_A),
+            () -> transactionService.withdraw(ACCOUNT_A, new BigDecimal("500.00"), "Overdraft")),
+        () -> groupCommitExecutor.execute(List.of(ACCOUNT_B),
+            () -> transactionService.deposit(ACCOUNT_B, new BigDecimal("10.00"), "Deposit")));
+
+    // Act
+    List<Future<TransactionDTO>> results = runConcurrently(postings);
+
+    // Assert
+    assertNotNull(results.get(0).get());
+    ExecutionException failure = assertThrows(ExecutionException.class, results.get(1)::get);
+    assertInstanceOf(InsufficientFundsException.class, failure.getCause());
+    assertNotNull(results.get(2).get());
+    assertBalance(ACCOUNT_A, "70.00");
+    assertBalance(ACCOUNT_B, "110.00");
+    assertEquals(2, transactionRepository.count());
+  }
+
+  @Test
+  void failingPosting_ShouldCountTheRestOfItsGroupOnce() throws Exception {
+    // Arrange
+    double succeededBefore = transactions("success");
+    double failedBefore = transactions("failed");
+    double withdrawnBefore = dailyVolume("WITHDRAWAL");
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    // Act: the overdraft follows a posting of its group, which is then run a second time
+    Future<TransactionDTO> fits = executor.submit(() -> groupCommitExecutor.execute(
+        List.of(ACCOUNT_A),
+        () -> transactionService.withdraw(ACCOUNT_A, new BigDecimal("30.00"), "Fits")));
+    Thread.sleep(10);
+    Future<TransactionDTO> overdraft = executor.submit(() -> groupCommitExecutor.execute(
+        List.of(ACCOUNT_A),
+        () -> transactionService.withdraw(ACCOUNT_A, new BigDecimal("500.00"), "Overdraft")));
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+    // Assert: only the committed run of the first posting is counted
+    assertNotNull(fits.get());
+    assertThrows(ExecutionException.class, overdraft::get);
+    assertEquals(1, transactions("success") - succeededBefore);
+    assertEquals(1, transactions("failed") - failedBefore);
+    assertEquals(30.0, dailyVolume("WITHDRAWAL") - withdrawnBefore, 0.001);
+    assertBalance(ACCOUNT_A, "70.00");
+  }
+
+  @Test
+  void failingPostings_ShouldBeRunAloneOnceTheRoundsRunOut() throws Exception {
+    // Arrange: three overdrafts would take four rounds, two are allowed
+    long groupsBefore = groupCommits();
+    double roundsBefore = groupTransactions();
+    List<Callable<TransactionDTO>> postings = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      postings.add(() -> groupCommitExecutor.execute(List.of(ACCOUNT_A),
+          () -> transactionService.withdraw(ACCOUNT_A, new BigDecimal("500.00"), "Overdraft")));
+    }
+    postings.add(() -> groupCommitExecutor.execute(List.of(ACCOUNT_B),
+        () -> transactionService.deposit(ACCOUNT_B, new BigDecimal("10.00"), "Deposit")));
+
+    // Act
+    List<Future<TransactionDTO>> results = runConcurrently(postings);
+
+    // Assert: every posting still gets its own outcome
+    for (int i = 0; i < 3; i++) {
+      ExecutionException failure = assertThrows(ExecutionException.class, results.get(i)::get);
+      assertInstanceOf(InsufficientFundsException.class, failure.getCause());
+    }
+    assertNotNull(results.get(3).get());
+    long groups = groupCommits() - groupsBefore;
+    double rounds = groupTransactions() - roundsBefore;
+    assertTrue(rounds <= 2 * groups, () -> groups + " groups took " + rounds + " transactions");
+    assertBalance(ACCOUNT_A, "100.00");
+    assertBalance(ACCOUNT_B, "110.00");
+    assertEquals(1, transactionRepository.count());
+  }
+
+  @Test
+  void failedCommit_ShouldAnswerOutcomeUnknownWithoutRunningThePostingAgain() {
+    // Arrange: the first commit of the posting fails once every posting of the group ran
+    AtomicBoolean failCommit = new AtomicBoolean(true);
+
+    // Act
+    PostingUnavailableException exception = assertThrows(PostingUnavailableException.class,
+        () -> groupCommitExecutor.execute(List.of(ACCOUNT_A), () -> {
+          if (failCommit.getAndSet(false)) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                  @Override
+                  public void beforeCommit(boolean readOnly) {
+                    throw new IllegalStateException("Commit failed");
+                  }
+                });
+          }
+          return transactionService.deposit(ACCOUNT_A, new BigDecimal("5.00"), "Unknown");
+        }));
+
+    // Assert: the caller has an id to look up, and the posting was not stored a second time
+    assertNotNull(exception.getTransactionId());
+    assertBalance(ACCOUNT_A, "100.00");
+    assertEquals(0, transactionRepository.count());
+  }
+
+  @Test
+  void postingStillQueuedAfterTheTimeout_ShouldBeWithdrawn() throws Exception {
+    // Arrange: the dispatcher is held up by a posting of the previous group
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    Future<TransactionDTO> slow = executor.submit(() -> groupCommitExecutor.execute(
+        List.of(ACCOUNT_A), () -> {
+          running.countDown();
+          await(release);
+          return transactionService.deposit(ACCOUNT_A, new BigDecimal("1.00"), "Slow");
+        }));
+    assertTrue(running.await(10, TimeUnit.SECONDS));
+
+    // Act
+    assertThrows(PostingUnavailableException.class, () -> groupCommitExecutor.execute(
+        List.of(ACCOUNT_B),
+        () -> transactionService.deposit(ACCOUNT_B, new BigDecimal("10.00"), "Queued")));
+    release.countDown();
+
+    // Assert: the slow posting was already running, so its caller waited for it; the withdrawn
+    // one never runs and can be retried
+    assertNotNull(slow.get(10, TimeUnit.SECONDS));
+    executor.shutdown();
+    assertBalance(ACCOUNT_A, "101.00");
+    assertBalance(ACCOUNT_B, "100.00");
+    assertEquals(1, transactionRepository.count());
+  }
+
+  @Test
+  void execute_InsideCallerTransaction_ShouldRunInline() {
+    // Arrange
+    long groupsBefore = groupCommits();
+
+    // Act: the posting has to commit with the caller's transaction, not with a group
+    TransactionDTO result = transactionTemplate.execute(status -> groupCommitExecutor.execute(
+        List.of(ACCOUNT_A),
+        () -> transactionService.deposit(ACCOUNT_A, new BigDecimal("5.00"), "Inline")));
+
+    // Assert
+    assertNotNull(result.getTransactionId());
+    assertEquals(groupsBefore, groupCommits());
+    assertBalance(ACCOUNT_A, "105.00");
+  }
+
+  private List<Future<TransactionDTO>> runConcurrently(List<Callable<TransactionDTO>> postings)
+      throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(postings.size());
+    CountDownLatch startSignal = new CountDownLatch(1);
+    List<Future<TransactionDTO>> results = new ArrayList<>();
+    for (Callable<TransactionDTO> posting : postings) {
+      results.add(executor.submit(() -> {
+        startSignal.await();
+        return posting.call();
+      }));
+    }
+
+    startSignal.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+    return results;
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private double transactions(String status) {
+    Counter counter = meterRegistry.find("finance.transactions.result").tag("status", status)
+        .counter();
+    return counter == null ? 0 : counter.count();
+  }
+
+  private double dailyVolume(String type) {
+    Counter counter = meterRegistry.find("finance.daily_volume").tag("type", type).counter();
+    return counter == null ? 0 : counter.count();
+  }
+
+  private long groupCommits() {
+    DistributionSummary summary = meterRegistry.find("finance.posting.group_commit.postings")
+        .summary();
+    return summary == null ? 0 : summary.count();
+  }
+
+  private double groupTransactions() {
+    DistributionSummary summary = meterRegistry.find("finance.posting.group_commit.transactions")
+        .summary();
+    return summary == null ? 0 : summary.totalAmount();
+  }
+
+  private void assertBalance(String accountNumber, String expected) {
+    BigDecimal balance = accountRepository.findByAccountNumber(accountNumber).orElseThrow()
+        .getBalance();
+    assertEquals(0, new BigDecimal(expected).compareTo(balance),
+        () -> accountNumber + " balance was " + balance);
+  }
+
+  private TransferDTO transfer(String source, String destination, String amount) {
+    return TransferDTO.builder()
+        .sourceAccountNumber(source)
+        .destinationAccountNumber(destination)
+        .amount(new BigDecimal(amount))
+        .build();
+  }
+}
@@ -0,0 +1,231 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.dto.TransactionDTO;
+import com.example.financeservice.exception.IdempotencyKeyConflictException;
+import com.example.financeservice.exception.InsufficientFundsException;
+import com.example.financeservice.exception.InvalidTransactionException;
+import com.example.financeservice.model.IdempotencyRecord;
+import com.example.financeservice.model.Transaction;
+import com.example.financeservice.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class IdempotencyServiceTest {
+
+  @Mock
+  private IdempotencyRecordRepository idempotencyRecordRepository;
+
+  @Mock
+  private TransactionTemplate transactionTemplate;
+
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+  @Mock
+  private MetricsService metricsService;
+
+  @Mock
+  private PostingModeResolver postingModeResolver;
+
+  @InjectMocks
+  private IdempotencyService idempotencyService;
+
+  private TransactionDTO transaction;
+  private AtomicInteger postings;
+
+  @BeforeEach
+  void setUp() {
+    doAnswer(invocation -> {
+      Supplier<?> supplier = invocation.getArgument(2);
+      return supplier.get();
+    }).when(metricsService)
+        .recordRepositoryExecutionTime(anyString(), anyString(), any(Supplier.class));
+
+    when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+      TransactionCallback<?> callback = invocation.getArgument(0);
+      return callback.doInTransaction(null);
+    });
+    when(idempotencyRecordRepository.findByUsernameAndIdempotencyKey(anyString(), anyString()))
+        .thenReturn(Optional.empty());
+    when(postingModeResolver.defaultMode()).thenReturn(PostingMode.PESSIMISTIC);
+
+    idempotencyService.init();
+
+    transaction = TransactionDTO.builder()
+        .id(1L)
+        .transactionId("TX0000000000001")
+        .amount(new BigDecimal("100.00"))
+        .type(Transaction.TransactionType.DEPOSIT)
+        .status(Transaction.TransactionStatus.COMPLETED)
+        .destinationAccountNumber("ACC-1")
+        .processedAt(LocalDateTime.now())
+        .build();
+    postings = new AtomicInteger();
+  }
+
+  @Test
+  void execute_WithoutKey_ShouldRunPostingWithoutStoringIt() {
+    // Act
+    TransactionDTO result = idempotencyService.execute(null, "deposit", request("100.00"),
+        this::post);
+
+    // Assert
+    assertSame(transaction, result);
+    assertEquals(1, postings.get());
+    verifyNoInteractions(idempotencyRecordRepository);
+  }
+
+  @Test
+  void execute_ShouldStoreResponseWithinPostingTransaction() {
+    // Act
+    idempotencyService.execute("key-1", "deposit", request("100.00"), this::post);
+
+    // Assert
+    ArgumentCaptor<IdempotencyRecord> record = ArgumentCaptor.forClass(IdempotencyRecord.class);
+    verify(idempotencyRecordRepository).save(record.capture());
+    assertEquals("key-1", record.getValue().getIdempotencyKey());
+    assertEquals("deposit", record.getValue().getOperation());
+    assertEquals("TX0000000000001", record.getValue().getTransactionId());
+    assertEquals(64, record.getValue().getRequestHash().length());
+    assertTrue(record.getValue().getExpiresAt().isAfter(LocalDateTime.now()));
+    verify(transactionTemplate).execute(any());
+  }
+
+  @Test
+  void execute_WithSameKeyTwice_ShouldReplayFromMemory() {
+    // Act
+    TransactionDTO first = idempotencyService.execute("key-1", "deposit", request("100.00"),
+        this::post);
+    TransactionDTO second = idempotencyService.execute("key-1", "deposit", request("100.00"),
+        this::post);
+
+    // Assert
+    assertEquals(1, postings.get());
+    assertEquals(first, second);
+    verify(idempotencyRecordRepository, times(1))
+        .findByUsernameAndIdempotencyKey(anyString(), anyString());
+    verify(metricsService).recordIdempotentReplay("deposit", "memory");
+  }
+
+  @Test
+  void execute_WithStoredRecord_ShouldReplayWithoutPosting() throws Exception {
+    // Arrange: the key was used before, on another instance or before a restart
+    idempotencyService.execute("key-1", "deposit", request("100.00"), this::post);
+    ArgumentCaptor<IdempotencyRecord> record = ArgumentCaptor.forClass(IdempotencyRecord.class);
+    verify(idempotencyRecordRepository).save(record.capture());
+
+    IdempotencyService otherInstance = new IdempotencyService(idempotencyRecordRepository,
+        transactionTemplate, objectMapper, metricsService, postingModeResolver);
+    otherInstance.init();
+    when(idempotencyRecordRepository.findByUsernameAndIdempotencyKey(anyString(), eq("key-1")))
+        .thenReturn(Optional.of(record.getValue()));
+
+    // Act
+    TransactionDTO replayed = otherInstance.execute("key-1", "deposit", request("100.00"),
+        this::post);
+
+    // Assert
+    assertEquals(1, postings.get());
+    assertEquals(transaction.getTransactionId(), replayed.getTransactionId());
+    assertEquals(0, transaction.getAmount().compareTo(replayed.getAmount()));
+    verify(metricsService).recordIdempotentReplay("deposit", "database");
+  }
+
+  @Test
+  void execute_WithSameKeyAndDifferentRequest_ShouldThrowConflict() {
+    // Arrange
+    idempotencyService.execute("key-1", "deposit", request("100.00"), this::post);
+
+    // Act & Assert
+    assertThrows(IdempotencyKeyConflictException.class,
+        () -> idempotencyService.execute("key-1", "deposit", request("999.00"), this::post));
+    assertEquals(1, postings.get());
+  }
+
+  @Test
+  void execute_WhenPostingFails_ShouldNotRememberTheKey() {
+    // Arrange
+    Supplier<TransactionDTO> failing = () -> {
+      postings.incrementAndGet();
+      throw new InsufficientFundsException("Insufficient funds for withdrawal");
+    };
+
+    // Act
+    assertThrows(InsufficientFundsException.class,
+        () -> idempotencyService.execute("key-1", "withdraw", request("100.00"), failing));
+    TransactionDTO retried = idempotencyService.execute("key-1", "withdraw", request("100.00"),
+        this::post);
+
+    // Assert
+    assertEquals(2, postings.get());
+    assertSame(transaction, retried);
+  }
+
+  @Test
+  void execute_WithBlankKey_ShouldThrowException() {
+    assertThrows(InvalidTransactionException.class,
+        () -> idempotencyService.execute(" ", "deposit", request("100.00"), this::post));
+    assertThrows(InvalidTransactionException.class,
+        () -> idempotencyService.execute("k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1),
+            "deposit", request("100.00"), this::post));
+    assertEquals(0, postings.get());
+  }
+
+  @Test
+  void execute_InJournalMode_ShouldRejectTheKeyWithoutPosting() {
+    // Arrange: journal postings are accepted outside the transaction that stores the key
+    when(postingModeResolver.defaultMode()).thenReturn(PostingMode.JOURNAL);
+
+    // Act & Assert
+    assertThrows(InvalidTransactionException.class,
+        () -> idempotencyService.execute("key-1", "deposit", request("100.00"), this::post));
+    assertEquals(0, postings.get());
+    verifyNoInteractions(idempotencyRecordRepository);
+  }
+
+  @Test
+  void execute_InJournalModeWithoutKey_ShouldRunPosting() {
+    // Arrange
+    when(postingModeResolver.defaultMode()).thenReturn(PostingMode.JOURNAL);
+
+    // Act
+    TransactionDTO result = idempotencyService.execute(null, "deposit", request("100.00"),
+        this::post);
+
+    // Assert
+    assertSame(transaction, result);
+    assertEquals(1, postings.get());
+  }
+
+  private TransactionDTO post() {
+    postings.incrementAndGet();
+    return transaction;
+  }
+
+  private List<Object> request(String amount) {
+    return List.of("ACC-1", new BigDecimal(amount));
+  }
+}
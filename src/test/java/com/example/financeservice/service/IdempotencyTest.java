@@ -0,0 +1,148 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.config.JdbcRoundTripCounter;
+import com.example.financeservice.dto.TransactionDTO;
+import com.example.financeservice.dto.TransferDTO;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.IdempotencyRecordRepository;
+import com.example.financeservice.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Idempotent transfers against a real database: concurrent duplicates post once, and a retry that
+ * reaches an instance without the key in memory is answered from the idempotency_keys table alone.
+ */
+@Import({IdempotencyService.class, IdempotencyTest.TestConfig.class})
+class IdempotencyTest extends AbstractServiceJpaTest {
+
+  private static final int THREADS = 8;
+
+  @Autowired
+  private IdempotencyService idempotencyService;
+
+  @Autowired
+  private TransactionService transactionService;
+
+  @Autowired
+  private IdempotencyRecordRepository idempotencyRecordRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private MetricsService metricsService;
+
+  @Autowired
+  private PostingModeResolver postingModeResolver;
+
+  @Autowired
+  private JdbcRoundTripCounter roundTripCounter;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  private TransferDTO transfer;
+
+  @TestConfiguration
+  static class TestConfig {
+
+    @Bean
+    ObjectMapper objectMapper() {
+      return new ObjectMapper().findAndRegisterModules();
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    accountRepository.save(newAccount("IDEM-ACC-A", "1000.00"));
+    accountRepository.save(newAccount("IDEM-ACC-B", "1000.00"));
+
+    transfer = TransferDTO.builder()
+        .sourceAccountNumber("IDEM-ACC-A")
+        .destinationAccountNumber("IDEM-ACC-B")
+        .amount(new BigDecimal("10.00"))
+        .description("Idempotency test")
+        .build();
+  }
+
+  @Test
+  void concurrentDuplicates_ShouldPostOnce() throws Exception {
+    // Arrange
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch startSignal = new CountDownLatch(1);
+    Set<String> transactionIds = ConcurrentHashMap.newKeySet();
+    List<Future<?>> futures = new ArrayList<>();
+
+    for (int i = 0; i < THREADS; i++) {
+      futures.add(executor.submit(() -> {
+        startSignal.await();
+        TransactionDTO result = idempotencyService.execute("concurrent-key", "transfer",
+            transfer, () -> transactionService.transfer(transfer));
+        transactionIds.add(result.getTransactionId());
+        return null;
+      }));
+    }
+
+    // Act
+    startSignal.countDown();
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    // Assert
+    assertEquals(1, transactionIds.size());
+    assertEquals(1, transactionRepository.count());
+    assertEquals(1, idempotencyRecordRepository.count());
+    assertEquals(0, new BigDecimal("990.00").compareTo(
+        accountRepository.findByAccountNumber("IDEM-ACC-A").orElseThrow().getBalance()));
+  }
+
+  @Test
+  void retryOnOtherInstance_ShouldReplayFromDatabaseWithoutTouchingAccounts() {
+    // Arrange
+    TransactionDTO original = idempotencyService.execute("retry-key", "transfer", transfer,
+        () -> transactionService.transfer(transfer));
+
+    IdempotencyService otherInstance = new IdempotencyService(idempotencyRecordRepository,
+        transactionTemplate, objectMapper, metricsService, postingModeResolver);
+    otherInstance.init();
+    long statementsBefore = roundTripCounter.currentCount();
+
+    // Act
+    TransactionDTO replayed = otherInstance.execute("retry-key", "transfer", transfer,
+        () -> transactionService.transfer(transfer));
+
+    // Assert: one SELECT on idempotency_keys and nothing else
+    assertEquals(1, roundTripCounter.currentCount() - statementsBefore);
+    assertEquals(original.getTransactionId(), replayed.getTransactionId());
+    assertEquals(original.getSourceAccountNumber(), replayed.getSourceAccountNumber());
+    assertEquals(1, transactionRepository.count());
+  }
+}
@@ -0,0 +1,262 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.config.JdbcRoundTripCounter;
+import com.example.financeservice.dto.CursorPageDTO;
+import com.example.financeservice.dto.StatementDTO;
+import com.example.financeservice.dto.TransactionDTO;
+import com.example.financeservice.dto.TransferDTO;
+import com.example.financeservice.exception.InsufficientFundsException;
+import com.example.financeservice.exception.InvalidTransactionException;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.LedgerEntry;
+import com.example.financeservice.model.Transaction;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.LedgerEntryRepository;
+import com.example.financeservice.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the double-entry ledger written by the postings and the account history read from it.
+ */
+class LedgerEntryTest extends AbstractServiceJpaTest {
+
+  private static final String ACCOUNT_A = "LEDGER-A";
+  private static final String ACCOUNT_B = "LEDGER-B";
+
+  @Autowired
+  private TransactionService transactionService;
+
+  @Autowired
+  private AccountService accountService;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private LedgerEntryRepository ledgerEntryRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private JdbcRoundTripCounter roundTripCounter;
+
+  @BeforeEach
+  void setUp() {
+    accountRepository.save(newAccount(ACCOUNT_A, "100.00"));
+    accountRepository.save(newAccount(ACCOUNT_B, "50.00"));
+  }
+
+  @Test
+  void transfer_ShouldWriteDebitAndCreditWithRunningBalances() {
+    // Act
+    TransactionDTO transfer = transactionService.transfer(transfer(ACCOUNT_A, ACCOUNT_B, "30.00"));
+
+    // Assert
+    List<LedgerEntry> debits = entries(ACCOUNT_A);
+    assertEquals(1, debits.size());
+    assertEntry(debits.get(0), LedgerEntry.Direction.DEBIT, "30.00", "70.00");
+    assertEquals(transfer.getTransactionId(), transactionIdOf(debits.get(0)));
+
+    List<LedgerEntry> credits = entries(ACCOUNT_B);
+    assertEquals(1, credits.size());
+    assertEntry(credits.get(0), LedgerEntry.Direction.CREDIT, "30.00", "80.00");
+  }
+
+  @Test
+  void depositAndWithdraw_ShouldWriteOneEntryEach() {
+    // Act
+    transactionService.deposit(ACCOUNT_A, new BigDecimal("25.00"), "Deposit");
+    transactionService.withdraw(ACCOUNT_A, new BigDecimal("40.00"), "Withdrawal");
+
+    // Assert
+    List<LedgerEntry> entries = entries(ACCOUNT_A);
+    assertEquals(2, entries.size());
+    assertEntry(entries.get(0), LedgerEntry.Direction.CREDIT, "25.00", "125.00");
+    assertEntry(entries.get(1), LedgerEntry.Direction.DEBIT, "40.00", "85.00");
+    assertTrue(entries(ACCOUNT_B).isEmpty());
+  }
+
+  @Test
+  void accountDepositAndWithdraw_ShouldNotChangeTheBalanceAsOfAnEarlierInstant()
+      throws InterruptedException {
+    // Arrange
+    LocalDateTime before = LocalDateTime.now();
+    Thread.sleep(5);
+
+    // Act
+    accountService.deposit(ACCOUNT_A, new BigDecimal("25.00"));
+    accountService.withdraw(ACCOUNT_A, new BigDecimal("5.00"));
+
+    // Assert: both went to the ledger, so the history before them is unchanged
+    assertAmount("100.00", accountService.getBalanceAsOf(ACCOUNT_A, before).getBalance());
+    assertAmount("120.00", accountService.getAccountByNumber(ACCOUNT_A).getBalance());
+    List<LedgerEntry> entries = entries(ACCOUNT_A);
+    assertEquals(2, entries.size());
+    assertEntry(entries.get(0), LedgerEntry.Direction.CREDIT, "25.00", "125.00");
+    assertEntry(entries.get(1), LedgerEntry.Direction.DEBIT, "5.00", "120.00");
+  }
+
+  @Test
+  void initialDeposit_ShouldBeRecordedAsADepositWithItsEntry() throws InterruptedException {
+    // Arrange
+    LocalDateTime beforeOpening = LocalDateTime.now();
+    Thread.sleep(5);
+
+    // Act
+    TransactionDTO deposit = transactionTemplate.execute(status -> {
+      Account account = accountRepository.save(newAccount("LEDGER-NEW", "0"));
+      return transactionService.initialDeposit(account, new BigDecimal("40.00"));
+    });
+
+    // Assert
+    assertEquals(Transaction.TransactionType.DEPOSIT, deposit.getType());
+    List<LedgerEntry> entries = entries("LEDGER-NEW");
+    assertEquals(1, entries.size());
+    assertEntry(entries.get(0), LedgerEntry.Direction.CREDIT, "40.00", "40.00");
+    assertAmount("0", accountService.getBalanceAsOf("LEDGER-NEW", beforeOpening).getBalance());
+    assertAmount("40.00", accountService.getAccountByNumber("LEDGER-NEW").getBalance());
+  }
+
+  @Test
+  void rejectedPosting_ShouldWriteNoEntries() {
+    // Act
+    TransferDTO overdraft = transfer(ACCOUNT_A, ACCOUNT_B, "500.00");
+    assertThrows(InsufficientFundsException.class, () -> transactionService.transfer(overdraft));
+
+    // Assert
+    assertEquals(0, ledgerEntryRepository.count());
+  }
+
+  @Test
+  void history_ShouldBeReadFromTheLedgerWithBalances() {
+    // Arrange
+    transactionService.transfer(transfer(ACCOUNT_A, ACCOUNT_B, "10.00"));
+    transactionService.transfer(transfer(ACCOUNT_B, ACCOUNT_A, "5.00"));
+    transactionService.deposit(ACCOUNT_A, new BigDecimal("1.00"), "Deposit");
+
+    // Act
+    StatementDTO statement = transactionService.getAccountStatement(ACCOUNT_A,
+        LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1));
+    Page<TransactionDTO> newestFirst = transactionService.getTransactionsByAccountPaginated(
+        ACCOUNT_A, PageRequest.of(0, 2));
+
+    // Assert: oldest first in the statement, each row with the balance it left behind
+    List<TransactionDTO> transactions = statement.getTransactions();
+    assertEquals(3, transactions.size());
+    assertAmount("90.00", transactions.get(0).getBalanceAfter());
+    assertAmount("95.00", transactions.get(1).getBalanceAfter());
+    assertAmount("96.00", transactions.get(2).getBalanceAfter());
+    assertAmount("96.00", statement.getClosingBalance());
+    assertEquals(ACCOUNT_A, transactions.get(0).getSourceAccountNumber());
+    assertEquals(ACCOUNT_B, transactions.get(0).getDestinationAccountNumber());
+    assertEquals(ACCOUNT_B, transactions.get(1).getSourceAccountNumber());
+    assertNull(transactions.get(2).getSourceAccountNumber());
+
+    assertEquals(3, newestFirst.getTotalElements());
+    assertEquals(2, newestFirst.getContent().size());
+    assertAmount("96.00", newestFirst.getContent().get(0).getBalanceAfter());
+    assertAmount("95.00", newestFirst.getContent().get(1).getBalanceAfter());
+  }
+
+  @Test
+  void history_ShouldPageByCursorWithoutGapsOrDuplicates() {
+    // Arrange
+    for (int i = 1; i <= 5; i++) {
+      transactionService.deposit(ACCOUNT_A, new BigDecimal(i), "Deposit " + i);
+    }
+
+    // Act: a deposit lands between the first and the second page
+    CursorPageDTO<TransactionDTO> first = transactionService.getTransactionsByAccountAfterCursor(
+        ACCOUNT_A, null, 2);
+    transactionService.deposit(ACCOUNT_A, new BigDecimal("100.00"), "While paging");
+    CursorPageDTO<TransactionDTO> second = transactionService.getTransactionsByAccountAfterCursor(
+        ACCOUNT_A, first.getNextCursor(), 2);
+    CursorPageDTO<TransactionDTO> last = transactionService.getTransactionsByAccountAfterCursor(
+        ACCOUNT_A, second.getNextCursor(), 2);
+
+    // Assert: newest first, and the late deposit does not shift the pages already being read
+    assertEquals(List.of("Deposit 5", "Deposit 4"), descriptions(first));
+    assertEquals(List.of("Deposit 3", "Deposit 2"), descriptions(second));
+    assertEquals(List.of("Deposit 1"), descriptions(last));
+    assertTrue(first.isHasMore());
+    assertTrue(second.isHasMore());
+    assertFalse(last.isHasMore());
+    assertNull(last.getNextCursor());
+  }
+
+  @Test
+  void history_ShouldJoinTheAccountNumbersInTheSameStatement() {
+    // Arrange
+    transactionService.transfer(transfer(ACCOUNT_A, ACCOUNT_B, "10.00"));
+    transactionService.transfer(transfer(ACCOUNT_B, ACCOUNT_A, "5.00"));
+
+    // Act
+    long roundTripsBefore = roundTripCounter.currentCount();
+    List<TransactionDTO> history = transactionService.getTransactionsByAccount(ACCOUNT_A);
+    long roundTrips = roundTripCounter.currentCount() - roundTripsBefore;
+
+    // Assert: the account lookup and the history, no lazy account loads per row
+    assertEquals(2, roundTrips);
+    assertEquals(List.of(ACCOUNT_B, ACCOUNT_A),
+        history.stream().map(TransactionDTO::getDestinationAccountNumber).toList());
+  }
+
+  @Test
+  void history_WithTamperedCursor_ShouldBeRejected() {
+    // Act & Assert
+    assertThrows(InvalidTransactionException.class,
+        () -> transactionService.getTransactionsByAccountAfterCursor(ACCOUNT_A, "not-a-cursor",
+            10));
+  }
+
+  private List<String> descriptions(CursorPageDTO<TransactionDTO> page) {
+    return page.getItems().stream().map(TransactionDTO::getDescription).toList();
+  }
+
+  private List<LedgerEntry> entries(String accountNumber) {
+    Account account = accountRepository.findByAccountNumber(accountNumber).orElseThrow();
+    return ledgerEntryRepository.findByAccount(account);
+  }
+
+  private String transactionIdOf(LedgerEntry entry) {
+    return transactionTemplate.execute(status -> transactionRepository
+        .findById(entry.getTransaction().getId()).orElseThrow().getTransactionId());
+  }
+
+  private void assertEntry(LedgerEntry entry, LedgerEntry.Direction direction, String amount,
+      String balanceAfter) {
+    assertEquals(direction, entry.getDirection());
+    assertAmount(amount, entry.getAmount());
+    assertAmount(balanceAfter, entry.getBalanceAfter());
+    assertNotNull(entry.getPostedAt());
+  }
+
+  private void assertAmount(String expected, BigDecimal actual) {
+    assertNotNull(actual);
+    assertEquals(0, new BigDecimal(expected).compareTo(actual),
+        () -> "expected " + expected + " but was " + actual);
+  }
+
+  private TransferDTO transfer(String source, String destination, String amount) {
+    return TransferDTO.builder()
+        .sourceAccountNumber(source)
+        .destinationAccountNumber(destination)
+        .amount(new BigDecimal(amount))
+        .build();
+  }
+}
@@ -229,6 +229,63 @@ class MetricsServiceTest {
         .counter().count());
   }
 
+  @Test
+  void recordRoundTrips_ShouldRecordDistributionPerOperation() {
+    // Act
+    metricsService.recordRoundTrips("transfer", 4);
+    metricsService.recordRoundTrips("transfer", 4);
+    metricsService.recordRoundTrips("deposit", 3);
+
+    // Assert
+    assertEquals(2, registry.get("finance.operations.round_trips")
+        .tag("operation", "transfer")
+        .summary().count());
+    assertEquals(8.0, registry.get("finance.operations.round_trips")
+        .tag("operation", "transfer")
+        .summary().totalAmount());
+    assertEquals(3.0, registry.get("finance.operations.round_trips")
+        .tag("operation", "deposit")
+        .summary().totalAmount());
+  }
+
+  @Test
+  void recordIdempotentReplay_ShouldCountPerOperationAndSource() {
+    // Act
+    metricsService.recordIdempotentReplay("transfer", "memory");
+    metricsService.recordIdempotentReplay("transfer", "database");
+    metricsService.recordIdempotentReplay("transfer", "memory");
+
+    // Assert
+    assertEquals(2.0, registry.get("finance.idempotency.replays")
+        .tag("operation", "transfer")
+        .tag("source", "memory")
+        .counter().count());
+    assertEquals(1.0, registry.get("finance.idempotency.replays")
+        .tag("source", "database")
+        .counter().count());
+  }
+
+  @Test
+  void recordOptimisticPosting_ShouldExportConflictsAndRetriesPerOperation() {
+    // Act
+    metricsService.recordOptimisticAttempt("withdraw", true);
+    metricsService.recordOptimisticAttempt("withdraw", false);
+    metricsService.recordOptimisticRetries("withdraw", 1, "applied");
+
+    // Assert
+    assertEquals(1.0, registry.get("finance.posting.optimistic.attempts")
+        .tag("operation", "withdraw")
+        .tag("result", "conflict")
+        .counter().count());
+    assertEquals(1.0, registry.get("finance.posting.optimistic.attempts")
+        .tag("result", "applied")
+        .counter().count());
+    assertEquals(1.0, registry.get("finance.posting.optimistic.retries")
+        .tag("operation", "withdraw")
+        .tag("outcome", "applied")
+        .summary().totalAmount());
+  }
+
   @Test
   void getRegistry_ShouldReturnTheRegistry() {
     // Act
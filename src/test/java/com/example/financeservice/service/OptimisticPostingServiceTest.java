@@ -0,0 +1,167 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.model.Account;
+import com.example.financeservice.repository.AccountRepository;
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OptimisticPostingServiceTest {
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private MetricsService metricsService;
+
+  @InjectMocks
+  private OptimisticPostingService optimisticPostingService;
+
+  private Account account;
+
+  @BeforeEach
+  void setUp() {
+    doAnswer(invocation -> {
+      Supplier<?> supplier = invocation.getArgument(2);
+      return supplier.get();
+    }).when(metricsService)
+        .recordRepositoryExecutionTime(anyString(), anyString(), any(Supplier.class));
+
+    ReflectionTestUtils.setField(optimisticPostingService, "initialBackoffMillis", 0L);
+
+    account = new Account();
+    account.setId(1L);
+    account.setAccountNumber("ACC-1");
+    account.setBalance(new BigDecimal("100.00"));
+    account.setStatus(Account.AccountStatus.ACTIVE);
+    account.setVersion(7L);
+  }
+
+  @Test
+  void apply_WithoutConflict_ShouldUseSnapshotAndIssueSingleUpdate() {
+    // Arrange
+    when(accountRepository.updateBalanceIfVersion(1L, 7L, new BigDecimal("60.00")))
+        .thenReturn(1);
+
+    // Act
+    boolean applied = optimisticPostingService.apply(account, new BigDecimal("-40.00"),
+        "withdraw");
+
+    // Assert
+    assertTrue(applied);
+    verify(accountRepository, never()).findVersionedBalanceByAccountNumber(anyString());
+    verify(metricsService).recordOptimisticAttempt("withdraw", false);
+    verify(metricsService).recordOptimisticRetries("withdraw", 0, "applied");
+  }
+
+  @Test
+  void apply_AfterVersionConflict_ShouldReReadAndRetry() {
+    // Arrange: another posting moved the balance to 80.00 and the version to 8
+    when(accountRepository.updateBalanceIfVersion(1L, 7L, new BigDecimal("60.00")))
+        .thenReturn(0);
+    when(accountRepository.findVersionedBalanceByAccountNumber("ACC-1"))
+        .thenReturn(Optional.of(view("80.00", Account.AccountStatus.ACTIVE, 8L)));
+    when(accountRepository.updateBalanceIfVersion(1L, 8L, new BigDecimal("40.00")))
+        .thenReturn(1);
+
+    // Act
+    boolean applied = optimisticPostingService.apply(account, new BigDecimal("-40.00"),
+        "withdraw");
+
+    // Assert
+    assertTrue(applied);
+    verify(metricsService).recordOptimisticAttempt("withdraw", true);
+    verify(metricsService).recordOptimisticAttempt("withdraw", false);
+    verify(metricsService).recordOptimisticRetries("withdraw", 1, "applied");
+  }
+
+  @Test
+  void apply_WhenReReadShowsInsufficientFunds_ShouldRejectWithoutUpdating() {
+    // Arrange
+    when(accountRepository.updateBalanceIfVersion(1L, 7L, new BigDecimal("60.00")))
+        .thenReturn(0);
+    when(accountRepository.findVersionedBalanceByAccountNumber("ACC-1"))
+        .thenReturn(Optional.of(view("10.00", Account.AccountStatus.ACTIVE, 8L)));
+
+    // Act
+    boolean applied = optimisticPostingService.apply(account, new BigDecimal("-40.00"),
+        "withdraw");
+
+    // Assert
+    assertFalse(applied);
+    verify(accountRepository, times(1)).updateBalanceIfVersion(anyLong(), anyLong(),
+        any(BigDecimal.class));
+    verify(metricsService).recordOptimisticRetries("withdraw", 1, "rejected");
+  }
+
+  @Test
+  void apply_WithInactiveAccount_ShouldReject() {
+    // Arrange
+    when(accountRepository.findVersionedBalanceByAccountNumber("ACC-1"))
+        .thenReturn(Optional.of(view("100.00", Account.AccountStatus.BLOCKED, 7L)));
+
+    // Act & Assert
+    assertFalse(optimisticPostingService.apply("ACC-1", BigDecimal.TEN, "deposit"));
+    verify(accountRepository, never()).updateBalanceIfVersion(anyLong(), anyLong(),
+        any(BigDecimal.class));
+  }
+
+  @Test
+  void apply_WhenConflictsPersist_ShouldGiveUpAfterMaxAttempts() {
+    // Arrange
+    ReflectionTestUtils.setField(optimisticPostingService, "maxAttempts", 3);
+    when(accountRepository.updateBalanceIfVersion(anyLong(), anyLong(), any(BigDecimal.class)))
+        .thenReturn(0);
+    when(accountRepository.findVersionedBalanceByAccountNumber("ACC-1"))
+        .thenReturn(Optional.of(view("100.00", Account.AccountStatus.ACTIVE, 9L)));
+
+    // Act & Assert
+    assertThrows(ObjectOptimisticLockingFailureException.class,
+        () -> optimisticPostingService.apply(account, BigDecimal.TEN, "deposit"));
+    verify(accountRepository, times(3)).updateBalanceIfVersion(anyLong(), anyLong(),
+        any(BigDecimal.class));
+    verify(metricsService, times(3)).recordOptimisticAttempt("deposit", true);
+    verify(metricsService).recordOptimisticRetries("deposit", 2, "exhausted");
+  }
+
+  private AccountRepository.VersionedBalanceView view(String balance,
+      Account.AccountStatus status, Long version) {
+    return new AccountRepository.VersionedBalanceView() {
+      @Override
+      public Long getId() {
+        return 1L;
+      }
+
+      @Override
+      public BigDecimal getBalance() {
+        return new BigDecimal(balance);
+      }
+
+      @Override
+      public Account.AccountStatus getStatus() {
+        return status;
+      }
+
+      @Override
+      public Long getVersion() {
+        return version;
+      }
+    };
+  }
+}
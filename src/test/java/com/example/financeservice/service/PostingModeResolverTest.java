@@ -0,0 +1,107 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.model.Account;
+import com.example.financeservice.repository.AccountRepository;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PostingModeResolverTest {
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private MetricsService metricsService;
+
+  @BeforeEach
+  void setUp() {
+    doAnswer(invocation -> {
+      Supplier<?> supplier = invocation.getArgument(2);
+      return supplier.get();
+    }).when(metricsService)
+        .recordRepositoryExecutionTime(anyString(), anyString(), any(Supplier.class));
+
+    when(accountRepository.findTypeByAccountNumber("CHK-1"))
+        .thenReturn(Optional.of(Account.AccountType.CHECKING));
+    when(accountRepository.findTypeByAccountNumber("CHK-2"))
+        .thenReturn(Optional.of(Account.AccountType.CHECKING));
+    when(accountRepository.findTypeByAccountNumber("BUS-1"))
+        .thenReturn(Optional.of(Account.AccountType.BUSINESS));
+  }
+
+  @Test
+  void modeFor_WithoutOverrides_ShouldReturnDefaultWithoutLookup() {
+    // Arrange
+    PostingModeResolver resolver = resolver(PostingMode.CONDITIONAL, "");
+
+    // Act & Assert
+    assertEquals(PostingMode.CONDITIONAL, resolver.modeFor("CHK-1"));
+    assertEquals(PostingMode.CONDITIONAL, resolver.modeFor("CHK-1", "BUS-1"));
+    verifyNoInteractions(accountRepository);
+  }
+
+  @Test
+  void modeFor_WithOverride_ShouldUseAccountTypeAndCacheIt() {
+    // Arrange
+    PostingModeResolver resolver = resolver(PostingMode.PESSIMISTIC, "CHECKING:OPTIMISTIC");
+
+    // Act & Assert
+    assertEquals(PostingMode.OPTIMISTIC, resolver.modeFor("CHK-1"));
+    assertEquals(PostingMode.OPTIMISTIC, resolver.modeFor("CHK-1"));
+    assertEquals(PostingMode.PESSIMISTIC, resolver.modeFor("BUS-1"));
+    verify(accountRepository, times(1)).findTypeByAccountNumber("CHK-1");
+  }
+
+  @Test
+  void modeFor_WithAccountsResolvingToDifferentModes_ShouldFallBackToPessimistic() {
+    // Arrange
+    PostingModeResolver resolver = resolver(PostingMode.CONDITIONAL,
+        " CHECKING : OPTIMISTIC , SAVINGS:OPTIMISTIC");
+
+    // Act & Assert
+    assertEquals(PostingMode.OPTIMISTIC, resolver.modeFor("CHK-1", "CHK-2"));
+    assertEquals(PostingMode.PESSIMISTIC, resolver.modeFor("CHK-1", "BUS-1"));
+  }
+
+  @Test
+  void modeFor_WithUnknownAccount_ShouldReturnDefault() {
+    // Arrange
+    PostingModeResolver resolver = resolver(PostingMode.PESSIMISTIC, "CHECKING:OPTIMISTIC");
+    when(accountRepository.findTypeByAccountNumber("MISSING")).thenReturn(Optional.empty());
+
+    // Act & Assert
+    assertEquals(PostingMode.PESSIMISTIC, resolver.modeFor("MISSING"));
+  }
+
+  @Test
+  void constructor_WithUnknownAccountType_ShouldFail() {
+    assertThrows(IllegalArgumentException.class,
+        () -> resolver(PostingMode.PESSIMISTIC, "CURRENT:OPTIMISTIC"));
+  }
+
+  @Test
+  void constructor_WithJournalAndOverrides_ShouldFail() {
+    assertThrows(IllegalArgumentException.class,
+        () -> resolver(PostingMode.JOURNAL, "CHECKING:PESSIMISTIC"));
+    assertThrows(IllegalArgumentException.class,
+        () -> resolver(PostingMode.PESSIMISTIC, "CHECKING:JOURNAL"));
+    assertEquals(PostingMode.JOURNAL, resolver(PostingMode.JOURNAL, "").defaultMode());
+  }
+
+  private PostingModeResolver resolver(PostingMode defaultMode, String modesByType) {
+    return new PostingModeResolver(accountRepository, metricsService, defaultMode, modesByType);
+  }
+}
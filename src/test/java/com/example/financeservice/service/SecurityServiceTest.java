@@ -3,16 +3,23 @@ package com.example.financeservice.service;
 import com.example.financeservice.exception.ResourceNotFoundException;
 import com.example.financeservice.model.User;
 import com.example.financeservice.repository.UserRepository;
+import com.example.financeservice.security.AuthenticatedUser;
+import com.example.financeservice.security.SecurityService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -136,6 +143,26 @@ class SecurityServiceTest {
     assertFalse(result);
   }
 
+  @Test
+  void getCurrentUserId_WithAuthenticatedUserPrincipal_ShouldNotLoadTheUser() {
+    // Arrange
+    AuthenticatedUser principal = new AuthenticatedUser(1L, "testuser", "", true,
+        List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+    try {
+      // Act
+      Long userId = new SecurityService(userRepository).getCurrentUserId();
+
+      // Assert
+      assertEquals(1L, userId);
+      verify(userRepository, never()).findByUsername(anyString());
+    } finally {
+      SecurityContextHolder.clearContext();
+    }
+  }
+
   // Uma versão simplificada para teste que não usa o SecurityContextHolder
   private static class SimplifiedSecurityService {
     private final UserRepository userRepository;
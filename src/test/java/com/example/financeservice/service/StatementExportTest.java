@@ -0,0 +1,161 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.dto.TransferDTO;
+import com.example.financeservice.exception.ResourceNotFoundException;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.LedgerEntry;
+import com.example.financeservice.model.Transaction;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.LedgerEntryRepository;
+import com.example.financeservice.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streams statements out of a real database in both export formats.
+ */
+@Import({StatementExportService.class, StatementExportTest.TestConfig.class})
+class StatementExportTest extends AbstractServiceJpaTest {
+
+  private static final String ACCOUNT_A = "EXPORT-A";
+  private static final String ACCOUNT_B = "EXPORT-B";
+
+  @Autowired
+  private StatementExportService statementExportService;
+
+  @Autowired
+  private TransactionService transactionService;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private LedgerEntryRepository ledgerEntryRepository;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @TestConfiguration
+  static class TestConfig {
+
+    @Bean
+    ObjectMapper objectMapper() {
+      return new ObjectMapper().findAndRegisterModules()
+          .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    accountRepository.save(newAccount(ACCOUNT_A, "100.00"));
+    accountRepository.save(newAccount(ACCOUNT_B, "100.00"));
+  }
+
+  @Test
+  void exportCsv_ShouldWriteHeaderAndOneQuotedLinePerEntry() throws IOException {
+    // Arrange
+    transactionService.deposit(ACCOUNT_A, new BigDecimal("10.00"), "Salary, March");
+    transactionService.transfer(TransferDTO.builder()
+        .sourceAccountNumber(ACCOUNT_A)
+        .destinationAccountNumber(ACCOUNT_B)
+        .amount(new BigDecimal("30.00"))
+        .description("Rent \"flat 2\"")
+        .build());
+
+    // Act
+    List<String> lines = export(ACCOUNT_A, StatementExportService.Format.CSV).lines().toList();
+
+    // Assert
+    assertEquals(3, lines.size());
+    assertTrue(lines.get(0).startsWith("posted_at,transaction_id,type,direction,amount"));
+    assertTrue(lines.get(1).endsWith(",DEPOSIT,CREDIT,10.00,110.00,,\"Salary, March\""),
+        lines.get(1));
+    assertTrue(lines.get(2).endsWith(
+        ",TRANSFER,DEBIT,-30.00,80.00," + ACCOUNT_B + ",\"Rent \"\"flat 2\"\"\""), lines.get(2));
+  }
+
+  @Test
+  void exportNdjson_ShouldWriteOneJsonObjectPerLine() throws IOException {
+    // Arrange
+    transactionService.deposit(ACCOUNT_A, new BigDecimal("10.00"), "Deposit");
+    transactionService.withdraw(ACCOUNT_A, new BigDecimal("4.00"), "Withdrawal");
+
+    // Act
+    List<String> lines = export(ACCOUNT_A, StatementExportService.Format.NDJSON).lines().toList();
+
+    // Assert
+    assertEquals(2, lines.size());
+    JsonNode withdrawal = objectMapper.readTree(lines.get(1));
+    assertEquals("DEBIT", withdrawal.get("direction").asText());
+    assertEquals(0, new BigDecimal("-4.00").compareTo(withdrawal.get("amount").decimalValue()));
+    assertEquals(0, new BigDecimal("106.00").compareTo(
+        withdrawal.get("balanceAfter").decimalValue()));
+  }
+
+  @Test
+  void export_LongerThanOneFetch_ShouldWriteEveryEntryInOrder() throws IOException {
+    // Arrange: well over one fetch of the cursor, so the persistence context is cleared midway
+    int entryCount = Integer.parseInt(LedgerEntryRepository.STREAM_FETCH_SIZE) * 2 + 7;
+    Account account = accountRepository.findByAccountNumber(ACCOUNT_A).orElseThrow();
+    LocalDateTime start = LocalDateTime.now().minusDays(1);
+    List<Transaction> transactions = new ArrayList<>();
+    for (int i = 0; i < entryCount; i++) {
+      Transaction transaction = new Transaction();
+      transaction.setTransactionId("EXPORT-TX-" + i);
+      transaction.setAmount(BigDecimal.ONE);
+      transaction.setType(Transaction.TransactionType.DEPOSIT);
+      transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+      transaction.setDestinationAccount(account);
+      transaction.setProcessedAt(start.plusSeconds(i));
+      transactions.add(transaction);
+    }
+    transactions = transactionRepository.saveAll(transactions);
+    ledgerEntryRepository.saveAll(transactions.stream()
+        .map(transaction -> LedgerEntry.credit(transaction, null))
+        .toList());
+
+    // Act
+    List<String> lines = export(ACCOUNT_A, StatementExportService.Format.CSV).lines().toList();
+
+    // Assert
+    assertEquals(entryCount + 1, lines.size());
+    assertTrue(lines.get(1).contains(",EXPORT-TX-0,"));
+    assertTrue(lines.get(entryCount).contains(",EXPORT-TX-" + (entryCount - 1) + ","));
+  }
+
+  @Test
+  void export_WithUnknownAccount_ShouldFailBeforeStreaming() {
+    // Act & Assert
+    LocalDateTime now = LocalDateTime.now();
+    assertThrows(ResourceNotFoundException.class, () -> statementExportService.export(
+        "UNKNOWN", now.minusDays(1), now, StatementExportService.Format.CSV));
+  }
+
+  private String export(String accountNumber, StatementExportService.Format format)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    statementExportService.export(accountNumber, LocalDateTime.now().minusDays(2),
+        LocalDateTime.now().plusHours(1), format).writeTo(out);
+    return out.toString(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,98 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.dto.TransferDTO;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs opposing transfers (A -> B and B -> A) concurrently against a real database to make sure
+ * the ordered lock acquisition in {@link AccountLockService} never deadlocks.
+ */
+class TransactionServiceConcurrencyTest extends AbstractServiceJpaTest {
+
+  private static final int THREADS = 8;
+  private static final int TRANSFERS_PER_THREAD = 25;
+  private static final String INITIAL_BALANCE = "10000.00";
+
+  @Autowired
+  private TransactionService transactionService;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @BeforeEach
+  void setUp() {
+    accountRepository.save(newAccount("CONC-ACC-A", INITIAL_BALANCE));
+    accountRepository.save(newAccount("CONC-ACC-B", INITIAL_BALANCE));
+  }
+
+  @Test
+  void opposingTransfers_ShouldCompleteWithoutDeadlocks() throws Exception {
+    // Arrange
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch startSignal = new CountDownLatch(1);
+    Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    List<Future<?>> futures = new ArrayList<>();
+
+    for (int i = 0; i < THREADS; i++) {
+      // Half of the workers move money A -> B, the other half B -> A
+      String source = i % 2 == 0 ? "CONC-ACC-A" : "CONC-ACC-B";
+      String destination = i % 2 == 0 ? "CONC-ACC-B" : "CONC-ACC-A";
+
+      futures.add(executor.submit(() -> {
+        startSignal.await();
+        for (int j = 0; j < TRANSFERS_PER_THREAD; j++) {
+          try {
+            transactionService.transfer(TransferDTO.builder()
+                .sourceAccountNumber(source)
+                .destinationAccountNumber(destination)
+                .amount(BigDecimal.ONE)
+                .description("Concurrency test")
+                .build());
+          } catch (Exception e) {
+            failures.add(e);
+          }
+        }
+        return null;
+      }));
+    }
+
+    // Act
+    startSignal.countDown();
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    // Assert
+    assertTrue(failures.isEmpty(), () -> "Transfers failed: " + failures);
+    assertEquals(THREADS * TRANSFERS_PER_THREAD, transactionRepository.count());
+
+    // Same number of transfers in each direction, so the balances must end where they started
+    BigDecimal balanceA = accountRepository.findByAccountNumber("CONC-ACC-A").orElseThrow()
+        .getBalance();
+    BigDecimal balanceB = accountRepository.findByAccountNumber("CONC-ACC-B").orElseThrow()
+        .getBalance();
+    assertEquals(0, new BigDecimal(INITIAL_BALANCE).compareTo(balanceA));
+    assertEquals(0, new BigDecimal(INITIAL_BALANCE).compareTo(balanceB));
+  }
+}
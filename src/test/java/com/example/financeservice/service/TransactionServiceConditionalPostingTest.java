@@ -0,0 +1,144 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.dto.TransferDTO;
+import com.example.financeservice.exception.InsufficientFundsException;
+import com.example.financeservice.exception.InvalidTransactionException;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.LedgerEntry;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.LedgerEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exercises the conditional UPDATE posting mode against a real database.
+ */
+@TestPropertySource(properties = "finance.posting.mode=CONDITIONAL")
+class TransactionServiceConditionalPostingTest extends AbstractServiceJpaTest {
+
+  @Autowired
+  private TransactionService transactionService;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private LedgerEntryRepository ledgerEntryRepository;
+
+  @BeforeEach
+  void setUp() {
+    accountRepository.save(newAccount("COND-ACC-A", "100.00", Account.AccountStatus.ACTIVE));
+    accountRepository.save(newAccount("COND-ACC-B", "0.00", Account.AccountStatus.ACTIVE));
+    accountRepository.save(newAccount("COND-ACC-C", "0.00", Account.AccountStatus.BLOCKED));
+  }
+
+  @Test
+  void transfer_ShouldMoveFundsWithConditionalUpdates() {
+    // Act
+    transactionService.transfer(transfer("COND-ACC-A", "COND-ACC-B", "40.00"));
+
+    // Assert
+    assertBalance("COND-ACC-A", "60.00");
+    assertBalance("COND-ACC-B", "40.00");
+  }
+
+  @Test
+  void transfer_ShouldRecordTheBalancesReadBackAfterTheUpdates() {
+    // Act
+    transactionService.transfer(transfer("COND-ACC-A", "COND-ACC-B", "40.00"));
+    transactionService.deposit("COND-ACC-B", new BigDecimal("5.00"), "Deposit");
+
+    // Assert
+    List<LedgerEntry> debits = ledgerEntryRepository.findByAccount(
+        accountRepository.findByAccountNumber("COND-ACC-A").orElseThrow());
+    List<LedgerEntry> credits = ledgerEntryRepository.findByAccount(
+        accountRepository.findByAccountNumber("COND-ACC-B").orElseThrow());
+    assertEquals(0, new BigDecimal("60.00").compareTo(debits.get(0).getBalanceAfter()));
+    assertEquals(0, new BigDecimal("40.00").compareTo(credits.get(0).getBalanceAfter()));
+    assertEquals(0, new BigDecimal("45.00").compareTo(credits.get(1).getBalanceAfter()));
+  }
+
+  @Test
+  void transfer_WithInsufficientFunds_ShouldLeaveBalancesUntouched() {
+    // Act & Assert
+    TransferDTO transfer = transfer("COND-ACC-A", "COND-ACC-B", "150.00");
+    assertThrows(InsufficientFundsException.class, () -> transactionService.transfer(transfer));
+
+    assertBalance("COND-ACC-A", "100.00");
+    assertBalance("COND-ACC-B", "0.00");
+  }
+
+  @Test
+  void transfer_ToBlockedAccount_ShouldRollBackTheDebit() {
+    // Act & Assert
+    TransferDTO transfer = transfer("COND-ACC-A", "COND-ACC-C", "10.00");
+    assertThrows(InvalidTransactionException.class, () -> transactionService.transfer(transfer));
+
+    assertBalance("COND-ACC-A", "100.00");
+    assertBalance("COND-ACC-C", "0.00");
+  }
+
+  @Test
+  void concurrentWithdrawals_ShouldNeverOverdrawTheAccount() throws Exception {
+    // Arrange: 20 withdrawals of 10.00 race for a balance of 100.00
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    CountDownLatch startSignal = new CountDownLatch(1);
+    AtomicInteger succeeded = new AtomicInteger();
+    AtomicInteger rejected = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>();
+
+    for (int i = 0; i < 20; i++) {
+      futures.add(executor.submit(() -> {
+        startSignal.await();
+        try {
+          transactionService.withdraw("COND-ACC-A", new BigDecimal("10.00"), "Race");
+          succeeded.incrementAndGet();
+        } catch (InsufficientFundsException e) {
+          rejected.incrementAndGet();
+        }
+        return null;
+      }));
+    }
+
+    // Act
+    startSignal.countDown();
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    // Assert
+    assertEquals(10, succeeded.get());
+    assertEquals(10, rejected.get());
+    assertBalance("COND-ACC-A", "0.00");
+  }
+
+  private void assertBalance(String accountNumber, String expected) {
+    BigDecimal balance = accountRepository.findByAccountNumber(accountNumber).orElseThrow()
+        .getBalance();
+    assertEquals(0, new BigDecimal(expected).compareTo(balance),
+        () -> accountNumber + " balance was " + balance);
+  }
+
+  private TransferDTO transfer(String source, String destination, String amount) {
+    return TransferDTO.builder()
+        .sourceAccountNumber(source)
+        .destinationAccountNumber(destination)
+        .amount(new BigDecimal(amount))
+        .build();
+  }
+}
@@ -0,0 +1,355 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.dto.BatchTransferRequestDTO;
+import com.example.financeservice.dto.TransactionDTO;
+import com.example.financeservice.dto.TransferDTO;
+import com.example.financeservice.exception.InsufficientFundsException;
+import com.example.financeservice.exception.InvalidTransactionException;
+import com.example.financeservice.exception.PostingUnavailableException;
+import com.example.financeservice.id.TransactionIdGenerator;
+import com.example.financeservice.journal.JournalEntry;
+import com.example.financeservice.journal.LedgerJournal;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.model.Transaction;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.JournalCheckpointRepository;
+import com.example.financeservice.repository.JournalDeadLetterRepository;
+import com.example.financeservice.repository.LedgerEntryRepository;
+import com.example.financeservice.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Exercises the journal posting mode against a real database: postings are answered from memory
+ * and the journal, and reach the database only when the write-behind flushes them.
+ */
+@TestPropertySource(properties = {
+    "finance.posting.mode=JOURNAL",
+    "finance.journal.segment-size-bytes=1048576"})
+class TransactionServiceJournalPostingTest extends AbstractServiceJpaTest {
+
+  // Account numbers are unique per test, since the journal keeps loaded accounts in memory
+  private static final AtomicInteger RUN = new AtomicInteger();
+
+  private static Path journalDirectory;
+
+  @Autowired
+  private TransactionService transactionService;
+
+  @Autowired
+  private JournalPostingService journalPostingService;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private LedgerEntryRepository ledgerEntryRepository;
+
+  @Autowired
+  private JournalCheckpointRepository checkpointRepository;
+
+  @Autowired
+  private JournalDeadLetterRepository deadLetterRepository;
+
+  @Autowired
+  private AccountLockService accountLockService;
+
+  @Autowired
+  private BalanceStripeService balanceStripeService;
+
+  @Autowired
+  private PostingModeResolver postingModeResolver;
+
+  @Autowired
+  private TransactionIdGenerator transactionIdGenerator;
+
+  @Autowired
+  private MetricsService metricsService;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  private String accountA;
+  private String accountB;
+  private String accountC;
+
+  @DynamicPropertySource
+  static void journalProperties(DynamicPropertyRegistry registry) throws IOException {
+    journalDirectory = Files.createTempDirectory("ledger-journal");
+    registry.add("finance.journal.directory", journalDirectory::toString);
+  }
+
+  @BeforeEach
+  void setUp() {
+    int run = RUN.incrementAndGet();
+    accountA = "JRN-" + run + "-A";
+    accountB = "JRN-" + run + "-B";
+    accountC = "JRN-" + run + "-C";
+    accountRepository.save(newAccount(accountA, "100.00", Account.AccountStatus.ACTIVE));
+    accountRepository.save(newAccount(accountB, "100.00", Account.AccountStatus.ACTIVE));
+    accountRepository.save(newAccount(accountC, "0.00", Account.AccountStatus.BLOCKED));
+  }
+
+  @AfterEach
+  void tearDown() {
+    journalPostingService.flushPending();
+  }
+
+  @Test
+  void transfer_ShouldAnswerFromMemoryAndReachTheDatabaseOnFlush() {
+    // Act
+    TransactionDTO result = transactionService.transfer(transfer(accountA, accountB, "40.00"));
+
+    // Assert: accepted and visible in memory, not in the database yet
+    assertEquals(Transaction.TransactionStatus.COMPLETED, result.getStatus());
+    assertNotNull(result.getTransactionId());
+    assertEquals(0, new BigDecimal("60.00").compareTo(
+        journalPostingService.currentBalance(accountA).orElseThrow()));
+    assertBalance(accountA, "100.00");
+    assertTrue(transactionRepository.findByTransactionId(result.getTransactionId()).isEmpty());
+
+    assertEquals(1, journalPostingService.flush());
+
+    assertBalance(accountA, "60.00");
+    assertBalance(accountB, "140.00");
+    assertTrue(transactionRepository.findByTransactionId(result.getTransactionId()).isPresent());
+    assertTrue(checkpointRepository.findById(0L).orElseThrow().getAppliedSequence() > 0);
+  }
+
+  @Test
+  void postings_ThatFailValidation_ShouldBeRejectedWithoutJournaling() {
+    // Act & Assert
+    assertThrows(InsufficientFundsException.class,
+        () -> transactionService.withdraw(accountA, new BigDecimal("150.00"), "Too much"));
+    TransferDTO toBlocked = transfer(accountA, accountC, "10.00");
+    assertThrows(InvalidTransactionException.class, () -> transactionService.transfer(toBlocked));
+    BatchTransferRequestDTO batch = BatchTransferRequestDTO.builder()
+        .transfers(List.of(transfer(accountA, accountB, "10.00")))
+        .build();
+    assertThrows(InvalidTransactionException.class, () -> transactionService.transferBatch(batch));
+
+    assertEquals(0, journalPostingService.flush());
+    assertEquals(0, new BigDecimal("100.00").compareTo(
+        journalPostingService.currentBalance(accountA).orElseThrow()));
+  }
+
+  @Test
+  void restart_ShouldReplayRecordsTheDatabaseHasNotSeen() {
+    // Arrange: a deposit accepted into the journal but not flushed before the "crash"
+    transactionService.deposit(accountA, new BigDecimal("25.00"), "Before restart");
+
+    // Act: a second instance opens the same journal directory and writes what it replayed
+    JournalPostingService restarted = new JournalPostingService(accountRepository,
+        transactionRepository, ledgerEntryRepository, checkpointRepository, deadLetterRepository,
+        accountLockService,
+        balanceStripeService, postingModeResolver, transactionIdGenerator, metricsService,
+        transactionTemplate);
+    ReflectionTestUtils.setField(restarted, "directory", journalDirectory.toString());
+    ReflectionTestUtils.setField(restarted, "segmentSizeBytes", 1048576);
+    restarted.open();
+    try {
+      assertEquals(1, restarted.flush());
+    } finally {
+      restarted.close();
+    }
+
+    // Assert: applied once, even though the original instance still holds the record
+    assertBalance(accountA, "125.00");
+    journalPostingService.flushPending();
+    assertBalance(accountA, "125.00");
+    assertEquals(1, transactionRepository.count());
+  }
+
+  @Test
+  void durabilityTimeout_ShouldAnswerRetryableWithTheTransactionId() {
+    // Arrange: a journal whose fsync does not complete in time
+    LedgerJournal journal = mock(LedgerJournal.class);
+    AtomicReference<JournalEntry> appended = new AtomicReference<>();
+    when(journal.append(any())).thenAnswer(invocation -> {
+      JournalEntry entry = invocation.<JournalEntry>getArgument(0).withSequence(1);
+      appended.set(entry);
+      return entry;
+    });
+    when(journal.awaitDurable(anyLong(), anyLong())).thenReturn(false);
+    JournalPostingService service = serviceWith(journal, 1);
+
+    // Act
+    PostingUnavailableException exception = assertThrows(PostingUnavailableException.class,
+        () -> service.withdraw(accountA, new BigDecimal("30.00"), "Slow disk"));
+
+    // Assert: the record is still written once durable, so the caller gets its id to look up
+    assertEquals(appended.get().transactionId(), exception.getTransactionId());
+    assertTrue(exception.getMessage().contains(exception.getTransactionId()));
+    assertEquals(0, new BigDecimal("70.00").compareTo(
+        service.currentBalance(accountA).orElseThrow()));
+
+    when(journal.durableEntries(anyInt())).thenReturn(List.of(appended.get()));
+    assertEquals(1, service.flush());
+    assertBalance(accountA, "70.00");
+    assertTrue(transactionRepository.findByTransactionId(exception.getTransactionId())
+        .isPresent());
+  }
+
+  @Test
+  void journalFailure_ShouldRefusePostingsAndDropTheInMemoryBalances() {
+    // Arrange: one posting made durable, then the fsync of the next one fails
+    LedgerJournal journal = mock(LedgerJournal.class);
+    AtomicLong sequence = new AtomicLong();
+    when(journal.append(any())).thenAnswer(invocation -> invocation.<JournalEntry>getArgument(0)
+        .withSequence(sequence.incrementAndGet()));
+    when(journal.awaitDurable(eq(1L), anyLong())).thenReturn(true);
+    when(journal.awaitDurable(eq(2L), anyLong()))
+        .thenThrow(new IllegalStateException("Ledger journal failed"));
+    JournalPostingService service = serviceWith(journal, 2);
+    service.deposit(accountA, new BigDecimal("10.00"), "Durable");
+    assertEquals(0, new BigDecimal("110.00").compareTo(
+        service.currentBalance(accountA).orElseThrow()));
+
+    // Act
+    PostingUnavailableException failed = assertThrows(PostingUnavailableException.class,
+        () -> service.withdraw(accountA, new BigDecimal("30.00"), "Not durable"));
+
+    // Assert: the withdrawal may not be on disk, so no balance is served from memory any more
+    assertNotNull(failed.getTransactionId());
+    assertTrue(service.currentBalance(accountA).isEmpty());
+
+    PostingUnavailableException refused = assertThrows(PostingUnavailableException.class,
+        () -> service.deposit(accountA, new BigDecimal("5.00"), "After the failure"));
+    assertNull(refused.getTransactionId());
+    assertThrows(PostingUnavailableException.class,
+        () -> service.transfer(accountB, accountA, new BigDecimal("5.00"), "After the failure"));
+    verify(journal, times(2)).append(any());
+  }
+
+  @Test
+  void accountsDeleted_WithRecordsNotWrittenYet_ShouldBeRefused() {
+    // Arrange
+    transactionService.transfer(transfer(accountA, accountB, "10.00"));
+    List<String> accounts = List.of(accountB);
+
+    // Act & Assert: refused until the write-behind has stored the transfer
+    assertThrows(InvalidTransactionException.class, () -> transactionTemplate
+        .executeWithoutResult(status -> journalPostingService.accountsDeleted(accounts)));
+    transactionService.deposit(accountB, new BigDecimal("1.00"), "Still accepted");
+
+    journalPostingService.flushPending();
+    transactionTemplate.executeWithoutResult(status -> {
+      journalPostingService.accountsDeleted(accounts);
+      assertThrows(InvalidTransactionException.class,
+          () -> transactionService.deposit(accountB, new BigDecimal("1.00"), "Being deleted"));
+      status.setRollbackOnly();
+    });
+
+    // Rolled back, so the account takes postings again
+    transactionService.deposit(accountB, new BigDecimal("1.00"), "Deletion rolled back");
+    journalPostingService.flushPending();
+    assertBalance(accountB, "112.00");
+  }
+
+  @Test
+  void flush_WhenAnAccountIsGone_ShouldDeadLetterItsRecordsAndGoOn() {
+    // Arrange: a transfer journaled to an account deleted behind the journal's back
+    TransactionDTO lost = transactionService.transfer(transfer(accountA, accountB, "30.00"));
+    transactionService.deposit(accountA, new BigDecimal("5.00"), "After");
+    accountRepository.delete(accountRepository.findByAccountNumber(accountB).orElseThrow());
+
+    // Act
+    journalPostingService.flushPending();
+
+    // Assert: the transfer is set aside, the deposit behind it is applied
+    assertTrue(deadLetterRepository.findById(lost.getTransactionId()).isPresent());
+    assertTrue(transactionRepository.findByTransactionId(lost.getTransactionId()).isEmpty());
+    assertBalance(accountA, "105.00");
+    assertEquals(0, new BigDecimal("105.00").compareTo(
+        journalPostingService.currentBalance(accountA).orElseThrow()));
+    assertEquals(0, journalPostingService.flush());
+  }
+
+  @Test
+  void concurrentOpposingTransfers_ShouldConserveTheTotal() throws Exception {
+    // Arrange: transfers in both directions between the same pair of accounts
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    CountDownLatch startSignal = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+
+    for (int i = 0; i < 40; i++) {
+      TransferDTO transfer = i % 2 == 0
+          ? transfer(accountA, accountB, "1.00")
+          : transfer(accountB, accountA, "2.00");
+      futures.add(executor.submit(() -> {
+        startSignal.await();
+        transactionService.transfer(transfer);
+        return null;
+      }));
+    }
+
+    // Act
+    startSignal.countDown();
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+    journalPostingService.flushPending();
+
+    // Assert: 20 x 1.00 went to B and 20 x 2.00 came back to A
+    assertBalance(accountA, "120.00");
+    assertBalance(accountB, "80.00");
+    assertEquals(40, transactionRepository.count());
+  }
+
+  // A second instance on its own node, so its checkpoint is independent of the shared journal
+  private JournalPostingService serviceWith(LedgerJournal journal, long nodeId) {
+    JournalPostingService service = new JournalPostingService(accountRepository,
+        transactionRepository, ledgerEntryRepository, checkpointRepository, deadLetterRepository,
+        accountLockService,
+        balanceStripeService, postingModeResolver, transactionIdGenerator, metricsService,
+        transactionTemplate);
+    ReflectionTestUtils.setField(service, "journal", journal);
+    ReflectionTestUtils.setField(service, "nodeId", nodeId);
+    return service;
+  }
+
+  private void assertBalance(String accountNumber, String expected) {
+    BigDecimal balance = accountRepository.findByAccountNumber(accountNumber).orElseThrow()
+        .getBalance();
+    assertEquals(0, new BigDecimal(expected).compareTo(balance),
+        () -> accountNumber + " balance was " + balance);
+  }
+
+  private TransferDTO transfer(String source, String destination, String amount) {
+    return TransferDTO.builder()
+        .sourceAccountNumber(source)
+        .destinationAccountNumber(destination)
+        .amount(new BigDecimal(amount))
+        .build();
+  }
+}
@@ -0,0 +1,168 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.dto.TransferDTO;
+import com.example.financeservice.exception.InsufficientFundsException;
+import com.example.financeservice.exception.InvalidTransactionException;
+import com.example.financeservice.model.Account;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exercises the optimistic posting mode against a real database: version-checked updates retry
+ * on conflict and never lose or overdraw a balance.
+ */
+@TestPropertySource(properties = {
+    "finance.posting.mode=OPTIMISTIC",
+    "finance.posting.optimistic.max-attempts=100",
+    "finance.posting.optimistic.max-backoff-ms=10"})
+class TransactionServiceOptimisticPostingTest extends AbstractServiceJpaTest {
+
+  @Autowired
+  private TransactionService transactionService;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() {
+    accountRepository.save(newAccount("OPT-ACC-A", "100.00", Account.AccountStatus.ACTIVE));
+    accountRepository.save(newAccount("OPT-ACC-B", "100.00", Account.AccountStatus.ACTIVE));
+    accountRepository.save(newAccount("OPT-ACC-C", "0.00", Account.AccountStatus.BLOCKED));
+  }
+
+  @Test
+  void transfer_ShouldMoveFundsAndBumpVersions() {
+    // Arrange
+    long versionBefore = version("OPT-ACC-A");
+
+    // Act
+    transactionService.transfer(transfer("OPT-ACC-A", "OPT-ACC-B", "40.00"));
+
+    // Assert
+    assertBalance("OPT-ACC-A", "60.00");
+    assertBalance("OPT-ACC-B", "140.00");
+    assertEquals(versionBefore + 1, version("OPT-ACC-A"));
+  }
+
+  @Test
+  void transfer_ToBlockedAccount_ShouldRollBackTheDebit() {
+    // Act & Assert
+    TransferDTO transfer = transfer("OPT-ACC-A", "OPT-ACC-C", "10.00");
+    assertThrows(InvalidTransactionException.class, () -> transactionService.transfer(transfer));
+
+    assertBalance("OPT-ACC-A", "100.00");
+    assertBalance("OPT-ACC-C", "0.00");
+  }
+
+  @Test
+  void concurrentWithdrawals_ShouldNeverOverdrawTheAccount() throws Exception {
+    // Arrange: 20 withdrawals of 10.00 race for a balance of 100.00
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    CountDownLatch startSignal = new CountDownLatch(1);
+    AtomicInteger succeeded = new AtomicInteger();
+    AtomicInteger rejected = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>();
+
+    for (int i = 0; i < 20; i++) {
+      futures.add(executor.submit(() -> {
+        startSignal.await();
+        try {
+          transactionService.withdraw("OPT-ACC-A", new BigDecimal("10.00"), "Race");
+          succeeded.incrementAndGet();
+        } catch (InsufficientFundsException e) {
+          rejected.incrementAndGet();
+        }
+        return null;
+      }));
+    }
+
+    // Act
+    startSignal.countDown();
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    // Assert
+    assertEquals(10, succeeded.get());
+    assertEquals(10, rejected.get());
+    assertBalance("OPT-ACC-A", "0.00");
+    assertEquals(10.0, meterRegistry.get("finance.posting.optimistic.attempts")
+        .tag("operation", "withdraw")
+        .tag("result", "applied")
+        .counter().count());
+  }
+
+  @Test
+  void concurrentOpposingTransfers_ShouldConserveTheTotal() throws Exception {
+    // Arrange: transfers in both directions between the same pair of accounts
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    CountDownLatch startSignal = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+
+    for (int i = 0; i < 40; i++) {
+      TransferDTO transfer = i % 2 == 0
+          ? transfer("OPT-ACC-A", "OPT-ACC-B", "1.00")
+          : transfer("OPT-ACC-B", "OPT-ACC-A", "2.00");
+      futures.add(executor.submit(() -> {
+        startSignal.await();
+        transactionService.transfer(transfer);
+        return null;
+      }));
+    }
+
+    // Act
+    startSignal.countDown();
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    // Assert: 20 x 1.00 went to B and 20 x 2.00 came back to A
+    assertBalance("OPT-ACC-A", "120.00");
+    assertBalance("OPT-ACC-B", "80.00");
+    assertEquals(40, transactionRepository.count());
+  }
+
+  private long version(String accountNumber) {
+    return accountRepository.findByAccountNumber(accountNumber).orElseThrow().getVersion();
+  }
+
+  private void assertBalance(String accountNumber, String expected) {
+    BigDecimal balance = accountRepository.findByAccountNumber(accountNumber).orElseThrow()
+        .getBalance();
+    assertEquals(0, new BigDecimal(expected).compareTo(balance),
+        () -> accountNumber + " balance was " + balance);
+  }
+
+  private TransferDTO transfer(String source, String destination, String amount) {
+    return TransferDTO.builder()
+        .sourceAccountNumber(source)
+        .destinationAccountNumber(destination)
+        .amount(new BigDecimal(amount))
+        .build();
+  }
+}
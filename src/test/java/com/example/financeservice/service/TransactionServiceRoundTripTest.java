@@ -0,0 +1,154 @@
+package com.example.financeservice.service;
+
+import com.example.financeservice.dto.BatchTransferRequestDTO;
+import com.example.financeservice.dto.BatchTransferResultDTO;
+import com.example.financeservice.dto.PayoutItemDTO;
+import com.example.financeservice.dto.PayoutRequestDTO;
+import com.example.financeservice.dto.PayoutResultDTO;
+import com.example.financeservice.dto.TransferDTO;
+import com.example.financeservice.model.Transaction;
+import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.LedgerEntryRepository;
+import com.example.financeservice.repository.TransactionRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the number of database round trips of the streamlined posting pipeline.
+ */
+// Batch and payout tests write dozens of ledger entries; a large id block keeps sequence calls
+// out of every measured posting
+@TestPropertySource(properties = "finance.id.allocation-size=1000")
+class TransactionServiceRoundTripTest extends AbstractServiceJpaTest {
+
+  @Autowired
+  private TransactionService transactionService;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private LedgerEntryRepository ledgerEntryRepository;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() {
+    accountRepository.save(newAccount("RT-ACC-A", "100.00"));
+    accountRepository.save(newAccount("RT-ACC-B", "100.00"));
+
+    // The first insert fetches a block of ids from the sequence; keep it out of the measurement
+    transactionService.deposit("RT-ACC-B", BigDecimal.ONE, "Warm-up");
+    ledgerEntryRepository.deleteAll();
+    transactionRepository.deleteAll();
+    meterRegistry.clear();
+  }
+
+  @Test
+  void transfer_ShouldUseFiveRoundTrips() {
+    // Act
+    transactionService.transfer(TransferDTO.builder()
+        .sourceAccountNumber("RT-ACC-A")
+        .destinationAccountNumber("RT-ACC-B")
+        .amount(new BigDecimal("25.00"))
+        .build());
+
+    // Assert: lock query, transaction insert, ledger entries insert, one batch with both balance
+    // updates, commit
+    DistributionSummary roundTrips = meterRegistry.get("finance.operations.round_trips")
+        .tag("operation", "transfer")
+        .summary();
+    assertEquals(1, roundTrips.count());
+    assertEquals(5, roundTrips.totalAmount());
+
+    List<Transaction> transactions = transactionRepository.findAll();
+    assertEquals(1, transactions.size());
+    assertEquals(Transaction.TransactionStatus.COMPLETED, transactions.get(0).getStatus());
+    assertNotNull(transactions.get(0).getProcessedAt());
+  }
+
+  @Test
+  void deposit_ShouldUseFiveRoundTrips() {
+    // Act
+    transactionService.deposit("RT-ACC-A", new BigDecimal("10.00"), "Round trips");
+
+    // Assert: lock query, transaction insert, ledger entry insert, balance update, commit
+    assertEquals(5, meterRegistry.get("finance.operations.round_trips")
+        .tag("operation", "deposit")
+        .summary()
+        .totalAmount());
+  }
+
+  @Test
+  void transferBatch_ShouldUseFiveRoundTripsRegardlessOfBatchSize() {
+    // Arrange
+    List<TransferDTO> transfers = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      transfers.add(TransferDTO.builder()
+          .sourceAccountNumber(i % 2 == 0 ? "RT-ACC-A" : "RT-ACC-B")
+          .destinationAccountNumber(i % 2 == 0 ? "RT-ACC-B" : "RT-ACC-A")
+          .amount(i % 2 == 0 ? new BigDecimal("2.00") : BigDecimal.ONE)
+          .build());
+    }
+
+    // Act
+    BatchTransferResultDTO result = transactionService.transferBatch(
+        BatchTransferRequestDTO.builder().transfers(transfers).build());
+
+    // Assert: lock query, one batch of 20 inserts, one batch of 40 ledger entries, one batch of
+    // account updates, commit
+    assertTrue(result.isCommitted());
+    assertEquals(20, result.getSucceeded());
+    assertEquals(5, meterRegistry.get("finance.operations.round_trips")
+        .tag("operation", "transferBatch")
+        .summary()
+        .totalAmount());
+    assertEquals(20, transactionRepository.count());
+    assertEquals(0, new BigDecimal("90.00").compareTo(
+        accountRepository.findByAccountNumber("RT-ACC-A").orElseThrow().getBalance()));
+  }
+
+  @Test
+  void payout_ShouldUseSixRoundTripsRegardlessOfDestinationCount() {
+    // Arrange
+    List<PayoutItemDTO> payouts = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      accountRepository.save(newAccount("RT-PAYEE-" + i, "100.00"));
+      payouts.add(PayoutItemDTO.builder()
+          .destinationAccountNumber("RT-PAYEE-" + i)
+          .amount(new BigDecimal("5.00"))
+          .build());
+    }
+
+    // Act
+    PayoutResultDTO result = transactionService.payout(PayoutRequestDTO.builder()
+        .sourceAccountNumber("RT-ACC-A")
+        .payouts(payouts)
+        .build());
+
+    // Assert: funds check, lock query, one batch of inserts, one batch of ledger entries, one
+    // batch of updates, commit
+    assertEquals(6, meterRegistry.get("finance.operations.round_trips")
+        .tag("operation", "payout")
+        .summary()
+        .totalAmount());
+    assertEquals(10, transactionRepository.count());
+    assertEquals(0, new BigDecimal("50.00").compareTo(result.getSourceBalance()));
+    assertEquals(0, new BigDecimal("105.00").compareTo(
+        accountRepository.findByAccountNumber("RT-PAYEE-9").orElseThrow().getBalance()));
+  }
+}
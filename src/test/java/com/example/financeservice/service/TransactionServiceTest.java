@@ -1,15 +1,25 @@
 package com.example.financeservice.service;
 
+import com.example.financeservice.config.JdbcRoundTripCounter;
+import com.example.financeservice.dto.BatchTransferRequestDTO;
+import com.example.financeservice.dto.BatchTransferResultDTO;
+import com.example.financeservice.dto.CursorPageDTO;
+import com.example.financeservice.dto.PayoutItemDTO;
+import com.example.financeservice.dto.PayoutRequestDTO;
+import com.example.financeservice.dto.PayoutResultDTO;
 import com.example.financeservice.dto.StatementDTO;
 import com.example.financeservice.dto.TransactionDTO;
 import com.example.financeservice.dto.TransferDTO;
 import com.example.financeservice.exception.InsufficientFundsException;
 import com.example.financeservice.exception.InvalidTransactionException;
 import com.example.financeservice.exception.ResourceNotFoundException;
+import com.example.financeservice.id.TransactionIdGenerator;
 import com.example.financeservice.model.Account;
+import com.example.financeservice.model.LedgerEntry;
 import com.example.financeservice.model.Transaction;
 import com.example.financeservice.model.Transaction.TransactionStatus;
 import com.example.financeservice.repository.AccountRepository;
+import com.example.financeservice.repository.LedgerEntryRepository;
 import com.example.financeservice.repository.TransactionRepository;
 import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,6 +30,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -27,8 +38,10 @@ import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Supplier;
@@ -44,12 +57,42 @@ class TransactionServiceTest {
   @Mock
   private TransactionRepository transactionRepository;
 
+  @Mock
+  private LedgerEntryRepository ledgerEntryRepository;
+
   @Mock
   private AccountRepository accountRepository;
 
   @Mock
   private MetricsService metricsService;
 
+  @Mock
+  private AccountLockService accountLockService;
+
+  @Mock
+  private JdbcRoundTripCounter roundTripCounter;
+
+  @Mock
+  private TransactionIdGenerator transactionIdGenerator;
+
+  @Mock
+  private BalanceStripeService balanceStripeService;
+
+  @Mock
+  private PostingModeResolver postingModeResolver;
+
+  @Mock
+  private OptimisticPostingService optimisticPostingService;
+
+  @Mock
+  private JournalPostingService journalPostingService;
+
+  @Mock
+  private BalanceSnapshotService balanceSnapshotService;
+
+  @Mock
+  private AccountCache accountCache;
+
   @Mock
   private Timer.Sample timerSample;
 
@@ -77,6 +120,11 @@ class TransactionServiceTest {
         .recordTransactionProcessed(anyString(), any(BigDecimal.class), anyBoolean());
     doNothing().when(metricsService).recordDailyFinancialVolume(anyString(), any(BigDecimal.class));
 
+    // Nenhuma conta com saldo particionado por padrão
+    when(balanceStripeService.stripedBalance(any(Account.class))).thenReturn(BigDecimal.ZERO);
+    when(balanceStripeService.stripedBalance(anyString())).thenReturn(BigDecimal.ZERO);
+    usePostingMode(PostingMode.PESSIMISTIC);
+
     // Configurar dados de teste
     sourceAccount = new Account();
     sourceAccount.setId(1L);
@@ -110,29 +158,35 @@ class TransactionServiceTest {
   }
 
   @Test
-  void getAllTransactions_ShouldReturnAllTransactions() {
+  void getTransactions_ShouldReturnAPageAndTheNextCursor() {
     // Arrange
     Transaction transaction2 = new Transaction();
     transaction2.setId(2L);
     transaction2.setTransactionId(UUID.randomUUID().toString());
     transaction2.setAmount(new BigDecimal("100.00"));
     transaction2.setType(Transaction.TransactionType.DEPOSIT);
+    transaction2.setDestinationAccount(destinationAccount);
 
-    when(transactionRepository.findAll()).thenReturn(Arrays.asList(transaction, transaction2));
+    when(transactionRepository.findViewPageAfter(0L, Limit.of(2)))
+        .thenReturn(Arrays.asList(view(transaction), view(transaction2)));
 
     // Act
-    List<TransactionDTO> result = transactionService.getAllTransactions();
+    CursorPageDTO<TransactionDTO> result = transactionService.getTransactions(null, 1);
 
     // Assert
     assertNotNull(result);
-    assertEquals(2, result.size());
-    verify(transactionRepository, times(1)).findAll();
+    assertEquals(1, result.getItems().size());
+    assertTrue(result.isHasMore());
+    assertEquals("SOURCE-ACC-123", result.getItems().get(0).getSourceAccountNumber());
+    assertEquals("DEST-ACC-456", result.getItems().get(0).getDestinationAccountNumber());
+    assertEquals(transaction.getId(), KeysetCursor.decode(result.getNextCursor()).id());
+    verify(transactionRepository, times(1)).findViewPageAfter(0L, Limit.of(2));
   }
 
   @Test
   void getTransactionById_WithValidId_ShouldReturnTransaction() {
     // Arrange
-    when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+    when(transactionRepository.findViewById(1L)).thenReturn(Optional.of(view(transaction)));
 
     // Act
     TransactionDTO result = transactionService.getTransactionById(1L);
@@ -142,20 +196,20 @@ class TransactionServiceTest {
     assertEquals(transaction.getId(), result.getId());
     assertEquals(transaction.getTransactionId(), result.getTransactionId());
     assertEquals(transaction.getAmount(), result.getAmount());
-    verify(transactionRepository, times(1)).findById(1L);
+    verify(transactionRepository, times(1)).findViewById(1L);
   }
 
   @Test
   void getTransactionById_WithInvalidId_ShouldThrowException() {
     // Arrange
-    when(transactionRepository.findById(999L)).thenReturn(Optional.empty());
+    when(transactionRepository.findViewById(999L)).thenReturn(Optional.empty());
 
     // Act & Assert
     ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
         () -> transactionService.getTransactionById(999L));
 
     assertEquals("Transaction not found with id: 999", exception.getMessage());
-    verify(transactionRepository, times(1)).findById(999L);
+    verify(transactionRepository, times(1)).findViewById(999L);
     verify(metricsService, times(1)).recordExceptionOccurred("ResourceNotFoundException",
         "getTransactionById");
   }
@@ -164,8 +218,8 @@ class TransactionServiceTest {
   void getTransactionByTransactionId_WithValidId_ShouldReturnTransaction() {
     // Arrange
     String transactionId = transaction.getTransactionId();
-    when(transactionRepository.findByTransactionId(transactionId)).thenReturn(
-        Optional.of(transaction));
+    when(transactionRepository.findViewByTransactionId(transactionId)).thenReturn(
+        Optional.of(view(transaction)));
 
     // Act
     TransactionDTO result = transactionService.getTransactionByTransactionId(transactionId);
@@ -173,7 +227,7 @@ class TransactionServiceTest {
     // Assert
     assertNotNull(result);
     assertEquals(transactionId, result.getTransactionId());
-    verify(transactionRepository, times(1)).findByTransactionId(transactionId);
+    verify(transactionRepository, times(1)).findViewByTransactionId(transactionId);
   }
 
   @Test
@@ -181,7 +235,8 @@ class TransactionServiceTest {
     // Arrange
     when(accountRepository.findByAccountNumber("SOURCE-ACC-123")).thenReturn(
         Optional.of(sourceAccount));
-    when(transactionRepository.findByAccount(sourceAccount)).thenReturn(List.of(transaction));
+    when(ledgerEntryRepository.findViewsByAccount(sourceAccount)).thenReturn(
+        List.of(entryView(LedgerEntry.debit(transaction, new BigDecimal("800.00")))));
 
     // Act
     List<TransactionDTO> result = transactionService.getTransactionsByAccount("SOURCE-ACC-123");
@@ -190,20 +245,23 @@ class TransactionServiceTest {
     assertNotNull(result);
     assertEquals(1, result.size());
     assertEquals(transaction.getId(), result.get(0).getId());
+    assertEquals(new BigDecimal("800.00"), result.get(0).getBalanceAfter());
     verify(accountRepository, times(1)).findByAccountNumber("SOURCE-ACC-123");
-    verify(transactionRepository, times(1)).findByAccount(sourceAccount);
+    verify(ledgerEntryRepository, times(1)).findViewsByAccount(sourceAccount);
   }
 
   @Test
   void getTransactionsByAccountPaginated_WithValidParams_ShouldReturnPaginatedTransactions() {
     // Arrange
     Pageable pageable = PageRequest.of(0, 10);
-    Page<Transaction> transactionPage = new PageImpl<>(List.of(transaction), pageable, 1);
+    Page<LedgerEntryRepository.EntryView> entryPage = new PageImpl<>(
+        List.of(entryView(LedgerEntry.debit(transaction, new BigDecimal("800.00")))), pageable,
+        1);
 
     when(accountRepository.findByAccountNumber("SOURCE-ACC-123")).thenReturn(
         Optional.of(sourceAccount));
-    when(transactionRepository.findByAccountPaginated(sourceAccount, pageable)).thenReturn(
-        transactionPage);
+    when(ledgerEntryRepository.findViewsByAccountPaginated(sourceAccount, pageable)).thenReturn(
+        entryPage);
 
     // Act
     Page<TransactionDTO> result = transactionService.getTransactionsByAccountPaginated(
@@ -214,7 +272,8 @@ class TransactionServiceTest {
     assertEquals(1, result.getTotalElements());
     assertEquals(transaction.getId(), result.getContent().get(0).getId());
     verify(accountRepository, times(1)).findByAccountNumber("SOURCE-ACC-123");
-    verify(transactionRepository, times(1)).findByAccountPaginated(sourceAccount, pageable);
+    verify(ledgerEntryRepository, times(1)).findViewsByAccountPaginated(sourceAccount,
+        pageable);
   }
 
   @Test
@@ -225,8 +284,11 @@ class TransactionServiceTest {
 
     when(accountRepository.findByAccountNumber("SOURCE-ACC-123")).thenReturn(
         Optional.of(sourceAccount));
-    when(transactionRepository.findByAccountAndDateRange(sourceAccount, startDate,
-        endDate)).thenReturn(List.of(transaction));
+    when(ledgerEntryRepository.findViewsByAccountAndPostedAtBetween(sourceAccount, startDate,
+        endDate)).thenReturn(
+        List.of(entryView(LedgerEntry.debit(transaction, new BigDecimal("800.00")))));
+    when(balanceSnapshotService.balanceAt(sourceAccount, startDate)).thenReturn(
+        new BigDecimal("1000.00"));
 
     // Act
     StatementDTO result = transactionService.getAccountStatement("SOURCE-ACC-123", startDate,
@@ -237,28 +299,27 @@ class TransactionServiceTest {
     assertEquals("SOURCE-ACC-123", result.getAccountNumber());
     assertEquals(sourceAccount.getType(), result.getAccountType());
     assertEquals(sourceAccount.getBalance(), result.getCurrentBalance());
+    assertEquals(new BigDecimal("1000.00"), result.getOpeningBalance());
+    assertEquals(new BigDecimal("800.00"), result.getClosingBalance());
     assertEquals(1, result.getTransactions().size());
     verify(accountRepository, times(1)).findByAccountNumber("SOURCE-ACC-123");
-    verify(transactionRepository, times(1)).findByAccountAndDateRange(sourceAccount, startDate,
-        endDate);
+    verify(ledgerEntryRepository, times(1)).findViewsByAccountAndPostedAtBetween(sourceAccount,
+        startDate, endDate);
   }
 
   @Test
   void transfer_WithValidParams_ShouldCompleteTransferSuccessfully() {
     // Arrange
-    when(accountRepository.findByAccountNumberWithLock("SOURCE-ACC-123")).thenReturn(
-        Optional.of(sourceAccount));
-    when(accountRepository.findByAccountNumberWithLock("DEST-ACC-456")).thenReturn(
-        Optional.of(destinationAccount));
-
-    Transaction pendingTransaction = new Transaction();
-    pendingTransaction.setId(1L);
-    pendingTransaction.setTransactionId(UUID.randomUUID().toString());
-    pendingTransaction.setAmount(new BigDecimal("200.00"));
-    pendingTransaction.setType(Transaction.TransactionType.TRANSFER);
-    pendingTransaction.setStatus(Transaction.TransactionStatus.PENDING);
-
-    when(transactionRepository.save(any(Transaction.class))).thenReturn(pendingTransaction);
+    when(accountLockService.lockAccounts("SOURCE-ACC-123", "DEST-ACC-456")).thenReturn(
+        Map.of("SOURCE-ACC-123", sourceAccount, "DEST-ACC-456", destinationAccount));
+
+    String generatedTransactionId = "TX0A1B2C3D4E5F6";
+    when(transactionIdGenerator.nextTransactionId()).thenReturn(generatedTransactionId);
+    when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+      Transaction saved = invocation.getArgument(0);
+      saved.setId(1L);
+      return saved;
+    });
     when(accountRepository.save(any(Account.class))).thenAnswer(
         invocation -> invocation.getArgument(0));
 
@@ -267,19 +328,33 @@ class TransactionServiceTest {
 
     // Assert
     assertNotNull(result);
-    assertEquals(pendingTransaction.getTransactionId(), result.getTransactionId());
+    assertEquals(generatedTransactionId, result.getTransactionId());
     assertEquals(Transaction.TransactionType.TRANSFER, result.getType());
     assertEquals(TransactionStatus.COMPLETED, result.getStatus());
+    assertNotNull(result.getProcessedAt());
 
-    verify(accountRepository, times(1)).findByAccountNumberWithLock("SOURCE-ACC-123");
-    verify(accountRepository, times(1)).findByAccountNumberWithLock("DEST-ACC-456");
-    verify(transactionRepository, times(2)).save(any(Transaction.class));
+    verify(accountLockService, times(1)).lockAccounts("SOURCE-ACC-123", "DEST-ACC-456");
+    // Written once, directly in its final state
+    verify(transactionRepository, times(1)).save(argThat(saved ->
+        saved.getStatus() == TransactionStatus.COMPLETED));
     verify(accountRepository, times(1)).save(sourceAccount);
     verify(accountRepository, times(1)).save(destinationAccount);
     verify(metricsService, times(1)).recordTransactionProcessed("TRANSFER",
         new BigDecimal("200.00"), true);
     verify(metricsService, times(1)).recordDailyFinancialVolume("TRANSFER",
         new BigDecimal("200.00"));
+    // One debit and one credit, each with the balance its account was left with
+    verify(ledgerEntryRepository, times(1)).saveAll(argThat(entries -> {
+      List<LedgerEntry> legs = new ArrayList<>();
+      entries.forEach(legs::add);
+      return legs.size() == 2
+          && legs.get(0).getDirection() == LedgerEntry.Direction.DEBIT
+          && legs.get(0).getAccount() == sourceAccount
+          && new BigDecimal("800.00").equals(legs.get(0).getBalanceAfter())
+          && legs.get(1).getDirection() == LedgerEntry.Direction.CREDIT
+          && legs.get(1).getAccount() == destinationAccount
+          && new BigDecimal("700.00").equals(legs.get(1).getBalanceAfter());
+    }));
   }
 
   @Test
@@ -292,7 +367,7 @@ class TransactionServiceTest {
         () -> transactionService.transfer(transferDTO));
 
     assertEquals("Transfer amount must be positive", exception.getMessage());
-    verify(accountRepository, never()).findByAccountNumberWithLock(anyString());
+    verify(accountLockService, never()).lockAccounts(any());
     verify(transactionRepository, never()).save(any(Transaction.class));
     verify(metricsService, times(1)).recordExceptionOccurred("InvalidTransactionException",
         "transfer");
@@ -310,7 +385,7 @@ class TransactionServiceTest {
         () -> transactionService.transfer(transferDTO));
 
     assertEquals("Source and destination accounts cannot be the same", exception.getMessage());
-    verify(accountRepository, never()).findByAccountNumberWithLock(anyString());
+    verify(accountLockService, never()).lockAccounts(any());
     verify(transactionRepository, never()).save(any(Transaction.class));
     verify(metricsService, times(1)).recordExceptionOccurred("InvalidTransactionException",
         "transfer");
@@ -321,16 +396,15 @@ class TransactionServiceTest {
   @Test
   void transfer_WithNonExistentSourceAccount_ShouldThrowException() {
     // Arrange
-    when(accountRepository.findByAccountNumberWithLock("SOURCE-ACC-123")).thenReturn(
-        Optional.empty());
+    when(accountLockService.lockAccounts("SOURCE-ACC-123", "DEST-ACC-456")).thenReturn(
+        Map.of("DEST-ACC-456", destinationAccount));
 
     // Act & Assert
     ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
         () -> transactionService.transfer(transferDTO));
 
     assertEquals("Source account not found with number: SOURCE-ACC-123", exception.getMessage());
-    verify(accountRepository, times(1)).findByAccountNumberWithLock("SOURCE-ACC-123");
-    verify(accountRepository, never()).findByAccountNumberWithLock("DEST-ACC-456");
+    verify(accountLockService, times(1)).lockAccounts("SOURCE-ACC-123", "DEST-ACC-456");
     verify(transactionRepository, never()).save(any(Transaction.class));
     verify(metricsService, times(1)).recordExceptionOccurred("ResourceNotFoundException",
         "transfer");
@@ -340,18 +414,15 @@ class TransactionServiceTest {
   void transfer_WithInactiveSourceAccount_ShouldThrowException() {
     // Arrange
     sourceAccount.setStatus(Account.AccountStatus.BLOCKED);
-    when(accountRepository.findByAccountNumberWithLock("SOURCE-ACC-123")).thenReturn(
-        Optional.of(sourceAccount));
-    when(accountRepository.findByAccountNumberWithLock("DEST-ACC-456")).thenReturn(
-        Optional.of(destinationAccount));
+    when(accountLockService.lockAccounts("SOURCE-ACC-123", "DEST-ACC-456")).thenReturn(
+        Map.of("SOURCE-ACC-123", sourceAccount, "DEST-ACC-456", destinationAccount));
 
     // Act & Assert
     InvalidTransactionException exception = assertThrows(InvalidTransactionException.class,
         () -> transactionService.transfer(transferDTO));
 
     assertEquals("Source account is not active", exception.getMessage());
-    verify(accountRepository, times(1)).findByAccountNumberWithLock("SOURCE-ACC-123");
-    verify(accountRepository, times(1)).findByAccountNumberWithLock("DEST-ACC-456");
+    verify(accountLockService, times(1)).lockAccounts("SOURCE-ACC-123", "DEST-ACC-456");
     verify(transactionRepository, never()).save(any(Transaction.class));
     verify(metricsService, times(1)).recordExceptionOccurred("InvalidTransactionException",
         "transfer");
@@ -363,18 +434,15 @@ class TransactionServiceTest {
   void transfer_WithInsufficientFunds_ShouldThrowException() {
     // Arrange
     sourceAccount.setBalance(new BigDecimal("100.00"));
-    when(accountRepository.findByAccountNumberWithLock("SOURCE-ACC-123")).thenReturn(
-        Optional.of(sourceAccount));
-    when(accountRepository.findByAccountNumberWithLock("DEST-ACC-456")).thenReturn(
-        Optional.of(destinationAccount));
+    when(accountLockService.lockAccounts("SOURCE-ACC-123", "DEST-ACC-456")).thenReturn(
+        Map.of("SOURCE-ACC-123", sourceAccount, "DEST-ACC-456", destinationAccount));
 
     // Act & Assert
     InsufficientFundsException exception = assertThrows(InsufficientFundsException.class,
         () -> transactionService.transfer(transferDTO));
 
     assertEquals("Insufficient funds in source account", exception.getMessage());
-    verify(accountRepository, times(1)).findByAccountNumberWithLock("SOURCE-ACC-123");
-    verify(accountRepository, times(1)).findByAccountNumberWithLock("DEST-ACC-456");
+    verify(accountLockService, times(1)).lockAccounts("SOURCE-ACC-123", "DEST-ACC-456");
     verify(transactionRepository, never()).save(any(Transaction.class));
     verify(metricsService, times(1)).recordExceptionOccurred("InsufficientFundsException",
         "transfer");
@@ -382,20 +450,379 @@ class TransactionServiceTest {
         new BigDecimal("200.00"), false);
   }
 
+  @Test
+  void transfer_WithConditionalPostingMode_ShouldApplyConditionalUpdatesInIdOrder() {
+    // Arrange
+    usePostingMode(PostingMode.CONDITIONAL);
+    when(accountRepository.findAllByAccountNumberIn(anyCollection()))
+        .thenReturn(List.of(sourceAccount, destinationAccount));
+    when(accountRepository.debitIfSufficientFunds("SOURCE-ACC-123", new BigDecimal("200.00")))
+        .thenReturn(1);
+    when(accountRepository.creditIfActive("DEST-ACC-456", new BigDecimal("200.00")))
+        .thenReturn(1);
+    when(transactionRepository.save(any(Transaction.class))).thenAnswer(
+        invocation -> invocation.getArgument(0));
+
+    // Act
+    TransactionDTO result = transactionService.transfer(transferDTO);
+
+    // Assert
+    assertEquals(TransactionStatus.COMPLETED, result.getStatus());
+    var inOrder = inOrder(accountRepository);
+    inOrder.verify(accountRepository).debitIfSufficientFunds("SOURCE-ACC-123",
+        new BigDecimal("200.00"));
+    inOrder.verify(accountRepository).creditIfActive("DEST-ACC-456", new BigDecimal("200.00"));
+    verify(accountLockService, never()).lockAccounts(any());
+    verify(accountRepository, never()).save(any(Account.class));
+    assertEquals(new BigDecimal("1000.00"), sourceAccount.getBalance());
+    // The running balances are read back after the conditional updates
+    verify(accountRepository).findFundsByAccountNumber("SOURCE-ACC-123");
+    verify(accountRepository).findFundsByAccountNumber("DEST-ACC-456");
+  }
+
+  @Test
+  void transfer_WithConditionalPostingModeAndConcurrentDrain_ShouldThrowInsufficientFunds() {
+    // Arrange
+    usePostingMode(PostingMode.CONDITIONAL);
+    when(accountRepository.findAllByAccountNumberIn(anyCollection()))
+        .thenReturn(List.of(sourceAccount, destinationAccount));
+    // The snapshot still shows enough funds, but the row was drained before the update ran
+    when(accountRepository.debitIfSufficientFunds(anyString(), any(BigDecimal.class)))
+        .thenReturn(0);
+    when(accountRepository.findStatusByAccountNumber("SOURCE-ACC-123"))
+        .thenReturn(Optional.of(Account.AccountStatus.ACTIVE));
+    when(transactionRepository.save(any(Transaction.class))).thenAnswer(
+        invocation -> invocation.getArgument(0));
+
+    // Act & Assert
+    InsufficientFundsException exception = assertThrows(InsufficientFundsException.class,
+        () -> transactionService.transfer(transferDTO));
+
+    assertEquals("Insufficient funds in source account", exception.getMessage());
+    verify(accountRepository, never()).creditIfActive(anyString(), any(BigDecimal.class));
+    verify(metricsService, times(1)).recordTransactionProcessed("TRANSFER",
+        new BigDecimal("200.00"), false);
+  }
+
+  @Test
+  void withdraw_WithConditionalPostingMode_ShouldNotLockAccount() {
+    // Arrange
+    usePostingMode(PostingMode.CONDITIONAL);
+    when(accountRepository.findByAccountNumber("SOURCE-ACC-123")).thenReturn(
+        Optional.of(sourceAccount));
+    when(accountRepository.debitIfSufficientFunds("SOURCE-ACC-123", new BigDecimal("200.00")))
+        .thenReturn(1);
+    when(transactionRepository.save(any(Transaction.class))).thenAnswer(
+        invocation -> invocation.getArgument(0));
+
+    // Act
+    TransactionDTO result = transactionService.withdraw("SOURCE-ACC-123",
+        new BigDecimal("200.00"), "Test withdrawal");
+
+    // Assert
+    assertEquals(TransactionStatus.COMPLETED, result.getStatus());
+    verify(accountRepository, never()).findByAccountNumberWithLock(anyString());
+    verify(accountRepository, times(1)).debitIfSufficientFunds("SOURCE-ACC-123",
+        new BigDecimal("200.00"));
+    verify(accountRepository, never()).save(any(Account.class));
+  }
+
+  @Test
+  void transfer_WithOptimisticPostingMode_ShouldApplyVersionCheckedUpdatesInIdOrder() {
+    // Arrange
+    usePostingMode(PostingMode.OPTIMISTIC);
+    when(accountRepository.findAllByAccountNumberIn(anyCollection()))
+        .thenReturn(List.of(sourceAccount, destinationAccount));
+    when(optimisticPostingService.apply(any(Account.class), any(BigDecimal.class), anyString()))
+        .thenReturn(true);
+    when(transactionRepository.save(any(Transaction.class))).thenAnswer(
+        invocation -> invocation.getArgument(0));
+
+    // Act
+    TransactionDTO result = transactionService.transfer(transferDTO);
+
+    // Assert
+    assertEquals(TransactionStatus.COMPLETED, result.getStatus());
+    var inOrder = inOrder(optimisticPostingService);
+    inOrder.verify(optimisticPostingService).apply(sourceAccount, new BigDecimal("-200.00"),
+        "transfer");
+    inOrder.verify(optimisticPostingService).apply(destinationAccount, new BigDecimal("200.00"),
+        "transfer");
+    verify(accountLockService, never()).lockAccounts(any());
+    verify(accountRepository, never()).debitIfSufficientFunds(anyString(), any(BigDecimal.class));
+    verify(accountRepository, never()).save(any(Account.class));
+  }
+
+  @Test
+  void withdraw_WithOptimisticPostingModeAndConcurrentDrain_ShouldThrowInsufficientFunds() {
+    // Arrange
+    usePostingMode(PostingMode.OPTIMISTIC);
+    when(accountRepository.findByAccountNumber("SOURCE-ACC-123")).thenReturn(
+        Optional.of(sourceAccount));
+    // The snapshot shows enough funds, but the re-read after a version conflict does not
+    when(optimisticPostingService.apply(any(Account.class), any(BigDecimal.class), anyString()))
+        .thenReturn(false);
+    when(accountRepository.findStatusByAccountNumber("SOURCE-ACC-123"))
+        .thenReturn(Optional.of(Account.AccountStatus.ACTIVE));
+
+    // Act & Assert
+    InsufficientFundsException exception = assertThrows(InsufficientFundsException.class,
+        () -> transactionService.withdraw("SOURCE-ACC-123", new BigDecimal("200.00"),
+            "Test withdrawal"));
+
+    assertEquals("Insufficient funds for withdrawal", exception.getMessage());
+    verify(accountRepository, never()).findByAccountNumberWithLock(anyString());
+    verify(transactionRepository, never()).save(any(Transaction.class));
+  }
+
+  @Test
+  void transfer_WithJournalPostingMode_ShouldDelegateToJournalWithoutDatabaseAccess() {
+    // Arrange
+    usePostingMode(PostingMode.JOURNAL);
+    TransactionDTO accepted = TransactionDTO.builder()
+        .transactionId("TX-JOURNAL")
+        .status(TransactionStatus.COMPLETED)
+        .build();
+    when(journalPostingService.transfer("SOURCE-ACC-123", "DEST-ACC-456",
+        new BigDecimal("200.00"), transferDTO.getDescription())).thenReturn(accepted);
+
+    // Act
+    TransactionDTO result = transactionService.transfer(transferDTO);
+
+    // Assert
+    assertSame(accepted, result);
+    verifyNoInteractions(accountLockService, accountRepository, transactionRepository);
+  }
+
+  @Test
+  void transferBatch_WithJournalPostingMode_ShouldThrowException() {
+    // Arrange
+    usePostingMode(PostingMode.JOURNAL);
+    BatchTransferRequestDTO request = BatchTransferRequestDTO.builder()
+        .transfers(List.of(transferDTO))
+        .build();
+
+    // Act & Assert
+    assertThrows(InvalidTransactionException.class, () -> transactionService.transferBatch(request));
+    verify(accountLockService, never()).lockAccounts(any(String[].class));
+  }
+
+  @Test
+  void transferBatch_WithValidItems_ShouldLockOnceAndPostAllItems() {
+    // Arrange
+    when(accountLockService.lockAccounts("SOURCE-ACC-123", "DEST-ACC-456")).thenReturn(
+        Map.of("SOURCE-ACC-123", sourceAccount, "DEST-ACC-456", destinationAccount));
+    when(transactionIdGenerator.nextTransactionId()).thenReturn("TX0000000000001",
+        "TX0000000000002");
+    when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    TransferDTO back = TransferDTO.builder()
+        .sourceAccountNumber("DEST-ACC-456")
+        .destinationAccountNumber("SOURCE-ACC-123")
+        .amount(new BigDecimal("50.00"))
+        .build();
+    BatchTransferRequestDTO request = BatchTransferRequestDTO.builder()
+        .transfers(List.of(transferDTO, back))
+        .build();
+
+    // Act
+    BatchTransferResultDTO result = transactionService.transferBatch(request);
+
+    // Assert
+    assertTrue(result.isCommitted());
+    assertEquals(2, result.getSucceeded());
+    assertEquals(0, result.getFailed());
+    assertEquals("TX0000000000002", result.getResults().get(1).getTransaction().getTransactionId());
+    assertEquals(new BigDecimal("850.00"), sourceAccount.getBalance());
+    assertEquals(new BigDecimal("650.00"), destinationAccount.getBalance());
+
+    verify(accountLockService, times(1)).lockAccounts(any(String[].class));
+    verify(transactionRepository, times(1)).saveAll(anyList());
+    verify(transactionRepository, never()).save(any(Transaction.class));
+  }
+
+  @Test
+  void transferBatch_AllOrNothingWithFailedItem_ShouldPostNothing() {
+    // Arrange
+    when(accountLockService.lockAccounts("SOURCE-ACC-123", "DEST-ACC-456")).thenReturn(
+        Map.of("SOURCE-ACC-123", sourceAccount, "DEST-ACC-456", destinationAccount));
+
+    TransferDTO tooLarge = TransferDTO.builder()
+        .sourceAccountNumber("SOURCE-ACC-123")
+        .destinationAccountNumber("DEST-ACC-456")
+        .amount(new BigDecimal("900.00"))
+        .build();
+    BatchTransferRequestDTO request = BatchTransferRequestDTO.builder()
+        .mode(BatchTransferRequestDTO.Mode.ALL_OR_NOTHING)
+        .transfers(List.of(transferDTO, tooLarge))
+        .build();
+
+    // Act
+    BatchTransferResultDTO result = transactionService.transferBatch(request);
+
+    // Assert: the second item only fails because of the balance left by the first one
+    assertFalse(result.isCommitted());
+    assertEquals(BatchTransferResultDTO.ItemStatus.NOT_POSTED, result.getResults().get(0).getStatus());
+    assertEquals(BatchTransferResultDTO.ItemStatus.FAILED, result.getResults().get(1).getStatus());
+    assertEquals("InsufficientFundsException", result.getResults().get(1).getErrorCode());
+    assertEquals(new BigDecimal("1000.00"), sourceAccount.getBalance());
+    assertEquals(new BigDecimal("500.00"), destinationAccount.getBalance());
+
+    verify(transactionRepository, never()).saveAll(anyList());
+    verify(metricsService, times(1)).recordExceptionOccurred("InsufficientFundsException",
+        "transferBatch");
+  }
+
+  @Test
+  void transferBatch_BestEffortWithFailedItems_ShouldPostValidItemsOnly() {
+    // Arrange
+    when(accountLockService.lockAccounts("SOURCE-ACC-123", "UNKNOWN-ACC", "DEST-ACC-456"))
+        .thenReturn(Map.of("SOURCE-ACC-123", sourceAccount, "DEST-ACC-456", destinationAccount));
+    when(transactionIdGenerator.nextTransactionId()).thenReturn("TX0000000000001");
+    when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    TransferDTO unknownDestination = TransferDTO.builder()
+        .sourceAccountNumber("SOURCE-ACC-123")
+        .destinationAccountNumber("UNKNOWN-ACC")
+        .amount(new BigDecimal("10.00"))
+        .build();
+    BatchTransferRequestDTO request = BatchTransferRequestDTO.builder()
+        .mode(BatchTransferRequestDTO.Mode.BEST_EFFORT)
+        .transfers(List.of(unknownDestination, transferDTO))
+        .build();
+
+    // Act
+    BatchTransferResultDTO result = transactionService.transferBatch(request);
+
+    // Assert
+    assertTrue(result.isCommitted());
+    assertEquals(1, result.getSucceeded());
+    assertEquals(1, result.getFailed());
+    assertEquals("Destination account not found with number: UNKNOWN-ACC",
+        result.getResults().get(0).getErrorMessage());
+    assertEquals(BatchTransferResultDTO.ItemStatus.COMPLETED, result.getResults().get(1).getStatus());
+    assertEquals(new BigDecimal("800.00"), sourceAccount.getBalance());
+    assertEquals(new BigDecimal("700.00"), destinationAccount.getBalance());
+  }
+
+  @Test
+  void transferBatch_WithEmptyBatch_ShouldThrowException() {
+    // Arrange
+    BatchTransferRequestDTO request = BatchTransferRequestDTO.builder()
+        .transfers(List.of())
+        .build();
+
+    // Act & Assert
+    assertThrows(InvalidTransactionException.class, () -> transactionService.transferBatch(request));
+    verify(accountLockService, never()).lockAccounts(any(String[].class));
+  }
+
+  @Test
+  void payout_WithValidItems_ShouldDebitTotalOnceAndLinkTransactionsByBatchId() {
+    // Arrange
+    Account secondDestination = new Account();
+    secondDestination.setId(3L);
+    secondDestination.setAccountNumber("DEST-ACC-789");
+    secondDestination.setBalance(BigDecimal.ZERO);
+    secondDestination.setStatus(Account.AccountStatus.ACTIVE);
+
+    when(accountRepository.findFundsByAccountNumber("SOURCE-ACC-123")).thenReturn(
+        Optional.of(fundsView(new BigDecimal("1000.00"), Account.AccountStatus.ACTIVE)));
+    when(accountLockService.lockAccounts("SOURCE-ACC-123", "DEST-ACC-456", "DEST-ACC-789"))
+        .thenReturn(Map.of("SOURCE-ACC-123", sourceAccount, "DEST-ACC-456", destinationAccount,
+            "DEST-ACC-789", secondDestination));
+    when(transactionIdGenerator.nextTransactionId()).thenReturn("TX0000000000001",
+        "TX0000000000002", "TX0000000000003");
+    when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    PayoutRequestDTO request = PayoutRequestDTO.builder()
+        .sourceAccountNumber("SOURCE-ACC-123")
+        .description("Merchant payout")
+        .payouts(List.of(
+            PayoutItemDTO.builder().destinationAccountNumber("DEST-ACC-456")
+                .amount(new BigDecimal("100.00")).build(),
+            PayoutItemDTO.builder().destinationAccountNumber("DEST-ACC-789")
+                .amount(new BigDecimal("50.00")).build(),
+            PayoutItemDTO.builder().destinationAccountNumber("DEST-ACC-456")
+                .amount(new BigDecimal("25.00")).description("Adjustment").build()))
+        .build();
+
+    // Act
+    PayoutResultDTO result = transactionService.payout(request);
+
+    // Assert
+    assertEquals(new BigDecimal("175.00"), result.getTotalAmount());
+    assertEquals(new BigDecimal("825.00"), sourceAccount.getBalance());
+    assertEquals(new BigDecimal("625.00"), destinationAccount.getBalance());
+    assertEquals(new BigDecimal("50.00"), secondDestination.getBalance());
+    assertEquals(3, result.getTransactions().size());
+    assertTrue(result.getTransactions().stream()
+        .allMatch(transaction -> result.getBatchId().equals(transaction.getBatchId())));
+    assertEquals("Merchant payout", result.getTransactions().get(0).getDescription());
+    assertEquals("Adjustment", result.getTransactions().get(2).getDescription());
+
+    verify(accountLockService, times(1)).lockAccounts(any(String[].class));
+    verify(transactionRepository, times(1)).saveAll(anyList());
+  }
+
+  @Test
+  void payout_WithTotalAboveBalance_ShouldThrowBeforeLocking() {
+    // Arrange
+    when(accountRepository.findFundsByAccountNumber("SOURCE-ACC-123")).thenReturn(
+        Optional.of(fundsView(new BigDecimal("100.00"), Account.AccountStatus.ACTIVE)));
+
+    PayoutRequestDTO request = PayoutRequestDTO.builder()
+        .sourceAccountNumber("SOURCE-ACC-123")
+        .payouts(List.of(
+            PayoutItemDTO.builder().destinationAccountNumber("DEST-ACC-456")
+                .amount(new BigDecimal("60.00")).build(),
+            PayoutItemDTO.builder().destinationAccountNumber("DEST-ACC-789")
+                .amount(new BigDecimal("60.00")).build()))
+        .build();
+
+    // Act & Assert
+    assertThrows(InsufficientFundsException.class, () -> transactionService.payout(request));
+    verify(accountLockService, never()).lockAccounts(any(String[].class));
+    verify(metricsService, times(1)).recordExceptionOccurred("InsufficientFundsException",
+        "payout");
+  }
+
+  @Test
+  void payout_WithInactiveDestination_ShouldThrowException() {
+    // Arrange
+    destinationAccount.setStatus(Account.AccountStatus.BLOCKED);
+    when(accountRepository.findFundsByAccountNumber("SOURCE-ACC-123")).thenReturn(
+        Optional.of(fundsView(new BigDecimal("1000.00"), Account.AccountStatus.ACTIVE)));
+    when(accountLockService.lockAccounts("SOURCE-ACC-123", "DEST-ACC-456")).thenReturn(
+        Map.of("SOURCE-ACC-123", sourceAccount, "DEST-ACC-456", destinationAccount));
+
+    PayoutRequestDTO request = PayoutRequestDTO.builder()
+        .sourceAccountNumber("SOURCE-ACC-123")
+        .payouts(List.of(PayoutItemDTO.builder().destinationAccountNumber("DEST-ACC-456")
+            .amount(new BigDecimal("10.00")).build()))
+        .build();
+
+    // Act & Assert
+    InvalidTransactionException exception = assertThrows(InvalidTransactionException.class,
+        () -> transactionService.payout(request));
+    assertEquals("Destination account is not active: DEST-ACC-456", exception.getMessage());
+    assertEquals(new BigDecimal("1000.00"), sourceAccount.getBalance());
+    verify(transactionRepository, never()).saveAll(anyList());
+  }
+
   @Test
   void deposit_WithValidParams_ShouldCompleteDepositSuccessfully() {
     // Arrange
     when(accountRepository.findByAccountNumberWithLock("DEST-ACC-456")).thenReturn(
         Optional.of(destinationAccount));
 
-    Transaction pendingTransaction = new Transaction();
-    pendingTransaction.setId(1L);
-    pendingTransaction.setTransactionId(UUID.randomUUID().toString());
-    pendingTransaction.setAmount(new BigDecimal("300.00"));
-    pendingTransaction.setType(Transaction.TransactionType.DEPOSIT);
-    pendingTransaction.setStatus(Transaction.TransactionStatus.PENDING);
-
-    when(transactionRepository.save(any(Transaction.class))).thenReturn(pendingTransaction);
+    String generatedTransactionId = "TX0A1B2C3D4E5F6";
+    when(transactionIdGenerator.nextTransactionId()).thenReturn(generatedTransactionId);
+    when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+      Transaction saved = invocation.getArgument(0);
+      saved.setId(1L);
+      return saved;
+    });
     when(accountRepository.save(any(Account.class))).thenAnswer(
         invocation -> invocation.getArgument(0));
 
@@ -405,11 +832,11 @@ class TransactionServiceTest {
 
     // Assert
     assertNotNull(result);
-    assertEquals(pendingTransaction.getTransactionId(), result.getTransactionId());
+    assertEquals(generatedTransactionId, result.getTransactionId());
     assertEquals(Transaction.TransactionType.DEPOSIT, result.getType());
 
     verify(accountRepository, times(1)).findByAccountNumberWithLock("DEST-ACC-456");
-    verify(transactionRepository, times(2)).save(any(Transaction.class));
+    verify(transactionRepository, times(1)).save(any(Transaction.class));
     verify(accountRepository, times(1)).save(destinationAccount);
     verify(metricsService, times(1)).recordTransactionProcessed("DEPOSIT", new BigDecimal("300.00"),
         true);
@@ -423,14 +850,13 @@ class TransactionServiceTest {
     when(accountRepository.findByAccountNumberWithLock("SOURCE-ACC-123")).thenReturn(
         Optional.of(sourceAccount));
 
-    Transaction pendingTransaction = new Transaction();
-    pendingTransaction.setId(1L);
-    pendingTransaction.setTransactionId(UUID.randomUUID().toString());
-    pendingTransaction.setAmount(new BigDecimal("200.00"));
-    pendingTransaction.setType(Transaction.TransactionType.WITHDRAWAL);
-    pendingTransaction.setStatus(Transaction.TransactionStatus.PENDING);
-
-    when(transactionRepository.save(any(Transaction.class))).thenReturn(pendingTransaction);
+    String generatedTransactionId = "TX0A1B2C3D4E5F6";
+    when(transactionIdGenerator.nextTransactionId()).thenReturn(generatedTransactionId);
+    when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+      Transaction saved = invocation.getArgument(0);
+      saved.setId(1L);
+      return saved;
+    });
     when(accountRepository.save(any(Account.class))).thenAnswer(
         invocation -> invocation.getArgument(0));
 
@@ -440,11 +866,11 @@ class TransactionServiceTest {
 
     // Assert
     assertNotNull(result);
-    assertEquals(pendingTransaction.getTransactionId(), result.getTransactionId());
+    assertEquals(generatedTransactionId, result.getTransactionId());
     assertEquals(Transaction.TransactionType.WITHDRAWAL, result.getType());
 
     verify(accountRepository, times(1)).findByAccountNumberWithLock("SOURCE-ACC-123");
-    verify(transactionRepository, times(2)).save(any(Transaction.class));
+    verify(transactionRepository, times(1)).save(any(Transaction.class));
     verify(accountRepository, times(1)).save(sourceAccount);
     verify(metricsService, times(1)).recordTransactionProcessed("WITHDRAWAL",
         new BigDecimal("200.00"), true);
@@ -475,4 +901,48 @@ class TransactionServiceTest {
     verify(metricsService, times(1)).recordTransactionProcessed("WITHDRAWAL", withdrawalAmount,
         false);
   }
+
+  private TransactionRepository.TransactionView view(Transaction transaction) {
+    return new TransactionRepository.TransactionView(transaction.getId(),
+        transaction.getTransactionId(), transaction.getAmount(), transaction.getType(),
+        transaction.getDescription(), transaction.getStatus(), transaction.getCreatedAt(),
+        transaction.getProcessedAt(), transaction.getBatchId(),
+        accountNumber(transaction.getSourceAccount()),
+        accountNumber(transaction.getDestinationAccount()));
+  }
+
+  private LedgerEntryRepository.EntryView entryView(LedgerEntry entry) {
+    Transaction transaction = entry.getTransaction();
+    return new LedgerEntryRepository.EntryView(entry.getId(), entry.getPostedAt(),
+        entry.signedAmount(), entry.getBalanceAfter(), transaction.getId(),
+        transaction.getTransactionId(), transaction.getAmount(), transaction.getType(),
+        transaction.getDescription(), transaction.getStatus(), transaction.getCreatedAt(),
+        transaction.getProcessedAt(), transaction.getBatchId(),
+        accountNumber(transaction.getSourceAccount()),
+        accountNumber(transaction.getDestinationAccount()));
+  }
+
+  private static String accountNumber(Account account) {
+    return account == null ? null : account.getAccountNumber();
+  }
+
+  private AccountRepository.FundsView fundsView(BigDecimal balance, Account.AccountStatus status) {
+    return new AccountRepository.FundsView() {
+      @Override
+      public BigDecimal getBalance() {
+        return balance;
+      }
+
+      @Override
+      public Account.AccountStatus getStatus() {
+        return status;
+      }
+    };
+  }
+
+  private void usePostingMode(PostingMode postingMode) {
+    when(postingModeResolver.modeFor(anyString())).thenReturn(postingMode);
+    when(postingModeResolver.modeFor(anyString(), anyString())).thenReturn(postingMode);
+    when(postingModeResolver.defaultMode()).thenReturn(postingMode);
+  }
 }
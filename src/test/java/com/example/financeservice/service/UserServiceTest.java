@@ -4,6 +4,7 @@ import com.example.financeservice.exception.InvalidTokenException;
 import com.example.financeservice.exception.ResourceNotFoundException;
 import com.example.financeservice.model.User;
 import com.example.financeservice.repository.UserRepository;
+import com.example.financeservice.security.TokenAuthenticationCache;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import java.time.LocalDateTime;
@@ -13,6 +14,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -55,6 +57,9 @@ class UserServiceTest {
   @Mock
   private EmailService emailService;
 
+  @Mock
+  private TokenAuthenticationCache tokenAuthenticationCache;
+
   @Mock
   private MeterRegistry meterRegistry;
 
@@ -70,8 +75,10 @@ class UserServiceTest {
   private static class TestUserService extends UserService {
 
     public TestUserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
-        MetricsService metricsService, EmailService emailService) {
-      super(userRepository, passwordEncoder, metricsService, emailService);
+        MetricsService metricsService, EmailService emailService,
+        TokenAuthenticationCache tokenAuthenticationCache) {
+      super(userRepository, passwordEncoder, metricsService, emailService,
+          tokenAuthenticationCache);
     }
 
     @Override
@@ -115,7 +122,7 @@ class UserServiceTest {
     testUser.setRoles(roles);
 
     userService = new TestUserService(userRepository, passwordEncoder, metricsService,
-        emailService);
+        emailService, tokenAuthenticationCache);
 
     // Configurar comportamento padrão para recordRepositoryExecutionTime
     doAnswer(invocation -> {
@@ -372,4 +379,44 @@ class UserServiceTest {
     verify(metricsService, times(1)).recordExceptionOccurred("IllegalArgumentException",
         "updateUser");
   }
-}
\ No newline at end of file
+
+  @Test
+  void updateUserStatus_ShouldDisableTheUserAndDropTheirTokens() {
+    // Arrange
+    when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+    // Act
+    userService.updateUserStatus(1L, false);
+
+    // Assert
+    assertFalse(testUser.isEnabled());
+    verify(userRepository, times(1)).save(testUser);
+    verify(tokenAuthenticationCache, times(1)).invalidateUserAfterCommit("testuser");
+  }
+
+  @Test
+  void updateUserRoles_ShouldReplaceTheRolesAndDropTheUserTokens() {
+    // Arrange
+    when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+    // Act
+    userService.updateUserRoles(1L, List.of("ROLE_ADMIN"));
+
+    // Assert
+    assertEquals(Set.of("ROLE_ADMIN"), testUser.getRoles());
+    verify(userRepository, times(1)).save(testUser);
+    verify(tokenAuthenticationCache, times(1)).invalidateUserAfterCommit("testuser");
+  }
+
+  @Test
+  void updateUserStatus_WithInvalidId_ShouldThrowException() {
+    // Arrange
+    when(userRepository.findById(999L)).thenReturn(Optional.empty());
+
+    // Act & Assert
+    assertThrows(ResourceNotFoundException.class, () -> userService.updateUserStatus(999L, false));
+    verify(tokenAuthenticationCache, never()).invalidateUserAfterCommit(anyString());
+    verify(metricsService, times(1)).recordExceptionOccurred("ResourceNotFoundException",
+        "updateUserStatus");
+  }
+}